@@ -0,0 +1,98 @@
+package com.example.sticker_art_gallery.gatling;
+
+import io.gatling.javaapi.core.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.example.sticker_art_gallery.gatling.LoadTestSupport.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Генерация v2: POST /api/generation/v2/generate и опрос GET /api/generation/v2/status/{taskId}
+ * до терминального статуса (COMPLETED / FAILED / TIMEOUT) или maxPolls попыток.
+ *
+ * Каждая генерация списывает ART, поэтому сценарий рассчитан на стенд с эмулятором sticker-processor
+ * (см. README в src/test/java/.../benchmark) и пользователей фикстуры с пополненным балансом:
+ * 402 считается ошибкой. Итоговый запрос «final status» помечается KO, если генерация не завершилась
+ * успешно — так доля ошибок отражает и сбои пайплайна, а не только HTTP.
+ *
+ *   Параметр         | Дефолт       | Описание
+ *   -----------------|--------------|------------------------------------------
+ *   model            | flux-schnell | Модель генерации
+ *   pollIntervalMs   | 1000         | Пауза между опросами статуса
+ *   maxPolls         | 60           | Максимум опросов на задачу
+ *   SLO по умолчанию: p95 < 800 мс, p99 < 2000 мс, ошибок < 2%
+ *
+ * Общие параметры (baseUrl, rps, …) — см. LoadTestSupport, параметры пользователей — InitDataFixture.
+ * rps здесь — новых генераций в секунду; разумно начинать с -Drps=1.
+ *
+ * Запуск:
+ *   ./gradlew gatlingRun --non-interactive --simulation=com.example.sticker_art_gallery.gatling.GenerationV2Simulation -DbotToken=... -Drps=1
+ */
+public class GenerationV2Simulation extends Simulation {
+
+    private static final String MODEL = prop("model", "flux-schnell");
+    private static final long POLL_INTERVAL_MS = intProp("pollIntervalMs", 1000);
+    private static final int MAX_POLLS = intProp("maxPolls", 60);
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "FAILED", "TIMEOUT");
+
+    private static final List<String> PROMPTS = List.of(
+            "cute cat in a space suit",
+            "happy corgi with sunglasses",
+            "sleepy panda holding coffee",
+            "angry duck programmer",
+            "robot waving hello"
+    );
+
+    private final ScenarioBuilder generationScenario = scenario("Generation v2 submit and poll")
+            .feed(InitDataFixture.feeder())
+            .feed(listFeeder(PROMPTS.stream().map(p -> Map.<String, Object>of("prompt", p)).toList()).random())
+            .exec(
+                    http("POST /api/generation/v2/generate")
+                            .post("/api/generation/v2/generate")
+                            .header(INIT_DATA_HEADER, "#{initData}")
+                            .requestTimeout(REQUEST_TIMEOUT)
+                            .body(StringBody("{\"prompt\":\"#{prompt}\",\"model\":\"" + MODEL + "\",\"size\":\"512*512\"}"))
+                            .check(status().is(200))
+                            .check(jsonPath("$.taskId").saveAs("taskId"))
+            )
+            .exitHereIfFailed()
+            .exec(session -> session.set("generationStatus", "PENDING"))
+            .asLongAs(session -> !TERMINAL_STATUSES.contains(session.getString("generationStatus")), "poll", false).on(
+                    doIfOrElse(session -> session.getInt("poll") >= MAX_POLLS).then(
+                            exec(session -> session.set("generationStatus", "TIMEOUT"))
+                    ).orElse(
+                            pause(Duration.ofMillis(POLL_INTERVAL_MS))
+                                    .exec(
+                                            http("GET /api/generation/v2/status/{taskId}")
+                                                    .get("/api/generation/v2/status/#{taskId}")
+                                                    .header(INIT_DATA_HEADER, "#{initData}")
+                                                    .requestTimeout(REQUEST_TIMEOUT)
+                                                    .check(status().is(200))
+                                                    .check(jsonPath("$.status").saveAs("generationStatus"))
+                                    )
+                    )
+            )
+            .exec(
+                    http("GET /api/generation/v2/status/{taskId} (final)")
+                            .get("/api/generation/v2/status/#{taskId}")
+                            .header(INIT_DATA_HEADER, "#{initData}")
+                            .requestTimeout(REQUEST_TIMEOUT)
+                            .check(status().is(200))
+                            .check(jsonPath("$.status").is("COMPLETED"))
+            );
+
+    {
+        printBanner("GENERATION V2",
+                String.format("Model:    %s, опрос каждые %d мс, максимум %d раз", MODEL, POLL_INTERVAL_MS, MAX_POLLS));
+
+        setUp(generationScenario.injectOpen(openProfile()))
+                .protocols(httpProtocol())
+                .assertions(slo(800, 2000, 2.0));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.sticker_art_gallery.gatling;
+
+import io.gatling.javaapi.core.*;
+
+import static com.example.sticker_art_gallery.gatling.LoadTestSupport.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Аутентифицированный трафик от большого числа различных пользователей: проверка подписи initData,
+ * загрузка/регистрация пользователя и лёгкие чтения без тяжёлой бизнес-логики.
+ *
+ * Фикстура по умолчанию — 20000 пользователей, фидер выбирает их случайно, поэтому кэши
+ * аутентификации работают с реалистичной долей промахов, а первые запросы новых пользователей
+ * проходят через регистрацию. Дефолт users переопределяется через -Dusers.
+ *
+ *   Параметр         | Дефолт | Описание
+ *   -----------------|--------|------------------------------------------
+ *   users            | 20000  | Различных пользователей в фикстуре
+ *   SLO по умолчанию: p95 < 300 мс, p99 < 800 мс, ошибок < 0.5%
+ *
+ * Общие параметры (baseUrl, rps, …) — см. LoadTestSupport, остальные параметры фикстуры — InitDataFixture.
+ *
+ * Запуск:
+ *   ./gradlew gatlingRun --non-interactive --simulation=com.example.sticker_art_gallery.gatling.InitDataAuthSimulation -DbotToken=... -Drps=50
+ */
+public class InitDataAuthSimulation extends Simulation {
+
+    static {
+        if (System.getProperty("users") == null) {
+            System.setProperty("users", "20000");
+        }
+    }
+
+    private final ScenarioBuilder authScenario = scenario("initData-authenticated traffic")
+            .feed(InitDataFixture.feeder())
+            .exec(
+                    http("GET /api/profiles/me")
+                            .get("/api/profiles/me")
+                            .header(INIT_DATA_HEADER, "#{initData}")
+                            .requestTimeout(REQUEST_TIMEOUT)
+                            .check(status().is(200))
+            )
+            .exec(
+                    http("GET /api/stickersets (authenticated)")
+                            .get("/api/stickersets")
+                            .header(INIT_DATA_HEADER, "#{initData}")
+                            .requestTimeout(REQUEST_TIMEOUT)
+                            .queryParam("page", "0")
+                            .queryParam("size", "20")
+                            .queryParam("shortInfo", "true")
+                            .check(status().is(200))
+                            .check(jsonPath("$.content").exists())
+            );
+
+    {
+        printBanner("INITDATA AUTH",
+                String.format("Users:    %s различных пользователей", System.getProperty("users")));
+
+        setUp(authScenario.injectOpen(openProfile()))
+                .protocols(httpProtocol())
+                .assertions(slo(300, 800, 0.5));
+    }
+}
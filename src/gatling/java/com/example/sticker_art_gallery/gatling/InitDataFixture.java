@@ -0,0 +1,129 @@
+package com.example.sticker_art_gallery.gatling;
+
+import io.gatling.javaapi.core.FeederBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static io.gatling.javaapi.core.CoreDsl.listFeeder;
+
+/**
+ * Фикстура подписанных Telegram initData для нагрузочных сценариев.
+ *
+ * Подпись считается так же, как в TelegramInitDataValidator: secretKey = HMAC_SHA256("WebAppData", botToken),
+ * hash = hex(HMAC_SHA256(secretKey, dataCheckString)). Классы приложения Gatling недоступны
+ * (includeMainOutput = false), поэтому алгоритм продублирован здесь.
+ *
+ * Пользователи — userIdBase, userIdBase+1, … (users штук); auth_date = момент генерации,
+ * поэтому фикстура действительна 24 часа (MAX_AUTH_AGE_SECONDS валидатора).
+ * Бот-токен должен совпадать с TELEGRAM_BOT_TOKEN тестируемого приложения.
+ *
+ *   Параметр     | Дефолт       | Описание
+ *   -------------|--------------|--------------------------------------------
+ *   botToken     | 123:emulated | Токен бота, которым подписывается initData
+ *   users        | 1000         | Количество различных пользователей
+ *   userIdBase   | 900000000    | Telegram ID первого пользователя
+ *
+ * CSV для внешних инструментов (userId,initData):
+ *   ./gradlew gatlingInitDataFixture -DbotToken=... -Dusers=10000
+ */
+public final class InitDataFixture {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private InitDataFixture() {
+    }
+
+    /**
+     * Фидер с различными пользователями по параметрам запуска: атрибуты userId и initData
+     */
+    public static FeederBuilder<Object> feeder() {
+        return listFeeder(users(
+                LoadTestSupport.prop("botToken", "123:emulated"),
+                LoadTestSupport.longProp("userIdBase", 900_000_000L),
+                LoadTestSupport.intProp("users", 1000)
+        )).random();
+    }
+
+    public static List<Map<String, Object>> users(String botToken, long userIdBase, int count) {
+        long authDate = System.currentTimeMillis() / 1000;
+        List<Map<String, Object>> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long userId = userIdBase + i;
+            Map<String, Object> record = new HashMap<>();
+            record.put("userId", userId);
+            record.put("initData", sign(botToken, userId, "Load" + i, "load_user_" + i, authDate));
+            records.add(record);
+        }
+        return records;
+    }
+
+    public static String sign(String botToken, long userId, String firstName, String username, long authDate) {
+        Map<String, String> params = new TreeMap<>();
+        params.put("auth_date", Long.toString(authDate));
+        params.put("query_id", "LT" + userId);
+        params.put("user", "{\"id\":" + userId
+                + ",\"first_name\":\"" + firstName
+                + "\",\"username\":\"" + username
+                + "\",\"language_code\":\"ru\"}");
+
+        String dataCheckString = params.entrySet().stream()
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining("\n"));
+        byte[] secretKey = hmac("WebAppData".getBytes(StandardCharsets.UTF_8), botToken);
+        params.put("hash", toHex(hmac(secretKey, dataCheckString)));
+
+        return params.entrySet().stream()
+                .map(e -> e.getKey() + "=" + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(key, HMAC_SHA256));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("Не удалось подписать initData", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Записать фикстуру в CSV: первый аргумент — путь (по умолчанию build/gatling-fixtures/init-data.csv)
+     */
+    public static void main(String[] args) throws IOException {
+        Path target = Path.of(args.length > 0 ? args[0] : "build/gatling-fixtures/init-data.csv");
+        List<Map<String, Object>> users = users(
+                LoadTestSupport.prop("botToken", "123:emulated"),
+                LoadTestSupport.longProp("userIdBase", 900_000_000L),
+                LoadTestSupport.intProp("users", 1000));
+
+        List<String> lines = new ArrayList<>(users.size() + 1);
+        lines.add("userId,initData");
+        users.forEach(u -> lines.add(u.get("userId") + "," + u.get("initData")));
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Files.write(target, lines, StandardCharsets.UTF_8);
+        System.out.printf("✅ initData для %d пользователей записаны в %s%n", users.size(), target.toAbsolutePath());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.sticker_art_gallery.gatling;
+
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.OpenInjectionStep;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+import java.util.List;
+
+import static io.gatling.javaapi.core.CoreDsl.constantUsersPerSec;
+import static io.gatling.javaapi.core.CoreDsl.forAll;
+import static io.gatling.javaapi.core.CoreDsl.global;
+import static io.gatling.javaapi.core.CoreDsl.rampUsersPerSec;
+import static io.gatling.javaapi.http.HttpDsl.http;
+
+/**
+ * Общие параметры сценариев по подсистемам: протокол, профиль нагрузки и SLO-гейты.
+ *
+ * Сценарии создают данные (лайки, генерации, пользователей), поэтому по умолчанию
+ * нацелены на локальный стенд, а не на прод.
+ *
+ *   Параметр          | Дефолт                | Описание
+ *   ------------------|-----------------------|------------------------------------------------
+ *   baseUrl           | http://localhost:8080 | Адрес приложения
+ *   rps               | 10                    | Новых виртуальных пользователей в секунду на плато
+ *   rampSeconds       | 30                    | Разгон от 1 до rps
+ *   durationSeconds   | 120                   | Длительность плато
+ *   requestTimeoutMs  | 5000                  | Таймаут запроса (после которого Gatling пишет KO)
+ *   slo.p95Ms         | свой у сценария       | Порог p95 для каждого запроса
+ *   slo.p99Ms         | свой у сценария       | Порог p99 для каждого запроса
+ *   slo.errorPercent  | свой у сценария       | Допустимая доля KO по всем запросам, %
+ *
+ * При нарушении SLO gatlingRun завершается с ошибкой — сценарий работает как регрессионный гейт.
+ */
+final class LoadTestSupport {
+
+    static final String INIT_DATA_HEADER = "X-Telegram-Init-Data";
+
+    static final String BASE_URL = prop("baseUrl", "http://localhost:8080");
+    static final double RPS = doubleProp("rps", 10);
+    static final int RAMP_SECONDS = intProp("rampSeconds", 30);
+    static final int DURATION_SECONDS = intProp("durationSeconds", 120);
+    static final Duration REQUEST_TIMEOUT = Duration.ofMillis(intProp("requestTimeoutMs", 5000));
+
+    private LoadTestSupport() {
+    }
+
+    static String prop(String name, String defaultValue) {
+        return System.getProperty(name, defaultValue);
+    }
+
+    static int intProp(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, Integer.toString(defaultValue)));
+    }
+
+    static long longProp(String name, long defaultValue) {
+        return Long.parseLong(System.getProperty(name, Long.toString(defaultValue)));
+    }
+
+    static double doubleProp(String name, double defaultValue) {
+        return Double.parseDouble(System.getProperty(name, Double.toString(defaultValue)));
+    }
+
+    static HttpProtocolBuilder httpProtocol() {
+        return http
+                .baseUrl(BASE_URL)
+                .acceptHeader("application/json")
+                .contentTypeHeader("application/json")
+                .userAgentHeader("Gatling-LoadTest/1.0")
+                .shareConnections();
+    }
+
+    /**
+     * Разгон до rps за rampSeconds, затем плато durationSeconds
+     */
+    static List<OpenInjectionStep> openProfile() {
+        return List.of(
+                rampUsersPerSec(1).to(RPS).during(Duration.ofSeconds(RAMP_SECONDS)),
+                constantUsersPerSec(RPS).during(Duration.ofSeconds(DURATION_SECONDS))
+        );
+    }
+
+    /**
+     * p95/p99 проверяются для каждого запроса отдельно, доля ошибок — по всем запросам
+     */
+    static List<Assertion> slo(int p95Ms, int p99Ms, double errorPercent) {
+        return List.of(
+                forAll().responseTime().percentile(95.0).lt(intProp("slo.p95Ms", p95Ms)),
+                forAll().responseTime().percentile(99.0).lt(intProp("slo.p99Ms", p99Ms)),
+                global().failedRequests().percent().lt(doubleProp("slo.errorPercent", errorPercent))
+        );
+    }
+
+    static void printBanner(String title, String... lines) {
+        StringBuilder banner = new StringBuilder()
+                .append(String.format("%n=== %s ===%n", title))
+                .append(String.format("  Target:   %s%n", BASE_URL))
+                .append(String.format("  Load:     1 → %.0f users/sec за %d сек, плато %d сек%n", RPS, RAMP_SECONDS, DURATION_SECONDS));
+        for (String line : lines) {
+            banner.append("  ").append(line).append(System.lineSeparator());
+        }
+        System.out.print(banner);
+    }
+}
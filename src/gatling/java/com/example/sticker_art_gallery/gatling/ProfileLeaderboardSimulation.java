@@ -0,0 +1,78 @@
+package com.example.sticker_art_gallery.gatling;
+
+import io.gatling.javaapi.core.*;
+
+import java.time.Duration;
+
+import static com.example.sticker_art_gallery.gatling.LoadTestSupport.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Страницы рейтингов и профилей: рейтинг пользователей и авторов, затем профиль случайного
+ * пользователя из рейтинга и собственный профиль (GET /api/profiles/me).
+ *
+ *   Параметр         | Дефолт | Описание
+ *   -----------------|--------|------------------------------------------
+ *   thinkTimeMs      | 500    | Пауза между страницами
+ *   SLO по умолчанию: p95 < 500 мс, p99 < 1200 мс, ошибок < 1%
+ *
+ * Общие параметры (baseUrl, rps, …) — см. LoadTestSupport, параметры пользователей — InitDataFixture.
+ *
+ * Запуск:
+ *   ./gradlew gatlingRun --non-interactive --simulation=com.example.sticker_art_gallery.gatling.ProfileLeaderboardSimulation -DbotToken=...
+ */
+public class ProfileLeaderboardSimulation extends Simulation {
+
+    private static final long THINK_TIME_MS = intProp("thinkTimeMs", 500);
+
+    private final ScenarioBuilder profileScenario = scenario("Profiles and leaderboards")
+            .feed(InitDataFixture.feeder())
+            .exec(
+                    http("GET /api/users/leaderboard")
+                            .get("/api/users/leaderboard")
+                            .header(INIT_DATA_HEADER, "#{initData}")
+                            .requestTimeout(REQUEST_TIMEOUT)
+                            .queryParam("page", "0")
+                            .queryParam("size", "20")
+                            .check(status().is(200))
+                            .check(jsonPath("$.content[*].userId").findRandom().optional().saveAs("leaderId"))
+            )
+            .pause(Duration.ofMillis(THINK_TIME_MS))
+            .exec(
+                    http("GET /api/authors/leaderboard")
+                            .get("/api/authors/leaderboard")
+                            .header(INIT_DATA_HEADER, "#{initData}")
+                            .requestTimeout(REQUEST_TIMEOUT)
+                            .queryParam("page", "0")
+                            .queryParam("size", "20")
+                            .check(status().is(200))
+                            .check(jsonPath("$.content").exists())
+            )
+            .pause(Duration.ofMillis(THINK_TIME_MS))
+            .doIf(session -> session.contains("leaderId")).then(
+                    exec(
+                            http("GET /api/users/{id}/profile")
+                                    .get("/api/users/#{leaderId}/profile")
+                                    .header(INIT_DATA_HEADER, "#{initData}")
+                                    .requestTimeout(REQUEST_TIMEOUT)
+                                    .check(status().is(200))
+                    ).pause(Duration.ofMillis(THINK_TIME_MS))
+            )
+            .exec(
+                    http("GET /api/profiles/me")
+                            .get("/api/profiles/me")
+                            .header(INIT_DATA_HEADER, "#{initData}")
+                            .requestTimeout(REQUEST_TIMEOUT)
+                            .check(status().is(200))
+            );
+
+    {
+        printBanner("PROFILES AND LEADERBOARDS",
+                String.format("Think:    %d мс между страницами", THINK_TIME_MS));
+
+        setUp(profileScenario.injectOpen(openProfile()))
+                .protocols(httpProtocol())
+                .assertions(slo(500, 1200, 1.0));
+    }
+}
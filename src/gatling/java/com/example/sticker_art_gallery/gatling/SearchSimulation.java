@@ -0,0 +1,70 @@
+package com.example.sticker_art_gallery.gatling;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.sticker_art_gallery.gatling.LoadTestSupport.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Поиск: GET /api/stickersets/search по набору запросов, первая страница и с вероятностью
+ * nextPagePercent — вторая, как при прокрутке выдачи.
+ *
+ *   Параметр         | Дефолт                         | Описание
+ *   -----------------|--------------------------------|------------------------------------
+ *   queries          | cat,dog,мем,love,anime,pepe,ok | Поисковые запросы через запятую
+ *   nextPagePercent  | 30                             | Доля поисков с переходом на 2-ю страницу, %
+ *   SLO по умолчанию: p95 < 600 мс, p99 < 1500 мс, ошибок < 1%
+ *
+ * Общие параметры (baseUrl, rps, …) — см. LoadTestSupport, параметры пользователей — InitDataFixture.
+ *
+ * Запуск:
+ *   ./gradlew gatlingRun --non-interactive --simulation=com.example.sticker_art_gallery.gatling.SearchSimulation -DbotToken=...
+ */
+public class SearchSimulation extends Simulation {
+
+    private static final List<String> QUERIES = Arrays.stream(prop("queries", "cat,dog,мем,love,anime,pepe,ok").split(","))
+            .map(String::trim)
+            .filter(q -> !q.isEmpty())
+            .toList();
+    private static final double NEXT_PAGE_PERCENT = doubleProp("nextPagePercent", 30);
+
+    /**
+     * Страница выдачи; имя запроса одно для всех страниц, чтобы SLO считалось по поиску в целом
+     */
+    private static HttpRequestActionBuilder searchPage(int page) {
+        return http("GET /api/stickersets/search")
+                .get("/api/stickersets/search")
+                .header(INIT_DATA_HEADER, "#{initData}")
+                .requestTimeout(REQUEST_TIMEOUT)
+                .queryParam("query", "#{query}")
+                .queryParam("page", String.valueOf(page))
+                .queryParam("size", "20")
+                .check(status().is(200))
+                .check(jsonPath("$.content").exists());
+    }
+
+    private final ScenarioBuilder searchScenario = scenario("Stickerset search")
+            .feed(InitDataFixture.feeder())
+            .feed(listFeeder(QUERIES.stream().map(q -> Map.<String, Object>of("query", q)).toList()).random())
+            .exec(searchPage(0))
+            .randomSwitch().on(
+                    percent(NEXT_PAGE_PERCENT).then(
+                            pause(Duration.ofMillis(500)).exec(searchPage(1)))
+            );
+
+    {
+        printBanner("STICKERSET SEARCH",
+                String.format("Queries:  %s, 2-я страница в %.0f%% поисков", QUERIES, NEXT_PAGE_PERCENT));
+
+        setUp(searchScenario.injectOpen(openProfile()))
+                .protocols(httpProtocol())
+                .assertions(slo(600, 1500, 1.0));
+    }
+}
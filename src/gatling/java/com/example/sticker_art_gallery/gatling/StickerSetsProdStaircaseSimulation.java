@@ -28,10 +28,10 @@ import static io.gatling.javaapi.http.HttpDsl.*;
  *   requestTimeoutMs      | 5000   | Таймаут запроса (после которого Gatling пишет KO)
  *
  * Запуск (дефолты — 20 ступеней по 30 сек, итого ~13 минут):
- *   ./gradlew gatlingRun --non-interactive
+ *   ./gradlew gatlingRun --non-interactive --simulation=com.example.sticker_art_gallery.gatling.StickerSetsProdStaircaseSimulation
  *
  * Быстрый тест (5 ступеней по 10 сек):
- *   ./gradlew gatlingRun --non-interactive -DstartRps=1 -DstepRps=1 -Dsteps=5 -DstepDurationSeconds=10 -DrampSeconds=5
+ *   ./gradlew gatlingRun --non-interactive --simulation=com.example.sticker_art_gallery.gatling.StickerSetsProdStaircaseSimulation -DstartRps=1 -DstepRps=1 -Dsteps=5 -DstepDurationSeconds=10 -DrampSeconds=5
  *
  * Отчёт появится в: build/reports/gatling/<имя симуляции>-<timestamp>/index.html
  */
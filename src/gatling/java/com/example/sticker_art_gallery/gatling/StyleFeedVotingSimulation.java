@@ -0,0 +1,75 @@
+package com.example.sticker_art_gallery.gatling;
+
+import io.gatling.javaapi.core.*;
+
+import java.time.Duration;
+
+import static com.example.sticker_art_gallery.gatling.LoadTestSupport.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Голосование в ленте стилей: GET /api/style-feed/feed/next и лайк/дизлайк выданной записи с isSwipe=true.
+ *
+ * 204 (лента закончилась) и 429 (лимит свайпов) — штатные ответы: голосования в этом шаге нет.
+ *
+ *   Параметр         | Дефолт | Описание
+ *   -----------------|--------|------------------------------------------
+ *   votes            | 10     | Записей ленты на пользователя
+ *   likePercent      | 50     | Доля лайков среди голосов, %
+ *   thinkTimeMs      | 500    | Пауза между записями
+ *   SLO по умолчанию: p95 < 400 мс, p99 < 1000 мс, ошибок < 1%
+ *
+ * Общие параметры (baseUrl, rps, …) — см. LoadTestSupport, параметры пользователей — InitDataFixture.
+ *
+ * Запуск:
+ *   ./gradlew gatlingRun --non-interactive --simulation=com.example.sticker_art_gallery.gatling.StyleFeedVotingSimulation -DbotToken=...
+ */
+public class StyleFeedVotingSimulation extends Simulation {
+
+    private static final int VOTES = intProp("votes", 10);
+    private static final double LIKE_PERCENT = doubleProp("likePercent", 50);
+    private static final long THINK_TIME_MS = intProp("thinkTimeMs", 500);
+
+    private final ScenarioBuilder styleFeedScenario = scenario("Style feed voting")
+            .feed(InitDataFixture.feeder())
+            .repeat(VOTES).on(
+                    exec(session -> session.remove("itemId"))
+                            .exec(
+                                    http("GET /api/style-feed/feed/next")
+                                            .get("/api/style-feed/feed/next")
+                                            .header(INIT_DATA_HEADER, "#{initData}")
+                                            .requestTimeout(REQUEST_TIMEOUT)
+                                            .check(status().in(200, 204, 429))
+                                            .check(jsonPath("$.id").optional().saveAs("itemId"))
+                            )
+                            .doIf(session -> session.contains("itemId")).then(
+                                    randomSwitch().on(
+                                            percent(LIKE_PERCENT).then(exec(
+                                                    http("POST /api/style-feed/{id}/like")
+                                                            .post("/api/style-feed/#{itemId}/like")
+                                                            .header(INIT_DATA_HEADER, "#{initData}")
+                                                            .requestTimeout(REQUEST_TIMEOUT)
+                                                            .queryParam("isSwipe", "true")
+                                                            .check(status().in(200, 429)))),
+                                            percent(100.0 - LIKE_PERCENT).then(exec(
+                                                    http("POST /api/style-feed/{id}/dislike")
+                                                            .post("/api/style-feed/#{itemId}/dislike")
+                                                            .header(INIT_DATA_HEADER, "#{initData}")
+                                                            .requestTimeout(REQUEST_TIMEOUT)
+                                                            .queryParam("isSwipe", "true")
+                                                            .check(status().in(200, 429))))
+                                    )
+                            )
+                            .pause(Duration.ofMillis(THINK_TIME_MS))
+            );
+
+    {
+        printBanner("STYLE FEED VOTING",
+                String.format("Votes:    %d на пользователя, лайков %.0f%%", VOTES, LIKE_PERCENT));
+
+        setUp(styleFeedScenario.injectOpen(openProfile()))
+                .protocols(httpProtocol())
+                .assertions(slo(400, 1000, 1.0));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.sticker_art_gallery.gatling;
+
+import io.gatling.javaapi.core.*;
+
+import java.time.Duration;
+
+import static com.example.sticker_art_gallery.gatling.LoadTestSupport.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Свайп-лента: GET /api/stickersets/random/batch и лайк/дизлайк каждой карточки с isSwipe=true.
+ *
+ * Каждый виртуальный пользователь — отдельный Telegram-пользователь из InitDataFixture;
+ * он берёт batches пачек и голосует по всем карточкам (likePercent% лайков, остальное — дизлайки).
+ * 429 (дневной лимит свайпов) — штатный ответ и ошибкой не считается.
+ *
+ *   Параметр         | Дефолт | Описание
+ *   -----------------|--------|------------------------------------------
+ *   batches          | 3      | Пачек на пользователя
+ *   batchSize        | 10     | Карточек в пачке
+ *   likePercent      | 60     | Доля лайков среди голосов, %
+ *   thinkTimeMs      | 300    | Пауза между голосами
+ *   SLO по умолчанию: p95 < 500 мс, p99 < 1500 мс, ошибок < 1%
+ *
+ * Общие параметры (baseUrl, rps, …) — см. LoadTestSupport, параметры пользователей — InitDataFixture.
+ *
+ * Запуск:
+ *   ./gradlew gatlingRun --non-interactive --simulation=com.example.sticker_art_gallery.gatling.SwipeLoopSimulation -DbotToken=...
+ */
+public class SwipeLoopSimulation extends Simulation {
+
+    private static final int BATCHES = intProp("batches", 3);
+    private static final int BATCH_SIZE = intProp("batchSize", 10);
+    private static final double LIKE_PERCENT = doubleProp("likePercent", 60);
+    private static final long THINK_TIME_MS = intProp("thinkTimeMs", 300);
+
+    private final ScenarioBuilder swipeScenario = scenario("Swipe loop")
+            .feed(InitDataFixture.feeder())
+            .repeat(BATCHES).on(
+                    exec(session -> session.remove("ids"))
+                            .exec(
+                                    http("GET /api/stickersets/random/batch")
+                                            .get("/api/stickersets/random/batch")
+                                            .header(INIT_DATA_HEADER, "#{initData}")
+                                            .requestTimeout(REQUEST_TIMEOUT)
+                                            .queryParam("page", "0")
+                                            .queryParam("size", String.valueOf(BATCH_SIZE))
+                                            .queryParam("preview", "true")
+                                            .check(status().in(200, 429))
+                                            .check(jsonPath("$.content[*].id").findAll().optional().saveAs("ids"))
+                            )
+                            .doIf(session -> session.contains("ids")).then(
+                                    foreach("#{ids}", "stickerSetId").on(
+                                            randomSwitch().on(
+                                                    percent(LIKE_PERCENT).then(exec(
+                                                            http("POST /api/likes/stickersets/{id}")
+                                                                    .post("/api/likes/stickersets/#{stickerSetId}")
+                                                                    .header(INIT_DATA_HEADER, "#{initData}")
+                                                                    .requestTimeout(REQUEST_TIMEOUT)
+                                                                    .queryParam("isSwipe", "true")
+                                                                    .check(status().in(200, 429)))),
+                                                    percent(100.0 - LIKE_PERCENT).then(exec(
+                                                            http("POST /api/dislikes/stickersets/{id}")
+                                                                    .post("/api/dislikes/stickersets/#{stickerSetId}")
+                                                                    .header(INIT_DATA_HEADER, "#{initData}")
+                                                                    .requestTimeout(REQUEST_TIMEOUT)
+                                                                    .queryParam("isSwipe", "true")
+                                                                    .check(status().in(200, 429))))
+                                            ).pause(Duration.ofMillis(THINK_TIME_MS))
+                                    )
+                            )
+            );
+
+    {
+        printBanner("SWIPE LOOP",
+                String.format("Batches:  %d × %d карточек, лайков %.0f%%", BATCHES, BATCH_SIZE, LIKE_PERCENT));
+
+        setUp(swipeScenario.injectOpen(openProfile()))
+                .protocols(httpProtocol())
+                .assertions(slo(500, 1500, 1.0));
+    }
+}
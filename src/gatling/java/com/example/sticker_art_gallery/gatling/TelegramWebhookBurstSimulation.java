@@ -0,0 +1,99 @@
+package com.example.sticker_art_gallery.gatling;
+
+import io.gatling.javaapi.core.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.sticker_art_gallery.gatling.LoadTestSupport.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Всплески вебхука POST /api/telegram/updates с inline-запросами, как при массовом вводе @bot в чатах.
+ *
+ * Telegram присылает апдейты пачками, поэтому профиль — bursts всплесков по burstSize апдейтов
+ * одновременно с паузой burstIntervalSeconds, поверх фонового потока rps апдейтов в секунду.
+ * update_id уникален для каждого апдейта, иначе приложение отбросит его как дубль.
+ * Ответы answerInlineQuery уходят в Bot API, так что приложение стоит направить на эмулятор
+ * (TELEGRAM_API_BASE_URL), а query_id у эмулятора не проверяется.
+ *
+ *   Параметр               | Дефолт | Описание
+ *   -----------------------|--------|------------------------------------------------------
+ *   webhookSecret          | пусто  | X-Telegram-Bot-Api-Secret-Token (TELEGRAM_WEBHOOK_SECRET_TOKEN)
+ *   bursts                 | 5      | Количество всплесков
+ *   burstSize              | 200    | Апдейтов в одном всплеске
+ *   burstIntervalSeconds   | 20     | Пауза между всплесками
+ *   SLO по умолчанию: p95 < 300 мс, p99 < 1000 мс, ошибок < 0.5%
+ *
+ * Общие параметры (baseUrl, rps, …) — см. LoadTestSupport, параметры пользователей (userIdBase, users) — InitDataFixture.
+ *
+ * Запуск:
+ *   ./gradlew gatlingRun --non-interactive --simulation=com.example.sticker_art_gallery.gatling.TelegramWebhookBurstSimulation -DwebhookSecret=...
+ */
+public class TelegramWebhookBurstSimulation extends Simulation {
+
+    private static final String WEBHOOK_SECRET = prop("webhookSecret", "");
+    private static final int BURSTS = intProp("bursts", 5);
+    private static final int BURST_SIZE = intProp("burstSize", 200);
+    private static final int BURST_INTERVAL_SECONDS = intProp("burstIntervalSeconds", 20);
+    private static final long USER_ID_BASE = longProp("userIdBase", 900_000_000L);
+    private static final int USERS = intProp("users", 1000);
+
+    /** Пустой запрос, поиск по тексту, следующая страница и inline-генерация */
+    private static final List<String[]> QUERIES = List.of(
+            new String[]{"", ""},
+            new String[]{"cat", ""},
+            new String[]{"cat", "1"},
+            new String[]{"мем", ""},
+            new String[]{"gen: happy frog", ""}
+    );
+
+    private static final AtomicLong UPDATE_IDS = new AtomicLong(System.currentTimeMillis());
+
+    private final ScenarioBuilder inlineScenario = scenario("Webhook inline queries")
+            .exec(session -> {
+                String[] query = QUERIES.get(ThreadLocalRandom.current().nextInt(QUERIES.size()));
+                long userId = USER_ID_BASE + ThreadLocalRandom.current().nextInt(USERS);
+                long updateId = UPDATE_IDS.incrementAndGet();
+                return session.setAll(Map.of(
+                        "updateId", updateId,
+                        "userId", userId,
+                        "query", query[0],
+                        "offset", query[1]));
+            })
+            .exec(
+                    http("POST /api/telegram/updates (inline_query)")
+                            .post("/api/telegram/updates")
+                            .header("X-Telegram-Bot-Api-Secret-Token", WEBHOOK_SECRET)
+                            .requestTimeout(REQUEST_TIMEOUT)
+                            .body(StringBody("""
+                                    {"update_id":#{updateId},"inline_query":{"id":"#{updateId}",\
+                                    "from":{"id":#{userId},"is_bot":false,"first_name":"Load","language_code":"ru"},\
+                                    "query":"#{query}","offset":"#{offset}","chat_type":"private"}}"""))
+                            .check(status().is(200))
+                            .check(jsonPath("$.ok").ofBoolean().is(true))
+            );
+
+    private static List<OpenInjectionStep> burstProfile() {
+        List<OpenInjectionStep> steps = new ArrayList<>(openProfile());
+        for (int i = 0; i < BURSTS; i++) {
+            steps.add(atOnceUsers(BURST_SIZE));
+            steps.add(constantUsersPerSec(RPS).during(Duration.ofSeconds(BURST_INTERVAL_SECONDS)));
+        }
+        return steps;
+    }
+
+    {
+        printBanner("TELEGRAM WEBHOOK BURSTS",
+                String.format("Bursts:   %d × %d апдейтов, каждые %d сек", BURSTS, BURST_SIZE, BURST_INTERVAL_SECONDS));
+
+        setUp(inlineScenario.injectOpen(burstProfile()))
+                .protocols(httpProtocol())
+                .assertions(slo(300, 1000, 0.5));
+    }
+}
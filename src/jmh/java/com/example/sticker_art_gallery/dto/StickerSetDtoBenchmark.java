@@ -0,0 +1,91 @@
+package com.example.sticker_art_gallery.dto;
+
+import com.example.sticker_art_gallery.model.category.Category;
+import com.example.sticker_art_gallery.model.telegram.StickerSet;
+import com.example.sticker_art_gallery.model.telegram.StickerSetDescription;
+import com.example.sticker_art_gallery.model.telegram.StickerSetState;
+import com.example.sticker_art_gallery.model.telegram.StickerSetType;
+import com.example.sticker_art_gallery.model.telegram.StickerSetVisibility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг сущности в карточку галереи - выполняется для каждого стикерсета в каждой странице ленты.
+ * Набор с тремя категориями и двумя описаниями, зритель залогинен и лайкнул карточку.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StickerSetDtoBenchmark {
+
+    private static final long OWNER_ID = 141614461L;
+    private static final long VIEWER_ID = 777000L;
+
+    private StickerSet entity;
+    private ViewerContext viewer;
+
+    @Setup
+    public void setUp() {
+        entity = new StickerSet();
+        entity.setId(1001L);
+        entity.setUserId(OWNER_ID);
+        entity.setTitle("Котики на каждый день");
+        entity.setName("daily_cats_by_StickerGalleryBot");
+        entity.setState(StickerSetState.ACTIVE);
+        entity.setVisibility(StickerSetVisibility.PUBLIC);
+        entity.setType(StickerSetType.USER);
+        entity.setIsVerified(true);
+        entity.setLikesCount(1234);
+        entity.setDislikesCount(56);
+        entity.setStickersCount(120);
+        entity.setCreatedAt(LocalDateTime.of(2026, 1, 1, 12, 0));
+
+        String[][] categories = {{"animals", "Животные", "Animals"}, {"cute", "Милые", "Cute"}, {"memes", "Мемы", "Memes"}};
+        for (int i = 0; i < categories.length; i++) {
+            Category category = new Category();
+            category.setId((long) i + 1);
+            category.setKey(categories[i][0]);
+            category.setNameRu(categories[i][1]);
+            category.setNameEn(categories[i][2]);
+            entity.getCategories().add(category);
+        }
+        entity.getDescriptions().add(description(1L, "ru", "Котики для любого настроения"));
+        entity.getDescriptions().add(description(2L, "en", "Cats for every mood"));
+
+        viewer = new ViewerContext(VIEWER_ID, false, false, Set.of(entity.getId()), Set.of());
+    }
+
+    private static StickerSetDescription description(Long id, String language, String text) {
+        StickerSetDescription description = new StickerSetDescription();
+        description.setId(id);
+        description.setLanguage(language);
+        description.setDescription(text);
+        description.setUserId(OWNER_ID);
+        return description;
+    }
+
+    @Benchmark
+    public StickerSetDto fromEntityShort() {
+        return StickerSetDto.fromEntity(entity);
+    }
+
+    @Benchmark
+    public StickerSetDto fromEntityForViewer() {
+        return StickerSetDto.fromEntity(entity, "ru", viewer, true);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.sticker_art_gallery.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Сравнение результатов JMH (-rf json) с базовыми: время и аллокации на операцию (gc.alloc.rate.norm).
+ *
+ * Деградация - изменение хуже порога в процентах, которое не объясняется погрешностью обоих замеров
+ * (для аллокаций - ещё и не меньше {@link #ALLOC_NOISE_BYTES} байт на операцию).
+ * Для режима thrpt лучше больше, для остальных - меньше.
+ *
+ * Аргументы: baseline.json current.json report.md threshold-percent [fail|report]
+ */
+public final class JmhBaselineReport {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+    private static final double ALLOC_NOISE_BYTES = 16;
+
+    private record Result(String mode, double score, double error, String unit, Double allocBytes) {
+    }
+
+    private JmhBaselineReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Использование: JmhBaselineReport baseline.json current.json report.md threshold-percent [fail|report]");
+            System.exit(2);
+        }
+        Path baselinePath = Path.of(args[0]);
+        Path currentPath = Path.of(args[1]);
+        Path reportPath = Path.of(args[2]);
+        double threshold = Double.parseDouble(args[3]);
+        boolean failOnRegression = args.length > 4 && "fail".equals(args[4]);
+
+        if (!Files.exists(currentPath)) {
+            System.err.println("❌ Нет результатов JMH: " + currentPath + " (сначала ./gradlew jmh)");
+            System.exit(2);
+        }
+        Map<String, Result> current = read(currentPath);
+        Map<String, Result> baseline = Files.exists(baselinePath) ? read(baselinePath) : Map.of();
+
+        List<String> regressions = new ArrayList<>();
+        String report = render(baseline, current, threshold, regressions, baselinePath);
+
+        if (reportPath.getParent() != null) {
+            Files.createDirectories(reportPath.getParent());
+        }
+        Files.writeString(reportPath, report, StandardCharsets.UTF_8);
+        System.out.println(report);
+        System.out.println("📄 Отчёт: " + reportPath.toAbsolutePath());
+
+        if (!regressions.isEmpty() && failOnRegression) {
+            System.err.println("❌ Деградации относительно базового прогона: " + String.join(", ", regressions));
+            System.exit(1);
+        }
+    }
+
+    private static String render(Map<String, Result> baseline,
+                                 Map<String, Result> current,
+                                 double threshold,
+                                 List<String> regressions,
+                                 Path baselinePath) {
+        StringBuilder out = new StringBuilder("# JMH: сравнение с базовым прогоном\n\n");
+        if (baseline.isEmpty()) {
+            out.append("Базовый прогон не найден (").append(baselinePath)
+                    .append("): показаны текущие значения. Сохранить: `./gradlew jmhSaveBaseline`.\n\n");
+        }
+        out.append("Порог деградации: ").append(format(threshold)).append("%\n\n")
+                .append("| Бенчмарк | Базовый | Текущий | Δ время (+ хуже) | Аллок. базовый, B/op | Аллок. текущий, B/op | Δ аллок. | |\n")
+                .append("|---|---|---|---|---|---|---|---|\n");
+
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            String key = entry.getKey();
+            Result cur = entry.getValue();
+            Result base = baseline.get(key);
+
+            String verdict;
+            String timeDelta = "";
+            String allocDelta = "";
+            if (base == null) {
+                verdict = "🆕";
+            } else {
+                double timeChange = worseningPercent(base, cur);
+                boolean timeSignificant = Math.abs(cur.score() - base.score()) > cur.error() + base.error();
+                boolean timeRegressed = timeSignificant && timeChange > threshold;
+                boolean timeImproved = timeSignificant && timeChange < -threshold;
+                timeDelta = signed(timeChange);
+
+                boolean allocRegressed = false;
+                if (base.allocBytes() != null && cur.allocBytes() != null) {
+                    double diff = cur.allocBytes() - base.allocBytes();
+                    double allocChange = base.allocBytes() == 0 ? (diff > 0 ? 100 : 0) : diff / base.allocBytes() * 100;
+                    allocRegressed = diff > ALLOC_NOISE_BYTES && allocChange > threshold;
+                    allocDelta = signed(allocChange);
+                }
+
+                if (timeRegressed || allocRegressed) {
+                    verdict = "❌";
+                    regressions.add(key);
+                } else if (timeImproved) {
+                    verdict = "🚀";
+                } else {
+                    verdict = "✅";
+                }
+            }
+
+            out.append("| `").append(key).append("` | ")
+                    .append(base == null ? "" : score(base)).append(" | ")
+                    .append(score(cur)).append(" | ")
+                    .append(timeDelta).append(" | ")
+                    .append(base == null || base.allocBytes() == null ? "" : format(base.allocBytes())).append(" | ")
+                    .append(cur.allocBytes() == null ? "" : format(cur.allocBytes())).append(" | ")
+                    .append(allocDelta).append(" | ")
+                    .append(verdict).append(" |\n");
+        }
+
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                out.append("| `").append(key).append("` | ").append(score(baseline.get(key)))
+                        .append(" | | | | | | не запускался |\n");
+            }
+        }
+        out.append('\n').append(regressions.isEmpty()
+                ? "✅ Деградаций нет\n"
+                : "❌ Деградации: " + regressions.size() + "\n");
+        return out.toString();
+    }
+
+    /**
+     * На сколько процентов стало хуже: положительное значение - деградация
+     */
+    private static double worseningPercent(Result base, Result cur) {
+        if (base.score() == 0) {
+            return 0;
+        }
+        double change = (cur.score() - base.score()) / base.score() * 100;
+        return "thrpt".equals(cur.mode()) ? -change : change;
+    }
+
+    private static Map<String, Result> read(Path path) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(path.toFile());
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode node : root) {
+            JsonNode primary = node.path("primaryMetric");
+            JsonNode alloc = node.path("secondaryMetrics").path(ALLOC_METRIC);
+            results.put(key(node), new Result(
+                    node.path("mode").asText(),
+                    primary.path("score").asDouble(),
+                    finiteOrZero(primary.path("scoreError").asDouble(0)),
+                    primary.path("scoreUnit").asText(),
+                    alloc.isMissingNode() ? null : alloc.path("score").asDouble()));
+        }
+        return results;
+    }
+
+    /**
+     * JMH пишет "NaN" в scoreError, когда измерительная итерация одна
+     */
+    private static double finiteOrZero(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+
+    /**
+     * Короткое имя класса и метода плюс параметры: один бенчмарк с разными @Param - разные строки
+     */
+    private static String key(JsonNode node) {
+        String benchmark = node.path("benchmark").asText();
+        int method = benchmark.lastIndexOf('.');
+        int type = method > 0 ? benchmark.lastIndexOf('.', method - 1) : -1;
+        String name = benchmark.substring(type + 1);
+
+        Map<String, String> params = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.path("params").fields();
+        fields.forEachRemaining(e -> params.put(e.getKey(), e.getValue().asText()));
+        return params.isEmpty() ? name : name + params;
+    }
+
+    private static String score(Result result) {
+        return format(result.score()) + " ± " + format(result.error()) + " " + result.unit();
+    }
+
+    private static String signed(double percent) {
+        return (percent > 0 ? "+" : "") + format(percent) + "%";
+    }
+
+    private static String format(double value) {
+        return Math.abs(value) >= 100 ? String.format("%.0f", value) : String.format("%.2f", value);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.sticker_art_gallery.service.generation;
+
+import com.example.sticker_art_gallery.dto.generation.StylePresetDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Слабый ETag списка пресетов считается на каждый запрос каталога, в том числе на 304.
+ * Список подаётся в обратном порядке, чтобы сортировка внутри weakHexDigest не была холостой.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StylePresetListEtagBenchmark {
+
+    @Param({"20", "200"})
+    public int presetCount;
+
+    private List<StylePresetDto> presets;
+
+    @Setup
+    public void setUp() {
+        OffsetDateTime base = OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        presets = new ArrayList<>(presetCount);
+        for (int i = presetCount; i > 0; i--) {
+            StylePresetDto dto = new StylePresetDto();
+            dto.setId((long) i);
+            dto.setUpdatedAt(base.plusMinutes(i));
+            presets.add(dto);
+        }
+    }
+
+    @Benchmark
+    public String weakHexDigest() {
+        return StylePresetListEtag.weakHexDigest(presets);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.sticker_art_gallery.service.generation;
+
+import com.example.sticker_art_gallery.model.generation.StylePresetEntity;
+import com.example.sticker_art_gallery.model.generation.StylePresetUiMode;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка промпта по пресету - на каждую генерацию.
+ * buildRawPrompt идёт через кэш скомпилированных пресетов; applyTemplate компилирует шаблон заново.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StylePresetPromptComposerBenchmark {
+
+    private static final String TEMPLATE =
+            "Sticker of {{prompt}}, emotion {{emotion}}, holding {{item}}, background {{background}}, "
+                    + "outline white, style {{style}}, lighting {{lighting}}.";
+
+    private StylePresetPromptComposer composer;
+    private StylePresetEntity preset;
+    private Map<String, Object> presetFields;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        composer = new StylePresetPromptComposer(objectMapper);
+
+        preset = new StylePresetEntity();
+        preset.setId(42L);
+        preset.setUpdatedAt(OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        preset.setUiMode(StylePresetUiMode.STRUCTURED_FIELDS);
+        preset.setPromptSuffix(TEMPLATE);
+        preset.setPromptInputJson(Map.of("enabled", true, "required", true, "maxLength", 300));
+        preset.setStructuredFieldsJson(objectMapper.convertValue(List.of(
+                field("emotion", "emoji", true),
+                field("item", "text", false),
+                field("background", "text", false),
+                field("style", "text", false),
+                field("lighting", "text", false)
+        ), new TypeReference<>() { }));
+        presetFields = Map.of(
+                "emotion", "happy",
+                "item", "cup of coffee",
+                "background", "night city",
+                "style", "cartoon",
+                "lighting", "neon");
+    }
+
+    private static Map<String, Object> field(String key, String type, boolean required) {
+        return Map.of("key", key, "label", key, "type", type, "required", required);
+    }
+
+    @Benchmark
+    public String buildRawPrompt() {
+        return composer.buildRawPrompt(preset, "a cheerful red panda", presetFields);
+    }
+
+    @Benchmark
+    public String applyTemplate() {
+        return StylePresetPromptComposer.applyTemplate(TEMPLATE, presetFields);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ответ getStickerSet на 120 стикеров - максимальный размер набора: так его сохраняет
+ * StickerSetTelegramCacheService (serialize), читает для превью (deserialize + filterStickersForPreview)
+ * и отдаёт без разбора через RawValue (writeRawPayload).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelegramStickerSetPayloadBenchmark {
+
+    @Param({"120"})
+    public int stickers;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Map<String, Object> payload;
+    private String payloadJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        payload = stickerSetPayload(stickers);
+        payloadJson = objectMapper.writeValueAsString(payload);
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return objectMapper.writeValueAsString(payload);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return objectMapper.readValue(payloadJson, Object.class);
+    }
+
+    @Benchmark
+    public Object filterStickersForPreview() {
+        return StickerSetEnrichmentService.filterStickersForPreview(payload);
+    }
+
+    @Benchmark
+    public String writeRawPayload() throws Exception {
+        return objectMapper.writeValueAsString(Map.of("id", 1001L, "telegramStickerSetInfo", new RawValue(payloadJson)));
+    }
+
+    static Map<String, Object> stickerSetPayload(int count) {
+        List<Map<String, Object>> stickerList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String fileId = "CAACAgIAAxkBAAEB" + String.format("%08d", i) + "x2kZ3Lq8mWcY7tKJ0pQAAk4AA3vF8UoAAe1nTnQAAS8E";
+            Map<String, Object> thumbnail = new LinkedHashMap<>();
+            thumbnail.put("file_id", "AAMCAgADGQEAAQ" + i + "thumb");
+            thumbnail.put("file_unique_id", "AQADTgADe8XxSnI" + i);
+            thumbnail.put("file_size", 6000 + i);
+            thumbnail.put("width", 128);
+            thumbnail.put("height", 128);
+
+            Map<String, Object> sticker = new LinkedHashMap<>();
+            sticker.put("width", 512);
+            sticker.put("height", 512);
+            sticker.put("emoji", "😺");
+            sticker.put("set_name", "daily_cats_by_StickerGalleryBot");
+            sticker.put("is_animated", false);
+            sticker.put("is_video", false);
+            sticker.put("type", "regular");
+            sticker.put("thumbnail", thumbnail);
+            sticker.put("thumb", thumbnail);
+            sticker.put("file_id", fileId);
+            sticker.put("file_unique_id", "AgADTgADe8XxSg" + i);
+            sticker.put("file_size", 24000 + i * 7);
+            stickerList.add(sticker);
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("name", "daily_cats_by_StickerGalleryBot");
+        payload.put("title", "Котики на каждый день");
+        payload.put("sticker_type", "regular");
+        payload.put("is_animated", false);
+        payload.put("is_video", false);
+        payload.put("contains_masks", false);
+        payload.put("stickers", stickerList);
+        return payload;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка дубля выполняется на каждый входящий webhook update.
+ * update_id идут по кругу в окне liveKeys, поэтому размер карты постоянный и равен числу
+ * update_id за TTL: 1000 - обычный поток, 60000 - выше MAX_KEYS, где очистка срабатывает на каждый вызов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelegramUpdateDedupServiceBenchmark {
+
+    @Param({"1000", "60000"})
+    public int liveKeys;
+
+    private TelegramUpdateDedupService dedupService;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        dedupService = new TelegramUpdateDedupService();
+        for (long id = 1; id <= liveKeys; id++) {
+            dedupService.isDuplicate(id);
+        }
+    }
+
+    @Benchmark
+    public boolean isDuplicate() {
+        next = next % liveKeys + 1;
+        return dedupService.isDuplicate(next);
+    }
+}
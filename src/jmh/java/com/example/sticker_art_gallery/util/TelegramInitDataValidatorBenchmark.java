@@ -0,0 +1,64 @@
+package com.example.sticker_art_gallery.util;
+
+import com.example.sticker_art_gallery.config.AppConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка initData выполняется на каждый запрос мини-аппа: разбор query string,
+ * две HMAC-SHA256 и разбор JSON пользователя.
+ * Невалидная подпись не меряется - она пишет WARN в лог и измерялся бы логгер.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelegramInitDataValidatorBenchmark {
+
+    private static final String BOT_TOKEN = "123456:jmh-benchmark-token";
+
+    private TelegramInitDataValidator validator;
+    private String initData;
+
+    @Setup
+    public void setUp() throws Exception {
+        AppConfig appConfig = new AppConfig();
+        appConfig.getTelegram().setBotToken(BOT_TOKEN);
+        validator = new TelegramInitDataValidator(appConfig, new ObjectMapper());
+        initData = TelegramInitDataGenerator.builder()
+                .botToken(BOT_TOKEN)
+                .userId(141614461L)
+                .username("jmh_user")
+                .firstName("Jmh")
+                .lastName("Benchmark")
+                .languageCode("ru")
+                .queryId("AAHdF6IQAAAAAN0XohDhrOrc")
+                .build();
+        if (!validator.validateInitData(initData)) {
+            throw new IllegalStateException("Фикстура initData не проходит валидацию");
+        }
+    }
+
+    @Benchmark
+    public boolean validateInitData() {
+        return validator.validateInitData(initData);
+    }
+
+    @Benchmark
+    public Long extractTelegramId() {
+        return validator.extractTelegramId(initData);
+    }
+}
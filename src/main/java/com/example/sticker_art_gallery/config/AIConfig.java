@@ -1,6 +1,7 @@
 package com.example.sticker_art_gallery.config;
 
 import com.example.sticker_art_gallery.service.memory.InMemoryChatMemory;
+import com.example.sticker_art_gallery.service.metrics.RemoteCallMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
@@ -58,11 +59,13 @@ public class AIConfig {
      * Создает RestClient.Builder с настроенными таймаутами для OpenAI
      */
     @Bean
-    public RestClient.Builder openAiRestClientBuilder(ClientHttpRequestFactory openAiClientHttpRequestFactory) {
+    public RestClient.Builder openAiRestClientBuilder(ClientHttpRequestFactory openAiClientHttpRequestFactory,
+                                                      RemoteCallMetrics remoteCallMetrics) {
         LOGGER.info("🔧 Настройка RestClient.Builder для OpenAI с таймаутами");
         
         RestClient.Builder builder = RestClient.builder()
-                .requestFactory(openAiClientHttpRequestFactory);
+                .requestFactory(openAiClientHttpRequestFactory)
+                .requestInterceptor(remoteCallMetrics.interceptor());
         
         LOGGER.info("✅ RestClient.Builder настроен");
         return builder;
@@ -75,7 +78,7 @@ public class AIConfig {
      */
     @Bean
     @Primary
-    public RestClient.Builder restClientBuilder() {
+    public RestClient.Builder restClientBuilder(RemoteCallMetrics remoteCallMetrics) {
         LOGGER.info("🔧 Создание RestClient.Builder с настроенными таймаутами для Spring AI");
         LOGGER.info("  - Connection timeout: {} ms ({} seconds)", connectionTimeout, connectionTimeout / 1000);
         LOGGER.info("  - Read timeout: {} ms ({} seconds)", readTimeout, readTimeout / 1000);
@@ -84,8 +87,10 @@ public class AIConfig {
         factory.setConnectTimeout((int) connectionTimeout);
         factory.setReadTimeout((int) readTimeout);
         
+        // Таймеры remote.call для OpenAI completions и других вызовов Spring AI
         RestClient.Builder builder = RestClient.builder()
-                .requestFactory(factory);
+                .requestFactory(factory)
+                .requestInterceptor(remoteCallMetrics.interceptor());
         
         LOGGER.info("✅ RestClient.Builder создан с настроенными таймаутами");
         return builder;
@@ -144,6 +144,11 @@ public class AppConfig {
          */
         private boolean supportUseTopics = true;
 
+        /**
+         * Базовый URL Bot API. Переопределяется для локального эмулятора при нагрузочном тестировании.
+         */
+        private String apiBaseUrl = "https://api.telegram.org";
+
         public String getBotToken() {
             return botToken;
         }
@@ -248,6 +253,14 @@ public class AppConfig {
             this.webhookAutoRegisterOnStartup = webhookAutoRegisterOnStartup;
         }
 
+        public String getApiBaseUrl() {
+            return apiBaseUrl;
+        }
+
+        public void setApiBaseUrl(String apiBaseUrl) {
+            this.apiBaseUrl = apiBaseUrl;
+        }
+
         public Long getSupportChatId() {
             return supportChatId;
         }
@@ -30,18 +30,91 @@ public class AsyncConfig {
         return executor;
     }
 
-    @Bean(name = "stickerCacheRefreshExecutor")
-    public Executor stickerCacheRefreshExecutor() {
+    @Bean(name = "aiBatchExecutor")
+    public Executor aiBatchExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
+        executor.setCorePoolSize(4);
         executor.setMaxPoolSize(4);
-        executor.setQueueCapacity(200);
-        executor.setThreadNamePrefix("sticker-cache-");
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("ai-batch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+
+        LOGGER.info("AI batch executor configured: corePoolSize=4, maxPoolSize=4, queueCapacity=1000");
+        return executor;
+    }
+
+    /**
+     * Фоновое обновление устаревших аватаров; сами загрузки из Telegram дополнительно ограничены в UserAvatarService
+     */
+    @Bean(name = "avatarRefreshExecutor")
+    public Executor avatarRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("avatar-refresh-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        LOGGER.info("Avatar refresh executor configured: corePoolSize=2, maxPoolSize=2, queueCapacity=500");
+        return executor;
+    }
+
+    /**
+     * Исполнители заданий рассылки: один поток на задание, обходящий аудиторию страницами
+     */
+    @Bean(name = "broadcastExecutor")
+    public Executor broadcastExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("broadcast-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+
+        LOGGER.info("Broadcast executor configured: corePoolSize=2, maxPoolSize=2, queueCapacity=20");
+        return executor;
+    }
+
+    /**
+     * Параллельные отправки внутри страницы рассылки; темп задаёт TelegramSendScheduler (полоса BULK),
+     * потоков достаточно, чтобы покрыть сетевую задержку при глобальном лимите
+     */
+    @Bean(name = "broadcastSendExecutor")
+    public Executor broadcastSendExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(2000);
+        executor.setThreadNamePrefix("broadcast-send-");
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(30);
         executor.initialize();
 
-        LOGGER.info("Sticker cache refresh executor configured: corePoolSize=2, maxPoolSize=4, queueCapacity=200");
+        LOGGER.info("Broadcast send executor configured: corePoolSize=16, maxPoolSize=16, queueCapacity=2000");
+        return executor;
+    }
+
+    /**
+     * Фоновое обновление кэша подписки на канал (refreshAfterWrite в ChannelMembershipCache): getChatMember
+     * не должен занимать общий ForkJoinPool. При переполненной очереди Caffeine пропускает обновление,
+     * и запись перезагрузится при следующем обращении.
+     */
+    @Bean(name = "membershipRefreshExecutor")
+    public Executor membershipRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("membership-refresh-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        LOGGER.info("Membership refresh executor configured: corePoolSize=2, maxPoolSize=2, queueCapacity=1000");
         return executor;
     }
 }
@@ -52,7 +52,9 @@ public class MonitoringConfig {
     }
     
     /**
-     * Scheduled task для периодической очистки и логирования статистики памяти
+     * Scheduled task для логирования статистики памяти.
+     * Сборку мусора не вызываем: System.gc() даёт полную паузу и сбивает эргономику коллектора;
+     * heap, GC-паузы и пулы потоков смотрим в jvm.* / executor.* через /actuator/prometheus
      */
     @Component
     public static class MemoryCleanupTask {
@@ -75,9 +77,9 @@ public class MonitoringConfig {
             
             double usedPercentage = (double) usedMemory / maxMemory * 100;
             
-            LOGGER.info("📊 Memory Stats: Used={} MB ({:.2f}%), Free={} MB, Total={} MB, Max={} MB",
+            LOGGER.info("📊 Memory Stats: Used={} MB ({}%), Free={} MB, Total={} MB, Max={} MB",
                 usedMemory / 1024 / 1024,
-                usedPercentage,
+                String.format("%.2f", usedPercentage),
                 freeMemory / 1024 / 1024,
                 totalMemory / 1024 / 1024,
                 maxMemory / 1024 / 1024);
@@ -88,42 +90,8 @@ public class MonitoringConfig {
             
             // Предупреждение при высоком использовании памяти
             if (usedPercentage > 80) {
-                LOGGER.warn("⚠️ High memory usage detected: {:.2f}%. Consider investigating memory leaks.", usedPercentage);
-            }
-        }
-        
-        /**
-         * Принудительная сборка мусора при критическом использовании памяти (каждые 15 минут)
-         */
-        @Scheduled(fixedRate = 900000) // 15 минут
-        public void suggestGarbageCollection() {
-            Runtime runtime = Runtime.getRuntime();
-            long maxMemory = runtime.maxMemory();
-            long totalMemory = runtime.totalMemory();
-            long freeMemory = runtime.freeMemory();
-            long usedMemory = totalMemory - freeMemory;
-            
-            double usedPercentage = (double) usedMemory / maxMemory * 100;
-            
-            // Предложить GC только если используется более 85% памяти
-            if (usedPercentage > 85) {
-                LOGGER.warn("🗑️ Memory usage at {:.2f}%. Suggesting garbage collection...", usedPercentage);
-                long beforeGC = usedMemory;
-                System.gc();
-                
-                // Подождать немного для завершения GC
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                
-                long afterGC = runtime.totalMemory() - runtime.freeMemory();
-                long freed = beforeGC - afterGC;
-                
-                if (freed > 0) {
-                    LOGGER.info("✅ GC freed {} MB of memory", freed / 1024 / 1024);
-                }
+                LOGGER.warn("⚠️ High memory usage detected: {}%. Consider investigating memory leaks.",
+                    String.format("%.2f", usedPercentage));
             }
         }
     }
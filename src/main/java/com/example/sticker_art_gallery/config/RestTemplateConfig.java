@@ -1,5 +1,6 @@
 package com.example.sticker_art_gallery.config;
 
+import com.example.sticker_art_gallery.service.metrics.RemoteCallMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,7 +24,7 @@ public class RestTemplateConfig {
     private int readTimeout;
     
     @Bean
-    public RestTemplate restTemplate() {
+    public RestTemplate restTemplate(RemoteCallMetrics remoteCallMetrics) {
         LOGGER.info("🔧 Настройка RestTemplate: connect={}ms, read={}ms", connectTimeout, readTimeout);
         
         // Используем SimpleClientHttpRequestFactory с timeout'ами
@@ -32,6 +33,8 @@ public class RestTemplateConfig {
         factory.setReadTimeout(readTimeout);
         
         RestTemplate restTemplate = new RestTemplate(factory);
+        // Общий клиент sticker-processor, TON Pay adapter и StickerBot API: таймеры remote.call по хосту
+        restTemplate.getInterceptors().add(remoteCallMetrics.interceptor());
         
         LOGGER.info("✅ RestTemplate настроен успешно");
         return restTemplate;
@@ -78,7 +78,10 @@ public class SecurityConfig {
             // Настройка авторизации
             .authorizeHttpRequests(authz -> authz
                 // Публичные эндпоинты (но фильтр все равно применяется)
-                .requestMatchers(mvc.pattern("/actuator/**")).permitAll()
+                .requestMatchers(mvc.pattern("/actuator/health/**")).permitAll()
+                .requestMatchers(mvc.pattern("/actuator/info")).permitAll()
+                // Метрики и Prometheus - только с X-Service-Token
+                .requestMatchers(mvc.pattern("/actuator/**")).hasRole("INTERNAL")
                 .requestMatchers(mvc.pattern("/error")).permitAll()
                 .requestMatchers(mvc.pattern("/")).permitAll()
                 .requestMatchers(mvc.pattern("/static/**")).permitAll()
@@ -109,6 +112,7 @@ public class SecurityConfig {
                 
                 // Публичный доступ к фото профиля пользователя
                 .requestMatchers(mvc.pattern("/api/users/*/photo")).permitAll()
+                .requestMatchers(mvc.pattern("/api/users/*/avatar")).permitAll()
                 
                 // Админская панель - статические ресурсы
                 .requestMatchers(mvc.pattern("/admin/**")).permitAll()
@@ -0,0 +1,182 @@
+package com.example.sticker_art_gallery.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Статика мини-приложения и админки, загруженная в память при старте.
+ * Для каждого файла заранее готовы gzip-вариант (и brotli, если сборка положила рядом {@code .br}),
+ * ETag по хэшу содержимого и версия для fingerprint-ссылок.
+ *
+ * В HTML ссылки на собственные ассеты переписываются в {@code /admin/js/api.js?v=<hash>}:
+ * такие URL отдаются с {@code immutable}, а сам HTML - с ревалидацией по ETag.
+ */
+@Component
+public class StaticAssetCatalog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StaticAssetCatalog.class);
+
+    static final List<String> ROOTS = List.of("mini-app", "admin");
+
+    /**
+     * Исходники и документация не отдаются; .gz/.br подхватываются как варианты основного файла
+     */
+    private static final List<String> SKIPPED_SUFFIXES = List.of(".md", ".gz", ".br");
+
+    /**
+     * gzip не сжимает бинарные форматы, а на мелких файлах проигрывает заголовку
+     */
+    private static final int MIN_COMPRESS_BYTES = 512;
+
+    private final Map<String, Asset> assets;
+
+    public StaticAssetCatalog() {
+        this.assets = load(new PathMatchingResourcePatternResolver());
+        long identityBytes = assets.values().stream().mapToLong(a -> a.identity().length).sum();
+        long gzipBytes = assets.values().stream().mapToLong(a -> a.gzip() != null ? a.gzip().length : a.identity().length).sum();
+        LOGGER.info("📦 Статика загружена в память: {} файлов, {} КБ (gzip {} КБ)",
+                assets.size(), identityBytes / 1024, gzipBytes / 1024);
+    }
+
+    /**
+     * Готовый ассет
+     *
+     * @param identity исходные байты
+     * @param gzip     gzip-вариант; null - сжатие не выгодно
+     * @param brotli   brotli-вариант из сборки; null - нет
+     * @param version  хэш содержимого для {@code ?v=} в ссылках
+     */
+    public record Asset(byte[] identity, byte[] gzip, byte[] brotli, MediaType contentType, String version) {
+
+        public String etag() {
+            return "\"" + version + "\"";
+        }
+
+        public boolean isHtml() {
+            return MediaType.TEXT_HTML.isCompatibleWith(contentType);
+        }
+    }
+
+    /**
+     * @param path путь запроса без ведущего слеша, например {@code admin/js/api.js}
+     */
+    public Optional<Asset> find(String path) {
+        return Optional.ofNullable(assets.get(path));
+    }
+
+    static Map<String, Asset> load(PathMatchingResourcePatternResolver resolver) {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        Map<String, byte[]> precompressedBrotli = new LinkedHashMap<>();
+        for (String root : ROOTS) {
+            try {
+                for (Resource resource : resolver.getResources("classpath:static/" + root + "/**")) {
+                    if (!resource.isReadable()) {
+                        continue;
+                    }
+                    String path = relativePath(resource, root);
+                    if (path == null) {
+                        continue;
+                    }
+                    try (InputStream in = resource.getInputStream()) {
+                        byte[] bytes = in.readAllBytes();
+                        if (path.endsWith(".br")) {
+                            precompressedBrotli.put(path.substring(0, path.length() - 3), bytes);
+                        } else if (SKIPPED_SUFFIXES.stream().noneMatch(path::endsWith)) {
+                            files.put(path, bytes);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load static assets from " + root, e);
+            }
+        }
+
+        Map<String, String> versions = new LinkedHashMap<>();
+        files.forEach((path, bytes) -> versions.put(path, hash(bytes)));
+
+        Map<String, Asset> loaded = new LinkedHashMap<>();
+        files.forEach((path, bytes) -> {
+            MediaType contentType = MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM);
+            byte[] identity = MediaType.TEXT_HTML.isCompatibleWith(contentType) ? fingerprintLinks(bytes, versions) : bytes;
+            byte[] brotli = precompressedBrotli.get(path);
+            loaded.put(path, new Asset(identity, gzipIfSmaller(identity, contentType),
+                    identity == bytes ? brotli : null, contentType, hash(identity)));
+        });
+        return Map.copyOf(loaded);
+    }
+
+    /**
+     * Добавляет {@code ?v=<hash>} к ссылкам {@code "/admin/..."} и {@code "/mini-app/..."} на известные файлы
+     */
+    static byte[] fingerprintLinks(byte[] html, Map<String, String> versions) {
+        String content = new String(html, StandardCharsets.UTF_8);
+        String rewritten = content;
+        for (Map.Entry<String, String> entry : versions.entrySet()) {
+            String url = "/" + entry.getKey();
+            rewritten = rewritten
+                    .replace("\"" + url + "\"", "\"" + url + "?v=" + entry.getValue() + "\"")
+                    .replace("'" + url + "'", "'" + url + "?v=" + entry.getValue() + "'");
+        }
+        return rewritten.equals(content) ? html : rewritten.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String relativePath(Resource resource, String root) throws IOException {
+        String url = resource.getURL().toString();
+        String marker = "static/" + root + "/";
+        int index = url.lastIndexOf(marker);
+        if (index < 0 || url.endsWith("/")) {
+            return null;
+        }
+        return root + "/" + url.substring(index + marker.length());
+    }
+
+    private static byte[] gzipIfSmaller(byte[] bytes, MediaType contentType) {
+        if (bytes.length < MIN_COMPRESS_BYTES || !isCompressible(contentType)) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 3);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.size() < bytes.length ? out.toByteArray() : null;
+    }
+
+    private static boolean isCompressible(MediaType contentType) {
+        String subtype = contentType.getSubtype();
+        return "text".equals(contentType.getType())
+                || subtype.contains("javascript")
+                || subtype.contains("json")
+                || subtype.contains("xml")
+                || subtype.contains("svg");
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.sticker_art_gallery.controller;
 
+import com.example.sticker_art_gallery.util.ParsedInitData;
 import com.example.sticker_art_gallery.util.TelegramInitDataValidator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -141,11 +142,12 @@ public class AuthController {
             return ResponseEntity.badRequest().body(response);
         }
         
-        boolean isValid = validator.validateInitData(initData);
+        ParsedInitData parsedInitData = validator.validate(initData);
+        boolean isValid = parsedInitData != null;
         response.put("valid", isValid);
         
         if (isValid) {
-            Long telegramId = validator.extractTelegramId(initData);
+            Long telegramId = validator.extractTelegramId(parsedInitData);
             response.put("telegramId", telegramId);
             response.put("message", "InitData is valid");
         } else {
@@ -199,14 +201,15 @@ public class AuthController {
         
         try {
             // Валидируем initData
-            if (!validator.validateInitData(initData)) {
+            ParsedInitData parsedInitData = validator.validate(initData);
+            if (parsedInitData == null) {
                 response.put("success", false);
                 response.put("error", "Invalid initData");
                 return ResponseEntity.badRequest().body(response);
             }
             
             // Извлекаем telegram_id
-            Long telegramId = validator.extractTelegramId(initData);
+            Long telegramId = validator.extractTelegramId(parsedInitData);
             if (telegramId == null) {
                 response.put("success", false);
                 response.put("error", "Could not extract telegram_id from initData");
@@ -272,14 +275,15 @@ public class AuthController {
         
         try {
             // Валидируем initData
-            if (!validator.validateInitData(initData)) {
+            ParsedInitData parsedInitData = validator.validate(initData);
+            if (parsedInitData == null) {
                 response.put("success", false);
                 response.put("error", "Invalid initData");
                 return ResponseEntity.badRequest().body(response);
             }
             
             // Извлекаем telegram_id
-            Long telegramId = validator.extractTelegramId(initData);
+            Long telegramId = validator.extractTelegramId(parsedInitData);
             if (telegramId == null) {
                 response.put("success", false);
                 response.put("error", "Could not extract telegram_id from initData");
@@ -0,0 +1,130 @@
+package com.example.sticker_art_gallery.controller;
+
+import com.example.sticker_art_gallery.dto.messaging.BroadcastJobDto;
+import com.example.sticker_art_gallery.dto.messaging.CreateBroadcastRequest;
+import com.example.sticker_art_gallery.service.messaging.BroadcastService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@RestController
+@RequestMapping("/api/admin/broadcasts")
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Рассылки (Админ)", description = "Массовая рассылка сообщений пользователям от бота (только для админа)")
+@SecurityRequirement(name = "TelegramInitData")
+public class BroadcastAdminController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastAdminController.class);
+
+    private final BroadcastService broadcastService;
+
+    public BroadcastAdminController(BroadcastService broadcastService) {
+        this.broadcastService = broadcastService;
+    }
+
+    @PostMapping
+    @Operation(
+            summary = "Создать рассылку",
+            description = "Создаёт задание рассылки по фильтру аудитории и сразу запускает его в фоне. " +
+                    "Прогресс сохраняется, после рестарта рассылка продолжается с места остановки."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Рассылка запущена",
+                    content = @Content(schema = @Schema(implementation = BroadcastJobDto.class))),
+            @ApiResponse(responseCode = "400", description = "Некорректный запрос")
+    })
+    public ResponseEntity<BroadcastJobDto> create(@Valid @RequestBody CreateBroadcastRequest request) {
+        BroadcastJobDto job = broadcastService.create(request, getCurrentUserId());
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping
+    @Operation(summary = "Последние рассылки")
+    public ResponseEntity<List<BroadcastJobDto>> list(
+            @Parameter(description = "Количество (до 100)") @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(broadcastService.list(limit));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Состояние рассылки", description = "Статус, курсор и счётчики отправленных/неудачных сообщений")
+    public ResponseEntity<BroadcastJobDto> get(@PathVariable Long id) {
+        return broadcastService.get(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/pause")
+    @Operation(summary = "Приостановить рассылку")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Рассылка приостановлена"),
+            @ApiResponse(responseCode = "404", description = "Рассылка не найдена"),
+            @ApiResponse(responseCode = "409", description = "Рассылка не выполняется")
+    })
+    public ResponseEntity<?> pause(@PathVariable Long id) {
+        return control(id, broadcastService::pause);
+    }
+
+    @PostMapping("/{id}/resume")
+    @Operation(summary = "Возобновить рассылку")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Рассылка возобновлена"),
+            @ApiResponse(responseCode = "404", description = "Рассылка не найдена"),
+            @ApiResponse(responseCode = "409", description = "Рассылка не на паузе")
+    })
+    public ResponseEntity<?> resume(@PathVariable Long id) {
+        return control(id, broadcastService::resume);
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Отменить рассылку")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Рассылка отменена"),
+            @ApiResponse(responseCode = "404", description = "Рассылка не найдена"),
+            @ApiResponse(responseCode = "409", description = "Рассылка уже завершена")
+    })
+    public ResponseEntity<?> cancel(@PathVariable Long id) {
+        return control(id, broadcastService::cancel);
+    }
+
+    private ResponseEntity<?> control(Long id, Function<Long, BroadcastJobDto> action) {
+        try {
+            return ResponseEntity.ok(action.apply(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            LOGGER.warn("⚠️ Broadcast #{}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private Long getCurrentUserId() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !authentication.isAuthenticated()
+                    || "anonymousUser".equals(authentication.getPrincipal())) {
+                return null;
+            }
+            return Long.valueOf(authentication.getName());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.sticker_art_gallery.controller;
+
+import com.example.sticker_art_gallery.config.StaticAssetCatalog;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.Duration;
+
+/**
+ * Статика мини-приложения Telegram Web App и админки из памяти ({@link StaticAssetCatalog}).
+ * Кодировка выбирается по Accept-Encoding (br, затем gzip), ETag - хэш содержимого.
+ * URL с актуальным {@code ?v=} кэшируются как immutable, остальные ревалидируются.
+ */
+@Controller
+public class StaticAssetController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final StaticAssetCatalog catalog;
+
+    public StaticAssetController(StaticAssetCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    @GetMapping({"/mini-app/**", "/admin/**"})
+    public ResponseEntity<byte[]> asset(HttpServletRequest request,
+                                        @RequestParam(name = "v", required = false) String version,
+                                        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String path = request.getRequestURI().substring(request.getContextPath().length() + 1);
+        StaticAssetCatalog.Asset asset = catalog.find(path).orElse(null);
+        if (asset == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        CacheControl cacheControl = asset.version().equals(version) ? IMMUTABLE : CacheControl.noCache();
+        if (ifNoneMatch != null && ifNoneMatch.contains(asset.version())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(asset.etag())
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(asset.contentType())
+                .eTag(asset.etag())
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (asset.brotli() != null && accepts(acceptEncoding, "br")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "br").body(asset.brotli());
+        }
+        if (asset.gzip() != null && accepts(acceptEncoding, "gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(asset.gzip());
+        }
+        return response.body(asset.identity());
+    }
+
+    /**
+     * Кодировка принимается, если указана в Accept-Encoding без {@code q=0}
+     */
+    static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (!tokens[0].trim().equalsIgnoreCase(coding)) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim().replace(" ", "");
+                if (param.equals("q=0") || param.matches("q=0\\.0*")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -129,17 +129,23 @@ public class StickerGenerationV2Controller {
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     @Operation(
             summary = "История генераций v2",
-            description = "Возвращает только задачи нового v2 flow (generation-v2) с пагинацией."
+            description = "Возвращает только задачи нового v2 flow (generation-v2) с пагинацией. " +
+                    "С параметром cursor - режим бесконечной прокрутки: без totalElements, следующая страница по nextCursor."
     )
     public ResponseEntity<GenerationHistoryResponse> getHistoryV2(
             @Parameter(description = "Номер страницы (начиная с 0)", example = "0")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Размер страницы", example = "20")
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Курсор: пустой - первая страница, далее nextCursor из ответа")
+            @RequestParam(required = false) String cursor) {
         Long userId = extractUserIdFromAuthentication();
         if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
+        if (cursor != null) {
+            return ResponseEntity.ok(GenerationHistoryResponse.of(generationService.getGenerationHistoryV2(userId, cursor, size)));
+        }
         com.example.sticker_art_gallery.dto.PageRequest pageRequest = new com.example.sticker_art_gallery.dto.PageRequest();
         pageRequest.setPage(page);
         pageRequest.setSize(size);
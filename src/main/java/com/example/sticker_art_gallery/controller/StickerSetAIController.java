@@ -1,11 +1,15 @@
 package com.example.sticker_art_gallery.controller;
 
+import com.example.sticker_art_gallery.dto.BulkCategorySuggestionJobDto;
+import com.example.sticker_art_gallery.dto.BulkCategorySuggestionRequest;
 import com.example.sticker_art_gallery.dto.CategorySuggestionResult;
 import com.example.sticker_art_gallery.model.telegram.StickerSet;
 import com.example.sticker_art_gallery.service.ai.AutoCategorizationService;
+import com.example.sticker_art_gallery.service.ai.BulkCategorizationJobService;
 import com.example.sticker_art_gallery.service.ai.StickerSetDescriptionService;
 import com.example.sticker_art_gallery.service.telegram.StickerSetService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import org.slf4j.Logger;
@@ -13,6 +17,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.constraints.Positive;
 import io.swagger.v3.oas.annotations.Operation;
@@ -40,16 +45,19 @@ public class StickerSetAIController {
     private static final Logger LOGGER = LoggerFactory.getLogger(StickerSetAIController.class);
     private final StickerSetService stickerSetService;
     private final AutoCategorizationService autoCategorizationService;
+    private final BulkCategorizationJobService bulkCategorizationJobService;
     private final StickerSetDescriptionService stickerSetDescriptionService;
     private final StickerSetControllerHelper helper;
     
     @Autowired
     public StickerSetAIController(StickerSetService stickerSetService,
                                  AutoCategorizationService autoCategorizationService,
+                                 BulkCategorizationJobService bulkCategorizationJobService,
                                  StickerSetDescriptionService stickerSetDescriptionService,
                                  StickerSetControllerHelper helper) {
         this.stickerSetService = stickerSetService;
         this.autoCategorizationService = autoCategorizationService;
+        this.bulkCategorizationJobService = bulkCategorizationJobService;
         this.stickerSetDescriptionService = stickerSetDescriptionService;
         this.helper = helper;
     }
@@ -147,6 +155,67 @@ public class StickerSetAIController {
         }
     }
     
+    /**
+     * Пакетно предложить категории для стикерсетов (только для админа): ставит фоновое задание
+     */
+    @PostMapping("/ai/suggest-categories/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Пакетно предложить категории для стикерсетов (AI)",
+        description = "Ставит фоновое задание: title и описание многих стикерсетов анализируются пакетными запросами к AI " +
+                     "(несколько элементов в одном запросе, пакеты выполняются параллельно с ограничением по токенам). " +
+                     "Ответ возвращается сразу с ID задания; результат забирается через GET /ai/suggest-categories/bulk/{jobId}. " +
+                     "При apply=true категории применяются пакетно; стикерсеты без предложений не изменяются. Только для админа."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Задание принято; в ответе ID задания и статус RUNNING"),
+        @ApiResponse(responseCode = "400", description = "Некорректные данные"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован - требуется Telegram Web App авторизация"),
+        @ApiResponse(responseCode = "403", description = "Доступ запрещен - только админ"),
+        @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
+    })
+    public ResponseEntity<BulkCategorySuggestionJobDto> suggestCategoriesBulk(
+            @Valid @RequestBody BulkCategorySuggestionRequest body,
+            HttpServletRequest request) {
+        try {
+            String language = helper.getLanguageFromHeaderOrUser(request);
+            LOGGER.info("🤖 Пакетное предложение категорий: {} стикерсетов, apply={}, minConfidence={}",
+                body.getStickerSetIds().size(), body.isApply(), body.getMinConfidence());
+            BulkCategorySuggestionJobDto job = bulkCategorizationJobService.submit(body, language);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("⚠️ Некорректные данные для пакетной категоризации: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            LOGGER.error("❌ Ошибка при постановке пакетной категоризации: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Статус и результат задания пакетной категоризации (только для админа)
+     */
+    @GetMapping("/ai/suggest-categories/bulk/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Статус задания пакетной категоризации",
+        description = "Возвращает статус задания (RUNNING, COMPLETED, FAILED); при COMPLETED - предложения по каждому ID стикерсета. " +
+                     "Задания хранятся в памяти инстанса ограниченное время. Только для админа."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Задание найдено"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован - требуется Telegram Web App авторизация"),
+        @ApiResponse(responseCode = "403", description = "Доступ запрещен - только админ"),
+        @ApiResponse(responseCode = "404", description = "Задание не найдено или устарело")
+    })
+    public ResponseEntity<BulkCategorySuggestionJobDto> getBulkSuggestionJob(
+            @Parameter(description = "ID задания", required = true)
+            @PathVariable String jobId) {
+        return bulkCategorizationJobService.get(jobId)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
     /**
      * Сгенерировать описание стикерсета с помощью AI
      */
@@ -12,11 +12,13 @@ import com.example.sticker_art_gallery.service.StickerSetQueryService;
 import com.example.sticker_art_gallery.service.statistics.StatisticsService;
 import com.example.sticker_art_gallery.service.transaction.WalletService;
 import com.example.sticker_art_gallery.service.swipe.SwipeTrackingService;
+import com.example.sticker_art_gallery.exception.InvalidCursorException;
 import com.example.sticker_art_gallery.exception.UnauthorizedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -39,6 +41,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 @RestController
@@ -253,7 +256,7 @@ public class StickerSetController {
         @ApiResponse(responseCode = "401", description = "Не авторизован - требуется Telegram Web App авторизация"),
         @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера или проблемы с Telegram Bot API")
     })
-    public ResponseEntity<PageResponse<StickerSetDto>> getAllStickerSets(
+    public ResponseEntity<?> getAllStickerSets(
             @Parameter(description = "Номер страницы (начиная с 0)", example = "0")
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @Parameter(description = "Количество элементов на странице (1-100)", example = "20")
@@ -280,6 +283,9 @@ public class StickerSetController {
             @RequestParam(defaultValue = "false") boolean shortInfo,
             @Parameter(description = "Режим превью: возвращать только 1 случайный стикер в telegramStickerSetInfo", example = "false")
             @RequestParam(defaultValue = "false") boolean preview,
+            @Parameter(description = "Курсор бесконечной прокрутки (sort=createdAt|likesCount): пустой - первая страница, " +
+                    "далее nextCursor из ответа. В этом режиме page игнорируется, totalElements/totalPages = -1")
+            @RequestParam(required = false) String cursor,
             HttpServletRequest request) {
         try {
             // Построение фильтра
@@ -287,9 +293,16 @@ public class StickerSetController {
                 page, size, sort, direction, categoryKeys, type, officialOnly,
                 authorId, isVerified, userId, likedOnly, shortInfo, preview, request
             );
+            filter.getPageRequest().setCursor(cursor);
             
             LOGGER.debug("📋 Получение стикерсетов: {}", filter);
             
+            // Первые страницы без персональных фильтров - готовый JSON из общего кэша
+            Optional<byte[]> cached = stickerSetQueryService.findCachedStickerSetsJson(filter);
+            if (cached.isPresent()) {
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cached.get());
+            }
+            
             // Выполнение запроса через единый сервис
             PageResponse<StickerSetDto> result = stickerSetQueryService.findStickerSets(filter);
             
@@ -297,6 +310,8 @@ public class StickerSetController {
                     result.getContent().size(), result.getPage() + 1, result.getTotalPages());
             return ResponseEntity.ok(result);
             
+        } catch (InvalidCursorException e) {
+            throw e; // 400 через ValidationExceptionHandler
         } catch (UnauthorizedException e) {
             LOGGER.warn("⚠️ {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -384,6 +399,9 @@ public class StickerSetController {
             @RequestParam(defaultValue = "false") boolean shortInfo,
             @Parameter(description = "Режим превью: возвращать только 1 случайный стикер в telegramStickerSetInfo", example = "false")
             @RequestParam(defaultValue = "false") boolean preview,
+            @Parameter(description = "Курсор бесконечной прокрутки (sort=createdAt|likesCount): пустой - первая страница, " +
+                    "далее nextCursor из ответа. В этом режиме page игнорируется, totalElements/totalPages = -1")
+            @RequestParam(required = false) String cursor,
             HttpServletRequest request) {
         try {
             // Проверка авторизации
@@ -398,6 +416,7 @@ public class StickerSetController {
                 page, size, sort, direction, categoryKeys, type, officialOnly,
                 authorId, isVerified, userId, true, shortInfo, preview, request
             );
+            filter.getPageRequest().setCursor(cursor);
             
             LOGGER.debug("📋 Получение лайкнутых стикерсетов пользователя {}: {}", currentUserId, filter);
             
@@ -408,6 +427,8 @@ public class StickerSetController {
                     result.getContent().size(), result.getPage() + 1, result.getTotalPages());
             return ResponseEntity.ok(result);
             
+        } catch (InvalidCursorException e) {
+            throw e; // 400 через ValidationExceptionHandler
         } catch (UnauthorizedException e) {
             LOGGER.warn("⚠️ {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
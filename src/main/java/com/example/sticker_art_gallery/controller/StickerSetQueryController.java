@@ -5,6 +5,7 @@ import com.example.sticker_art_gallery.dto.PageResponse;
 import com.example.sticker_art_gallery.dto.StickerSetDto;
 import com.example.sticker_art_gallery.dto.StickerSetStatisticsDto;
 import com.example.sticker_art_gallery.dto.VisibilityFilter;
+import com.example.sticker_art_gallery.exception.InvalidCursorException;
 import com.example.sticker_art_gallery.model.telegram.StickerSetType;
 import com.example.sticker_art_gallery.service.statistics.StatisticsService;
 import com.example.sticker_art_gallery.service.telegram.StickerSetService;
@@ -101,6 +102,9 @@ public class StickerSetQueryController {
             @RequestParam(defaultValue = "false") boolean shortInfo,
             @Parameter(description = "Режим превью: возвращать только 1 случайный стикер в telegramStickerSetInfo", example = "false")
             @RequestParam(defaultValue = "false") boolean preview,
+            @Parameter(description = "Курсор бесконечной прокрутки (sort=createdAt|likesCount): пустой - первая страница, " +
+                    "далее nextCursor из ответа. В этом режиме page игнорируется, totalElements/totalPages = -1")
+            @RequestParam(required = false) String cursor,
             HttpServletRequest request) {
         try {
             // Проверка авторизации
@@ -137,6 +141,7 @@ public class StickerSetQueryController {
             pageRequest.setSize(size);
             pageRequest.setSort(sort);
             pageRequest.setDirection(direction);
+            pageRequest.setCursor(cursor);
             
             Set<String> categoryKeysSet = null;
             if (categoryKeys != null && !categoryKeys.trim().isEmpty()) {
@@ -165,6 +170,8 @@ public class StickerSetQueryController {
                 result.getContent().size(), userId, result.getPage() + 1, result.getTotalPages());
             return ResponseEntity.ok(result);
             
+        } catch (InvalidCursorException e) {
+            throw e; // 400 через ValidationExceptionHandler
         } catch (Exception e) {
             LOGGER.error("❌ Ошибка при получении стикерсетов пользователя {}: {}", userId, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -3,7 +3,7 @@ package com.example.sticker_art_gallery.controller;
 import com.example.sticker_art_gallery.dto.generation.CreateStylePresetRequest;
 import com.example.sticker_art_gallery.dto.generation.StylePresetDto;
 import com.example.sticker_art_gallery.dto.generation.StylePresetListView;
-import com.example.sticker_art_gallery.service.generation.StylePresetListEtag;
+import com.example.sticker_art_gallery.service.generation.StylePresetCatalogSnapshots;
 import com.example.sticker_art_gallery.service.generation.StylePresetService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -43,10 +43,12 @@ public class StylePresetController {
     private static final Logger LOGGER = LoggerFactory.getLogger(StylePresetController.class);
 
     private final StylePresetService presetService;
+    private final StylePresetCatalogSnapshots catalogSnapshots;
 
     @Autowired
-    public StylePresetController(StylePresetService presetService) {
+    public StylePresetController(StylePresetService presetService, StylePresetCatalogSnapshots catalogSnapshots) {
         this.presetService = presetService;
+        this.catalogSnapshots = catalogSnapshots;
     }
 
     @GetMapping
@@ -80,11 +82,14 @@ public class StylePresetController {
         }
 
         StylePresetListView view = presetService.resolveStylePresetListViewParam(viewRaw);
-        List<StylePresetDto> presets = presetService.getAvailablePresets(userId, includeUi, isCurrentUserAdmin(), view);
-        LOGGER.info("Returning {} available presets for user {} includeUi={} view={}", presets.size(), userId, includeUi, view);
+        // Снапшот версии каталога: при попадании ни проверка If-None-Match, ни тело ответа не ходят в БД
+        StylePresetCatalogSnapshots.Snapshot snapshot =
+                catalogSnapshots.getAvailablePresets(userId, includeUi, isCurrentUserAdmin(), view);
+        List<StylePresetDto> presets = snapshot.presets();
+        LOGGER.debug("Returning {} available presets for user {} includeUi={} view={}", presets.size(), userId, includeUi, view);
 
-        if (presetService.availablePresetsListSupportsWeakEtag(view, includeUi)) {
-            String etag = StylePresetListEtag.weakHexDigest(presets);
+        if (snapshot.etag() != null) {
+            String etag = snapshot.etag();
             if (webRequest.checkNotModified(etag)) {
                 return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
                         .eTag(etag)
@@ -7,6 +7,7 @@ import com.example.sticker_art_gallery.model.user.UserEntity;
 import com.example.sticker_art_gallery.service.profile.ArtRewardService;
 import com.example.sticker_art_gallery.service.profile.UserProfileService;
 import com.example.sticker_art_gallery.service.statistics.StatisticsService;
+import com.example.sticker_art_gallery.service.user.UserAvatarService;
 import com.example.sticker_art_gallery.service.user.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,10 +25,15 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,16 +52,19 @@ public class UserController {
     private final StatisticsService statisticsService;
     private final UserProfileService userProfileService;
     private final ArtRewardService artRewardService;
+    private final UserAvatarService userAvatarService;
     
     @Autowired
     public UserController(UserService userService,
                          StatisticsService statisticsService,
                          UserProfileService userProfileService,
-                         ArtRewardService artRewardService) {
+                         ArtRewardService artRewardService,
+                         UserAvatarService userAvatarService) {
         this.userService = userService;
         this.statisticsService = statisticsService;
         this.userProfileService = userProfileService;
         this.artRewardService = artRewardService;
+        this.userAvatarService = userAvatarService;
     }
     
     /**
@@ -259,7 +268,8 @@ public class UserController {
     @PreAuthorize("permitAll()")
     @Operation(
         summary = "Получить фото профиля пользователя",
-        description = "Возвращает информацию о фото профиля пользователя из Telegram Bot API с file_id для скачивания"
+        description = "Возвращает информацию о фото профиля пользователя из Telegram Bot API с file_id для скачивания. " +
+                      "Для отображения аватара используйте GET /api/users/{id}/avatar"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Фото профиля получено",
@@ -296,6 +306,60 @@ public class UserController {
         }
     }
 
+    /**
+     * Аватар пользователя картинкой: уменьшенное фото профиля из хранилища, с ETag-ревалидацией
+     */
+    @GetMapping("/{id}/avatar")
+    @PreAuthorize("permitAll()")
+    @Operation(
+        summary = "Получить аватар пользователя",
+        description = "Возвращает JPEG-аватар (квадрат 64 или 128 px) из фото профиля Telegram. " +
+                      "Файл скачивается из Telegram один раз и обновляется в фоне; ответ кэшируется клиентом и проверяется по ETag"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Аватар", content = @Content(mediaType = "image/jpeg")),
+        @ApiResponse(responseCode = "304", description = "Аватар не изменился (If-None-Match)"),
+        @ApiResponse(responseCode = "404", description = "У пользователя нет фото профиля"),
+        @ApiResponse(responseCode = "503", description = "Слишком много одновременных загрузок из Telegram, повторите позже")
+    })
+    public ResponseEntity<byte[]> getUserAvatar(
+            @Parameter(description = "Telegram ID пользователя", required = true, example = "123456789")
+            @PathVariable Long id,
+            @Parameter(description = "Размер в пикселях; округляется вверх до 64 или 128", example = "128")
+            @RequestParam(defaultValue = "128") @Min(1) @Max(1024) int size,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            Optional<UserAvatarService.Avatar> avatar = userAvatarService.getAvatar(id, size);
+            if (avatar.isEmpty()) {
+                return ResponseEntity.notFound()
+                        .header(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(Duration.ofHours(1)).cachePublic().getHeaderValue())
+                        .build();
+            }
+
+            CacheControl cacheControl = CacheControl.maxAge(Duration.ofDays(1)).cachePublic()
+                    .staleWhileRevalidate(Duration.ofDays(7));
+            if (ifNoneMatch != null && ifNoneMatch.contains(avatar.get().etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(avatar.get().etag())
+                        .cacheControl(cacheControl)
+                        .build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(avatar.get().contentType()))
+                    .eTag(avatar.get().etag())
+                    .cacheControl(cacheControl)
+                    .body(avatar.get().data());
+        } catch (UserAvatarService.AvatarFetchBusyException e) {
+            LOGGER.warn("⏳ Аватар пользователя {} не загружен: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .build();
+        } catch (Exception e) {
+            LOGGER.error("❌ Ошибка при получении аватара пользователя {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * Получить статистику по пользователям
      */
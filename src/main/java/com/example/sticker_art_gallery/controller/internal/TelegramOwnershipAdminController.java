@@ -91,7 +91,7 @@ public class TelegramOwnershipAdminController {
             List<String> allowedUpdates = request.allowedUpdates() != null
                     ? request.allowedUpdates()
                     : List.of("message", "pre_checkout_query",
-                            "callback_query", "inline_query", "chosen_inline_result", "web_app_query");
+                            "callback_query", "inline_query", "chosen_inline_result", "web_app_query", "chat_member");
 
             ownershipService.setWebhook(request.webhookUrl(), request.secretToken(), allowedUpdates);
 
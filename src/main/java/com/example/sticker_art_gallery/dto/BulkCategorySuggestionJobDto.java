@@ -0,0 +1,49 @@
+package com.example.sticker_art_gallery.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Состояние фонового задания пакетной AI-категоризации
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Задание пакетной AI-категоризации стикерсетов")
+public class BulkCategorySuggestionJobDto {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Schema(description = "ID задания", example = "3f1c2a9e-7b7d-4c55-9d0e-1d2f3a4b5c6d")
+    private String jobId;
+
+    @Schema(description = "Статус задания", example = "RUNNING")
+    private Status status;
+
+    @Schema(description = "Количество запрошенных стикерсетов", example = "500")
+    private int requested;
+
+    @Schema(description = "Применяются ли категории (apply=true)")
+    private boolean apply;
+
+    @Schema(description = "Время создания задания")
+    private OffsetDateTime createdAt;
+
+    @Schema(description = "Время завершения задания (null, пока выполняется)")
+    private OffsetDateTime completedAt;
+
+    @Schema(description = "Ошибка при status=FAILED")
+    private String error;
+
+    @Schema(description = "Результаты по ID стикерсета при status=COMPLETED")
+    private Map<Long, CategorySuggestionResult> results;
+}
@@ -0,0 +1,32 @@
+package com.example.sticker_art_gallery.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO запроса пакетной AI-категоризации стикерсетов
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Пакетная AI-категоризация стикерсетов")
+public class BulkCategorySuggestionRequest {
+
+    @Schema(description = "ID стикерсетов для анализа", example = "[1, 2, 3]")
+    @NotEmpty(message = "Список ID не может быть пустым")
+    @Size(max = 1000, message = "Не более 1000 стикерсетов за запрос")
+    private List<@NotNull @Positive Long> stickerSetIds;
+
+    @Schema(description = "Применить категории (true) или только предпросмотр (false)", example = "false")
+    private boolean apply;
+
+    @Schema(description = "Минимальный уровень уверенности (0.0-1.0) для применения категорий при apply=true", example = "0.8")
+    @DecimalMin(value = "0.0", message = "minConfidence должен быть >= 0.0")
+    @DecimalMax(value = "1.0", message = "minConfidence должен быть <= 1.0")
+    private Double minConfidence;
+}
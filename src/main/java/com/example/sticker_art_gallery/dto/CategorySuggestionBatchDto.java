@@ -0,0 +1,34 @@
+package com.example.sticker_art_gallery.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO для ответа AI при пакетной авто-категоризации: по одному результату на элемент входного списка
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CategorySuggestionBatchDto {
+
+    @JsonProperty("results")
+    private List<ItemResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ItemResult {
+        @JsonProperty("id")
+        private Integer id;
+
+        @JsonProperty("categories")
+        private List<CategorySuggestionDto.CategoryItem> categories;
+    }
+}
@@ -29,6 +29,17 @@ public class PageRequest {
     @Schema(description = "Направление сортировки", example = "DESC", defaultValue = "DESC", allowableValues = {"ASC", "DESC"})
     private String direction = "DESC";
     
+    @Schema(description = "Курсор для keyset-пагинации: пустая строка - первая страница, далее nextCursor из ответа. " +
+            "Если не передан - обычная пагинация по номеру страницы", example = "")
+    private String cursor;
+    
+    /**
+     * Режим курсора включается передачей параметра cursor (в том числе пустого)
+     */
+    public boolean isCursorMode() {
+        return cursor != null;
+    }
+    
     /**
      * Создает объект Pageable для Spring Data
      */
@@ -1,7 +1,7 @@
 package com.example.sticker_art_gallery.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
-import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.data.domain.Page;
@@ -13,7 +13,6 @@ import java.util.List;
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Schema(description = "Ответ с данными и информацией о пагинации")
 public class PageResponse<T> {
     
@@ -44,6 +43,23 @@ public class PageResponse<T> {
     @Schema(description = "Есть ли предыдущая страница", example = "false")
     private boolean hasPrevious;
     
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Курсор следующей страницы (только в режиме cursor; null - страниц больше нет)")
+    private String nextCursor;
+    
+    public PageResponse(List<T> content, int page, int size, long totalElements, int totalPages,
+                        boolean first, boolean last, boolean hasNext, boolean hasPrevious) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+        this.first = first;
+        this.last = last;
+        this.hasNext = hasNext;
+        this.hasPrevious = hasPrevious;
+    }
+    
     /**
      * Создает PageResponse из Spring Data Page
      */
@@ -77,4 +93,13 @@ public class PageResponse<T> {
             page.hasPrevious()
         );
     }
+    
+    /**
+     * Страница в режиме курсора: без COUNT, поэтому totalElements/totalPages = -1, а page всегда 0
+     */
+    public static <R> PageResponse<R> ofCursor(List<R> content, int size, boolean first, String nextCursor) {
+        PageResponse<R> response = new PageResponse<>(content, 0, size, -1, -1, first, nextCursor == null, nextCursor != null, !first);
+        response.setNextCursor(nextCursor);
+        return response;
+    }
 }
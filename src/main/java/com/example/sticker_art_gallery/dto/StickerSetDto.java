@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class StickerSetDto {
@@ -561,23 +562,33 @@ public class StickerSetDto {
     
     // Конструктор для создания DTO из Entity с категориями, информацией о лайках и опциональными доступными действиями
     public static StickerSetDto fromEntity(com.example.sticker_art_gallery.model.telegram.StickerSet entity, String language, Long currentUserId, boolean isAdmin, boolean includeAvailableActions, boolean hasTonWallet) {
+        if (entity == null) {
+            return null;
+        }
+        Set<Long> liked = currentUserId != null && entity.isLikedByUser(currentUserId) ? Set.of(entity.getId()) : Set.of();
+        Set<Long> disliked = currentUserId != null && entity.isDislikedByUser(currentUserId) ? Set.of(entity.getId()) : Set.of();
+        return fromEntity(entity, language, new ViewerContext(currentUserId, isAdmin, hasTonWallet, liked, disliked), includeAvailableActions);
+    }
+    
+    // Конструктор для обогащения: роль, кошелёк и лайки зрителя уже вычислены один раз на ответ
+    public static StickerSetDto fromEntity(com.example.sticker_art_gallery.model.telegram.StickerSet entity, String language, ViewerContext viewer, boolean includeAvailableActions) {
         StickerSetDto dto = fromEntity(entity, language);
         
-        if (dto != null && currentUserId != null) {
-            dto.setLikedByCurrentUser(entity.isLikedByUser(currentUserId));
-            dto.setDislikedByCurrentUser(entity.isDislikedByUser(currentUserId));
+        if (dto != null && viewer.userId() != null) {
+            dto.setLikedByCurrentUser(viewer.isLiked(entity.getId()));
+            dto.setDislikedByCurrentUser(viewer.isDisliked(entity.getId()));
         }
         
         // Вычисляем доступные действия только если требуется
         if (dto != null && includeAvailableActions) {
             dto.setAvailableActions(calculateAvailableActions(
-                currentUserId,
-                isAdmin,
+                viewer.userId(),
+                viewer.admin(),
                 entity.getUserId(),
                 entity.getIsVerified(),
                 entity.getState(),
                 entity.getVisibility(),
-                hasTonWallet
+                viewer.hasTonWallet()
             ));
         } else if (dto != null) {
             // Устанавливаем пустой список, если не нужно вычислять
@@ -0,0 +1,33 @@
+package com.example.sticker_art_gallery.dto;
+
+import java.util.Set;
+
+/**
+ * Данные текущего зрителя, нужные для сборки {@link StickerSetDto}: роль, наличие кошелька
+ * и его лайки/дизлайки среди отдаваемых стикерсетов. Вычисляется один раз на ответ,
+ * поэтому сборка DTO не делает обращений к SecurityContext и БД.
+ *
+ * @param userId       ID зрителя; null - анонимный запрос
+ * @param admin        есть роль ADMIN
+ * @param hasTonWallet есть активный TON кошелёк (вычисляется только когда нужны availableActions)
+ * @param likedIds     лайкнутые зрителем ID из ответа
+ * @param dislikedIds  дизлайкнутые зрителем ID из ответа
+ */
+public record ViewerContext(Long userId,
+                            boolean admin,
+                            boolean hasTonWallet,
+                            Set<Long> likedIds,
+                            Set<Long> dislikedIds) {
+
+    public static ViewerContext anonymous(boolean admin) {
+        return new ViewerContext(null, admin, false, Set.of(), Set.of());
+    }
+
+    public boolean isLiked(Long stickerSetId) {
+        return likedIds.contains(stickerSetId);
+    }
+
+    public boolean isDisliked(Long stickerSetId) {
+        return dislikedIds.contains(stickerSetId);
+    }
+}
@@ -15,4 +15,11 @@ public class GenerationHistoryResponse extends PageResponse<GenerationStatusResp
     public GenerationHistoryResponse(List<GenerationStatusResponse> content, int page, int size, long totalElements, int totalPages, boolean first, boolean last, boolean hasNext, boolean hasPrevious) {
         super(content, page, size, totalElements, totalPages, first, last, hasNext, hasPrevious);
     }
+
+    public static GenerationHistoryResponse of(PageResponse<GenerationStatusResponse> page) {
+        GenerationHistoryResponse response = new GenerationHistoryResponse(page.getContent(), page.getPage(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages(), page.isFirst(), page.isLast(), page.isHasNext(), page.isHasPrevious());
+        response.setNextCursor(page.getNextCursor());
+        return response;
+    }
 }
@@ -0,0 +1,67 @@
+package com.example.sticker_art_gallery.dto.messaging;
+
+import com.example.sticker_art_gallery.model.messaging.BroadcastJobEntity;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.OffsetDateTime;
+
+@Schema(description = "Задание массовой рассылки")
+public class BroadcastJobDto {
+
+    private Long id;
+    @Schema(description = "PENDING, RUNNING, PAUSED, CANCELLED, COMPLETED, FAILED")
+    private String status;
+    private String messageText;
+    private String parseMode;
+    private String audienceRole;
+    private OffsetDateTime audienceActiveSince;
+    private Long audienceReferrerUserId;
+    private boolean audienceReferredOnly;
+    @Schema(description = "Telegram ID последнего обработанного пользователя (keyset-курсор)")
+    private Long cursorUserId;
+    private long sentCount;
+    private long failedCount;
+    private String lastError;
+    private Long createdBy;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime completedAt;
+
+    public static BroadcastJobDto fromEntity(BroadcastJobEntity entity) {
+        BroadcastJobDto dto = new BroadcastJobDto();
+        dto.id = entity.getId();
+        dto.status = entity.getStatus().name();
+        dto.messageText = entity.getMessageText();
+        dto.parseMode = entity.getParseMode();
+        dto.audienceRole = entity.getAudienceRole();
+        dto.audienceActiveSince = entity.getAudienceActiveSince();
+        dto.audienceReferrerUserId = entity.getAudienceReferrerUserId();
+        dto.audienceReferredOnly = entity.isAudienceReferredOnly();
+        dto.cursorUserId = entity.getCursorUserId();
+        dto.sentCount = entity.getSentCount();
+        dto.failedCount = entity.getFailedCount();
+        dto.lastError = entity.getLastError();
+        dto.createdBy = entity.getCreatedBy();
+        dto.createdAt = entity.getCreatedAt();
+        dto.startedAt = entity.getStartedAt();
+        dto.completedAt = entity.getCompletedAt();
+        return dto;
+    }
+
+    public Long getId() { return id; }
+    public String getStatus() { return status; }
+    public String getMessageText() { return messageText; }
+    public String getParseMode() { return parseMode; }
+    public String getAudienceRole() { return audienceRole; }
+    public OffsetDateTime getAudienceActiveSince() { return audienceActiveSince; }
+    public Long getAudienceReferrerUserId() { return audienceReferrerUserId; }
+    public boolean isAudienceReferredOnly() { return audienceReferredOnly; }
+    public Long getCursorUserId() { return cursorUserId; }
+    public long getSentCount() { return sentCount; }
+    public long getFailedCount() { return failedCount; }
+    public String getLastError() { return lastError; }
+    public Long getCreatedBy() { return createdBy; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public OffsetDateTime getStartedAt() { return startedAt; }
+    public OffsetDateTime getCompletedAt() { return completedAt; }
+}
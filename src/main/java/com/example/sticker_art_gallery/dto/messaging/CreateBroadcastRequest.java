@@ -0,0 +1,51 @@
+package com.example.sticker_art_gallery.dto.messaging;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Запрос на массовую рассылку: текст сообщения и фильтр аудитории.
+ * Незаданные условия фильтра не ограничивают аудиторию; заблокированные пользователи исключаются всегда.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Создание задания массовой рассылки")
+public class CreateBroadcastRequest {
+
+    @NotBlank(message = "Текст сообщения обязателен")
+    @Size(min = 1, max = 4096)
+    @Schema(description = "Текст сообщения")
+    private String text;
+
+    @Schema(description = "Режим форматирования: MarkdownV2, HTML или plain", example = "HTML")
+    @Builder.Default
+    private String parseMode = "MarkdownV2";
+
+    @Schema(description = "Отключить превью ссылок")
+    private boolean disableWebPagePreview;
+
+    @Pattern(regexp = "USER|ADMIN", message = "role: USER или ADMIN")
+    @Schema(description = "Только пользователи с ролью", example = "USER")
+    private String role;
+
+    @Schema(description = "Только пользователи, активные начиная с (ISO-8601)")
+    private OffsetDateTime activeSince;
+
+    @Schema(description = "Только приглашённые этим пользователем (Telegram ID реферера)")
+    private Long referrerUserId;
+
+    @Schema(description = "Только пользователи, пришедшие по реферальной ссылке")
+    private boolean referredOnly;
+}
@@ -0,0 +1,15 @@
+package com.example.sticker_art_gallery.exception;
+
+/**
+ * Курсор пагинации повреждён или выдан для другой сортировки (обрабатывается как 400)
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
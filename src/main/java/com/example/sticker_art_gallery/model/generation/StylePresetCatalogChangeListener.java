@@ -0,0 +1,35 @@
+package com.example.sticker_art_gallery.model.generation;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener для {@link StylePresetEntity} и {@link StylePresetCategoryEntity}:
+ * любое изменение пресета, категории или модерации поднимает {@link StylePresetCatalogVersion}.
+ * Живёт рядом с сущностями и ничего, кроме версии, не знает - кэши сервисного слоя сами сверяются с ней.
+ * Экземпляр создаётся через Spring (Hibernate SpringBeanContainer), поэтому доступна инъекция.
+ */
+@Component
+public class StylePresetCatalogChangeListener {
+
+    private final StylePresetCatalogVersion catalogVersion;
+
+    public StylePresetCatalogChangeListener(StylePresetCatalogVersion catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof StylePresetEntity preset) {
+            catalogVersion.bumpAfterCommit(Boolean.TRUE.equals(preset.getIsGlobal())
+                    ? StylePresetCatalogVersion.Scope.GLOBAL
+                    : StylePresetCatalogVersion.Scope.USER_PRESETS);
+        } else if (entity instanceof StylePresetCategoryEntity) {
+            catalogVersion.bumpAfterCommit(StylePresetCatalogVersion.Scope.GLOBAL);
+        }
+    }
+}
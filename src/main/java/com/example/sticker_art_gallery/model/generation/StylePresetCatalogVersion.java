@@ -0,0 +1,46 @@
+package com.example.sticker_art_gallery.model.generation;
+
+import com.example.sticker_art_gallery.util.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Монотонные версии каталога пресетов стилей в разрезе областей видимости.
+ * Версия растёт после коммита любого изменения пресета, категории или статуса модерации;
+ * снапшоты списков пресетов привязаны к версиям и перестают использоваться при их изменении.
+ */
+@Component
+public class StylePresetCatalogVersion {
+
+    /**
+     * Область, затронутая изменением
+     */
+    public enum Scope {
+        /** Глобальные пресеты и категории - видны всем */
+        GLOBAL,
+        /** Пользовательские пресеты, публикация в каталог и модерация */
+        USER_PRESETS
+    }
+
+    private final Map<Scope, AtomicLong> versions = new EnumMap<>(Scope.class);
+
+    public StylePresetCatalogVersion() {
+        for (Scope scope : Scope.values()) {
+            versions.put(scope, new AtomicLong());
+        }
+    }
+
+    public long current(Scope scope) {
+        return versions.get(scope).get();
+    }
+
+    /**
+     * Поднять версию области после коммита текущей транзакции
+     */
+    public void bumpAfterCommit(Scope scope) {
+        TransactionCallbacks.afterCommit(() -> versions.get(scope).incrementAndGet());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.sticker_art_gallery.model.generation;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -13,6 +14,7 @@ import java.time.OffsetDateTime;
 
 @Entity
 @Table(name = "style_preset_categories")
+@EntityListeners(StylePresetCatalogChangeListener.class)
 public class StylePresetCategoryEntity {
 
     @Id
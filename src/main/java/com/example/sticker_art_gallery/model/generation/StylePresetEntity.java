@@ -14,6 +14,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "style_presets")
+@EntityListeners(StylePresetCatalogChangeListener.class)
 public class StylePresetEntity {
 
     @Id
@@ -0,0 +1,233 @@
+package com.example.sticker_art_gallery.model.messaging;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+
+@Entity
+@Table(name = "broadcast_jobs")
+public class BroadcastJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private BroadcastJobStatus status = BroadcastJobStatus.PENDING;
+
+    @Column(name = "message_text", nullable = false, columnDefinition = "TEXT")
+    private String messageText;
+
+    @Column(name = "parse_mode", length = 50)
+    private String parseMode;
+
+    @Column(name = "disable_web_page_preview", nullable = false)
+    private boolean disableWebPagePreview;
+
+    @Column(name = "audience_role", length = 16)
+    private String audienceRole;
+
+    @Column(name = "audience_active_since")
+    private OffsetDateTime audienceActiveSince;
+
+    @Column(name = "audience_referrer_user_id")
+    private Long audienceReferrerUserId;
+
+    @Column(name = "audience_referred_only", nullable = false)
+    private boolean audienceReferredOnly;
+
+    @Column(name = "cursor_user_id")
+    private Long cursorUserId;
+
+    @Column(name = "sent_count", nullable = false)
+    private long sentCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private long failedCount;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private OffsetDateTime leaseUntil;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt = OffsetDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt = OffsetDateTime.now();
+
+    @Column(name = "started_at")
+    private OffsetDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private OffsetDateTime completedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public BroadcastJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BroadcastJobStatus status) {
+        this.status = status;
+    }
+
+    public String getMessageText() {
+        return messageText;
+    }
+
+    public void setMessageText(String messageText) {
+        this.messageText = messageText;
+    }
+
+    public String getParseMode() {
+        return parseMode;
+    }
+
+    public void setParseMode(String parseMode) {
+        this.parseMode = parseMode;
+    }
+
+    public boolean isDisableWebPagePreview() {
+        return disableWebPagePreview;
+    }
+
+    public void setDisableWebPagePreview(boolean disableWebPagePreview) {
+        this.disableWebPagePreview = disableWebPagePreview;
+    }
+
+    public String getAudienceRole() {
+        return audienceRole;
+    }
+
+    public void setAudienceRole(String audienceRole) {
+        this.audienceRole = audienceRole;
+    }
+
+    public OffsetDateTime getAudienceActiveSince() {
+        return audienceActiveSince;
+    }
+
+    public void setAudienceActiveSince(OffsetDateTime audienceActiveSince) {
+        this.audienceActiveSince = audienceActiveSince;
+    }
+
+    public Long getAudienceReferrerUserId() {
+        return audienceReferrerUserId;
+    }
+
+    public void setAudienceReferrerUserId(Long audienceReferrerUserId) {
+        this.audienceReferrerUserId = audienceReferrerUserId;
+    }
+
+    public boolean isAudienceReferredOnly() {
+        return audienceReferredOnly;
+    }
+
+    public void setAudienceReferredOnly(boolean audienceReferredOnly) {
+        this.audienceReferredOnly = audienceReferredOnly;
+    }
+
+    public Long getCursorUserId() {
+        return cursorUserId;
+    }
+
+    public void setCursorUserId(Long cursorUserId) {
+        this.cursorUserId = cursorUserId;
+    }
+
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    public void setSentCount(long sentCount) {
+        this.sentCount = sentCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public OffsetDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(OffsetDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public Long getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(Long createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(OffsetDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public OffsetDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(OffsetDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public OffsetDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(OffsetDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.sticker_art_gallery.model.messaging;
+
+/**
+ * Статус задания массовой рассылки
+ */
+public enum BroadcastJobStatus {
+    PENDING,
+    RUNNING,
+    PAUSED,
+    CANCELLED,
+    COMPLETED,
+    FAILED;
+
+    public boolean isFinal() {
+        return this == CANCELLED || this == COMPLETED || this == FAILED;
+    }
+}
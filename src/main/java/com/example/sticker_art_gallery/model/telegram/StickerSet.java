@@ -63,6 +63,9 @@ public class StickerSet {
     
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt; // Дата удаления (для state = DELETED)
+
+    @Column(name = "telegram_missing_at")
+    private LocalDateTime telegramMissingAt; // Telegram не нашёл набор при обновлении кэша (требует проверки модератором)
     
     @Column(name = "is_verified", nullable = false)
     private Boolean isVerified = false; // Признак верифицированного авторства (владелец = автор)
@@ -0,0 +1,121 @@
+package com.example.sticker_art_gallery.repository;
+
+import com.example.sticker_art_gallery.model.messaging.BroadcastJobEntity;
+import com.example.sticker_art_gallery.model.messaging.BroadcastJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BroadcastJobRepository extends JpaRepository<BroadcastJobEntity, Long> {
+
+    List<BroadcastJobEntity> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    /**
+     * Задания без живого исполнителя: RUNNING с истёкшей или не выданной арендой (рестарт или падение инстанса)
+     * и PENDING, чей запуск не состоялся (очередь исполнителей была переполнена)
+     */
+    @Query("SELECT j.id FROM BroadcastJobEntity j WHERE j.status IN (com.example.sticker_art_gallery.model.messaging.BroadcastJobStatus.PENDING, com.example.sticker_art_gallery.model.messaging.BroadcastJobStatus.RUNNING) " +
+            "AND (j.leaseUntil IS NULL OR j.leaseUntil < :now)")
+    List<Long> findOrphanedIds(@Param("now") OffsetDateTime now);
+
+    /**
+     * Захватить задание для исполнения: PENDING/RUNNING без действующей аренды → RUNNING с арендой {@code owner}
+     * до {@code leaseUntil}. Возвращает 0, если задание уже исполняется другим потоком/инстансом или не в том статусе.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BroadcastJobEntity j SET j.status = com.example.sticker_art_gallery.model.messaging.BroadcastJobStatus.RUNNING, j.leaseOwner = :owner, j.leaseUntil = :leaseUntil, " +
+            "j.startedAt = COALESCE(j.startedAt, :now), j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.status IN (com.example.sticker_art_gallery.model.messaging.BroadcastJobStatus.PENDING, com.example.sticker_art_gallery.model.messaging.BroadcastJobStatus.RUNNING) " +
+            "AND (j.leaseUntil IS NULL OR j.leaseUntil < :now)")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("now") OffsetDateTime now, @Param("leaseUntil") OffsetDateTime leaseUntil);
+
+    /**
+     * Вернуть захваченное, но не запущенное задание в PENDING и отпустить аренду
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BroadcastJobEntity j SET j.status = com.example.sticker_art_gallery.model.messaging.BroadcastJobStatus.PENDING, j.leaseOwner = NULL, j.leaseUntil = NULL, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.leaseOwner = :owner AND j.status = com.example.sticker_art_gallery.model.messaging.BroadcastJobStatus.RUNNING")
+    int unclaim(@Param("id") Long id, @Param("owner") String owner, @Param("now") OffsetDateTime now);
+
+    /**
+     * Продлить аренду перед очередной страницей. 0 - аренда истекла или перешла к другому исполнителю.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BroadcastJobEntity j SET j.leaseUntil = :leaseUntil " +
+            "WHERE j.id = :id AND j.leaseOwner = :owner AND j.leaseUntil > :now")
+    int renewLease(@Param("id") Long id,
+                   @Param("owner") String owner,
+                   @Param("leaseUntil") OffsetDateTime leaseUntil,
+                   @Param("now") OffsetDateTime now);
+
+    /**
+     * Зафиксировать обработанную страницу аудитории: курсор, счётчики и продление аренды одним UPDATE.
+     * Пишет только владелец действующей аренды; 0 - аренда потеряна.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BroadcastJobEntity j SET j.cursorUserId = :cursor, j.sentCount = j.sentCount + :sent, " +
+            "j.failedCount = j.failedCount + :failed, j.lastError = COALESCE(:lastError, j.lastError), " +
+            "j.leaseUntil = :leaseUntil, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.leaseOwner = :owner AND j.leaseUntil > :now")
+    int recordProgress(@Param("id") Long id,
+                       @Param("owner") String owner,
+                       @Param("cursor") Long cursor,
+                       @Param("sent") long sent,
+                       @Param("failed") long failed,
+                       @Param("lastError") String lastError,
+                       @Param("leaseUntil") OffsetDateTime leaseUntil,
+                       @Param("now") OffsetDateTime now);
+
+    /**
+     * Перевести задание в {@code to}, если текущий статус входит в {@code from} (команды админки).
+     * Аренду не трогает: её отпускает исполнитель, когда увидит новый статус и выйдет.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BroadcastJobEntity j SET j.status = :to, j.updatedAt = :now, " +
+            "j.completedAt = CASE WHEN :terminal = true THEN :now ELSE j.completedAt END, " +
+            "j.lastError = COALESCE(:lastError, j.lastError) " +
+            "WHERE j.id = :id AND j.status IN :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") Collection<BroadcastJobStatus> from,
+                   @Param("to") BroadcastJobStatus to,
+                   @Param("terminal") boolean terminal,
+                   @Param("lastError") String lastError,
+                   @Param("now") OffsetDateTime now);
+
+    /**
+     * Завершить задание исполнителем (COMPLETED/FAILED) и отпустить аренду; только из RUNNING и только владельцем аренды
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BroadcastJobEntity j SET j.status = :to, j.leaseOwner = NULL, j.leaseUntil = NULL, " +
+            "j.updatedAt = :now, j.completedAt = :now, j.lastError = COALESCE(:lastError, j.lastError) " +
+            "WHERE j.id = :id AND j.leaseOwner = :owner AND j.status = com.example.sticker_art_gallery.model.messaging.BroadcastJobStatus.RUNNING")
+    int finish(@Param("id") Long id,
+               @Param("owner") String owner,
+               @Param("to") BroadcastJobStatus to,
+               @Param("lastError") String lastError,
+               @Param("now") OffsetDateTime now);
+
+    /**
+     * Отпустить аренду при выходе исполнителя (пауза, отмена, остановка инстанса): задание сразу доступно для захвата
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BroadcastJobEntity j SET j.leaseOwner = NULL, j.leaseUntil = NULL WHERE j.id = :id AND j.leaseOwner = :owner")
+    int releaseLease(@Param("id") Long id, @Param("owner") String owner);
+}
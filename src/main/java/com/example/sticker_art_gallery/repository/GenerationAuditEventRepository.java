@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @Repository
@@ -16,6 +17,16 @@ public interface GenerationAuditEventRepository extends JpaRepository<Generation
     @Query("SELECT e FROM GenerationAuditEventEntity e WHERE e.taskId = :taskId ORDER BY e.createdAt ASC")
     List<GenerationAuditEventEntity> findByTaskIdOrderByCreatedAtAsc(@Param("taskId") String taskId);
 
+    /**
+     * События задачи в окне времени: граница по created_at позволяет Postgres отсечь лишние партиции
+     */
+    @Query("SELECT e FROM GenerationAuditEventEntity e WHERE e.taskId = :taskId " +
+            "AND e.createdAt >= :from AND e.createdAt <= :to ORDER BY e.createdAt ASC")
+    List<GenerationAuditEventEntity> findByTaskIdInWindow(
+            @Param("taskId") String taskId,
+            @Param("from") OffsetDateTime from,
+            @Param("to") OffsetDateTime to);
+
     @Query("SELECT e FROM GenerationAuditEventEntity e WHERE e.session.id = :sessionId ORDER BY e.createdAt ASC")
     Page<GenerationAuditEventEntity> findBySessionIdOrderByCreatedAtAsc(@Param("sessionId") Long sessionId, Pageable pageable);
 }
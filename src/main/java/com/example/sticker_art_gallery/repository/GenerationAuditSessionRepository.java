@@ -17,11 +17,19 @@ public interface GenerationAuditSessionRepository extends JpaRepository<Generati
 
     Optional<GenerationAuditSessionEntity> findByTaskId(String taskId);
 
+    /**
+     * Сессия по task_id через generation_audit_session_keys: started_at берётся из таблицы ключей,
+     * поэтому Postgres читает одну партицию сессий вместо всех недельных
+     */
+    @Query(value = "SELECT s.* FROM generation_audit_sessions s WHERE s.task_id = :taskId " +
+            "AND s.started_at = (SELECT k.started_at FROM generation_audit_session_keys k WHERE k.task_id = :taskId)",
+            nativeQuery = true)
+    Optional<GenerationAuditSessionEntity> findByTaskIdViaKey(@Param("taskId") String taskId);
+
     @Query("SELECT s FROM GenerationAuditSessionEntity s WHERE " +
             "(:userId is null OR s.userId = :userId) AND " +
             "(:finalStatus is null OR s.finalStatus = :finalStatus) AND " +
-            "(COALESCE(:dateFrom, s.startedAt) <= s.startedAt) AND " +
-            "(s.startedAt <= COALESCE(:dateTo, s.startedAt)) AND " +
+            "s.startedAt >= :dateFrom AND s.startedAt <= :dateTo AND " +
             "(:errorOnly is null OR :errorOnly = false OR s.errorCode is not null) AND " +
             "(:taskId is null OR s.taskId = :taskId) " +
             "ORDER BY s.startedAt DESC")
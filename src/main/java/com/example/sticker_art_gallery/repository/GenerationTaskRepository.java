@@ -11,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -42,6 +43,42 @@ public interface GenerationTaskRepository extends JpaRepository<GenerationTaskEn
     )
     Page<GenerationTaskEntity> findV2ByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId, Pageable pageable);
 
+    /**
+     * Первая страница истории v2 в режиме курсора: без COUNT, {@code limit} = размер страницы + 1 для признака hasNext
+     */
+    @Query(
+            value = """
+                    SELECT *
+                    FROM generation_tasks g
+                    WHERE g.user_id = :userId
+                      AND COALESCE(g.metadata::jsonb ->> 'flow', 'legacy') = 'generation-v2'
+                    ORDER BY g.created_at DESC, g.task_id DESC
+                    LIMIT :limit
+                    """,
+            nativeQuery = true
+    )
+    List<GenerationTaskEntity> findV2FirstByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+
+    /**
+     * Следующая страница истории v2 после (createdAt, taskId) последней задачи - по индексу (user_id, created_at, task_id)
+     */
+    @Query(
+            value = """
+                    SELECT *
+                    FROM generation_tasks g
+                    WHERE g.user_id = :userId
+                      AND COALESCE(g.metadata::jsonb ->> 'flow', 'legacy') = 'generation-v2'
+                      AND (g.created_at, g.task_id) < (:afterCreatedAt, :afterTaskId)
+                    ORDER BY g.created_at DESC, g.task_id DESC
+                    LIMIT :limit
+                    """,
+            nativeQuery = true
+    )
+    List<GenerationTaskEntity> findV2ByUserIdAfter(@Param("userId") Long userId,
+                                                   @Param("afterCreatedAt") OffsetDateTime afterCreatedAt,
+                                                   @Param("afterTaskId") String afterTaskId,
+                                                   @Param("limit") int limit);
+
     @Query(
             value = """
                     SELECT *
@@ -4,10 +4,15 @@ import com.example.sticker_art_gallery.model.messaging.MessageAuditEventEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @Repository
 public interface MessageAuditEventRepository extends JpaRepository<MessageAuditEventEntity, Long> {
 
-    List<MessageAuditEventEntity> findByMessageIdOrderByCreatedAtAsc(String messageId);
+    /**
+     * События отправки в окне времени: граница по created_at позволяет Postgres отсечь лишние партиции
+     */
+    List<MessageAuditEventEntity> findByMessageIdAndCreatedAtBetweenOrderByCreatedAtAsc(
+            String messageId, OffsetDateTime from, OffsetDateTime to);
 }
@@ -17,11 +17,19 @@ public interface MessageAuditSessionRepository extends JpaRepository<MessageAudi
 
     Optional<MessageAuditSessionEntity> findByMessageId(String messageId);
 
+    /**
+     * Сессия по message_id через message_audit_session_keys: started_at берётся из таблицы ключей,
+     * поэтому Postgres читает одну партицию сессий вместо всех недельных
+     */
+    @Query(value = "SELECT s.* FROM message_audit_sessions s WHERE s.message_id = :messageId " +
+            "AND s.started_at = (SELECT k.started_at FROM message_audit_session_keys k WHERE k.message_id = :messageId)",
+            nativeQuery = true)
+    Optional<MessageAuditSessionEntity> findByMessageIdViaKey(@Param("messageId") String messageId);
+
     @Query("SELECT s FROM MessageAuditSessionEntity s WHERE " +
             "(:userId is null OR s.userId = :userId) AND " +
             "(:finalStatus is null OR s.finalStatus = :finalStatus) AND " +
-            "(COALESCE(:dateFrom, s.startedAt) <= s.startedAt) AND " +
-            "(s.startedAt <= COALESCE(:dateTo, s.startedAt)) AND " +
+            "s.startedAt >= :dateFrom AND s.startedAt <= :dateTo AND " +
             "(:errorOnly is null OR :errorOnly = false OR s.errorCode is not null) AND " +
             "(:messageId is null OR s.messageId = :messageId) " +
             "ORDER BY s.startedAt DESC")
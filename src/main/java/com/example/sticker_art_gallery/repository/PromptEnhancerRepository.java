@@ -23,6 +23,14 @@ public interface PromptEnhancerRepository extends JpaRepository<PromptEnhancerEn
            "ORDER BY pe.sortOrder ASC, pe.name ASC")
     List<PromptEnhancerEntity> findAvailableForUser(Long userId);
 
+    /**
+     * Все активные энхансеры (глобальные и персональные) с владельцем - для in-memory снапшота.
+     * Сортировка как у {@link #findAvailableForUser(Long)}, фильтрация по пользователю сохраняет порядок.
+     */
+    @Query("SELECT pe FROM PromptEnhancerEntity pe LEFT JOIN FETCH pe.owner WHERE pe.isEnabled = true " +
+           "ORDER BY pe.sortOrder ASC, pe.name ASC")
+    List<PromptEnhancerEntity> findAllEnabledWithOwner();
+
     /**
      * Находит все глобальные энхансеры (для админа)
      */
@@ -3,6 +3,7 @@ package com.example.sticker_art_gallery.repository;
 import com.example.sticker_art_gallery.model.telegram.StickerSet;
 import com.example.sticker_art_gallery.model.telegram.StickerSetType;
 import com.example.sticker_art_gallery.model.telegram.StickerSetVisibility;
+import com.example.sticker_art_gallery.repository.projection.StickerSetLikesRankProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,8 +11,10 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -63,17 +66,18 @@ public interface StickerSetRepository extends JpaRepository<StickerSet, Long> {
     Page<StickerSet> findByCategoryKeysPublicAndActive(@Param("categoryKeys") String[] categoryKeys, Pageable pageable);
     
     /**
-     * Публичные, активные стикерсеты с гибкой фильтрацией по type/userId/isVerified
+     * ID публичных, активных стикерсетов с гибкой фильтрацией по type/userId/isVerified.
+     * Первая фаза двухфазной выборки: страница ID, сами наборы догружаются {@link #findAllWithCategoriesByIdIn}
      */
-    @Query("SELECT ss FROM StickerSet ss " +
+    @Query("SELECT ss.id FROM StickerSet ss " +
            "WHERE ss.state = 'ACTIVE' AND ss.visibility = 'PUBLIC' " +
            "AND (:type IS NULL OR ss.type = :type) " +
            "AND (:userId IS NULL OR ss.userId = :userId) " +
            "AND (:isVerified IS NULL OR :isVerified = false OR ss.isVerified = true)")
-    Page<StickerSet> findPublicNotBlockedFiltered(@Param("type") StickerSetType type,
-                                                   @Param("userId") Long userId,
-                                                   @Param("isVerified") Boolean isVerified,
-                                                   Pageable pageable);
+    Page<Long> findPublicNotBlockedFilteredIds(@Param("type") StickerSetType type,
+                                               @Param("userId") Long userId,
+                                               @Param("isVerified") Boolean isVerified,
+                                               Pageable pageable);
 
     /**
      * Поиск только официальных, публичных и активных стикерсетов с пагинацией
@@ -82,35 +86,59 @@ public interface StickerSetRepository extends JpaRepository<StickerSet, Long> {
     Page<StickerSet> findPublicNotBlockedAndOfficial(Pageable pageable);
     
     /**
-     * Поиск публичных и активных стикерсетов по ключам категорий с пагинацией
+     * ID публичных и активных стикерсетов по ключам категорий.
+     * Категории проверяются полусоединением (IN-подзапрос) вместо JOIN + DISTINCT: строка набора не размножается
+     * по категориям, и сортировка страницы идёт по колонкам stickersets без дедупликации.
      */
-    @Query("SELECT DISTINCT ss FROM StickerSet ss " +
-           "JOIN ss.categories c " +
-           "WHERE c.key IN :categoryKeys AND ss.state = 'ACTIVE' AND ss.visibility = 'PUBLIC'")
-    Page<StickerSet> findByCategoryKeysPublicAndNotBlocked(@Param("categoryKeys") String[] categoryKeys, Pageable pageable);
+    @Query("SELECT ss.id FROM StickerSet ss " +
+           "WHERE ss.state = 'ACTIVE' AND ss.visibility = 'PUBLIC' AND " +
+           "ss.id IN (SELECT cs.id FROM StickerSet cs JOIN cs.categories c WHERE c.key IN :categoryKeys)")
+    Page<Long> findIdsByCategoryKeysPublicAndNotBlocked(@Param("categoryKeys") String[] categoryKeys, Pageable pageable);
     
     /**
-     * Публичные, активные по категориям с гибкой фильтрацией по type/userId/isVerified
+     * ID публичных, активных по категориям с гибкой фильтрацией по type/userId/isVerified
      */
-    @Query("SELECT DISTINCT ss FROM StickerSet ss " +
-           "JOIN ss.categories c " +
-           "WHERE c.key IN :categoryKeys AND ss.state = 'ACTIVE' AND ss.visibility = 'PUBLIC' " +
+    @Query("SELECT ss.id FROM StickerSet ss " +
+           "WHERE ss.state = 'ACTIVE' AND ss.visibility = 'PUBLIC' AND " +
+           "ss.id IN (SELECT cs.id FROM StickerSet cs JOIN cs.categories c WHERE c.key IN :categoryKeys) " +
            "AND (:type IS NULL OR ss.type = :type) " +
            "AND (:userId IS NULL OR ss.userId = :userId) " +
            "AND (:isVerified IS NULL OR :isVerified = false OR ss.isVerified = true)")
-    Page<StickerSet> findByCategoryKeysPublicNotBlockedFiltered(@Param("categoryKeys") String[] categoryKeys,
-                                                                @Param("type") StickerSetType type,
-                                                                @Param("userId") Long userId,
-                                                                @Param("isVerified") Boolean isVerified,
-                                                                Pageable pageable);
+    Page<Long> findIdsByCategoryKeysPublicNotBlockedFiltered(@Param("categoryKeys") String[] categoryKeys,
+                                                             @Param("type") StickerSetType type,
+                                                             @Param("userId") Long userId,
+                                                             @Param("isVerified") Boolean isVerified,
+                                                             Pageable pageable);
     
     /**
-     * Поиск официальных, публичных и активных стикерсетов по ключам категорий с пагинацией
+     * ID официальных, публичных и активных стикерсетов по ключам категорий
      */
-    @Query("SELECT DISTINCT ss FROM StickerSet ss " +
-           "JOIN ss.categories c " +
-           "WHERE c.key IN :categoryKeys AND ss.state = 'ACTIVE' AND ss.visibility = 'PUBLIC' AND ss.type = 'OFFICIAL'")
-    Page<StickerSet> findByCategoryKeysPublicNotBlockedAndOfficial(@Param("categoryKeys") String[] categoryKeys, Pageable pageable);
+    @Query("SELECT ss.id FROM StickerSet ss " +
+           "WHERE ss.state = 'ACTIVE' AND ss.visibility = 'PUBLIC' AND ss.type = 'OFFICIAL' AND " +
+           "ss.id IN (SELECT cs.id FROM StickerSet cs JOIN cs.categories c WHERE c.key IN :categoryKeys)")
+    Page<Long> findIdsByCategoryKeysPublicNotBlockedAndOfficial(@Param("categoryKeys") String[] categoryKeys, Pageable pageable);
+
+    /**
+     * Вторая фаза двухфазной выборки: наборы страницы вместе с категориями одним запросом.
+     * Порядок не гарантирован - восстанавливается по странице ID.
+     */
+    @Query("SELECT DISTINCT ss FROM StickerSet ss LEFT JOIN FETCH ss.categories WHERE ss.id IN :ids")
+    List<StickerSet> findAllWithCategoriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Догружает описания для уже загруженных в persistence context наборов (тот же контекст, что и
+     * {@link #findAllWithCategoriesByIdIn}); отдельным запросом, чтобы не перемножать категории и описания.
+     */
+    @Query("SELECT DISTINCT ss FROM StickerSet ss LEFT JOIN FETCH ss.descriptions WHERE ss.id IN :ids")
+    List<StickerSet> fetchDescriptionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Отметить, что Telegram не знает стикерсет; повторная отметка не сдвигает исходную дату
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("update StickerSet ss set ss.telegramMissingAt = :now where ss.id = :id and ss.telegramMissingAt is null")
+    int markTelegramMissing(@Param("id") Long id, @Param("now") LocalDateTime now);
 
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("update StickerSet ss set ss.likesCount = ss.likesCount + 1 where ss.id = :id")
@@ -153,12 +181,11 @@ public interface StickerSetRepository extends JpaRepository<StickerSet, Long> {
     int recalculateDislikesCount(@Param("id") Long id);
 
     /**
-     * Поиск стикерсетов пользователя с дополнительными фильтрами
+     * ID стикерсетов пользователя с дополнительными фильтрами (первая фаза двухфазной выборки)
      * @param includeBlocked если true, включает заблокированные стикерсеты (state = 'BLOCKED')
      *                       для владельца и админа, чтобы они видели свои заблокированные наборы
      */
-    @Query("SELECT DISTINCT ss FROM StickerSet ss " +
-           "LEFT JOIN ss.categories c " +
+    @Query("SELECT ss.id FROM StickerSet ss " +
            "WHERE ss.userId = :userId " +
            "AND (ss.state = 'ACTIVE' OR (:includeBlocked = true AND ss.state = 'BLOCKED')) " +
            "AND (:visibilityFilter = 'ALL' OR " +
@@ -166,37 +193,40 @@ public interface StickerSetRepository extends JpaRepository<StickerSet, Long> {
            "     (:visibilityFilter = 'PRIVATE' AND ss.visibility = 'PRIVATE')) " +
            "AND (:type IS NULL OR ss.type = :type) " +
            "AND (:isVerified IS NULL OR :isVerified = false OR ss.isVerified = true) " +
-           "AND (:categoryKeys IS NULL OR c.key IN :categoryKeys) " +
+           "AND (:categoryKeys IS NULL OR ss.id IN (" +
+           "   SELECT cs.id FROM StickerSet cs JOIN cs.categories c WHERE c.key IN :categoryKeys" +
+           ")) " +
            "AND (:likedOnly = false OR EXISTS (" +
            "   SELECT 1 FROM Like l WHERE l.userId = :currentUserId AND l.stickerSet = ss" +
            "))")
-    Page<StickerSet> findUserStickerSetsFiltered(@Param("userId") Long userId,
-                                                 @Param("visibilityFilter") String visibilityFilter,
-                                                 @Param("type") StickerSetType type,
-                                                 @Param("isVerified") Boolean isVerified,
-                                                 @Param("categoryKeys") Set<String> categoryKeys,
-                                                 @Param("likedOnly") boolean likedOnly,
-                                                 @Param("currentUserId") Long currentUserId,
-                                                 @Param("includeBlocked") boolean includeBlocked,
-                                                 Pageable pageable);
+    Page<Long> findUserStickerSetIdsFiltered(@Param("userId") Long userId,
+                                             @Param("visibilityFilter") String visibilityFilter,
+                                             @Param("type") StickerSetType type,
+                                             @Param("isVerified") Boolean isVerified,
+                                             @Param("categoryKeys") Set<String> categoryKeys,
+                                             @Param("likedOnly") boolean likedOnly,
+                                             @Param("currentUserId") Long currentUserId,
+                                             @Param("includeBlocked") boolean includeBlocked,
+                                             Pageable pageable);
 
     /**
-     * Поиск верифицированных стикерсетов владельца (deprecated authorId => userId + isVerified)
+     * ID верифицированных стикерсетов владельца (deprecated authorId => userId + isVerified)
      */
-    @Query("SELECT DISTINCT ss FROM StickerSet ss " +
-           "LEFT JOIN ss.categories c " +
+    @Query("SELECT ss.id FROM StickerSet ss " +
            "WHERE ss.userId = :userId AND ss.isVerified = true " +
            "AND ss.state = 'ACTIVE' " +
            "AND (:visibilityFilter = 'ALL' OR " +
            "     (:visibilityFilter = 'PUBLIC' AND ss.visibility = 'PUBLIC') OR " +
            "     (:visibilityFilter = 'PRIVATE' AND ss.visibility = 'PRIVATE')) " +
            "AND (:type IS NULL OR ss.type = :type) " +
-           "AND (:categoryKeys IS NULL OR c.key IN :categoryKeys)")
-    Page<StickerSet> findVerifiedOwnerStickerSetsFiltered(@Param("userId") Long userId,
-                                                          @Param("visibilityFilter") String visibilityFilter,
-                                                          @Param("type") StickerSetType type,
-                                                          @Param("categoryKeys") Set<String> categoryKeys,
-                                                          Pageable pageable);
+           "AND (:categoryKeys IS NULL OR ss.id IN (" +
+           "   SELECT cs.id FROM StickerSet cs JOIN cs.categories c WHERE c.key IN :categoryKeys" +
+           "))")
+    Page<Long> findVerifiedOwnerStickerSetIdsFiltered(@Param("userId") Long userId,
+                                                      @Param("visibilityFilter") String visibilityFilter,
+                                                      @Param("type") StickerSetType type,
+                                                      @Param("categoryKeys") Set<String> categoryKeys,
+                                                      Pageable pageable);
 
     long countByCreatedAtAfter(LocalDateTime createdAfter);
 
@@ -372,4 +402,14 @@ public interface StickerSetRepository extends JpaRepository<StickerSet, Long> {
            ")",
            nativeQuery = true)
     Page<StickerSet> findRandomStickerSetsNotRatedByUser(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Ранжирующие поля всех публичных активных стикерсетов для in-memory топа по лайкам.
+     * Читает денормализованный likes_count без агрегации по таблице likes.
+     */
+    @Query("SELECT ss.id AS id, ss.likesCount AS likesCount, ss.createdAt AS createdAt, ss.type AS type " +
+           "FROM StickerSet ss " +
+           "WHERE ss.state = com.example.sticker_art_gallery.model.telegram.StickerSetState.ACTIVE " +
+           "AND ss.visibility = com.example.sticker_art_gallery.model.telegram.StickerSetVisibility.PUBLIC")
+    List<StickerSetLikesRankProjection> findLikesRankOfPublicActive();
 }
@@ -1,9 +1,29 @@
 package com.example.sticker_art_gallery.repository;
 
 import com.example.sticker_art_gallery.model.telegram.StickerSetTelegramCacheEntity;
+import com.example.sticker_art_gallery.repository.projection.StickerSetWarmupCandidateProjection;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+
 @Repository
 public interface StickerSetTelegramCacheRepository extends JpaRepository<StickerSetTelegramCacheEntity, Long> {
+
+    /**
+     * Активные стикерсеты (кроме не найденных в Telegram), которым нужен прогрев: сначала без записи кэша,
+     * затем по лайкам и новизне среди тех, чей refresh_after наступит до horizon
+     */
+    @Query("SELECT ss.id AS id, ss.likesCount AS likesCount, ss.createdAt AS createdAt, c.refreshAfter AS refreshAfter " +
+           "FROM StickerSet ss " +
+           "LEFT JOIN StickerSetTelegramCacheEntity c ON c.stickersetId = ss.id " +
+           "WHERE ss.state = com.example.sticker_art_gallery.model.telegram.StickerSetState.ACTIVE " +
+           "AND ss.telegramMissingAt IS NULL " +
+           "AND (c.stickersetId IS NULL OR c.refreshAfter < :horizon) " +
+           "ORDER BY CASE WHEN c.stickersetId IS NULL THEN 0 ELSE 1 END, ss.likesCount DESC, ss.createdAt DESC, ss.id DESC")
+    List<StickerSetWarmupCandidateProjection> findWarmupCandidates(@Param("horizon") OffsetDateTime horizon, Pageable pageable);
 }
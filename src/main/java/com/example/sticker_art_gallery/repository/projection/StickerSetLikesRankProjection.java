@@ -0,0 +1,20 @@
+package com.example.sticker_art_gallery.repository.projection;
+
+import com.example.sticker_art_gallery.model.telegram.StickerSetType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection для построения in-memory топа стикерсетов по лайкам.
+ * Читает только денормализованный likes_count, без JOIN на likes.
+ */
+public interface StickerSetLikesRankProjection {
+
+    Long getId();
+
+    Integer getLikesCount();
+
+    LocalDateTime getCreatedAt();
+
+    StickerSetType getType();
+}
@@ -0,0 +1,22 @@
+package com.example.sticker_art_gallery.repository.projection;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+/**
+ * Кандидат на прогрев кэша Telegram payload: активный стикерсет без записи кэша
+ * или с refresh_after до горизонта прогрева.
+ */
+public interface StickerSetWarmupCandidateProjection {
+
+    Long getId();
+
+    Integer getLikesCount();
+
+    LocalDateTime getCreatedAt();
+
+    /**
+     * null - записи кэша нет
+     */
+    OffsetDateTime getRefreshAfter();
+}
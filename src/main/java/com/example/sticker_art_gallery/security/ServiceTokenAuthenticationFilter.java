@@ -13,11 +13,13 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Фильтр для аутентификации внутренних сервисов по токену.
- * Ожидает заголовок X-Service-Token для всех запросов к /internal/** и /api/internal/**
+ * Ожидает заголовок X-Service-Token для всех запросов к /internal/**, /api/internal/**
+ * и к эндпоинтам actuator, кроме health и info (метрики, Prometheus)
  */
 @Component
 public class ServiceTokenAuthenticationFilter extends OncePerRequestFilter {
@@ -26,6 +28,8 @@ public class ServiceTokenAuthenticationFilter extends OncePerRequestFilter {
     private static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
     private static final String INTERNAL_PATH_PREFIX = "/internal/";
     private static final String API_INTERNAL_PATH_PREFIX = "/api/internal/";
+    private static final String ACTUATOR_PATH_PREFIX = "/actuator/";
+    private static final List<String> PUBLIC_ACTUATOR_PATH_PREFIXES = List.of("/actuator/health", "/actuator/info");
 
     private final ServiceTokenService serviceTokenService;
 
@@ -73,7 +77,13 @@ public class ServiceTokenAuthenticationFilter extends OncePerRequestFilter {
     }
 
     private boolean shouldFilterPath(String path) {
-        return path != null && (path.startsWith(INTERNAL_PATH_PREFIX) || path.startsWith(API_INTERNAL_PATH_PREFIX));
+        if (path == null) {
+            return false;
+        }
+        if (path.startsWith(ACTUATOR_PATH_PREFIX)) {
+            return PUBLIC_ACTUATOR_PATH_PREFIXES.stream().noneMatch(path::startsWith);
+        }
+        return path.startsWith(INTERNAL_PATH_PREFIX) || path.startsWith(API_INTERNAL_PATH_PREFIX);
     }
 
     private void writeUnauthorized(HttpServletResponse response, String message) throws IOException {
@@ -1,5 +1,6 @@
 package com.example.sticker_art_gallery.security;
 
+import com.example.sticker_art_gallery.util.ParsedInitData;
 import com.example.sticker_art_gallery.util.TelegramInitDataValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,13 +49,12 @@ public class TelegramAuthenticationFilter extends OncePerRequestFilter {
         
         if (initData != null && !initData.trim().isEmpty()) {
             LOGGER.debug("🔍 Обнаружен заголовок X-Telegram-Init-Data. Используется настроенный токен бота");
-            LOGGER.debug("🔍 InitData (первые 50 символов): {}", 
-                    initData.length() > 50 ? initData.substring(0, 50) + "..." : initData);
             
             try {
-                // Валидируем initData
+                // Валидируем initData: разбор переиспользуется провайдером
                 LOGGER.debug("🔍 Начинаем валидацию initData");
-                if (!validator.validateInitData(initData)) {
+                ParsedInitData parsedInitData = validator.validate(initData);
+                if (parsedInitData == null) {
                     LOGGER.warn("⚠️ InitData невалидна (возможно, устарела или повреждена), требуется обновление авторизации");
                     filterChain.doFilter(request, response);
                     return;
@@ -62,14 +62,14 @@ public class TelegramAuthenticationFilter extends OncePerRequestFilter {
                 LOGGER.debug("✅ InitData валидна");
                 
                 // Извлекаем telegram_id из initData
-                Long telegramId = validator.extractTelegramId(initData);
+                Long telegramId = validator.extractTelegramId(parsedInitData);
                 LOGGER.debug("🔍 Извлечен telegram_id: {}", telegramId);
                 
                 if (telegramId != null) {
                     LOGGER.debug("🔐 Попытка аутентификации для telegram_id: {}", telegramId);
                     
                     // Создаем неаутентифицированный токен
-                    TelegramAuthenticationToken token = new TelegramAuthenticationToken(initData, telegramId);
+                    TelegramAuthenticationToken token = new TelegramAuthenticationToken(parsedInitData, telegramId);
                     LOGGER.debug("🔍 Создан TelegramAuthenticationToken для telegram_id: {}", telegramId);
                     
                     // Аутентифицируем токен
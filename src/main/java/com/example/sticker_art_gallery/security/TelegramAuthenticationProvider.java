@@ -4,6 +4,7 @@ import com.example.sticker_art_gallery.dto.TelegramInitData;
 import com.example.sticker_art_gallery.model.profile.UserProfileEntity;
 import com.example.sticker_art_gallery.service.profile.UserProfileService;
 import com.example.sticker_art_gallery.service.referral.ReferralService;
+import com.example.sticker_art_gallery.util.ParsedInitData;
 import com.example.sticker_art_gallery.util.TelegramInitDataValidator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -15,9 +16,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Component;
 
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-
 /**
  * Провайдер аутентификации для Telegram
  */
@@ -58,17 +56,21 @@ public class TelegramAuthenticationProvider implements AuthenticationProvider {
                 initData != null ? initData.length() : 0, telegramId);
         
         try {
-            // Валидируем initData
-            LOGGER.debug("🔍 Начинаем валидацию initData для telegram_id: {}", telegramId);
-            if (!validator.validateInitData(initData)) {
-                LOGGER.warn("❌ Невалидная initData для пользователя: {}", telegramId);
-                return null;
+            // Фильтр уже проверил initData и передал её разбор; иначе валидируем здесь
+            ParsedInitData parsedInitData = token.getParsedInitData();
+            if (parsedInitData == null) {
+                LOGGER.debug("🔍 Начинаем валидацию initData для telegram_id: {}", telegramId);
+                parsedInitData = validator.validate(initData);
+                if (parsedInitData == null) {
+                    LOGGER.warn("❌ Невалидная initData для пользователя: {}", telegramId);
+                    return null;
+                }
+                LOGGER.debug("✅ InitData валидна для telegram_id: {}", telegramId);
             }
-            LOGGER.debug("✅ InitData валидна для telegram_id: {}", telegramId);
             
             // Извлекаем данные пользователя из initData
             LOGGER.debug("🔍 Извлекаем данные пользователя из initData");
-            TelegramInitData.TelegramUser telegramUser = extractTelegramUser(initData);
+            TelegramInitData.TelegramUser telegramUser = extractTelegramUser(parsedInitData);
             if (telegramUser == null) {
                 LOGGER.warn("❌ Не удалось извлечь данные пользователя из initData");
                 return null;
@@ -96,7 +98,7 @@ public class TelegramAuthenticationProvider implements AuthenticationProvider {
             
             // Обработка реферальной атрибуции
             try {
-                String startParam = validator.extractStartParam(initData);
+                String startParam = parsedInitData.startParam();
                 if (startParam != null && !startParam.isEmpty()) {
                     LOGGER.debug("🎁 Обнаружен startParam, запускаем реферальную обработку");
                     String metadata = buildReferralMetadata(initData);
@@ -141,27 +143,15 @@ public class TelegramAuthenticationProvider implements AuthenticationProvider {
     /**
      * Извлекает данные пользователя из initData используя ObjectMapper
      */
-    private TelegramInitData.TelegramUser extractTelegramUser(String initData) {
+    private TelegramInitData.TelegramUser extractTelegramUser(ParsedInitData parsedInitData) {
         try {
-            // Извлекаем параметр user из initData
-            String userParam = null;
-            String[] params = initData.split("&");
-            for (String param : params) {
-                if (param.startsWith("user=")) {
-                    userParam = param.substring(5); // Убираем "user="
-                    break;
-                }
-            }
-            
-            if (userParam == null) {
+            // Параметр user уже URL-декодирован при разборе initData
+            String userJson = parsedInitData.user();
+            if (userJson == null) {
                 LOGGER.warn("⚠️ Параметр 'user' не найден в initData");
                 return null;
             }
             
-            // Декодируем URL-encoded JSON
-            String userJson = URLDecoder.decode(userParam, StandardCharsets.UTF_8);
-            LOGGER.debug("🔍 Распарсенный user JSON: {}", userJson);
-            
             // Парсим JSON с помощью ObjectMapper
             TelegramInitData.TelegramUser telegramUser = objectMapper.readValue(userJson, TelegramInitData.TelegramUser.class);
             
@@ -1,4 +1,5 @@
 package com.example.sticker_art_gallery.security;
+import com.example.sticker_art_gallery.util.ParsedInitData;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -13,6 +14,7 @@ public class TelegramAuthenticationToken extends AbstractAuthenticationToken {
     
     private final String initData;
     private final Long telegramId;
+    private final ParsedInitData parsedInitData;
     private AuthUserPrincipal principal;
     private boolean authenticated = false;
     
@@ -20,7 +22,20 @@ public class TelegramAuthenticationToken extends AbstractAuthenticationToken {
      * Конструктор для неаутентифицированного токена
      */
     public TelegramAuthenticationToken(String initData, Long telegramId) {
+        this(null, initData, telegramId);
+    }
+    
+    /**
+     * Конструктор для неаутентифицированного токена с уже проверенной initData:
+     * провайдер использует её разбор вместо повторной валидации
+     */
+    public TelegramAuthenticationToken(ParsedInitData parsedInitData, Long telegramId) {
+        this(parsedInitData, parsedInitData.raw(), telegramId);
+    }
+    
+    private TelegramAuthenticationToken(ParsedInitData parsedInitData, String initData, Long telegramId) {
         super(Collections.emptyList());
+        this.parsedInitData = parsedInitData;
         this.initData = initData;
         this.telegramId = telegramId;
         this.authenticated = false;
@@ -35,6 +50,7 @@ public class TelegramAuthenticationToken extends AbstractAuthenticationToken {
         this.principal = principal;
         this.initData = initData;
         this.telegramId = telegramId;
+        this.parsedInitData = null;
         this.authenticated = true;
     }
     
@@ -70,6 +86,13 @@ public class TelegramAuthenticationToken extends AbstractAuthenticationToken {
         return telegramId;
     }
     
+    /**
+     * Разбор initData, проверенной фильтром, или null, если токен создан из сырой строки
+     */
+    public ParsedInitData getParsedInitData() {
+        return parsedInitData;
+    }
+    
     public AuthUserPrincipal getAuthUser() { return principal; }
     public void setAuthUser(AuthUserPrincipal principal) { this.principal = principal; }
     
@@ -13,10 +13,13 @@ import com.example.sticker_art_gallery.repository.LikeRepository;
 import com.example.sticker_art_gallery.repository.StickerSetRepository;
 import com.example.sticker_art_gallery.repository.DislikeRepository;
 import com.example.sticker_art_gallery.service.swipe.SwipeTrackingService;
+import com.example.sticker_art_gallery.service.telegram.StickerSetKeysetQuery;
 import com.example.sticker_art_gallery.service.telegram.StickerSetService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Lazy;
@@ -24,8 +27,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -43,19 +50,22 @@ public class LikeService {
     private final StickerSetService stickerSetService;
     private final DislikeRepository dislikeRepository;
     private final SwipeTrackingService swipeTrackingService;
+    private final StickerSetTopLikesIndex topLikesIndex;
     
     public LikeService(LikeRepository likeRepository, 
                       StickerSetRepository stickerSetRepository, 
                       CacheManager cacheManager, 
                       @Lazy StickerSetService stickerSetService,
                       DislikeRepository dislikeRepository,
-                      SwipeTrackingService swipeTrackingService) {
+                      SwipeTrackingService swipeTrackingService,
+                      StickerSetTopLikesIndex topLikesIndex) {
         this.likeRepository = likeRepository;
         this.stickerSetRepository = stickerSetRepository;
         this.cacheManager = cacheManager;
         this.stickerSetService = stickerSetService;
         this.dislikeRepository = dislikeRepository;
         this.swipeTrackingService = swipeTrackingService;
+        this.topLikesIndex = topLikesIndex;
     }
     
     /**
@@ -99,7 +109,9 @@ public class LikeService {
         stickerSetRepository.recalculateLikesCount(stickerSetId);
         // Инвалидируем кэши, зависящие от данных стикерсета
         evictStickerSetCaches(stickerSet);
-        long totalLikes = getLikesCount(stickerSetId);
+        StickerSet refreshed = stickerSetRepository.findById(stickerSetId).orElse(stickerSet);
+        topLikesIndex.update(refreshed);
+        long totalLikes = refreshed.getLikesCount();
         LOGGER.info("✅ Лайк успешно поставлен: {}, всего лайков: {}", savedLike.getId(), totalLikes);
         
         // Если это свайп, записываем его для отслеживания и начисления наград
@@ -149,8 +161,10 @@ public class LikeService {
         // Пересчет агрегации для гарантии корректности (исправляет расхождения)
         stickerSetRepository.recalculateLikesCount(stickerSetId);
         // Инвалидируем кэши, зависящие от данных стикерсета
-        stickerSetRepository.findById(stickerSetId).ifPresent(this::evictStickerSetCaches);
-        long totalLikes = getLikesCount(stickerSetId);
+        StickerSet refreshed = stickerSetRepository.findById(stickerSetId).orElse(null);
+        evictStickerSetCaches(refreshed);
+        topLikesIndex.update(refreshed);
+        long totalLikes = refreshed != null ? refreshed.getLikesCount() : 0L;
         LOGGER.info("✅ Лайк успешно удален, всего лайков: {}", totalLikes);
         
         LikeResponseDto response = new LikeResponseDto();
@@ -341,6 +355,12 @@ public class LikeService {
         LOGGER.debug("📋 Получение лайкнутых стикерсетов пользователя {} с фильтрами: categoryKeys={}, type={}, filterUserId={}, isVerified={}, page={}, size={}, shortInfo={}, preview={}", 
                 userId, categoryKeys, type, filterUserId, isVerified, pageRequest.getPage(), pageRequest.getSize(), shortInfo, preview);
         
+        if (pageRequest.isCursorMode()) {
+            return stickerSetService.findByKeyset(
+                    StickerSetKeysetQuery.Filter.liked(userId, categoryKeys, type, filterUserId, isVerified),
+                    pageRequest, language, userId, shortInfo, preview);
+        }
+        
         Page<StickerSet> likedStickerSets = likeRepository.findLikedStickerSetsFiltered(
                 userId,
                 categoryKeys,
@@ -361,32 +381,7 @@ public class LikeService {
      */
     @Transactional(readOnly = true)
     public PageResponse<StickerSetWithLikesDto> getTopStickerSetsByLikes(PageRequest pageRequest, String language, Long currentUserId) {
-        LOGGER.debug("🏆 Получение топ стикерсетов по лайкам с пагинацией: page={}, size={}", 
-                pageRequest.getPage(), pageRequest.getSize());
-        
-        Page<Object[]> results = likeRepository.findTopStickerSetsByLikes(pageRequest.toPageable());
-        
-        List<StickerSetWithLikesDto> dtos = results.getContent().stream()
-            .map(result -> {
-                StickerSet stickerSet = (StickerSet) result[0];
-                Long likesCount = (Long) result[1];
-                
-                StickerSetWithLikesDto dto = new StickerSetWithLikesDto();
-                dto.setStickerSet(StickerSetDto.fromEntity(stickerSet, language));
-                dto.setLikesCount(likesCount);
-                
-                // Если пользователь авторизован, проверяем, лайкнул ли он этот стикерсет
-                if (currentUserId != null) {
-                    dto.setLikedByCurrentUser(isLikedByUser(currentUserId, stickerSet.getId()));
-                } else {
-                    dto.setLikedByCurrentUser(false);
-                }
-                
-                return dto;
-            })
-            .collect(Collectors.toList());
-        
-        return PageResponse.of(results, dtos);
+        return getTopStickerSetsByLikes(pageRequest, language, currentUserId, false);
     }
     
     /**
@@ -394,36 +389,13 @@ public class LikeService {
      */
     @Transactional(readOnly = true)
     public PageResponse<StickerSetWithLikesDto> getTopStickerSetsByLikes(PageRequest pageRequest, String language, Long currentUserId, boolean officialOnly) {
-        LOGGER.debug("🏆 Получение {} топ стикерсетов по лайкам с пагинацией: page={}, size={}",
-                officialOnly ? "официальных" : "публичных", pageRequest.getPage(), pageRequest.getSize());
-        Page<Object[]> results = officialOnly
-                ? likeRepository.findTopOfficialStickerSetsByLikes(pageRequest.toPageable())
-                : likeRepository.findTopStickerSetsByLikes(pageRequest.toPageable());
-        
-        List<StickerSetWithLikesDto> dtos = results.getContent().stream()
-            .map(result -> {
-                StickerSet stickerSet = (StickerSet) result[0];
-                Long likesCount = (Long) result[1];
-                
-                StickerSetWithLikesDto dto = new StickerSetWithLikesDto();
-                dto.setStickerSet(StickerSetDto.fromEntity(stickerSet, language));
-                dto.setLikesCount(likesCount);
-                
-                if (currentUserId != null) {
-                    dto.setLikedByCurrentUser(isLikedByUser(currentUserId, stickerSet.getId()));
-                } else {
-                    dto.setLikedByCurrentUser(false);
-                }
-                
-                return dto;
-            })
-            .collect(Collectors.toList());
-        
-        return PageResponse.of(results, dtos);
+        return getTopStickerSetsByLikes(pageRequest, language, currentUserId, officialOnly, null, null);
     }
 
     /**
-     * Получить топ стикерсетов по лайкам c фильтрами officialOnly/userId/isVerified
+     * Получить топ стикерсетов по лайкам c фильтрами officialOnly/userId/isVerified.
+     * Без фильтров по автору страница берётся из in-memory индекса {@link StickerSetTopLikesIndex};
+     * с фильтрами (или пока индекс не загружен) - из БД.
      */
     @Transactional(readOnly = true)
     public PageResponse<StickerSetWithLikesDto> getTopStickerSetsByLikes(PageRequest pageRequest, String language, Long currentUserId,
@@ -433,8 +405,14 @@ public class LikeService {
                 filterUserId != null ? (" userId=" + filterUserId) : (Boolean.TRUE.equals(isVerified) ? " (только verified)" : ""),
                 pageRequest.getPage(), pageRequest.getSize());
 
-        Page<Object[]> results = likeRepository.findTopStickerSetsByLikesFiltered(officialOnly, filterUserId, isVerified, pageRequest.toPageable());
+        Page<Object[]> results;
+        if (filterUserId == null && !Boolean.TRUE.equals(isVerified) && topLikesIndex.isReady()) {
+            results = findTopStickerSetsFromIndex(officialOnly, pageRequest.toPageable());
+        } else {
+            results = likeRepository.findTopStickerSetsByLikesFiltered(officialOnly, filterUserId, isVerified, pageRequest.toPageable());
+        }
 
+        Set<Long> likedIds = currentUserId != null ? findLikedIds(currentUserId, results.getContent()) : Set.of();
         List<StickerSetWithLikesDto> dtos = results.getContent().stream()
             .map(result -> {
                 StickerSet stickerSet = (StickerSet) result[0];
@@ -443,12 +421,7 @@ public class LikeService {
                 StickerSetWithLikesDto dto = new StickerSetWithLikesDto();
                 dto.setStickerSet(StickerSetDto.fromEntity(stickerSet, language));
                 dto.setLikesCount(likesCount);
-
-                if (currentUserId != null) {
-                    dto.setLikedByCurrentUser(isLikedByUser(currentUserId, stickerSet.getId()));
-                } else {
-                    dto.setLikedByCurrentUser(false);
-                }
+                dto.setLikedByCurrentUser(likedIds.contains(stickerSet.getId()));
 
                 return dto;
             })
@@ -456,6 +429,36 @@ public class LikeService {
 
         return PageResponse.of(results, dtos);
     }
+
+    /**
+     * Страница топа из in-memory индекса: без агрегации, только выборка стикерсетов по id.
+     * Стикерсеты, которые успели стать невидимыми в галерее, пропускаются и удаляются из индекса.
+     */
+    private Page<Object[]> findTopStickerSetsFromIndex(boolean officialOnly, Pageable pageable) {
+        StickerSetTopLikesIndex.Slice slice = topLikesIndex.page(officialOnly, pageable.getOffset(), pageable.getPageSize());
+        List<Long> ids = slice.entries().stream().map(StickerSetTopLikesIndex.Entry::id).collect(Collectors.toList());
+        Map<Long, StickerSet> byId = stickerSetRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(StickerSet::getId, Function.identity()));
+
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            StickerSet stickerSet = byId.get(id);
+            if (stickerSet == null || !stickerSet.isVisibleInGallery()) {
+                topLikesIndex.remove(id);
+                continue;
+            }
+            rows.add(new Object[]{stickerSet, stickerSet.getLikesCount().longValue()});
+        }
+        return new PageImpl<>(rows, pageable, slice.total());
+    }
+
+    private Set<Long> findLikedIds(Long userId, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return Set.of();
+        }
+        List<Long> ids = rows.stream().map(row -> ((StickerSet) row[0]).getId()).collect(Collectors.toList());
+        return new HashSet<>(likeRepository.findLikedStickerSetIdsByUserId(userId, ids));
+    }
     
     /**
      * Получить список ID стикерсетов, которые лайкнул пользователь
@@ -0,0 +1,179 @@
+package com.example.sticker_art_gallery.service;
+
+import com.example.sticker_art_gallery.dto.PageRequest;
+import com.example.sticker_art_gallery.dto.PageResponse;
+import com.example.sticker_art_gallery.dto.StickerSetDto;
+import com.example.sticker_art_gallery.dto.StickerSetFilterRequest;
+import com.example.sticker_art_gallery.repository.DislikeRepository;
+import com.example.sticker_art_gallery.repository.LikeRepository;
+import com.example.sticker_art_gallery.util.TransactionCallbacks;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Общий кэш готовых JSON-ответов первых страниц галереи.
+ * Страница рендерится один раз для анонимного зрителя и хранится сериализованной;
+ * персональные флаги лайка/дизлайка накладываются поверх одним запросом по ID страницы.
+ *
+ * Конкурентные промахи по одному ключу схлопываются в одну загрузку (Caffeine {@code get}).
+ * Публикация, скрытие, блокировка, удаление и смена категорий сбрасывают кэш после коммита;
+ * версия в ключе не даёт отдать страницу, загрузка которой началась до сброса.
+ * Счётчики лайков в закэшированной странице отстают не дольше TTL.
+ */
+@Component
+public class StickerSetListingCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StickerSetListingCache.class);
+
+    private final ObjectMapper objectMapper;
+    private final LikeRepository likeRepository;
+    private final DislikeRepository dislikeRepository;
+    private final boolean enabled;
+    private final int maxPage;
+    private final Cache<String, Entry> cache;
+    private final AtomicLong version = new AtomicLong();
+
+    public StickerSetListingCache(ObjectMapper objectMapper,
+                                  LikeRepository likeRepository,
+                                  DislikeRepository dislikeRepository,
+                                  @Value("${app.gallery.response-cache.enabled:true}") boolean enabled,
+                                  @Value("${app.gallery.response-cache.ttl-seconds:30}") long ttlSeconds,
+                                  @Value("${app.gallery.response-cache.max-size:500}") long maxSize,
+                                  @Value("${app.gallery.response-cache.max-page:2}") int maxPage) {
+        this.objectMapper = objectMapper;
+        this.likeRepository = likeRepository;
+        this.dislikeRepository = dislikeRepository;
+        this.enabled = enabled;
+        this.maxPage = maxPage;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Hit rate кэша анонимных страниц галереи
+     */
+    @Autowired(required = false)
+    void registerCacheMetrics(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "stickerset_listing");
+    }
+
+    /**
+     * Сериализованная анонимная страница и ID её стикерсетов в порядке выдачи
+     */
+    private record Entry(byte[] json, List<Long> ids) {
+    }
+
+    /**
+     * Кэшируются только ответы, не зависящие от зрителя: без likedOnly,
+     * первые {@code max-page} страниц или первая страница курсора
+     */
+    public boolean isCacheable(StickerSetFilterRequest filter) {
+        if (!enabled || filter.isLikedOnly() || filter.getPageRequest() == null) {
+            return false;
+        }
+        PageRequest pageRequest = filter.getPageRequest();
+        if (pageRequest.isCursorMode()) {
+            return pageRequest.getCursor().isBlank();
+        }
+        return pageRequest.getPage() < maxPage;
+    }
+
+    /**
+     * JSON страницы для текущего зрителя фильтра
+     *
+     * @param anonymousLoader рендер страницы без текущего пользователя; вызывается только при промахе
+     */
+    public byte[] get(StickerSetFilterRequest filter, Supplier<PageResponse<StickerSetDto>> anonymousLoader) {
+        String key = version.get() + "|" + normalizedKey(filter);
+        Entry entry = cache.get(key, k -> render(anonymousLoader.get()));
+        return overlay(entry, filter.getCurrentUserId());
+    }
+
+    /**
+     * Сбросить все страницы. Внутри транзакции сброс выполняется только после коммита.
+     */
+    public void invalidate() {
+        TransactionCallbacks.afterCommit(() -> {
+            version.incrementAndGet();
+            cache.invalidateAll();
+            LOGGER.debug("🧹 Кэш страниц галереи сброшен");
+        });
+    }
+
+    static String normalizedKey(StickerSetFilterRequest filter) {
+        PageRequest pageRequest = filter.getPageRequest();
+        String categories = filter.hasCategoryFilter() ? String.join(",", new TreeSet<>(filter.getCategoryKeys())) : "";
+        return String.join("|",
+                String.valueOf(filter.getLanguage()),
+                String.valueOf(pageRequest.getPage()),
+                String.valueOf(pageRequest.getSize()),
+                String.valueOf(pageRequest.getSort()),
+                String.valueOf(pageRequest.getDirection()),
+                String.valueOf(pageRequest.getCursor()),
+                categories,
+                String.valueOf(filter.getType()),
+                String.valueOf(filter.getUserId()),
+                String.valueOf(Boolean.TRUE.equals(filter.getIsVerified())),
+                String.valueOf(filter.isShortInfo()),
+                String.valueOf(filter.isPreview()));
+    }
+
+    private Entry render(PageResponse<StickerSetDto> page) {
+        List<Long> ids = page.getContent().stream().map(StickerSetDto::getId).toList();
+        try {
+            return new Entry(objectMapper.writeValueAsBytes(page), ids);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize gallery page", e);
+        }
+    }
+
+    /**
+     * Флаги зрителя накладываются только если на странице есть его лайки/дизлайки,
+     * иначе отдаются закэшированные байты как есть
+     */
+    private byte[] overlay(Entry entry, Long currentUserId) {
+        if (currentUserId == null || entry.ids().isEmpty()) {
+            return entry.json();
+        }
+        Set<Long> likedIds = new HashSet<>(likeRepository.findLikedStickerSetIdsByUserId(currentUserId, entry.ids()));
+        Set<Long> dislikedIds = new HashSet<>(dislikeRepository.findDislikedStickerSetIdsByUserId(currentUserId, entry.ids()));
+        if (likedIds.isEmpty() && dislikedIds.isEmpty()) {
+            return entry.json();
+        }
+        try {
+            JsonNode root = objectMapper.readTree(entry.json());
+            for (JsonNode item : root.path("content")) {
+                if (item instanceof ObjectNode node) {
+                    long id = node.path("id").asLong();
+                    node.put("isLikedByCurrentUser", likedIds.contains(id));
+                    node.put("isDislikedByCurrentUser", dislikedIds.contains(id));
+                }
+            }
+            return objectMapper.writeValueAsBytes(root);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to overlay viewer flags on gallery page", e);
+        }
+    }
+}
@@ -9,6 +9,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 /**
  * Сервис для обработки запросов к стикерсетам с различными фильтрами.
  * Предоставляет единую точку входа для всех операций поиска и фильтрации.
@@ -20,10 +22,13 @@ public class StickerSetQueryService {
     
     private final StickerSetService stickerSetService;
     private final LikeService likeService;
+    private final StickerSetListingCache listingCache;
     
-    public StickerSetQueryService(StickerSetService stickerSetService, LikeService likeService) {
+    public StickerSetQueryService(StickerSetService stickerSetService, LikeService likeService,
+                                  StickerSetListingCache listingCache) {
         this.stickerSetService = stickerSetService;
         this.likeService = likeService;
+        this.listingCache = listingCache;
     }
     
     /**
@@ -48,7 +53,7 @@ public class StickerSetQueryService {
         if (filter.isLikedOnly()) {
             result = findLikedStickerSets(filter);
         } else {
-            result = findPublicStickerSets(filter);
+            result = findPublicStickerSets(filter, filter.getCurrentUserId());
         }
         
         LOGGER.debug("✅ Найдено {} стикерсетов (страница {} из {})", 
@@ -57,6 +62,19 @@ public class StickerSetQueryService {
         return result;
     }
     
+    /**
+     * Готовый JSON страницы из общего кэша, если ответ не зависит от зрителя
+     * (см. {@link StickerSetListingCache#isCacheable}). Флаги лайка/дизлайка зрителя накладываются поверх.
+     *
+     * @return пусто, если запрос не кэшируется - тогда используется {@link #findStickerSets}
+     */
+    public Optional<byte[]> findCachedStickerSetsJson(StickerSetFilterRequest filter) {
+        if (!listingCache.isCacheable(filter)) {
+            return Optional.empty();
+        }
+        return Optional.of(listingCache.get(filter, () -> findPublicStickerSets(filter, null)));
+    }
+    
     /**
      * Получить лайкнутые пользователем стикерсеты
      */
@@ -80,8 +98,10 @@ public class StickerSetQueryService {
     
     /**
      * Получить публичные стикерсеты с применением фильтров
+     *
+     * @param currentUserId зритель; null - анонимный рендер для общего кэша
      */
-    private PageResponse<StickerSetDto> findPublicStickerSets(StickerSetFilterRequest filter) {
+    private PageResponse<StickerSetDto> findPublicStickerSets(StickerSetFilterRequest filter, Long currentUserId) {
         LOGGER.debug("🌐 Поиск публичных стикерсетов");
         
         if (filter.hasCategoryFilter()) {
@@ -91,7 +111,7 @@ public class StickerSetQueryService {
                 filter.getCategoryKeys().toArray(new String[0]),
                 filter.getPageRequest(),
                 filter.getLanguage(),
-                filter.getCurrentUserId(),
+                currentUserId,
                 filter.getType(),
                 filter.getUserId(),
                 filter.getIsVerified(),
@@ -103,7 +123,7 @@ public class StickerSetQueryService {
             return stickerSetService.findAllWithPagination(
                 filter.getPageRequest(),
                 filter.getLanguage(),
-                filter.getCurrentUserId(),
+                currentUserId,
                 filter.getType(),
                 filter.getUserId(),
                 filter.getIsVerified(),
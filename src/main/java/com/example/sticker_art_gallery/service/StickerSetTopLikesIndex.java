@@ -0,0 +1,242 @@
+package com.example.sticker_art_gallery.service;
+
+import com.example.sticker_art_gallery.model.telegram.StickerSet;
+import com.example.sticker_art_gallery.model.telegram.StickerSetType;
+import com.example.sticker_art_gallery.repository.StickerSetRepository;
+import com.example.sticker_art_gallery.repository.projection.StickerSetLikesRankProjection;
+import com.example.sticker_art_gallery.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory топ публичных активных стикерсетов по лайкам.
+ * Держит отсортированные множества (likesCount DESC, createdAt DESC, id DESC) для всех
+ * и отдельно для официальных стикерсетов. Обновляется точечно на like/unlike и смене
+ * видимости/статуса, целиком перестраивается из денормализованного likes_count
+ * при старте и периодически (подхватывает новые стикерсеты и изменения в обход сервисов).
+ *
+ * Чтение страницы не делает запросов в БД; записи сериализуются монитором,
+ * чтения идут без блокировок по weakly-consistent итераторам.
+ */
+@Component
+public class StickerSetTopLikesIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StickerSetTopLikesIndex.class);
+
+    private static final Comparator<Entry> RANK_ORDER = Comparator
+            .comparingInt(Entry::likesCount).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::createdAtEpochSecond).reversed())
+            .thenComparing(Comparator.comparingLong(Entry::id).reversed());
+
+    private final StickerSetRepository stickerSetRepository;
+
+    private volatile Partitions partitions = new Partitions();
+    private volatile boolean ready;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    /**
+     * Изменения, пришедшие во время загрузки снапшота из БД; применяются поверх нового снапшота.
+     * Пустой Optional означает удаление из индекса.
+     */
+    private Map<Long, Optional<Entry>> pendingDuringRebuild;
+
+    public StickerSetTopLikesIndex(StickerSetRepository stickerSetRepository) {
+        this.stickerSetRepository = stickerSetRepository;
+    }
+
+    /**
+     * Позиция стикерсета в топе
+     */
+    public record Entry(long id, int likesCount, long createdAtEpochSecond, boolean official) {
+
+        static Entry of(StickerSet stickerSet) {
+            return new Entry(stickerSet.getId(), stickerSet.getLikesCount(),
+                    epochSecond(stickerSet.getCreatedAt()), stickerSet.isOfficial());
+        }
+
+        static Entry of(StickerSetLikesRankProjection row) {
+            return new Entry(row.getId(), row.getLikesCount() == null ? 0 : row.getLikesCount(),
+                    epochSecond(row.getCreatedAt()), row.getType() == StickerSetType.OFFICIAL);
+        }
+
+        private static long epochSecond(LocalDateTime createdAt) {
+            return createdAt == null ? Long.MIN_VALUE : createdAt.toEpochSecond(ZoneOffset.UTC);
+        }
+    }
+
+    /**
+     * Срез топа: позиции страницы и общее количество элементов в разделе
+     */
+    public record Slice(List<Entry> entries, long total) {
+    }
+
+    /**
+     * Готов ли индекс отвечать на чтения (первичная загрузка завершена)
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Получить страницу топа
+     *
+     * @param officialOnly только официальные стикерсеты
+     */
+    public Slice page(boolean officialOnly, long offset, int limit) {
+        Partitions current = partitions;
+        ConcurrentSkipListSet<Entry> ranking = officialOnly ? current.official : current.all;
+        long total = officialOnly ? current.officialSize : current.byId.size();
+        List<Entry> entries = new ArrayList<>(Math.max(limit, 0));
+        Iterator<Entry> it = ranking.iterator();
+        long skipped = 0;
+        while (it.hasNext() && skipped < offset) {
+            it.next();
+            skipped++;
+        }
+        while (it.hasNext() && entries.size() < limit) {
+            entries.add(it.next());
+        }
+        return new Slice(entries, total);
+    }
+
+    /**
+     * Обновить позицию стикерсета по его текущему состоянию.
+     * Если стикерсет не виден в галерее (не ACTIVE или не PUBLIC) - он удаляется из топа.
+     * Внутри транзакции изменение применяется только после коммита.
+     */
+    public void update(StickerSet stickerSet) {
+        if (stickerSet == null || stickerSet.getId() == null) {
+            return;
+        }
+        Long id = stickerSet.getId();
+        Optional<Entry> entry = stickerSet.isVisibleInGallery() ? Optional.of(Entry.of(stickerSet)) : Optional.empty();
+        TransactionCallbacks.afterCommit(() -> apply(id, entry));
+    }
+
+    /**
+     * Удалить стикерсет из топа
+     */
+    public void remove(Long stickerSetId) {
+        if (stickerSetId == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> apply(stickerSetId, Optional.empty()));
+    }
+
+    /**
+     * Полная перестройка индекса из stickersets.likes_count
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.likes.top-index.resync-interval-ms:600000}",
+               initialDelayString = "${app.likes.top-index.resync-interval-ms:600000}")
+    public void periodicResync() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            doRebuild();
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void doRebuild() {
+        long startedAt = System.currentTimeMillis();
+        synchronized (this) {
+            pendingDuringRebuild = new HashMap<>();
+        }
+        List<StickerSetLikesRankProjection> rows;
+        try {
+            rows = stickerSetRepository.findLikesRankOfPublicActive();
+        } catch (Exception e) {
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+            LOGGER.warn("⚠️ Не удалось перестроить топ по лайкам: {}", e.getMessage());
+            return;
+        }
+
+        Partitions rebuilt = new Partitions();
+        for (StickerSetLikesRankProjection row : rows) {
+            rebuilt.put(Entry.of(row));
+        }
+        synchronized (this) {
+            for (Map.Entry<Long, Optional<Entry>> change : pendingDuringRebuild.entrySet()) {
+                rebuilt.apply(change.getKey(), change.getValue());
+            }
+            pendingDuringRebuild = null;
+            partitions = rebuilt;
+            ready = true;
+        }
+        LOGGER.info("🏆 Топ по лайкам перестроен: {} стикерсетов ({} официальных) за {} мс",
+                rebuilt.byId.size(), rebuilt.officialSize, System.currentTimeMillis() - startedAt);
+    }
+
+    private synchronized void apply(Long id, Optional<Entry> entry) {
+        partitions.apply(id, entry);
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.put(id, entry);
+        }
+    }
+
+    /**
+     * Разделы топа. Мутации выполняются только под монитором индекса.
+     */
+    private static final class Partitions {
+        private final ConcurrentHashMap<Long, Entry> byId = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListSet<Entry> all = new ConcurrentSkipListSet<>(RANK_ORDER);
+        private final ConcurrentSkipListSet<Entry> official = new ConcurrentSkipListSet<>(RANK_ORDER);
+        private volatile long officialSize;
+
+        void apply(Long id, Optional<Entry> entry) {
+            if (entry.isPresent()) {
+                put(entry.get());
+            } else {
+                unlink(byId.remove(id));
+            }
+        }
+
+        void put(Entry entry) {
+            unlink(byId.put(entry.id(), entry));
+            all.add(entry);
+            if (entry.official() && official.add(entry)) {
+                officialSize++;
+            }
+        }
+
+        private void unlink(Entry previous) {
+            if (previous == null) {
+                return;
+            }
+            all.remove(previous);
+            if (previous.official() && official.remove(previous)) {
+                officialSize--;
+            }
+        }
+    }
+}
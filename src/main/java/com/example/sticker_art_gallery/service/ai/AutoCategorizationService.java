@@ -5,10 +5,18 @@ import com.example.sticker_art_gallery.model.category.Category;
 import com.example.sticker_art_gallery.repository.CategoryRepository;
 import com.example.sticker_art_gallery.model.telegram.StickerSet;
 import com.example.sticker_art_gallery.service.telegram.StickerSetService;
+import com.example.sticker_art_gallery.util.TokenBucket;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
@@ -17,7 +25,11 @@ import org.springframework.util.StreamUtils;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -31,25 +43,67 @@ public class AutoCategorizationService {
     private static final Pattern CATEGORY_KEY_PATTERN = Pattern.compile("^[a-z_]+$");
     private static final String SYSTEM_PROMPT_PATH = "ai/prompts/auto_category.system.txt";
     private static final String USER_PROMPT_PATH = "ai/prompts/auto_category.user.txt";
+    private static final String BATCH_SYSTEM_PROMPT_PATH = "ai/prompts/auto_category_batch.system.txt";
+    private static final String BATCH_USER_PROMPT_PATH = "ai/prompts/auto_category_batch.user.txt";
+    private static final int MAX_DESCRIPTION_CHARS = 300;
+    private static final int SUGGESTION_CACHE_MAX_SIZE = 50_000;
+    /** Грубая оценка: ~4 символа на токен; плюс ответ на каждый элемент пакета */
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int OUTPUT_TOKENS_PER_ITEM = 80;
 
     private final AIService aiService;
     private final StickerSetService stickerSetService;
     private final CategoryRepository categoryRepository;
     private final ObjectMapper objectMapper;
+    private final Executor aiBatchExecutor;
 
     @Value("${app.ai.auto-category.max-categories:5}")
     private int maxCategories;
 
+    @Value("${app.ai.auto-category.cache-ttl-minutes:60}")
+    private long cacheTtlMinutes;
+
+    @Value("${app.ai.auto-category.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.ai.auto-category.tokens-per-minute:90000}")
+    private long tokensPerMinute;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    /** Ответы AI по (title, description, версия списка категорий) - общий для одиночного и пакетного режимов */
+    private Cache<SuggestionKey, List<CategorySuggestionDto.CategoryItem>> suggestionCache;
+    private TokenBucket tokenBucket;
+
     @Autowired
     public AutoCategorizationService(
             AIService aiService,
             StickerSetService stickerSetService,
             CategoryRepository categoryRepository,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            @Qualifier("aiBatchExecutor") Executor aiBatchExecutor) {
         this.aiService = aiService;
         this.stickerSetService = stickerSetService;
         this.categoryRepository = categoryRepository;
         this.objectMapper = objectMapper;
+        this.aiBatchExecutor = aiBatchExecutor;
+    }
+
+    private record SuggestionKey(String title, String description, int catalogHash) {
+    }
+
+    @PostConstruct
+    void initBatching() {
+        suggestionCache = Caffeine.newBuilder()
+                .maximumSize(SUGGESTION_CACHE_MAX_SIZE)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, suggestionCache, "auto_category_suggestions");
+        }
+        tokenBucket = new TokenBucket(tokensPerMinute, tokensPerMinute / 60.0);
     }
 
     /**
@@ -78,6 +132,13 @@ public class AutoCategorizationService {
         String categoriesList = formatCategoriesList(availableCategories);
         log.debug("📁 Доступно категорий: {}", availableCategories.size());
 
+        SuggestionKey cacheKey = new SuggestionKey(title.trim(), "", catalogHash(categoriesList));
+        List<CategorySuggestionDto.CategoryItem> cachedItems = suggestionCache.getIfPresent(cacheKey);
+        if (cachedItems != null) {
+            log.debug("📦 Категории для title '{}' взяты из кэша", title);
+            return toSuggestionResult(title, cachedItems, indexByKey(availableCategories), language);
+        }
+
         // Загружаем промпты
         String systemPrompt = loadPrompt(SYSTEM_PROMPT_PATH);
         String userPromptTemplate = loadPrompt(USER_PROMPT_PATH);
@@ -107,28 +168,10 @@ public class AutoCategorizationService {
             return new CategorySuggestionResult(title, Collections.emptyList(), "AI returned no categories");
         }
 
-        // Преобразуем в результат с локализованными названиями
-        List<CategorySuggestionResult.CategoryWithConfidence> result = suggestion.getCategories().stream()
-                .filter(item -> isValidCategoryKey(item.getKey()))
-                .map(item -> {
-                    String key = item.getKey().toLowerCase().trim();
-                    Optional<Category> cat = categoryRepository.findByKey(key);
-                    if (cat.isPresent()) {
-                        String localizedName = cat.get().getLocalizedName(language);
-                        return new CategorySuggestionResult.CategoryWithConfidence(
-                                key,
-                                localizedName,
-                                item.getConfidence() != null ? item.getConfidence() : 0.0,
-                                item.getReason()
-                        );
-                    }
-                    return null;
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-
-        log.info("✅ AI предложил {} категорий для title '{}'", result.size(), title);
-        return new CategorySuggestionResult(title, result, null);
+        suggestionCache.put(cacheKey, List.copyOf(suggestion.getCategories()));
+        CategorySuggestionResult result = toSuggestionResult(title, suggestion.getCategories(), indexByKey(availableCategories), language);
+        log.info("✅ AI предложил {} категорий для title '{}'", result.getSuggestedCategories().size(), title);
+        return result;
     }
 
     /**
@@ -161,30 +204,8 @@ public class AutoCategorizationService {
 
         // Если autoApply=true, применяем категории с фильтрацией по minConfidence
         if (autoApply && !result.getSuggestedCategories().isEmpty()) {
-            List<CategorySuggestionResult.CategoryWithConfidence> categoriesToApply = result.getSuggestedCategories();
-            
-            // Фильтруем по minConfidence, если он указан
-            if (minConfidence != null && minConfidence >= 0.0 && minConfidence <= 1.0) {
-                int beforeFilter = categoriesToApply.size();
-                categoriesToApply = categoriesToApply.stream()
-                        .filter(cat -> cat.getConfidence() != null && cat.getConfidence() >= minConfidence)
-                        .collect(Collectors.toList());
-                int afterFilter = categoriesToApply.size();
-                
-                log.info("📊 Фильтрация категорий по minConfidence={}: было {}, осталось {}", 
-                    minConfidence, beforeFilter, afterFilter);
-                
-                if (afterFilter == 0) {
-                    log.warn("⚠️ Все категории отфильтрованы по minConfidence={}, ни одна категория не будет применена", 
-                        minConfidence);
-                }
-            }
-            
-            if (!categoriesToApply.isEmpty()) {
-                Set<String> categoryKeys = categoriesToApply.stream()
-                        .map(CategorySuggestionResult.CategoryWithConfidence::getCategoryKey)
-                        .collect(Collectors.toSet());
-
+            Set<String> categoryKeys = categoryKeysToApply(result, minConfidence);
+            if (!categoryKeys.isEmpty()) {
                 log.info("📝 Применение категорий {} к стикерсету {} (отфильтровано по minConfidence={})", 
                     categoryKeys, stickerSetId, minConfidence);
                 stickerSetService.updateCategories(stickerSetId, categoryKeys);
@@ -197,9 +218,277 @@ public class AutoCategorizationService {
         return result;
     }
 
+    /**
+     * МЕТОД #3: Пакетная категоризация стикерсетов.
+     * Уникальные (title, description) без ответа в кэше упаковываются по {@code batch-size} в один структурированный
+     * запрос с JSON-результатом на каждый элемент; пакеты выполняются параллельно на {@code aiBatchExecutor}
+     * под ограничением {@code tokens-per-minute}. При autoApply категории применяются одной транзакцией с батч-вставками.
+     * Стикерсеты, для которых AI ничего не вернул (или пакет упал), не изменяются.
+     *
+     * @return ID стикерсета -> результат (в порядке найденных стикерсетов)
+     */
+    public Map<Long, CategorySuggestionResult> suggestCategoriesForStickerSets(
+            Collection<Long> stickerSetIds, boolean autoApply, String language, Double minConfidence) {
+        return suggestCategoriesForStickerSetsAsync(stickerSetIds, autoApply, language, minConfidence).join();
+    }
+
+    /**
+     * То же, что {@link #suggestCategoriesForStickerSets}, без блокировки вызывающего потока: стикерсеты и категории
+     * читаются сразу, пакеты уходят на {@code aiBatchExecutor}, сборка результата и применение категорий выполняются
+     * после завершения последнего пакета
+     */
+    public CompletableFuture<Map<Long, CategorySuggestionResult>> suggestCategoriesForStickerSetsAsync(
+            Collection<Long> stickerSetIds, boolean autoApply, String language, Double minConfidence) {
+        List<StickerSet> stickerSets = stickerSetService.findAllByIds(stickerSetIds);
+        log.info("🤖 Пакетная категоризация: запрошено {}, найдено {} стикерсетов, autoApply={}, minConfidence={}",
+                stickerSetIds.size(), stickerSets.size(), autoApply, minConfidence);
+
+        Map<Long, CategorySuggestionResult> results = new LinkedHashMap<>();
+        List<Category> availableCategories = categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc();
+        if (availableCategories.isEmpty()) {
+            log.warn("⚠️ Нет активных категорий в системе");
+            for (StickerSet stickerSet : stickerSets) {
+                results.put(stickerSet.getId(), new CategorySuggestionResult(
+                        stickerSet.getTitle(), Collections.emptyList(), "No active categories available"));
+            }
+            return CompletableFuture.completedFuture(results);
+        }
+        String categoriesList = formatCategoriesList(availableCategories);
+        int catalogHash = catalogHash(categoriesList);
+        Map<String, Category> categoriesByKey = indexByKey(availableCategories);
+
+        Map<Long, SuggestionKey> keyByStickerSet = new LinkedHashMap<>();
+        Set<SuggestionKey> misses = new LinkedHashSet<>();
+        for (StickerSet stickerSet : stickerSets) {
+            String title = stickerSet.getTitle();
+            if (title == null || title.isBlank()) {
+                results.put(stickerSet.getId(), new CategorySuggestionResult(title, Collections.emptyList(), "Sticker set has no title"));
+                continue;
+            }
+            SuggestionKey key = new SuggestionKey(title.trim(), normalizeDescription(stickerSet.getDescription()), catalogHash);
+            keyByStickerSet.put(stickerSet.getId(), key);
+            if (suggestionCache.getIfPresent(key) == null) {
+                misses.add(key);
+            }
+        }
+
+        return classifyInBatches(new ArrayList<>(misses), categoriesList)
+                .thenApply(fresh -> collectResults(results, keyByStickerSet, misses.size(), fresh,
+                        categoriesByKey, language, autoApply, minConfidence));
+    }
+
+    /**
+     * Результаты пакетной категоризации по стикерсетам (ответы прогона или кэша) и применение категорий при autoApply
+     */
+    private Map<Long, CategorySuggestionResult> collectResults(
+            Map<Long, CategorySuggestionResult> results,
+            Map<Long, SuggestionKey> keyByStickerSet,
+            int missCount,
+            Map<SuggestionKey, List<CategorySuggestionDto.CategoryItem>> fresh,
+            Map<String, Category> categoriesByKey,
+            String language,
+            boolean autoApply,
+            Double minConfidence) {
+        log.info("📦 Пакетная категоризация: {} уникальных запросов, из кэша {}, получено от AI {}",
+                new HashSet<>(keyByStickerSet.values()).size(),
+                new HashSet<>(keyByStickerSet.values()).size() - missCount, fresh.size());
+
+        Map<Long, Set<String>> toApply = new LinkedHashMap<>();
+        for (Map.Entry<Long, SuggestionKey> entry : keyByStickerSet.entrySet()) {
+            SuggestionKey key = entry.getValue();
+            List<CategorySuggestionDto.CategoryItem> items = fresh.containsKey(key) ? fresh.get(key) : suggestionCache.getIfPresent(key);
+            CategorySuggestionResult result = items == null || items.isEmpty()
+                    ? new CategorySuggestionResult(key.title(), Collections.emptyList(), "AI returned no categories")
+                    : toSuggestionResult(key.title(), items, categoriesByKey, language);
+            results.put(entry.getKey(), result);
+            if (autoApply && !result.getSuggestedCategories().isEmpty()) {
+                Set<String> categoryKeys = categoryKeysToApply(result, minConfidence);
+                if (!categoryKeys.isEmpty()) {
+                    toApply.put(entry.getKey(), categoryKeys);
+                }
+            }
+        }
+
+        if (!toApply.isEmpty()) {
+            int updated = stickerSetService.updateCategoriesBulk(toApply);
+            log.info("✅ Пакетно применены категории к {} стикерсетам", updated);
+        }
+        return results;
+    }
+
 
     // ========== Вспомогательные методы ==========
 
+    /**
+     * Параллельный прогон пакетов; ответ каждого элемента кладётся в кэш (пустые - только в результат прогона)
+     */
+    private CompletableFuture<Map<SuggestionKey, List<CategorySuggestionDto.CategoryItem>>> classifyInBatches(
+            List<SuggestionKey> keys, String categoriesList) {
+        Map<SuggestionKey, List<CategorySuggestionDto.CategoryItem>> out = new ConcurrentHashMap<>();
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(out);
+        }
+        String systemPrompt = loadPrompt(BATCH_SYSTEM_PROMPT_PATH)
+                .replace("${maxCategories}", String.valueOf(maxCategories))
+                .replace("${", "$ {");
+        String userPromptTemplate = loadPrompt(BATCH_USER_PROMPT_PATH);
+        int size = Math.max(1, batchSize);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += size) {
+            List<SuggestionKey> batch = keys.subList(from, Math.min(keys.size(), from + size));
+            futures.add(CompletableFuture
+                    .runAsync(() -> out.putAll(classifyBatch(batch, systemPrompt, userPromptTemplate, categoriesList)), aiBatchExecutor)
+                    .exceptionally(e -> {
+                        log.error("❌ Пакет категоризации из {} элементов не обработан: {}", batch.size(), e.getMessage());
+                        return null;
+                    }));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> out);
+    }
+
+    private Map<SuggestionKey, List<CategorySuggestionDto.CategoryItem>> classifyBatch(
+            List<SuggestionKey> batch, String systemPrompt, String userPromptTemplate, String categoriesList) {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("title", batch.get(i).title());
+            if (!batch.get(i).description().isEmpty()) {
+                item.put("description", batch.get(i).description());
+            }
+            try {
+                items.append(objectMapper.writeValueAsString(item)).append('\n');
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Не удалось сериализовать элемент пакета", e);
+            }
+        }
+        String userPrompt = userPromptTemplate
+                .replace("${availableCategories}", categoriesList)
+                .replace("${items}", items.toString().trim())
+                .replace("${", "$ {");
+
+        long estimatedTokens = (systemPrompt.length() + userPrompt.length()) / CHARS_PER_TOKEN
+                + (long) OUTPUT_TOKENS_PER_ITEM * batch.size();
+        try {
+            tokenBucket.acquire(estimatedTokens);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Прервано ожидание лимита токенов", e);
+        }
+
+        String aiResponse = callAiWithoutTemplate("category-batch-" + UUID.randomUUID(), systemPrompt, userPrompt);
+        CategorySuggestionBatchDto parsed = parseBatchResponse(aiResponse);
+
+        Map<SuggestionKey, List<CategorySuggestionDto.CategoryItem>> out = new HashMap<>();
+        if (parsed == null || parsed.getResults() == null) {
+            log.warn("⚠️ AI не вернул результатов для пакета из {} элементов", batch.size());
+            return out;
+        }
+        for (CategorySuggestionBatchDto.ItemResult itemResult : parsed.getResults()) {
+            Integer id = itemResult.getId();
+            if (id == null || id < 0 || id >= batch.size()) {
+                continue;
+            }
+            List<CategorySuggestionDto.CategoryItem> categories = itemResult.getCategories() != null
+                    ? List.copyOf(itemResult.getCategories())
+                    : List.of();
+            SuggestionKey key = batch.get(id);
+            out.put(key, categories);
+            if (!categories.isEmpty()) {
+                suggestionCache.put(key, categories);
+            }
+        }
+        log.debug("🤖 Пакет из {} элементов обработан, ответов: {}", batch.size(), out.size());
+        return out;
+    }
+
+    private CategorySuggestionBatchDto parseBatchResponse(String aiResponse) {
+        if (aiResponse == null || aiResponse.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(cleanAIResponse(aiResponse), CategorySuggestionBatchDto.class);
+        } catch (Exception e) {
+            log.error("❌ Ошибка при парсинге пакетного ответа AI: {}", e.getMessage());
+            log.debug("Ответ AI для отладки: {}", aiResponse);
+            throw new RuntimeException("Не удалось распарсить ответ AI: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Преобразует ответ AI в результат с локализованными названиями (только активные категории)
+     */
+    private CategorySuggestionResult toSuggestionResult(
+            String title,
+            List<CategorySuggestionDto.CategoryItem> items,
+            Map<String, Category> categoriesByKey,
+            String language) {
+        List<CategorySuggestionResult.CategoryWithConfidence> result = items.stream()
+                .filter(item -> isValidCategoryKey(item.getKey()))
+                .map(item -> {
+                    String key = item.getKey().toLowerCase().trim();
+                    Category cat = categoriesByKey.get(key);
+                    if (cat == null) {
+                        return null;
+                    }
+                    return new CategorySuggestionResult.CategoryWithConfidence(
+                            key,
+                            cat.getLocalizedName(language),
+                            item.getConfidence() != null ? item.getConfidence() : 0.0,
+                            item.getReason()
+                    );
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new CategorySuggestionResult(title, result, null);
+    }
+
+    /**
+     * Ключи категорий для применения с фильтрацией по minConfidence (если указан)
+     */
+    private Set<String> categoryKeysToApply(CategorySuggestionResult result, Double minConfidence) {
+        List<CategorySuggestionResult.CategoryWithConfidence> categoriesToApply = result.getSuggestedCategories();
+        if (minConfidence != null && minConfidence >= 0.0 && minConfidence <= 1.0) {
+            int beforeFilter = categoriesToApply.size();
+            categoriesToApply = categoriesToApply.stream()
+                    .filter(cat -> cat.getConfidence() != null && cat.getConfidence() >= minConfidence)
+                    .collect(Collectors.toList());
+            int afterFilter = categoriesToApply.size();
+
+            log.info("📊 Фильтрация категорий по minConfidence={}: было {}, осталось {}",
+                minConfidence, beforeFilter, afterFilter);
+
+            if (afterFilter == 0) {
+                log.warn("⚠️ Все категории отфильтрованы по minConfidence={}, ни одна категория не будет применена",
+                    minConfidence);
+            }
+        }
+        return categoriesToApply.stream()
+                .map(CategorySuggestionResult.CategoryWithConfidence::getCategoryKey)
+                .collect(Collectors.toSet());
+    }
+
+    private static Map<String, Category> indexByKey(List<Category> categories) {
+        Map<String, Category> byKey = new HashMap<>();
+        for (Category category : categories) {
+            byKey.put(category.getKey(), category);
+        }
+        return byKey;
+    }
+
+    private int catalogHash(String categoriesList) {
+        return Objects.hash(categoriesList, maxCategories);
+    }
+
+    private static String normalizeDescription(String description) {
+        if (description == null || description.isBlank()) {
+            return "";
+        }
+        String trimmed = description.trim();
+        return trimmed.length() > MAX_DESCRIPTION_CHARS ? trimmed.substring(0, MAX_DESCRIPTION_CHARS) : trimmed;
+    }
+
     /**
      * Форматирует список категорий для промпта
      */
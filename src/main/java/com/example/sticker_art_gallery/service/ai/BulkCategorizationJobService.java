@@ -0,0 +1,81 @@
+package com.example.sticker_art_gallery.service.ai;
+
+import com.example.sticker_art_gallery.dto.BulkCategorySuggestionJobDto;
+import com.example.sticker_art_gallery.dto.BulkCategorySuggestionRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Фоновые задания пакетной AI-категоризации: запрос админки только ставит задание, пакеты идут на
+ * {@code aiBatchExecutor}, а результат забирается по ID задания. Задания хранятся в памяти инстанса
+ * {@code job-ttl-minutes} после создания.
+ */
+@Service
+public class BulkCategorizationJobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkCategorizationJobService.class);
+    private static final int MAX_JOBS = 1000;
+
+    private final AutoCategorizationService autoCategorizationService;
+    private final Cache<String, BulkCategorySuggestionJobDto> jobs;
+
+    public BulkCategorizationJobService(
+            AutoCategorizationService autoCategorizationService,
+            @Value("${app.ai.auto-category.job-ttl-minutes:120}") long jobTtlMinutes) {
+        this.autoCategorizationService = autoCategorizationService;
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(MAX_JOBS)
+                .expireAfterWrite(Duration.ofMinutes(jobTtlMinutes))
+                .build();
+    }
+
+    /**
+     * Поставить задание; возвращается сразу со статусом RUNNING
+     */
+    public BulkCategorySuggestionJobDto submit(BulkCategorySuggestionRequest request, String language) {
+        String jobId = UUID.randomUUID().toString();
+        BulkCategorySuggestionJobDto job = new BulkCategorySuggestionJobDto(jobId, BulkCategorySuggestionJobDto.Status.RUNNING,
+                request.getStickerSetIds().size(), request.isApply(), OffsetDateTime.now(), null, null, null);
+        jobs.put(jobId, job);
+        LOGGER.info("🤖 Задание пакетной категоризации {}: {} стикерсетов, apply={}",
+                jobId, job.getRequested(), job.isApply());
+
+        autoCategorizationService.suggestCategoriesForStickerSetsAsync(
+                        request.getStickerSetIds(), request.isApply(), language, request.getMinConfidence())
+                .whenComplete((results, error) -> {
+                    BulkCategorySuggestionJobDto done = copy(job);
+                    done.setCompletedAt(OffsetDateTime.now());
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        LOGGER.error("❌ Задание пакетной категоризации {} завершилось ошибкой: {}", jobId, cause.getMessage(), cause);
+                        done.setStatus(BulkCategorySuggestionJobDto.Status.FAILED);
+                        done.setError(cause.getMessage());
+                    } else {
+                        LOGGER.info("✅ Задание пакетной категоризации {} завершено: {} результатов", jobId, results.size());
+                        done.setStatus(BulkCategorySuggestionJobDto.Status.COMPLETED);
+                        done.setResults(results);
+                    }
+                    jobs.put(jobId, done);
+                });
+        return get(jobId).orElseGet(() -> copy(job));
+    }
+
+    public Optional<BulkCategorySuggestionJobDto> get(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(BulkCategorizationJobService::copy);
+    }
+
+    private static BulkCategorySuggestionJobDto copy(BulkCategorySuggestionJobDto job) {
+        return new BulkCategorySuggestionJobDto(job.getJobId(), job.getStatus(), job.getRequested(), job.isApply(),
+                job.getCreatedAt(), job.getCompletedAt(), job.getError(), job.getResults());
+    }
+}
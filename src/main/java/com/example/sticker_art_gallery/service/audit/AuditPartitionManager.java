@@ -0,0 +1,195 @@
+package com.example.sticker_art_gallery.service.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживание недельных партиций таблиц аудита (см. миграцию V1_0_89):
+ * заранее создаёт партиции на {@code premake-weeks} вперёд и удаляет целиком партиции,
+ * неделя которых закончилась раньше, чем {@code retention-days} назад. Удаление партиции - DROP TABLE,
+ * без построчного DELETE и последующей работы autovacuum.
+ * <p>
+ * При старте проверяет DEFAULT-партиции: в них попадают строки вне созданных недель (например, если
+ * обслуживание долго не запускалось), и такие строки переносятся в недельную партицию при её создании.
+ * Ключи сессий (глобальная уникальность task_id/message_id) удаляются вместе с партициями своих сессий.
+ */
+@Component
+public class AuditPartitionManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditPartitionManager.class);
+
+    /**
+     * Партиционированная таблица аудита и её ключ партиционирования
+     */
+    record AuditTable(String name, String partitionColumn) {
+    }
+
+    static final List<AuditTable> PARTITIONED_TABLES = List.of(
+            new AuditTable("generation_audit_sessions", "started_at"),
+            new AuditTable("generation_audit_events", "created_at"),
+            new AuditTable("message_audit_sessions", "started_at"),
+            new AuditTable("message_audit_events", "created_at"));
+
+    /**
+     * Непартиционированные таблицы ключей сессий (ключ -> session_id, started_at)
+     */
+    static final List<String> SESSION_KEY_TABLES = List.of(
+            "generation_audit_session_keys",
+            "message_audit_session_keys");
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int premakeWeeks;
+    private final int retentionDays;
+
+    public AuditPartitionManager(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.audit.partitions.premake-weeks:4}") int premakeWeeks,
+            @Value("${app.audit.partitions.retention-days:90}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.premakeWeeks = Math.max(1, premakeWeeks);
+        this.retentionDays = Math.max(7, retentionDays);
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+        for (AuditTable table : PARTITIONED_TABLES) {
+            try {
+                Long parked = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + defaultPartition(table), Long.class);
+                if (parked != null && parked > 0) {
+                    LOGGER.warn("⚠️ Audit partitions: в {} лежит {} строк вне недельных партиций",
+                            defaultPartition(table), parked);
+                }
+            } catch (Exception e) {
+                LOGGER.error("❌ Audit partitions: не удалось проверить {}: {}", defaultPartition(table), e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(cron = "0 0 3 * * ?") // Каждый день в 3:00 (после cleanup generation_tasks в 2:00)
+    public void maintain() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        OffsetDateTime retainedFrom = retainedFrom(today, retentionDays);
+        for (AuditTable table : PARTITIONED_TABLES) {
+            try {
+                jdbcTemplate.queryForObject("SELECT audit_ensure_default_partition(?)", String.class, table.name());
+                ensureUpcoming(table.name(), today);
+                dropExpired(table, today, retainedFrom);
+            } catch (Exception e) {
+                LOGGER.error("❌ Audit partitions: ошибка обслуживания {}: {}", table.name(), e.getMessage(), e);
+            }
+        }
+        for (String keyTable : SESSION_KEY_TABLES) {
+            try {
+                int deleted = jdbcTemplate.update("DELETE FROM " + keyTable + " WHERE started_at < ?", retainedFrom);
+                if (deleted > 0) {
+                    LOGGER.info("🗑️ Audit partitions: удалено {} ключей сессий из {}", deleted, keyTable);
+                }
+            } catch (Exception e) {
+                LOGGER.error("❌ Audit partitions: ошибка очистки {}: {}", keyTable, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void ensureUpcoming(String table, LocalDate today) {
+        for (LocalDate week : weeksToEnsure(today, premakeWeeks)) {
+            jdbcTemplate.queryForObject("SELECT audit_ensure_weekly_partition(?, ?)", String.class, table, week);
+        }
+    }
+
+    private void dropExpired(AuditTable table, LocalDate today, OffsetDateTime retainedFrom) {
+        List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class, table.name());
+        List<String> expired = expiredPartitions(table.name(), partitions, today, retentionDays);
+        for (String partition : expired) {
+            // Имя взято из каталога и проверено шаблоном <table>_pYYYYMMDD
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+            LOGGER.info("🗑️ Audit partitions: удалена партиция {}", partition);
+        }
+        // Старые строки, оставшиеся в DEFAULT, удаляются построчно по той же границе
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM " + defaultPartition(table) + " WHERE " + table.partitionColumn() + " < ?", retainedFrom);
+        if (deleted > 0) {
+            LOGGER.info("🗑️ Audit partitions: удалено {} устаревших строк из {}", deleted, defaultPartition(table));
+        }
+    }
+
+    private static String defaultPartition(AuditTable table) {
+        return table.name() + "_default";
+    }
+
+    /**
+     * Начало самой старой сохраняемой недели: партиции раньше неё удаляются {@link #expiredPartitions}
+     */
+    static OffsetDateTime retainedFrom(LocalDate today, int retentionDays) {
+        return today.minusDays(retentionDays)
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .atStartOfDay()
+                .atOffset(ZoneOffset.UTC);
+    }
+
+    /**
+     * Понедельники текущей и следующих {@code premakeWeeks} недель
+     */
+    static List<LocalDate> weeksToEnsure(LocalDate today, int premakeWeeks) {
+        LocalDate monday = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        List<LocalDate> weeks = new ArrayList<>(premakeWeeks + 1);
+        for (int i = 0; i <= premakeWeeks; i++) {
+            weeks.add(monday.plusWeeks(i));
+        }
+        return weeks;
+    }
+
+    /**
+     * Партиции таблицы, неделя которых целиком старше {@code retentionDays}.
+     * Имена, не подходящие под шаблон {@code <table>_pYYYYMMDD}, не трогаются.
+     */
+    static List<String> expiredPartitions(String table, List<String> partitions, LocalDate today, int retentionDays) {
+        Pattern pattern = Pattern.compile(Pattern.quote(table) + "_p(\\d{8})");
+        LocalDate cutoff = today.minusDays(retentionDays);
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            Matcher m = pattern.matcher(partition);
+            if (!m.matches()) {
+                continue;
+            }
+            try {
+                LocalDate weekEnd = LocalDate.parse(m.group(1), SUFFIX).plusWeeks(1);
+                if (!weekEnd.isAfter(cutoff)) {
+                    expired.add(partition);
+                }
+            } catch (DateTimeParseException e) {
+                LOGGER.warn("⚠️ Audit partitions: не удалось разобрать дату партиции {}", partition);
+            }
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.sticker_art_gallery.service.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind приёмник аудит-записей (генерация, сообщения бота).
+ * Вызывающий поток только кладёт готовую SQL-операцию в ограниченную lock-free очередь;
+ * один фоновый поток раз в {@code flush-interval-ms} (или при накоплении {@code max-batch}) забирает пачку
+ * и пишет её одной транзакцией через JDBC batch. Hibernate здесь не подходит: у аудит-таблиц IDENTITY-ключи,
+ * а с ними Hibernate не умеет батчить INSERT.
+ * <p>
+ * Порядок внутри пачки: вставки сессий → обновления сессий → события (каждая фаза в порядке поступления),
+ * поэтому событие, пришедшее сразу после старта сессии, находит её id через {@code INSERT ... SELECT}.
+ * <p>
+ * При переполнении очереди поведение задаётся {@code overflow}: {@code drop} - запись отбрасывается сразу,
+ * {@code block} - вызывающий поток ждёт освобождения места не дольше {@code block-timeout-ms}, затем запись отбрасывается.
+ * Режим {@code sync} пишет в вызывающем потоке (используется в интеграционных тестах).
+ * <p>
+ * Обновления и события, не нашедшие сессию (0 строк), не теряются молча: они считаются
+ * в {@code audit.sink.unmatched} и логируются.
+ * <p>
+ * Пачка всегда пишется в собственной транзакции (REQUIRES_NEW): в sync-режиме ошибка аудита
+ * не должна помечать бизнес-транзакцию вызывающего кода как rollback-only - так же, как в async.
+ */
+@Component
+public class AuditWriteBehindSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditWriteBehindSink.class);
+
+    /**
+     * Фаза записи внутри пачки; фазы выполняются в порядке объявления
+     */
+    public enum Phase {
+        SESSION_INSERT,
+        SESSION_UPDATE,
+        EVENT_INSERT
+    }
+
+    /**
+     * Одна отложенная SQL-операция
+     */
+    public record Write(Phase phase, String sql, Object[] args) {
+    }
+
+    enum Overflow {
+        BLOCK,
+        DROP
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean async;
+    private final int capacity;
+    private final int maxBatch;
+    private final long flushIntervalNanos;
+    private final long blockTimeoutNanos;
+    private final Overflow overflow;
+
+    private final ConcurrentLinkedQueue<Write> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Counter unmatchedCounter;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public AuditWriteBehindSink(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<MeterRegistry> meterRegistryProvider,
+            @Value("${app.audit.sink.mode:async}") String mode,
+            @Value("${app.audit.sink.capacity:10000}") int capacity,
+            @Value("${app.audit.sink.max-batch:500}") int maxBatch,
+            @Value("${app.audit.sink.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${app.audit.sink.overflow:drop}") String overflow,
+            @Value("${app.audit.sink.block-timeout-ms:100}") long blockTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.async = !"sync".equalsIgnoreCase(mode);
+        this.capacity = Math.max(1, capacity);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.flushIntervalNanos = Duration.ofMillis(Math.max(1, flushIntervalMs)).toNanos();
+        this.blockTimeoutNanos = Duration.ofMillis(Math.max(0, blockTimeoutMs)).toNanos();
+        this.overflow = Overflow.valueOf(overflow.trim().toUpperCase(Locale.ROOT));
+
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("audit.sink.queue.depth", depth, AtomicInteger::get)
+                    .description("Аудит-записи, ожидающие фоновой записи в БД")
+                    .register(registry);
+            this.writtenCounter = registry.counter("audit.sink.written");
+            this.droppedCounter = registry.counter("audit.sink.dropped");
+            this.failedCounter = registry.counter("audit.sink.failed");
+            this.unmatchedCounter = registry.counter("audit.sink.unmatched");
+        } else {
+            this.writtenCounter = null;
+            this.droppedCounter = null;
+            this.failedCounter = null;
+            this.unmatchedCounter = null;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!async) {
+            LOGGER.info("🗂️ Audit sink: синхронный режим");
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runWriter, "audit-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+        LOGGER.info("🗂️ Audit sink: write-behind, capacity={}, maxBatch={}, overflow={}", capacity, maxBatch, overflow);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Дописываем то, что мог не успеть фоновый поток
+        while (drainOnce() > 0) {
+            // повторяем, пока очередь не опустеет
+        }
+    }
+
+    /**
+     * Поставить операции одного аудит-вызова в очередь. Не бросает исключений.
+     *
+     * @return false, если операции отброшены из-за переполнения очереди
+     */
+    public boolean submit(List<Write> writes) {
+        if (writes.isEmpty()) {
+            return true;
+        }
+        if (!async) {
+            flush(writes);
+            return true;
+        }
+        if (!reserve(writes.size())) {
+            increment(droppedCounter, writes.size());
+            LOGGER.warn("⚠️ Audit sink: очередь заполнена ({}), отброшено записей: {}", capacity, writes.size());
+            return false;
+        }
+        queue.addAll(writes);
+        if (depth.get() >= maxBatch) {
+            Thread thread = writer;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+        return true;
+    }
+
+    int queueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Забрать из очереди до {@code max-batch} операций и записать их. Возвращает число обработанных операций.
+     */
+    int drainOnce() {
+        List<Write> batch = new ArrayList<>(Math.min(maxBatch, Math.max(depth.get(), 1)));
+        Write next;
+        while (batch.size() < maxBatch && (next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        depth.addAndGet(-batch.size());
+        flush(batch);
+        return batch.size();
+    }
+
+    private boolean reserve(int n) {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (true) {
+            int current = depth.get();
+            if (current + n <= capacity) {
+                if (depth.compareAndSet(current, current + n)) {
+                    return true;
+                }
+                continue;
+            }
+            if (overflow == Overflow.DROP || System.nanoTime() >= deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private void runWriter() {
+        while (running) {
+            try {
+                if (drainOnce() < maxBatch) {
+                    LockSupport.parkNanos(flushIntervalNanos);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("⚠️ Audit sink: ошибка фонового потока: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void flush(List<Write> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeOrdered(batch));
+            increment(writtenCounter, batch.size());
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                increment(failedCounter, 1);
+                LOGGER.warn("⚠️ Audit sink: не удалось записать аудит: {}", e.getMessage());
+                return;
+            }
+            // Одна «плохая» запись не должна утянуть за собой всю пачку - пишем по одной
+            LOGGER.warn("⚠️ Audit sink: пачка из {} записей не записалась ({}), пишем по одной", batch.size(), e.getMessage());
+            for (Write write : batch) {
+                flush(List.of(write));
+            }
+        }
+    }
+
+    private void writeOrdered(List<Write> batch) {
+        for (Phase phase : Phase.values()) {
+            String runSql = null;
+            List<Object[]> runArgs = new ArrayList<>();
+            for (Write write : batch) {
+                if (write.phase() != phase) {
+                    continue;
+                }
+                // Подряд идущие операции с одинаковым SQL уходят одним JDBC batch, порядок внутри фазы сохраняется
+                if (runSql != null && !runSql.equals(write.sql())) {
+                    execute(phase, runSql, runArgs);
+                    runArgs = new ArrayList<>();
+                }
+                runSql = write.sql();
+                runArgs.add(write.args());
+            }
+            if (runSql != null) {
+                execute(phase, runSql, runArgs);
+            }
+        }
+    }
+
+    private void execute(Phase phase, String sql, List<Object[]> args) {
+        int[] counts = jdbcTemplate.batchUpdate(sql, args);
+        if (phase == Phase.SESSION_INSERT || counts == null) {
+            return;
+        }
+        // Обновление/событие без сессии: сессия не записалась (переполнение, ошибка) или уже удалена по retention
+        int unmatched = 0;
+        for (int count : counts) {
+            if (count == 0) {
+                unmatched++;
+            }
+        }
+        if (unmatched > 0) {
+            increment(unmatchedCounter, unmatched);
+            LOGGER.warn("⚠️ Audit sink: {} из {} операций {} не нашли аудит-сессию", unmatched, counts.length, phase);
+        }
+    }
+
+    private static void increment(Counter counter, int amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+}
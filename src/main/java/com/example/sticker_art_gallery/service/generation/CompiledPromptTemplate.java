@@ -0,0 +1,91 @@
+package com.example.sticker_art_gallery.service.generation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Шаблон промпта пресета ({@code prompt_suffix}), разобранный один раз на литеральные сегменты
+ * и слоты {@code {{ name }}}. Рендер - один проход по сегментам в {@link StringBuilder}, без регулярных выражений.
+ * Экземпляр неизменяемый и потокобезопасный.
+ */
+public final class CompiledPromptTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*([a-zA-Z0-9_]+)\\s*}}");
+
+    private final String source;
+    /** literals.length == keys.length + 1: literal[0] key[0] literal[1] ... key[n-1] literal[n] */
+    private final String[] literals;
+    private final String[] keys;
+    private final Set<String> placeholders;
+
+    private CompiledPromptTemplate(String source, String[] literals, String[] keys) {
+        this.source = source;
+        this.literals = literals;
+        this.keys = keys;
+        Set<String> names = new LinkedHashSet<>();
+        Collections.addAll(names, keys);
+        this.placeholders = Collections.unmodifiableSet(names);
+    }
+
+    public static CompiledPromptTemplate compile(String template) {
+        String src = template == null ? "" : template;
+        Matcher m = PLACEHOLDER.matcher(src);
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int last = 0;
+        while (m.find()) {
+            literals.add(src.substring(last, m.start()));
+            keys.add(m.group(1));
+            last = m.end();
+        }
+        literals.add(src.substring(last));
+        return new CompiledPromptTemplate(src, literals.toArray(String[]::new), keys.toArray(String[]::new));
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public boolean isEmpty() {
+        return source.isEmpty();
+    }
+
+    public boolean hasPlaceholders() {
+        return keys.length > 0;
+    }
+
+    /**
+     * Имена плейсхолдеров в порядке первого вхождения (неизменяемое множество)
+     */
+    public Set<String> placeholders() {
+        return placeholders;
+    }
+
+    /**
+     * Подставить значения в слоты; значения приводятся через {@link StylePresetPromptComposer#valueToString(Object)}.
+     *
+     * @throws IllegalArgumentException если для плейсхолдера нет значения
+     */
+    public String render(Map<String, Object> values) {
+        if (keys.length == 0) {
+            return source;
+        }
+        StringBuilder sb = new StringBuilder(source.length() + 32 * keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            sb.append(literals[i]);
+            Object value = values.get(keys[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing value for template key: " + keys[i]);
+            }
+            sb.append(StylePresetPromptComposer.valueToString(value));
+        }
+        sb.append(literals[keys.length]);
+        return sb.toString();
+    }
+}
@@ -6,6 +6,7 @@ import com.example.sticker_art_gallery.dto.generation.GenerationAuditSessionDto;
 import com.example.sticker_art_gallery.model.generation.GenerationAuditSessionEntity;
 import com.example.sticker_art_gallery.repository.GenerationAuditEventRepository;
 import com.example.sticker_art_gallery.repository.GenerationAuditSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -15,17 +16,24 @@ import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Чтение аудита для админки. Таблицы аудита партиционированы по времени, поэтому каждый запрос
+ * ограничивается по ключу партиционирования (started_at / created_at) - Postgres читает только нужные партиции.
+ */
 @Service
 public class GenerationAuditQueryService {
 
     private final GenerationAuditSessionRepository sessionRepository;
     private final GenerationAuditEventRepository eventRepository;
+    private final int retentionDays;
 
     public GenerationAuditQueryService(
             GenerationAuditSessionRepository sessionRepository,
-            GenerationAuditEventRepository eventRepository) {
+            GenerationAuditEventRepository eventRepository,
+            @Value("${app.audit.partitions.retention-days:90}") int retentionDays) {
         this.sessionRepository = sessionRepository;
         this.eventRepository = eventRepository;
+        this.retentionDays = retentionDays;
     }
 
     @Transactional(readOnly = true)
@@ -37,8 +45,13 @@ public class GenerationAuditQueryService {
             Boolean errorOnly,
             String taskId,
             Pageable pageable) {
+        // Без явного периода ограничиваемся сроком хранения (+ неделя: партиции удаляются целиком),
+        // чтобы условие по started_at всегда было и планировщик отсекал партиции
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime from = dateFrom != null ? dateFrom : now.minusDays(retentionDays + 7L);
+        OffsetDateTime to = dateTo != null ? dateTo : now.plusDays(1);
         Page<GenerationAuditSessionEntity> page = sessionRepository.findWithFilters(
-                userId, finalStatus, dateFrom, dateTo, errorOnly, taskId, pageable);
+                userId, finalStatus, from, to, errorOnly, taskId, pageable);
         List<GenerationAuditSessionDto> content = page.getContent().stream()
                 .map(GenerationAuditSessionDto::fromEntity)
                 .collect(Collectors.toList());
@@ -47,14 +60,22 @@ public class GenerationAuditQueryService {
 
     @Transactional(readOnly = true)
     public GenerationAuditSessionDto getByTaskId(String taskId) {
-        return sessionRepository.findByTaskId(taskId)
+        return sessionRepository.findByTaskIdViaKey(taskId)
                 .map(GenerationAuditSessionDto::fromEntity)
                 .orElse(null);
     }
 
+    /**
+     * События по сессии: окно по created_at - от started_at сессии на срок хранения вперёд
+     * (событие может прийти сколь угодно поздно после старта). Если сессии нет - окно срока хранения от текущего момента.
+     */
     @Transactional(readOnly = true)
     public List<GenerationAuditEventDto> getEventsByTaskId(String taskId) {
-        return eventRepository.findByTaskIdOrderByCreatedAtAsc(taskId).stream()
+        OffsetDateTime now = OffsetDateTime.now();
+        return sessionRepository.findByTaskIdViaKey(taskId)
+                .map(session -> eventRepository.findByTaskIdInWindow(taskId, session.getStartedAt(), session.getStartedAt().plusDays(retentionDays + 7L)))
+                .orElseGet(() -> eventRepository.findByTaskIdInWindow(taskId, now.minusDays(retentionDays + 7L), now.plusDays(1)))
+                .stream()
                 .map(GenerationAuditEventDto::fromEntity)
                 .collect(Collectors.toList());
     }
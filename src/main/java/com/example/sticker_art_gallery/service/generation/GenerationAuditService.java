@@ -1,25 +1,27 @@
 package com.example.sticker_art_gallery.service.generation;
 
-import com.example.sticker_art_gallery.model.generation.GenerationAuditEventEntity;
 import com.example.sticker_art_gallery.model.generation.GenerationAuditEventStatus;
-import com.example.sticker_art_gallery.model.generation.GenerationAuditSessionEntity;
 import com.example.sticker_art_gallery.model.generation.GenerationAuditStage;
-import com.example.sticker_art_gallery.repository.GenerationAuditEventRepository;
-import com.example.sticker_art_gallery.repository.GenerationAuditSessionRepository;
+import com.example.sticker_art_gallery.service.audit.AuditWriteBehindSink;
+import com.example.sticker_art_gallery.service.audit.AuditWriteBehindSink.Phase;
+import com.example.sticker_art_gallery.service.audit.AuditWriteBehindSink.Write;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * Append-only audit log for sticker generation pipeline.
  * Does not throw: failures are logged so the main flow is not affected.
+ * Records are written behind the request thread by {@link AuditWriteBehindSink}.
+ * task_id is globally unique through generation_audit_session_keys; updates and events resolve
+ * the session's id and exact started_at there, so only its partition is touched regardless of session age.
  */
 @Service
 public class GenerationAuditService {
@@ -36,126 +38,110 @@ public class GenerationAuditService {
     public static final String ERROR_BACKGROUND_REMOVE = "BACKGROUND_REMOVE_ERROR";
     public static final String ERROR_GENERIC = "GENERATION_ERROR";
 
-    private final GenerationAuditSessionRepository sessionRepository;
-    private final GenerationAuditEventRepository eventRepository;
+    /**
+     * Сессия и её ключ пишутся одним запросом: повтор task_id падает на PK ключей и откатывает вставку сессии
+     */
+    private static final String INSERT_SESSION =
+            "WITH s AS (INSERT INTO generation_audit_sessions (task_id, user_id, raw_prompt, request_params, started_at, expires_at) " +
+            "VALUES (?, ?, ?, CAST(? AS jsonb), ?, ?) RETURNING id, task_id, started_at) " +
+            "INSERT INTO generation_audit_session_keys (task_id, session_id, started_at) SELECT task_id, id, started_at FROM s";
+    private static final String SESSION_BY_KEY =
+            " WHERE task_id = ? AND started_at = (SELECT k.started_at FROM generation_audit_session_keys k WHERE k.task_id = ?)";
+    private static final String UPDATE_PROCESSED_PROMPT =
+            "UPDATE generation_audit_sessions SET processed_prompt = ?" + SESSION_BY_KEY;
+    private static final String UPDATE_COMPLETED =
+            "UPDATE generation_audit_sessions SET final_status = 'COMPLETED', completed_at = ?, " +
+            "provider_ids = COALESCE(CAST(? AS jsonb), provider_ids)" + SESSION_BY_KEY;
+    private static final String UPDATE_FAILED =
+            "UPDATE generation_audit_sessions SET final_status = 'FAILED', error_code = ?, error_message = ?, completed_at = ?" +
+            SESSION_BY_KEY;
+    private static final String INSERT_EVENT =
+            "INSERT INTO generation_audit_events (session_id, task_id, stage, event_status, payload, error_code, error_message, created_at) " +
+            "SELECT k.session_id, ?, ?, ?, CAST(? AS jsonb), ?, ?, ? FROM generation_audit_session_keys k WHERE k.task_id = ?";
+
+    private final AuditWriteBehindSink sink;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Autowired
-    public GenerationAuditService(
-            GenerationAuditSessionRepository sessionRepository,
-            GenerationAuditEventRepository eventRepository) {
-        this.sessionRepository = sessionRepository;
-        this.eventRepository = eventRepository;
+    public GenerationAuditService(AuditWriteBehindSink sink) {
+        this.sink = sink;
     }
 
-    @Transactional
     public void startSession(String taskId, Long userId, String rawPrompt, Map<String, Object> requestParams, OffsetDateTime expiresAt) {
         try {
-            GenerationAuditSessionEntity session = new GenerationAuditSessionEntity();
-            session.setTaskId(taskId);
-            session.setUserId(userId);
-            session.setRawPrompt(rawPrompt != null ? rawPrompt : "");
-            session.setStartedAt(OffsetDateTime.now());
-            session.setExpiresAt(expiresAt != null ? expiresAt : OffsetDateTime.now().plusDays(90));
-            if (requestParams != null && !requestParams.isEmpty()) {
-                session.setRequestParams(objectMapper.writeValueAsString(requestParams));
-            }
-            session = sessionRepository.save(session);
-
-            addEvent(session, taskId, GenerationAuditStage.REQUEST_ACCEPTED, GenerationAuditEventStatus.SUCCEEDED, null, null, null);
+            OffsetDateTime now = OffsetDateTime.now();
+            sink.submit(List.of(
+                    new Write(Phase.SESSION_INSERT, INSERT_SESSION, new Object[]{
+                            taskId,
+                            userId,
+                            rawPrompt != null ? rawPrompt : "",
+                            toJson(requestParams),
+                            now,
+                            expiresAt != null ? expiresAt : now.plusDays(90)}),
+                    event(taskId, GenerationAuditStage.REQUEST_ACCEPTED, GenerationAuditEventStatus.SUCCEEDED, null, null, null, now)));
         } catch (Exception e) {
             LOGGER.warn("Audit: failed to start session for task {}: {}", taskId, e.getMessage());
         }
     }
 
-    @Transactional
     public void markPromptProcessed(String taskId, String processedPrompt, Map<String, Object> enhancerMeta) {
         try {
-            Optional<GenerationAuditSessionEntity> opt = sessionRepository.findByTaskId(taskId);
-            if (opt.isEmpty()) return;
-            GenerationAuditSessionEntity session = opt.get();
-            session.setProcessedPrompt(processedPrompt);
-            sessionRepository.save(session);
-            Map<String, Object> payload = enhancerMeta != null ? enhancerMeta : Map.of();
-            addEvent(session, taskId, GenerationAuditStage.PROMPT_PROCESSING_SUCCEEDED, GenerationAuditEventStatus.SUCCEEDED, payload, null, null);
+            OffsetDateTime now = OffsetDateTime.now();
+            sink.submit(List.of(
+                    new Write(Phase.SESSION_UPDATE, UPDATE_PROCESSED_PROMPT, new Object[]{processedPrompt, taskId, taskId}),
+                    event(taskId, GenerationAuditStage.PROMPT_PROCESSING_SUCCEEDED, GenerationAuditEventStatus.SUCCEEDED,
+                            enhancerMeta, null, null, now)));
         } catch (Exception e) {
             LOGGER.warn("Audit: failed to mark prompt processed for task {}: {}", taskId, e.getMessage());
         }
     }
 
-    @Transactional
     public void addStageEvent(String taskId, GenerationAuditStage stage, GenerationAuditEventStatus status,
                              Map<String, Object> payload, String errorCode, String errorMessage) {
         try {
-            Optional<GenerationAuditSessionEntity> opt = sessionRepository.findByTaskId(taskId);
-            if (opt.isEmpty()) return;
-            GenerationAuditSessionEntity session = opt.get();
-            String payloadJson = (payload != null && !payload.isEmpty()) ? objectMapper.writeValueAsString(payload) : null;
-            addEvent(session, taskId, stage, status, payloadJson, errorCode, errorMessage);
+            sink.submit(List.of(event(taskId, stage, status, payload, errorCode, errorMessage, OffsetDateTime.now())));
         } catch (Exception e) {
             LOGGER.warn("Audit: failed to add stage event for task {}: {}", taskId, e.getMessage());
         }
     }
 
-    private void addEvent(GenerationAuditSessionEntity session, String taskId, GenerationAuditStage stage,
-                          GenerationAuditEventStatus status, Object payloadObj, String errorCode, String errorMessage) {
-        try {
-            String payloadJson = null;
-            if (payloadObj instanceof String) {
-                payloadJson = (String) payloadObj;
-            } else if (payloadObj instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> map = (Map<String, Object>) payloadObj;
-                payloadJson = map.isEmpty() ? null : objectMapper.writeValueAsString(map);
-            }
-            GenerationAuditEventEntity event = new GenerationAuditEventEntity();
-            event.setSession(session);
-            event.setTaskId(taskId);
-            event.setStage(stage);
-            event.setEventStatus(status);
-            event.setPayload(payloadJson);
-            event.setErrorCode(errorCode);
-            event.setErrorMessage(errorMessage);
-            eventRepository.save(event);
-        } catch (Exception e) {
-            LOGGER.warn("Audit: failed to persist event: {}", e.getMessage());
-        }
-    }
-
-    @Transactional
     public void finishSuccess(String taskId, Map<String, Object> finalPayload) {
         try {
-            Optional<GenerationAuditSessionEntity> opt = sessionRepository.findByTaskId(taskId);
-            if (opt.isEmpty()) return;
-            GenerationAuditSessionEntity session = opt.get();
-            session.setFinalStatus("COMPLETED");
-            session.setCompletedAt(OffsetDateTime.now());
-            if (finalPayload != null && !finalPayload.isEmpty()) {
-                try {
-                    session.setProviderIds(objectMapper.writeValueAsString(finalPayload));
-                } catch (Exception ignored) { }
-            }
-            sessionRepository.save(session);
-            addEvent(session, taskId, GenerationAuditStage.COMPLETED, GenerationAuditEventStatus.SUCCEEDED, finalPayload, null, null);
+            OffsetDateTime now = OffsetDateTime.now();
+            String payloadJson = toJson(finalPayload);
+            sink.submit(List.of(
+                    new Write(Phase.SESSION_UPDATE, UPDATE_COMPLETED, new Object[]{now, payloadJson, taskId, taskId}),
+                    eventJson(taskId, GenerationAuditStage.COMPLETED, GenerationAuditEventStatus.SUCCEEDED, payloadJson, null, null, now)));
         } catch (Exception e) {
             LOGGER.warn("Audit: failed to finish success for task {}: {}", taskId, e.getMessage());
         }
     }
 
-    @Transactional
     public void finishFailure(String taskId, String errorCode, String errorMessage, Map<String, Object> payload) {
         try {
-            Optional<GenerationAuditSessionEntity> opt = sessionRepository.findByTaskId(taskId);
-            if (opt.isEmpty()) return;
-            GenerationAuditSessionEntity session = opt.get();
-            session.setFinalStatus("FAILED");
-            session.setErrorCode(errorCode != null ? errorCode : ERROR_GENERIC);
-            session.setErrorMessage(errorMessage);
-            session.setCompletedAt(OffsetDateTime.now());
-            sessionRepository.save(session);
-            addEvent(session, taskId, GenerationAuditStage.FAILED, GenerationAuditEventStatus.FAILED, payload, errorCode, errorMessage);
+            OffsetDateTime now = OffsetDateTime.now();
+            sink.submit(List.of(
+                    new Write(Phase.SESSION_UPDATE, UPDATE_FAILED, new Object[]{
+                            errorCode != null ? errorCode : ERROR_GENERIC, errorMessage, now, taskId, taskId}),
+                    event(taskId, GenerationAuditStage.FAILED, GenerationAuditEventStatus.FAILED, payload, errorCode, errorMessage, now)));
         } catch (Exception e) {
             LOGGER.warn("Audit: failed to finish failure for task {}: {}", taskId, e.getMessage());
         }
     }
+
+    private Write event(String taskId, GenerationAuditStage stage, GenerationAuditEventStatus status,
+                        Map<String, Object> payload, String errorCode, String errorMessage, OffsetDateTime createdAt)
+            throws JsonProcessingException {
+        return eventJson(taskId, stage, status, toJson(payload), errorCode, errorMessage, createdAt);
+    }
+
+    private static Write eventJson(String taskId, GenerationAuditStage stage, GenerationAuditEventStatus status,
+                                   String payloadJson, String errorCode, String errorMessage, OffsetDateTime createdAt) {
+        return new Write(Phase.EVENT_INSERT, INSERT_EVENT, new Object[]{
+                taskId, stage.name(), status.name(), payloadJson, errorCode, errorMessage, createdAt, taskId});
+    }
+
+    private String toJson(Map<String, Object> map) throws JsonProcessingException {
+        return (map == null || map.isEmpty()) ? null : objectMapper.writeValueAsString(map);
+    }
 }
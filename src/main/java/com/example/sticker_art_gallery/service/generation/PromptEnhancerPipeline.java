@@ -0,0 +1,224 @@
+package com.example.sticker_art_gallery.service.generation;
+
+import com.example.sticker_art_gallery.model.generation.PromptEnhancerEntity;
+import com.example.sticker_art_gallery.repository.PromptEnhancerRepository;
+import com.example.sticker_art_gallery.service.ai.AIService;
+import com.example.sticker_art_gallery.util.SingleFlight;
+import com.example.sticker_art_gallery.util.TransactionCallbacks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Цепочка prompt enhancers: каждый энхансер получает результат предыдущего.
+ * Список активных энхансеров берётся из in-memory снапшота (перечитывается по TTL и после коммита изменений),
+ * результат каждого шага запоминается по (id энхансера, updatedAt, SHA-256 входа) - повторный промпт
+ * (частый случай с пресетами) не ходит в LLM. Одновременные одинаковые шаги схлопываются в один вызов.
+ */
+@Component
+public class PromptEnhancerPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PromptEnhancerPipeline.class);
+
+    private final PromptEnhancerRepository enhancerRepository;
+    private final AIService aiService;
+    private final long snapshotTtlNanos;
+    private final Cache<OutputKey, String> outputs;
+    private final SingleFlight<OutputKey, String> inFlight = new SingleFlight<>();
+    private final Object snapshotLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    public PromptEnhancerPipeline(
+            PromptEnhancerRepository enhancerRepository,
+            AIService aiService,
+            @Value("${app.prompt-enhancers.snapshot-ttl-seconds:60}") long snapshotTtlSeconds,
+            @Value("${app.prompt-enhancers.output-cache.max-size:10000}") long outputCacheMaxSize,
+            @Value("${app.prompt-enhancers.output-cache.ttl-minutes:360}") long outputCacheTtlMinutes) {
+        this.enhancerRepository = enhancerRepository;
+        this.aiService = aiService;
+        this.snapshotTtlNanos = Duration.ofSeconds(snapshotTtlSeconds).toNanos();
+        this.outputs = Caffeine.newBuilder()
+                .maximumSize(outputCacheMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(outputCacheTtlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Попадания в кэш результатов энхансеров - сколько вызовов AI удалось сэкономить
+     */
+    @Autowired(required = false)
+    void registerCacheMetrics(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, outputs, "prompt_enhancer_outputs");
+    }
+
+    /**
+     * Неизменяемое описание энхансера из снапшота
+     */
+    record Enhancer(Long id, String code, String systemPrompt, OffsetDateTime updatedAt, boolean global, Long ownerId) {
+
+        boolean availableFor(Long userId) {
+            return global || (ownerId != null && ownerId.equals(userId));
+        }
+    }
+
+    private record Snapshot(List<Enhancer> enhancers, long loadedAtNanos) {
+    }
+
+    private record OutputKey(Long enhancerId, OffsetDateTime updatedAt, String inputSha256) {
+    }
+
+    /**
+     * Прогнать промпт через доступные пользователю энхансеры. Ошибка отдельного энхансера не прерывает цепочку.
+     */
+    public String apply(String prompt, Long userId) {
+        List<Enhancer> enhancers = availableFor(userId);
+
+        if (enhancers.isEmpty()) {
+            LOGGER.debug("No enhancers found for user {}, using current prompt", userId);
+            return prompt;
+        }
+
+        LOGGER.info("Applying {} enhancer(s) to prompt", enhancers.size());
+
+        String currentPrompt = prompt;
+        for (Enhancer enhancer : enhancers) {
+            try {
+                String enhancedPrompt = enhance(enhancer, currentPrompt);
+                currentPrompt = enhancedPrompt;
+                LOGGER.debug("Applied enhancer '{}': result_length={}", enhancer.code(), enhancedPrompt.length());
+            } catch (Exception e) {
+                LOGGER.warn("Failed to apply enhancer '{}': {}, continuing with previous prompt",
+                        enhancer.code(), e.getMessage());
+            }
+        }
+
+        return currentPrompt;
+    }
+
+    /**
+     * Сбросить снапшот списка энхансеров после коммита текущей транзакции (создание/правка/удаление/toggle)
+     */
+    public void invalidateAfterCommit() {
+        TransactionCallbacks.afterCommit(() -> snapshot = null);
+    }
+
+    List<Enhancer> availableFor(Long userId) {
+        return currentSnapshot().enhancers().stream()
+                .filter(e -> e.availableFor(userId))
+                .toList();
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.loadedAtNanos() < snapshotTtlNanos) {
+            return current;
+        }
+        synchronized (snapshotLock) {
+            current = snapshot;
+            if (current != null && System.nanoTime() - current.loadedAtNanos() < snapshotTtlNanos) {
+                return current;
+            }
+            List<Enhancer> loaded = enhancerRepository.findAllEnabledWithOwner().stream()
+                    .map(PromptEnhancerPipeline::toEnhancer)
+                    .toList();
+            current = new Snapshot(loaded, System.nanoTime());
+            snapshot = current;
+            LOGGER.debug("Loaded prompt enhancer snapshot: {} enabled enhancer(s)", loaded.size());
+            return current;
+        }
+    }
+
+    private String enhance(Enhancer enhancer, String input) {
+        OutputKey key = new OutputKey(enhancer.id(), enhancer.updatedAt(), sha256(input));
+        String cached = outputs.getIfPresent(key);
+        if (cached != null) {
+            LOGGER.debug("Enhancer '{}' output served from cache", enhancer.code());
+            return cached;
+        }
+        return inFlight.execute(key, () -> {
+            String again = outputs.getIfPresent(key);
+            if (again != null) {
+                return again;
+            }
+            String conversationId = "prompt-enhance-" + UUID.randomUUID();
+            String enhancedPrompt = cleanAIResponse(aiService.completion(
+                    conversationId,
+                    input,
+                    enhancer.systemPrompt(),
+                    null
+            ));
+            // Пустой ответ не запоминаем: это скорее сбой модели, чем результат
+            if (!enhancedPrompt.isEmpty()) {
+                outputs.put(key, enhancedPrompt);
+            }
+            return enhancedPrompt;
+        });
+    }
+
+    private static Enhancer toEnhancer(PromptEnhancerEntity entity) {
+        return new Enhancer(
+                entity.getId(),
+                entity.getCode(),
+                entity.getSystemPrompt(),
+                entity.getUpdatedAt(),
+                Boolean.TRUE.equals(entity.getIsGlobal()),
+                entity.getOwner() != null ? entity.getOwner().getUserId() : null);
+    }
+
+    private static String sha256(String input) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(
+                    md.digest(Objects.requireNonNullElse(input, "").getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static String cleanAIResponse(String response) {
+        if (response == null) {
+            return "";
+        }
+
+        String cleaned = response.trim();
+
+        if (cleaned.startsWith("```")) {
+            int startIndex = cleaned.indexOf('\n');
+            if (startIndex > 0) {
+                cleaned = cleaned.substring(startIndex + 1);
+            } else {
+                cleaned = cleaned.substring(3);
+            }
+        }
+
+        if (cleaned.endsWith("```")) {
+            cleaned = cleaned.substring(0, cleaned.length() - 3);
+        }
+
+        cleaned = cleaned.trim();
+        if ((cleaned.startsWith("\"") && cleaned.endsWith("\"")) ||
+            (cleaned.startsWith("'") && cleaned.endsWith("'"))) {
+            cleaned = cleaned.substring(1, cleaned.length() - 1);
+        }
+
+        return cleaned.trim();
+    }
+}
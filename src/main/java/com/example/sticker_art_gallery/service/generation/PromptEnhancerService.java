@@ -19,10 +19,12 @@ public class PromptEnhancerService {
     private static final Logger LOGGER = LoggerFactory.getLogger(PromptEnhancerService.class);
 
     private final PromptEnhancerRepository enhancerRepository;
+    private final PromptEnhancerPipeline enhancerPipeline;
 
     @Autowired
-    public PromptEnhancerService(PromptEnhancerRepository enhancerRepository) {
+    public PromptEnhancerService(PromptEnhancerRepository enhancerRepository, PromptEnhancerPipeline enhancerPipeline) {
         this.enhancerRepository = enhancerRepository;
+        this.enhancerPipeline = enhancerPipeline;
     }
 
     /**
@@ -61,6 +63,7 @@ public class PromptEnhancerService {
         enhancer.setSortOrder(request.getSortOrder() != null ? request.getSortOrder() : 0);
 
         enhancer = enhancerRepository.save(enhancer);
+        enhancerPipeline.invalidateAfterCommit();
         LOGGER.info("Created global enhancer: id={}, code={}", enhancer.getId(), enhancer.getCode());
         return PromptEnhancerDto.fromEntity(enhancer);
     }
@@ -84,6 +87,7 @@ public class PromptEnhancerService {
         }
 
         enhancer = enhancerRepository.save(enhancer);
+        enhancerPipeline.invalidateAfterCommit();
         LOGGER.info("Updated enhancer: id={}", enhancerId);
         return PromptEnhancerDto.fromEntity(enhancer);
     }
@@ -99,6 +103,7 @@ public class PromptEnhancerService {
                 .orElseThrow(() -> new IllegalArgumentException("Enhancer not found: " + enhancerId));
 
         enhancerRepository.delete(enhancer);
+        enhancerPipeline.invalidateAfterCommit();
         LOGGER.info("Deleted enhancer: id={}", enhancerId);
     }
 
@@ -114,6 +119,7 @@ public class PromptEnhancerService {
 
         enhancer.setIsEnabled(enabled);
         enhancer = enhancerRepository.save(enhancer);
+        enhancerPipeline.invalidateAfterCommit();
         LOGGER.info("Toggled enhancer enabled: id={}, enabled={}", enhancerId, enabled);
         return PromptEnhancerDto.fromEntity(enhancer);
     }
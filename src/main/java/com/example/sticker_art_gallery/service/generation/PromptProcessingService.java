@@ -1,21 +1,16 @@
 package com.example.sticker_art_gallery.service.generation;
 
-import com.example.sticker_art_gallery.model.generation.PromptEnhancerEntity;
 import com.example.sticker_art_gallery.model.generation.StylePresetEntity;
 import com.example.sticker_art_gallery.model.generation.StylePresetRemoveBackgroundMode;
 import com.example.sticker_art_gallery.model.generation.StylePresetUiMode;
-import com.example.sticker_art_gallery.repository.PromptEnhancerRepository;
 import com.example.sticker_art_gallery.repository.StylePresetRepository;
-import com.example.sticker_art_gallery.service.ai.AIService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * 1) Сборка сырого промпта по пресету (поля, шаблон, свободный текст)
@@ -27,9 +22,8 @@ public class PromptProcessingService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PromptProcessingService.class);
 
-    private final PromptEnhancerRepository enhancerRepository;
+    private final PromptEnhancerPipeline enhancerPipeline;
     private final StylePresetRepository presetRepository;
-    private final AIService aiService;
     private final StylePresetPromptComposer presetPromptComposer;
 
     public record PromptProcessingResult(String prompt, Boolean removeBackgroundOverride) {
@@ -37,13 +31,11 @@ public class PromptProcessingService {
 
     @Autowired
     public PromptProcessingService(
-            PromptEnhancerRepository enhancerRepository,
+            PromptEnhancerPipeline enhancerPipeline,
             StylePresetRepository presetRepository,
-            AIService aiService,
             StylePresetPromptComposer presetPromptComposer) {
-        this.enhancerRepository = enhancerRepository;
+        this.enhancerPipeline = enhancerPipeline;
         this.presetRepository = presetRepository;
-        this.aiService = aiService;
         this.presetPromptComposer = presetPromptComposer;
     }
 
@@ -171,37 +163,7 @@ public class PromptProcessingService {
     }
 
     private String applyEnhancers(String prompt, Long userId) {
-        List<PromptEnhancerEntity> enhancers = enhancerRepository.findAvailableForUser(userId);
-
-        if (enhancers.isEmpty()) {
-            LOGGER.debug("No enhancers found for user {}, using current prompt", userId);
-            return prompt;
-        }
-
-        LOGGER.info("Applying {} enhancer(s) to prompt", enhancers.size());
-
-        String currentPrompt = prompt;
-        for (PromptEnhancerEntity enhancer : enhancers) {
-            try {
-                String conversationId = "prompt-enhance-" + UUID.randomUUID();
-                String enhancedPrompt = aiService.completion(
-                        conversationId,
-                        currentPrompt,
-                        enhancer.getSystemPrompt(),
-                        null
-                );
-
-                enhancedPrompt = cleanAIResponse(enhancedPrompt);
-                currentPrompt = enhancedPrompt;
-
-                LOGGER.debug("Applied enhancer '{}': result_length={}", enhancer.getCode(), enhancedPrompt.length());
-            } catch (Exception e) {
-                LOGGER.warn("Failed to apply enhancer '{}': {}, continuing with previous prompt",
-                        enhancer.getCode(), e.getMessage());
-            }
-        }
-
-        return currentPrompt;
+        return enhancerPipeline.apply(prompt, userId);
     }
 
     private StylePresetEntity getAccessiblePreset(Long stylePresetId, Long userId) {
@@ -218,33 +180,4 @@ public class PromptProcessingService {
 
         return preset;
     }
-
-    private String cleanAIResponse(String response) {
-        if (response == null) {
-            return "";
-        }
-
-        String cleaned = response.trim();
-
-        if (cleaned.startsWith("```")) {
-            int startIndex = cleaned.indexOf('\n');
-            if (startIndex > 0) {
-                cleaned = cleaned.substring(startIndex + 1);
-            } else {
-                cleaned = cleaned.substring(3);
-            }
-        }
-
-        if (cleaned.endsWith("```")) {
-            cleaned = cleaned.substring(0, cleaned.length() - 3);
-        }
-
-        cleaned = cleaned.trim();
-        if ((cleaned.startsWith("\"") && cleaned.endsWith("\"")) ||
-            (cleaned.startsWith("'") && cleaned.endsWith("'"))) {
-            cleaned = cleaned.substring(1, cleaned.length() - 1);
-        }
-
-        return cleaned.trim();
-    }
 }
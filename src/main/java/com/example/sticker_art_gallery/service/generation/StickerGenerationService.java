@@ -1,5 +1,6 @@
 package com.example.sticker_art_gallery.service.generation;
 
+import com.example.sticker_art_gallery.dto.PageResponse;
 import com.example.sticker_art_gallery.dto.generation.GenerateStickerRequest;
 import com.example.sticker_art_gallery.dto.generation.GenerateStickerV2Request;
 import com.example.sticker_art_gallery.dto.generation.GenerationAdminHistoryItemDto;
@@ -17,6 +18,7 @@ import com.example.sticker_art_gallery.repository.GenerationTaskRepository;
 import com.example.sticker_art_gallery.repository.StylePresetRepository;
 import com.example.sticker_art_gallery.model.profile.ArtTransactionEntity;
 import com.example.sticker_art_gallery.model.profile.UserProfileEntity;
+import com.example.sticker_art_gallery.service.metrics.PipelineStageMetrics;
 import com.example.sticker_art_gallery.service.profile.ArtRewardService;
 import com.example.sticker_art_gallery.service.profile.UserProfileService;
 import com.example.sticker_art_gallery.service.referral.ReferralService;
@@ -24,6 +26,8 @@ import com.example.sticker_art_gallery.service.telegram.StickerSetService;
 import com.example.sticker_art_gallery.service.storage.ImageStorageService;
 import com.example.sticker_art_gallery.service.stylefeed.StyleFeedItemPromotionService;
 import com.example.sticker_art_gallery.model.storage.CachedImageEntity;
+import com.example.sticker_art_gallery.exception.InvalidCursorException;
+import com.example.sticker_art_gallery.util.KeysetCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,6 +42,7 @@ import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -50,6 +55,8 @@ public class StickerGenerationService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StickerGenerationService.class);
     private static final int STICKER_PROCESSOR_PROMPT_MAX_LENGTH = 1000;
+    private static final String PIPELINE_GENERATION = "generation";
+    private static final String PIPELINE_GENERATION_V2 = "generation_v2";
 
     private final GenerationTaskRepository taskRepository;
     @SuppressWarnings("deprecation")
@@ -68,6 +75,7 @@ public class StickerGenerationService {
     private final ObjectMapper objectMapper;
     private final UserPresetCreationBlueprintService userPresetCreationBlueprintService;
     private final StickerSetService stickerSetService;
+    private final PipelineStageMetrics stageMetrics;
 
     @Value("${wavespeed.max-poll-seconds:360}")
     private int maxPollSeconds;
@@ -110,7 +118,8 @@ public class StickerGenerationService {
             GenerationArtBillingService generationArtBillingService,
             StyleFeedItemPromotionService styleFeedItemPromotionService,
             UserPresetCreationBlueprintService userPresetCreationBlueprintService,
-            StickerSetService stickerSetService) {
+            StickerSetService stickerSetService,
+            PipelineStageMetrics stageMetrics) {
         this.taskRepository = taskRepository;
         this.waveSpeedClient = waveSpeedClient;
         this.artRewardService = artRewardService;
@@ -126,6 +135,7 @@ public class StickerGenerationService {
         this.styleFeedItemPromotionService = styleFeedItemPromotionService;
         this.userPresetCreationBlueprintService = userPresetCreationBlueprintService;
         this.stickerSetService = stickerSetService;
+        this.stageMetrics = stageMetrics;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -237,6 +247,37 @@ public class StickerGenerationService {
         return tasks.map(this::toStatusResponse);
     }
 
+    /**
+     * История v2 в режиме курсора (новые сверху): keyset по (createdAt, taskId), без OFFSET и COUNT
+     *
+     * @param cursor nextCursor предыдущей страницы; null или пустой - первая страница
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<GenerationStatusResponse> getGenerationHistoryV2(Long userId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor, "createdAt", "DESC");
+        List<GenerationTaskEntity> tasks;
+        if (after == null) {
+            tasks = taskRepository.findV2FirstByUserId(userId, size + 1);
+        } else {
+            OffsetDateTime afterCreatedAt;
+            try {
+                afterCreatedAt = OffsetDateTime.parse(after.value());
+            } catch (java.time.format.DateTimeParseException e) {
+                throw new InvalidCursorException("Malformed cursor", e);
+            }
+            tasks = taskRepository.findV2ByUserIdAfter(userId, afterCreatedAt, after.id(), size + 1);
+        }
+
+        boolean hasNext = tasks.size() > size;
+        List<GenerationTaskEntity> page = hasNext ? tasks.subList(0, size) : tasks;
+        String nextCursor = null;
+        if (hasNext) {
+            GenerationTaskEntity last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor("createdAt", "DESC", last.getCreatedAt().toString(), last.getTaskId()).encode();
+        }
+        return PageResponse.ofCursor(page.stream().map(this::toStatusResponse).toList(), size, after == null, nextCursor);
+    }
+
     @Transactional(readOnly = true)
     public Page<GenerationAdminHistoryItemDto> getGenerationHistoryV2ForAdmin(
             Long userId,
@@ -354,11 +395,19 @@ public class StickerGenerationService {
             generationAuditService.addStageEvent(taskId, GenerationAuditStage.PROMPT_PROCESSING_STARTED, GenerationAuditEventStatus.STARTED, null, null, null);
 
             String originalPrompt = task.getPrompt();
-            PromptProcessingService.PromptProcessingResult promptResult = promptProcessingService.processPrompt(
-                    originalPrompt,
-                    userId,
-                    stylePresetId
-            );
+            long promptStartNanos = stageMetrics.start();
+            PromptProcessingService.PromptProcessingResult promptResult;
+            try {
+                promptResult = promptProcessingService.processPrompt(
+                        originalPrompt,
+                        userId,
+                        stylePresetId
+                );
+            } catch (RuntimeException e) {
+                stageMetrics.stop(promptStartNanos, PIPELINE_GENERATION, "prompt", "failed");
+                throw e;
+            }
+            stageMetrics.stop(promptStartNanos, PIPELINE_GENERATION, "prompt", "success");
             String processedPrompt = promptResult.prompt();
             
             LOGGER.info("Prompt processed for task {}: original_length={}, processed_length={}",
@@ -427,10 +476,18 @@ public class StickerGenerationService {
             if (blueprintCode != null) {
                 transientPreset = userPresetCreationBlueprintService.buildTransientStylePresetForGeneration(blueprintCode);
             }
-            PromptProcessingService.PromptProcessingResult promptResult = transientPreset != null
-                    ? promptProcessingService.processPromptForTransientStylePreset(
-                            originalPrompt, presetFields, userId, transientPreset)
-                    : promptProcessingService.processPrompt(originalPrompt, presetFields, userId, stylePresetIdResolved);
+            long promptStartNanos = stageMetrics.start();
+            PromptProcessingService.PromptProcessingResult promptResult;
+            try {
+                promptResult = transientPreset != null
+                        ? promptProcessingService.processPromptForTransientStylePreset(
+                                originalPrompt, presetFields, userId, transientPreset)
+                        : promptProcessingService.processPrompt(originalPrompt, presetFields, userId, stylePresetIdResolved);
+            } catch (RuntimeException e) {
+                stageMetrics.stop(promptStartNanos, PIPELINE_GENERATION_V2, "prompt", "failed");
+                throw e;
+            }
+            stageMetrics.stop(promptStartNanos, PIPELINE_GENERATION_V2, "prompt", "success");
             String processedPrompt = promptResult.prompt();
             task.setPrompt(processedPrompt);
             task.setStatus(GenerationTaskStatus.PENDING);
@@ -718,6 +775,19 @@ public class StickerGenerationService {
 
     @Transactional
     public void runGenerationV2(String taskId) {
+        long startNanos = stageMetrics.start();
+        GenerationTaskEntity task = null;
+        try {
+            task = generateV2(taskId);
+        } finally {
+            stageMetrics.stop(startNanos, PIPELINE_GENERATION_V2, "total", stageOutcome(task));
+        }
+    }
+
+    /**
+     * @return задача в финальном состоянии (COMPLETED, FAILED или TIMEOUT)
+     */
+    private GenerationTaskEntity generateV2(String taskId) {
         GenerationTaskEntity task = taskRepository.findByTaskId(taskId)
                 .orElseThrow(() -> new IllegalArgumentException("Task not found: " + taskId));
         task.setStatus(GenerationTaskStatus.GENERATING);
@@ -775,6 +845,7 @@ public class StickerGenerationService {
                 String terminalReason = null;
                 Map<String, Object> terminalPayload = null;
 
+                long awaitStartNanos = stageMetrics.start();
                 long deadlineMs = System.currentTimeMillis() + (stickerProcessorMaxPollSeconds * 1000L);
                 int consecutiveBgRemoval424 = 0;
                 int pollIntervalMs = Math.max(200, stickerProcessorPollIntervalMs);
@@ -789,10 +860,13 @@ public class StickerGenerationService {
 
                     StickerProcessorGenerationClient.PollResult poll = stickerProcessorGenerationClient.pollResult(submit.fileId());
                     if (poll.isImageReady()) {
+                        stageMetrics.stop(awaitStartNanos, PIPELINE_GENERATION_V2, "await_result", "success");
                         generationAuditService.addStageEvent(taskId, GenerationAuditStage.STICKER_PROCESSOR_RESULT,
                                 GenerationAuditEventStatus.SUCCEEDED, Map.of("file_id", submit.fileId()), null, null);
                         String providerSource = buildStickerProcessorResultUrl(submit.fileId());
+                        long storeStartNanos = stageMetrics.start();
                         CachedImageEntity cachedImage = imageStorageService.storeBytes(providerSource, poll.getImageBytes(), "image/webp");
+                        stageMetrics.stop(storeStartNanos, PIPELINE_GENERATION_V2, "store_image", "success");
                         String localImageUrl = imageStorageService.getPublicUrl(cachedImage);
 
                         if (task.getArtTransaction() == null) {
@@ -819,7 +893,7 @@ public class StickerGenerationService {
                         taskRepository.save(task);
                         generationAuditService.finishSuccess(taskId, Map.of("imageUrl", localImageUrl, "providerFileId", submit.fileId()));
                         handlePostCompletionHooks(task);
-                        return;
+                        return task;
                     }
 
                     int statusCode = poll.getHttpStatus();
@@ -850,6 +924,7 @@ public class StickerGenerationService {
 
                         terminalReason = StickerProcessorErrorMessage.humanMessageOrFallback(poll.getPayload(), statusCode);
                         terminalPayload = poll.getPayload();
+                        stageMetrics.stop(awaitStartNanos, PIPELINE_GENERATION_V2, "await_result", "failed");
                         generationAuditService.addStageEvent(taskId, GenerationAuditStage.STICKER_PROCESSOR_RESULT,
                                 GenerationAuditEventStatus.FAILED, terminalPayload, ERROR_STICKER_PROCESSOR_FAILED, terminalReason);
 
@@ -863,7 +938,7 @@ public class StickerGenerationService {
                         taskRepository.save(task);
                         generationAuditService.finishFailure(taskId, ERROR_STICKER_PROCESSOR_FAILED, terminalReason, terminalPayload);
                         generationArtBillingService.refundIfEligibleAfterFailure(taskId, ERROR_STICKER_PROCESSOR_FAILED, terminalReason);
-                        return;
+                        return task;
                     }
                 }
 
@@ -895,12 +970,13 @@ public class StickerGenerationService {
                     continue;
                 }
 
+                stageMetrics.stop(awaitStartNanos, PIPELINE_GENERATION_V2, "await_result", "timeout");
                 task.setStatus(GenerationTaskStatus.TIMEOUT);
                 task.setErrorMessage("Timed out while waiting STICKER_PROCESSOR result");
                 taskRepository.save(task);
                 generationAuditService.finishFailure(taskId, ERROR_STICKER_PROCESSOR_TIMEOUT, "Timed out", null);
                 generationArtBillingService.refundIfEligibleAfterFailure(taskId, ERROR_STICKER_PROCESSOR_TIMEOUT, "Timed out");
-                return;
+                return task;
             }
         } catch (Exception e) {
             task.setStatus(GenerationTaskStatus.FAILED);
@@ -909,6 +985,7 @@ public class StickerGenerationService {
             generationAuditService.finishFailure(taskId, ERROR_STICKER_PROCESSOR_FAILED, e.getMessage(), null);
             generationArtBillingService.refundIfEligibleAfterFailure(taskId, ERROR_STICKER_PROCESSOR_FAILED, e.getMessage());
         }
+        return task;
     }
 
     public SaveToSetV2Response saveToSetV2(Long authenticatedUserId, SaveToSetV2Request request) {
@@ -973,6 +1050,13 @@ public class StickerGenerationService {
     }
 
 
+    private static String stageOutcome(GenerationTaskEntity task) {
+        if (task == null || task.getStatus() == null) {
+            return "error";
+        }
+        return task.getStatus().name().toLowerCase(Locale.ROOT);
+    }
+
     private GenerationStatusResponse toStatusResponse(GenerationTaskEntity task) {
         GenerationStatusResponse response = new GenerationStatusResponse();
         response.setTaskId(task.getTaskId());
@@ -0,0 +1,161 @@
+package com.example.sticker_art_gallery.service.generation;
+
+import com.example.sticker_art_gallery.dto.generation.StylePresetDto;
+import com.example.sticker_art_gallery.dto.generation.StylePresetListView;
+import com.example.sticker_art_gallery.model.generation.StylePresetCatalogVersion;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Материализованные неизменяемые снапшоты списка доступных пресетов, привязанные к версии каталога.
+ * Общая часть (глобальные и опубликованные пресеты) хранится одна на проекцию и версию каталога, а не на зрителя;
+ * поверх неё на каждый запрос накладываются пресеты самого зрителя из маленького пользовательского снапшота.
+ * Снапшоты хранят готовые DTO и weak ETag, поэтому повторный GET (в т.ч. условный с If-None-Match)
+ * обслуживается из памяти без обращения к репозиторию. Изменение каталога поднимает
+ * {@link StylePresetCatalogVersion}, и следующие запросы строят новые снапшоты; старые вытесняются по размеру/TTL.
+ * Конкурентные промахи по одному ключу схлопываются в одну загрузку.
+ */
+@Service
+public class StylePresetCatalogSnapshots {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StylePresetCatalogSnapshots.class);
+
+    /**
+     * Порядок списка как в запросах репозитория: категория, sortOrder пресета, имя
+     */
+    private static final Comparator<StylePresetDto> CATALOG_ORDER = Comparator
+            .comparing((StylePresetDto p) -> p.getCategory() != null ? p.getCategory().getSortOrder() : null,
+                    Comparator.nullsLast(Integer::compareTo))
+            .thenComparing(StylePresetDto::getSortOrder, Comparator.nullsLast(Integer::compareTo))
+            .thenComparing(StylePresetDto::getName, Comparator.nullsLast(String::compareTo));
+
+    private final StylePresetService presetService;
+    private final StylePresetCatalogVersion catalogVersion;
+    private final Cache<CatalogKey, Snapshot> catalogSnapshots;
+    private final Cache<OwnKey, Snapshot> ownSnapshots;
+
+    public StylePresetCatalogSnapshots(
+            StylePresetService presetService,
+            StylePresetCatalogVersion catalogVersion,
+            @Value("${app.style-presets.catalog-cache.max-preset-entries:50000}") long maxPresetEntries,
+            @Value("${app.style-presets.catalog-cache.ttl-minutes:10}") long ttlMinutes) {
+        this.presetService = presetService;
+        this.catalogVersion = catalogVersion;
+        this.catalogSnapshots = Caffeine.newBuilder()
+                .maximumWeight(maxPresetEntries)
+                .<CatalogKey, Snapshot>weigher((key, snapshot) -> Math.max(1, snapshot.presets().size()))
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        this.ownSnapshots = Caffeine.newBuilder()
+                .maximumWeight(maxPresetEntries)
+                .<OwnKey, Snapshot>weigher((key, snapshot) -> Math.max(1, snapshot.presets().size()))
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Метрики кэшей снапшотов каталога (попадания, промахи, вытеснения)
+     */
+    @Autowired(required = false)
+    void registerCacheMetrics(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, catalogSnapshots, "style_preset_catalog_snapshots");
+        CaffeineCacheMetrics.monitor(meterRegistry, ownSnapshots, "style_preset_own_snapshots");
+    }
+
+    /**
+     * Снапшот списка пресетов
+     *
+     * @param etag weak ETag для лёгких проекций (browse / только метаданные), иначе {@code null}
+     */
+    public record Snapshot(List<StylePresetDto> presets, String etag) {
+    }
+
+    private record CatalogKey(boolean includeUi,
+                              boolean suppressConsumerPrivacy,
+                              StylePresetListView view,
+                              long globalVersion,
+                              long userPresetsVersion) {
+    }
+
+    private record OwnKey(Long userId,
+                          boolean includeUi,
+                          boolean suppressConsumerPrivacy,
+                          StylePresetListView view,
+                          long userPresetsVersion) {
+    }
+
+    /**
+     * Список доступных пользователю пресетов для текущей версии каталога
+     * (параметры как у {@link StylePresetService#getAvailablePresets(Long, boolean, boolean, StylePresetListView)}).
+     */
+    public Snapshot getAvailablePresets(Long userId, boolean includeUi, boolean suppressConsumerPrivacy, StylePresetListView view) {
+        long userPresetsVersion = catalogVersion.current(StylePresetCatalogVersion.Scope.USER_PRESETS);
+        Snapshot catalog = catalogSnapshots.get(new CatalogKey(includeUi, suppressConsumerPrivacy, view,
+                catalogVersion.current(StylePresetCatalogVersion.Scope.GLOBAL), userPresetsVersion), this::loadCatalog);
+        Snapshot own = ownSnapshots.get(new OwnKey(userId, includeUi, suppressConsumerPrivacy, view, userPresetsVersion),
+                this::loadOwn);
+        return merge(userId, catalog, own);
+    }
+
+    private Snapshot loadCatalog(CatalogKey key) {
+        List<StylePresetDto> presets = List.copyOf(presetService.getCatalogPresets(
+                key.includeUi(), key.suppressConsumerPrivacy(), key.view()));
+        LOGGER.debug("Materialized style preset catalog snapshot view={} includeUi={} (catalog v{}/{}): {} presets",
+                key.view(), key.includeUi(), key.globalVersion(), key.userPresetsVersion(), presets.size());
+        return new Snapshot(presets, etagFor(presets, key.view(), key.includeUi()));
+    }
+
+    private Snapshot loadOwn(OwnKey key) {
+        List<StylePresetDto> presets = List.copyOf(presetService.getOwnAvailablePresets(
+                key.userId(), key.includeUi(), key.suppressConsumerPrivacy(), key.view()));
+        return new Snapshot(presets, etagFor(presets, key.view(), key.includeUi()));
+    }
+
+    private String etagFor(List<StylePresetDto> presets, StylePresetListView view, boolean includeUi) {
+        return presetService.availablePresetsListSupportsWeakEtag(view, includeUi)
+                ? StylePresetListEtag.weakHexDigest(presets)
+                : null;
+    }
+
+    /**
+     * Слить общий каталог (без пресетов зрителя - они в {@code own} в его собственном представлении)
+     * и пресеты зрителя; обе части уже упорядочены, поэтому достаточно слияния без сортировки
+     */
+    private static Snapshot merge(Long userId, Snapshot catalog, Snapshot own) {
+        if (own.presets().isEmpty()) {
+            return catalog;
+        }
+        List<StylePresetDto> ownPresets = own.presets();
+        List<StylePresetDto> merged = new ArrayList<>(catalog.presets().size() + ownPresets.size());
+        int o = 0;
+        for (StylePresetDto preset : catalog.presets()) {
+            if (Objects.equals(preset.getOwnerId(), userId)) {
+                continue;
+            }
+            while (o < ownPresets.size() && CATALOG_ORDER.compare(ownPresets.get(o), preset) < 0) {
+                merged.add(ownPresets.get(o++));
+            }
+            merged.add(preset);
+        }
+        while (o < ownPresets.size()) {
+            merged.add(ownPresets.get(o++));
+        }
+        String etag = catalog.etag() != null ? StylePresetListEtag.combine(catalog.etag(), own.etag()) : null;
+        return new Snapshot(List.copyOf(merged), etag);
+    }
+}
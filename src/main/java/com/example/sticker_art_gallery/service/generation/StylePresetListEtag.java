@@ -27,6 +27,17 @@ public final class StylePresetListEtag {
                 .map(p -> p.getId() + ":" + (p.getUpdatedAt() == null ? "-" : p.getUpdatedAt().toInstant().toEpochMilli()))
                 .reduce((a, b) -> a + "|" + b)
                 .orElse("");
+        return sha256Hex(payload);
+    }
+
+    /**
+     * ETag списка, собранного из частей с уже посчитанными ETag (общий каталог + пресеты зрителя)
+     */
+    public static String combine(String... partEtags) {
+        return sha256Hex(String.join("|", partEtags));
+    }
+
+    private static String sha256Hex(String payload) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
             byte[] digest = md.digest(payload.getBytes(StandardCharsets.UTF_8));
@@ -7,55 +7,104 @@ import com.example.sticker_art_gallery.dto.generation.StylePresetSystemFields;
 import com.example.sticker_art_gallery.model.generation.StylePresetEntity;
 import com.example.sticker_art_gallery.model.generation.StylePresetUiMode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
  * Валидация ввода и сборка "сырого" промпта по пресету (до enhancers и суффикса стиля).
+ * Шаблон, JSON-описания полей и раскладка референс-слотов компилируются один раз на версию пресета
+ * (id + updatedAt) и переиспользуются из ограниченного кэша: сборка промпта не гоняет regex и ObjectMapper.
  */
 @Component
 public class StylePresetPromptComposer {
 
-    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*([a-zA-Z0-9_]+)\\s*}}");
     private static final Pattern SOURCE_IMAGE_ID = Pattern.compile("^img_[A-Za-z0-9_-]+$");
+    private static final int MAX_COMPILED_PRESETS = 2_000;
     private final ObjectMapper objectMapper;
+    private final Cache<CompiledKey, CompiledStylePreset> compiledPresets = Caffeine.newBuilder()
+            .maximumSize(MAX_COMPILED_PRESETS)
+            .recordStats()
+            .build();
 
     public StylePresetPromptComposer(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * Hit rate скомпилированных пресетов в cache.gets{cache=style_preset_compiled}
+     */
+    @Autowired(required = false)
+    void registerCacheMetrics(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, compiledPresets, "style_preset_compiled");
+    }
+
+    private record CompiledKey(Long presetId, OffsetDateTime updatedAt) {
+    }
+
+    /**
+     * Скомпилированная версия пресета. DTO внутри общие для всех потоков и не изменяются;
+     * наружу (публичные parse*-методы) по-прежнему отдаются свежие копии.
+     * Поля source* - копия исходных данных, по которой проверяется, что сущность не правили в памяти без смены updatedAt.
+     */
+    private record CompiledStylePreset(
+            CompiledPromptTemplate template,
+            StylePresetPromptInputDto promptInput,
+            List<StylePresetFieldDto> fieldDefinitions,
+            List<StylePresetFieldDto> referenceFields,
+            Map<String, StylePresetFieldDto> fieldsByKey,
+            String sourceSuffix,
+            Object sourcePromptInputJson,
+            Object sourceStructuredFieldsJson,
+            boolean sourceHasReferenceImage) {
+
+        boolean matches(StylePresetEntity preset) {
+            return Objects.equals(sourceSuffix, preset.getPromptSuffix())
+                    && sourceHasReferenceImage == (preset.getReferenceImage() != null)
+                    && Objects.equals(sourcePromptInputJson, preset.getPromptInputJson())
+                    && Objects.equals(sourceStructuredFieldsJson, preset.getStructuredFieldsJson());
+        }
+    }
+
     public String buildRawPrompt(StylePresetEntity preset, String userPrompt, Map<String, Object> presetFields) {
         StylePresetUiMode mode = defaultMode(preset);
         Map<String, Object> fields = normalizeFields(presetFields);
         String prompt = userPrompt == null ? "" : userPrompt.trim();
-        String template = preset.getPromptSuffix() != null ? preset.getPromptSuffix() : "";
+        CompiledStylePreset compiled = compiled(preset);
 
         return switch (mode) {
-            case CUSTOM_PROMPT -> buildCustom(preset, prompt, fields, template);
-            case STYLE_WITH_PROMPT -> buildStyleWithPrompt(preset, prompt, fields, template);
-            case LOCKED_TEMPLATE -> buildLocked(preset, prompt, fields, template);
-            case STRUCTURED_FIELDS -> buildStructured(preset, prompt, fields, template);
+            case CUSTOM_PROMPT -> buildCustom(preset, compiled, prompt, fields);
+            case STYLE_WITH_PROMPT -> buildStyleWithPrompt(compiled, prompt, fields);
+            case LOCKED_TEMPLATE -> buildLocked(preset, compiled, prompt, fields);
+            case STRUCTURED_FIELDS -> buildStructured(preset, compiled, prompt, fields);
         };
     }
 
-    private String buildCustom(StylePresetEntity preset, String prompt, Map<String, Object> fields, String template) {
+    private String buildCustom(StylePresetEntity preset, CompiledStylePreset compiled, String prompt, Map<String, Object> fields) {
+        CompiledPromptTemplate template = compiled.template();
         validateNoExtraKeys(fields, Set.of());
-        var input = parsePromptInput(preset);
+        var input = compiled.promptInput();
         if (input.getEnabled() == null || !input.getEnabled()) {
             if (!prompt.isEmpty()) {
                 throw new IllegalArgumentException("This preset does not accept a custom prompt");
             }
             if (!template.isEmpty()) {
-                return template;
+                return template.source();
             }
             throw new IllegalArgumentException("Empty preset output");
         }
@@ -66,18 +115,18 @@ public class StylePresetPromptComposer {
             throw new IllegalArgumentException("Prompt is too long for this preset (max " + input.getMaxLength() + ")");
         }
         if (!template.isEmpty()) {
-            if (containsPlaceholders(template)) {
-                return applyTemplate(
-                        template,
+            if (template.hasPlaceholders()) {
+                return template.render(
                         prepareTemplateFieldMap(
                                 preset,
+                                compiled,
                                 prompt,
                                 applyPresetReferenceSyntheticId(preset, fields)));
             }
             if (!prompt.isEmpty()) {
                 return prompt;
             }
-            return template;
+            return template.source();
         }
         if (prompt.isEmpty()) {
             throw new IllegalArgumentException("Prompt is required for this preset");
@@ -85,11 +134,11 @@ public class StylePresetPromptComposer {
         return prompt;
     }
 
-    private String buildStyleWithPrompt(StylePresetEntity preset, String prompt, Map<String, Object> fields, String template) {
+    private String buildStyleWithPrompt(CompiledStylePreset compiled, String prompt, Map<String, Object> fields) {
         if (!fields.isEmpty()) {
             throw new IllegalArgumentException("This preset does not support preset fields");
         }
-        var input = parsePromptInput(preset);
+        var input = compiled.promptInput();
         if (input.getEnabled() == null || !input.getEnabled()) {
             if (!prompt.isEmpty()) {
                 throw new IllegalArgumentException("This preset does not accept a custom prompt");
@@ -105,25 +154,27 @@ public class StylePresetPromptComposer {
         return prompt;
     }
 
-    private String buildLocked(StylePresetEntity preset, String prompt, Map<String, Object> fields, String template) {
+    private String buildLocked(StylePresetEntity preset, CompiledStylePreset compiled, String prompt, Map<String, Object> fields) {
+        CompiledPromptTemplate template = compiled.template();
         if (!prompt.isEmpty()) {
             throw new IllegalArgumentException("This preset uses a fixed template: free text is not allowed");
         }
         if (template.isEmpty()) {
             throw new IllegalArgumentException("Template (prompt suffix) is empty for LOCKED preset");
         }
-        Set<String> ph = extractPlaceholders(template);
+        Set<String> ph = template.placeholders();
         if (ph.isEmpty()) {
             throw new IllegalArgumentException("LOCKED template must contain {{placeholders}} or use a different mode");
         }
         Map<String, Object> withPresetRef = applyPresetReferenceSyntheticId(preset, fields);
-        validatePlaceholderInputs(preset, withPresetRef, ph, "");
-        return applyTemplate(template, prepareTemplateFieldMap(preset, "", withPresetRef));
+        validatePlaceholderInputs(compiled, withPresetRef, ph, "");
+        return template.render(prepareTemplateFieldMap(preset, compiled, "", withPresetRef));
     }
 
-    private String buildStructured(StylePresetEntity preset, String prompt, Map<String, Object> fields, String template) {
-        boolean templateUsesPrompt = extractPlaceholders(template).contains("prompt");
-        var input = parsePromptInput(preset);
+    private String buildStructured(StylePresetEntity preset, CompiledStylePreset compiled, String prompt, Map<String, Object> fields) {
+        CompiledPromptTemplate template = compiled.template();
+        boolean templateUsesPrompt = template.placeholders().contains("prompt");
+        var input = compiled.promptInput();
         boolean promptAllowed = templateUsesPrompt && Boolean.TRUE.equals(input.getEnabled());
         if (!prompt.isEmpty() && !promptAllowed) {
             throw new IllegalArgumentException("This preset is structured: free text is not allowed");
@@ -135,23 +186,23 @@ public class StylePresetPromptComposer {
             throw new IllegalArgumentException("Prompt is too long for this preset (max " + input.getMaxLength() + ")");
         }
         Map<String, Object> effective = applyPresetReferenceSyntheticId(preset, fields);
-        List<StylePresetFieldDto> defs = listStructuredFieldDefinitions(preset);
+        List<StylePresetFieldDto> defs = compiled.fieldDefinitions();
         if (defs.isEmpty()) {
             if (template.isEmpty()) {
                 throw new IllegalArgumentException("No structured fields defined for preset");
             }
-            Set<String> ph = extractPlaceholders(template);
+            Set<String> ph = template.placeholders();
             validateNoExtraKeys(effective, ph.stream().filter(k -> !"prompt".equals(k)).collect(Collectors.toSet()));
-            return applyTemplate(template, templateValues(effective, prompt));
+            return template.render(templateValues(effective, prompt));
         }
         validateStructured(defs, effective, template);
-        return composeStructuredString(preset, defs, effective, template, prompt);
+        return composeStructuredString(preset, compiled, effective, prompt);
     }
 
     private void validateStructured(
             List<StylePresetFieldDto> defs,
             Map<String, Object> fields,
-            String template
+            CompiledPromptTemplate template
     ) {
         for (var def : defs) {
             if (def.getKey() == null || def.getKey().isBlank()) {
@@ -198,9 +249,8 @@ public class StylePresetPromptComposer {
                 }
             }
         }
-        if (!template.isEmpty() && containsPlaceholders(template)) {
-            Set<String> ph = extractPlaceholders(template);
-            for (String k : ph) {
+        if (template.hasPlaceholders()) {
+            for (String k : template.placeholders()) {
                 if ("prompt".equals(k)) {
                     continue;
                 }
@@ -213,16 +263,17 @@ public class StylePresetPromptComposer {
 
     private String composeStructuredString(
             StylePresetEntity preset,
-            List<StylePresetFieldDto> defs,
+            CompiledStylePreset compiled,
             Map<String, Object> fields,
-            String template,
             String prompt
     ) {
-        if (containsPlaceholders(template)) {
-            return applyTemplate(template, prepareTemplateFieldMap(preset, prompt, fields));
+        CompiledPromptTemplate compiledTemplate = compiled.template();
+        if (compiledTemplate.hasPlaceholders()) {
+            return compiledTemplate.render(prepareTemplateFieldMap(preset, compiled, prompt, fields));
         }
+        String template = compiledTemplate.source();
         StringBuilder sb = new StringBuilder();
-        for (var def : defs) {
+        for (var def : compiled.fieldDefinitions()) {
             if (isReferenceField(def)) {
                 continue;
             }
@@ -277,16 +328,13 @@ public class StylePresetPromptComposer {
     }
 
     private void validatePlaceholderInputs(
-            StylePresetEntity preset,
+            CompiledStylePreset compiled,
             Map<String, Object> fields,
             Set<String> placeholders,
             String promptText
     ) {
         validateNoExtraKeys(fields, placeholders);
-        List<StylePresetFieldDto> defs = listStructuredFieldDefinitions(preset);
-        Map<String, StylePresetFieldDto> defByKey = defs.stream()
-                .filter(d -> d.getKey() != null && !d.getKey().isBlank())
-                .collect(Collectors.toMap(StylePresetFieldDto::getKey, d -> d, (a, b) -> a));
+        Map<String, StylePresetFieldDto> defByKey = compiled.fieldsByKey();
         for (String key : placeholders) {
             if ("prompt".equals(key)) {
                 if (promptText == null || promptText.isBlank()) {
@@ -317,10 +365,18 @@ public class StylePresetPromptComposer {
     }
 
     public Map<String, Object> prepareTemplateFieldMap(StylePresetEntity preset, String prompt, Map<String, Object> fields) {
+        return prepareTemplateFieldMap(preset, compiled(preset), prompt, fields);
+    }
+
+    private Map<String, Object> prepareTemplateFieldMap(
+            StylePresetEntity preset,
+            CompiledStylePreset compiled,
+            String prompt,
+            Map<String, Object> fields
+    ) {
         Map<String, Object> merged = applyPresetReferenceSyntheticId(preset, normalizeFields(fields));
-        List<StylePresetFieldDto> defs = listStructuredFieldDefinitions(preset);
-        Map<String, Object> base = templateValues(merged, prompt, defs);
-        List<StylePresetFieldDto> refDefs = defs.stream().filter(this::isReferenceField).toList();
+        Map<String, Object> base = templateValues(merged, prompt, compiled.fieldDefinitions());
+        List<StylePresetFieldDto> refDefs = compiled.referenceFields();
         if (refDefs.isEmpty()) {
             return base;
         }
@@ -351,9 +407,7 @@ public class StylePresetPromptComposer {
         if (preset == null) {
             return validateAndCopyImageIds(dedupeIds(flattenLegacyIds(flatImageIds, singleImageId)));
         }
-        List<StylePresetFieldDto> refDefs = listStructuredFieldDefinitions(preset).stream()
-                .filter(this::isReferenceField)
-                .toList();
+        List<StylePresetFieldDto> refDefs = compiled(preset).referenceFields();
         if (refDefs.isEmpty()) {
             return validateAndCopyImageIds(dedupeIds(flattenLegacyIds(flatImageIds, singleImageId)));
         }
@@ -395,7 +449,7 @@ public class StylePresetPromptComposer {
         return new ArrayList<>(canonical);
     }
 
-    private boolean isReferenceField(StylePresetFieldDto def) {
+    private static boolean isReferenceField(StylePresetFieldDto def) {
         return def.getType() != null && "reference".equalsIgnoreCase(def.getType().trim());
     }
 
@@ -525,12 +579,12 @@ public class StylePresetPromptComposer {
             return false;
         }
         StylePresetUiMode mode = defaultMode(preset);
-        StylePresetPromptInputDto input = parsePromptInput(preset);
+        CompiledStylePreset compiled = compiled(preset);
+        StylePresetPromptInputDto input = compiled.promptInput();
         return switch (mode) {
             case LOCKED_TEMPLATE -> false;
             case STRUCTURED_FIELDS -> {
-                String template = preset.getPromptSuffix() != null ? preset.getPromptSuffix() : "";
-                boolean templateUsesPrompt = extractPlaceholders(template).contains("prompt");
+                boolean templateUsesPrompt = compiled.template().placeholders().contains("prompt");
                 yield templateUsesPrompt && Boolean.TRUE.equals(input.getEnabled());
             }
             case STYLE_WITH_PROMPT, CUSTOM_PROMPT -> Boolean.TRUE.equals(input.getEnabled());
@@ -613,6 +667,57 @@ public class StylePresetPromptComposer {
         return extractPlaceholders(suffix).contains(StylePresetSystemFields.PRESET_REFERENCE_KEY);
     }
 
+    /**
+     * Скомпилированный пресет из кэша; несохранённые сущности (без id/updatedAt) компилируются на каждый вызов.
+     */
+    private CompiledStylePreset compiled(StylePresetEntity preset) {
+        if (preset.getId() == null || preset.getUpdatedAt() == null) {
+            return compile(preset);
+        }
+        CompiledKey key = new CompiledKey(preset.getId(), preset.getUpdatedAt());
+        CompiledStylePreset cached = compiledPresets.getIfPresent(key);
+        if (cached != null && cached.matches(preset)) {
+            return cached;
+        }
+        CompiledStylePreset fresh = compile(preset);
+        compiledPresets.put(key, fresh);
+        return fresh;
+    }
+
+    private CompiledStylePreset compile(StylePresetEntity preset) {
+        List<StylePresetFieldDto> defs = List.copyOf(listStructuredFieldDefinitions(preset));
+        Map<String, StylePresetFieldDto> byKey = new LinkedHashMap<>();
+        for (StylePresetFieldDto def : defs) {
+            if (def.getKey() != null && !def.getKey().isBlank()) {
+                byKey.putIfAbsent(def.getKey(), def);
+            }
+        }
+        return new CompiledStylePreset(
+                CompiledPromptTemplate.compile(preset.getPromptSuffix()),
+                parsePromptInput(preset),
+                defs,
+                defs.stream().filter(StylePresetPromptComposer::isReferenceField).toList(),
+                Map.copyOf(byKey),
+                preset.getPromptSuffix(),
+                deepCopyJson(preset.getPromptInputJson()),
+                deepCopyJson(preset.getStructuredFieldsJson()),
+                preset.getReferenceImage() != null);
+    }
+
+    private static Object deepCopyJson(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(k, deepCopyJson(v)));
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(v -> copy.add(deepCopyJson(v)));
+            return copy;
+        }
+        return value;
+    }
+
     private static StylePresetUiMode defaultMode(StylePresetEntity preset) {
         if (preset.getUiMode() == null) {
             return StylePresetUiMode.STYLE_WITH_PROMPT;
@@ -628,31 +733,15 @@ public class StylePresetPromptComposer {
     }
 
     public static String applyTemplate(String template, Map<String, Object> values) {
-        Matcher m = PLACEHOLDER.matcher(template);
-        StringBuffer sb = new StringBuffer();
-        while (m.find()) {
-            String key = m.group(1);
-            if (!values.containsKey(key) || values.get(key) == null) {
-                throw new IllegalArgumentException("Missing value for template key: " + key);
-            }
-            String rep = Matcher.quoteReplacement(valueToString(values.get(key)));
-            m.appendReplacement(sb, rep);
-        }
-        m.appendTail(sb);
-        return sb.toString();
+        return CompiledPromptTemplate.compile(template).render(values);
     }
 
     public static Set<String> extractPlaceholders(String template) {
-        Matcher m = PLACEHOLDER.matcher(template);
-        Set<String> set = new java.util.HashSet<>();
-        while (m.find()) {
-            set.add(m.group(1));
-        }
-        return set;
+        return new java.util.HashSet<>(CompiledPromptTemplate.compile(template).placeholders());
     }
 
     public static boolean containsPlaceholders(String template) {
-        return template != null && PLACEHOLDER.matcher(template).find();
+        return template != null && CompiledPromptTemplate.compile(template).hasPlaceholders();
     }
 
     public static String valueToString(Object v) {
@@ -53,6 +53,12 @@ public class StylePresetService {
 
     private static final int MAX_EXTRA_STYLE_PRESET_PREVIEWS = 12;
 
+    /**
+     * Зритель общей части каталога: не владеет ни одним пресетом (id Telegram-пользователей положительные),
+     * поэтому DTO совпадают с тем, что видит любой не-владелец
+     */
+    private static final Long CATALOG_CONSUMER_VIEWER = 0L;
+
     private final StylePresetRepository presetRepository;
     private final StylePresetCategoryRepository categoryRepository;
     private final UserProfileService userProfileService;
@@ -121,6 +127,44 @@ public class StylePresetService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Общая для всех зрителей часть списка доступных пресетов: глобальные и опубликованные в каталог,
+     * в том виде, в каком их видит не-владелец (или админ при {@code suppressConsumerPrivacy}).
+     * Пресеты самого зрителя поверх этого списка даёт {@link #getOwnAvailablePresets}; порядок - как у
+     * {@link #getAvailablePresets(Long, boolean, boolean, StylePresetListView)}.
+     */
+    @Transactional(readOnly = true)
+    public List<StylePresetDto> getCatalogPresets(boolean includeUi, boolean suppressConsumerPrivacy, StylePresetListView view) {
+        ResponseProjection projection = resolveProjection(view, includeUi);
+        // userId = null: условие по владельцу ложно, остаются глобальные и опубликованные
+        List<StylePresetEntity> presets = switch (projection) {
+            case METADATA_ONLY -> presetRepository.findAvailableForUser(null);
+            case BROWSE -> presetRepository.findAvailableForUserBrowse(null);
+            case GENERATION, FULL -> presetRepository.findAvailableForUserWithPreview(null);
+        };
+        Long viewer = suppressConsumerPrivacy ? null : CATALOG_CONSUMER_VIEWER;
+        return presets.stream()
+                .map(p -> toDto(p, projection, viewer))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Включённые пресеты пользователя в проекции списка доступных пресетов (часть списка, зависящая от зрителя)
+     */
+    @Transactional(readOnly = true)
+    public List<StylePresetDto> getOwnAvailablePresets(
+            Long userId,
+            boolean includeUi,
+            boolean suppressConsumerPrivacy,
+            StylePresetListView view) {
+        ResponseProjection projection = resolveProjection(view, includeUi);
+        Long viewer = suppressConsumerPrivacy ? null : userId;
+        return presetRepository.findByOwnerUserId(userId).stream()
+                .filter(p -> Boolean.TRUE.equals(p.getIsEnabled()))
+                .map(p -> toDto(p, projection, viewer))
+                .collect(Collectors.toList());
+    }
+
     /** Weak ETag для условных GET на лёгких списках ({@code browse} и режим только метаданных). */
     public boolean availablePresetsListSupportsWeakEtag(StylePresetListView view, boolean includeUi) {
         ResponseProjection p = resolveProjection(view, includeUi);
@@ -1,5 +1,6 @@
 package com.example.sticker_art_gallery.service.generation;
 
+import com.example.sticker_art_gallery.service.metrics.RemoteCallMetrics;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -36,7 +37,8 @@ public class WaveSpeedClient {
             @Value("${wavespeed.api-key}") String apiKey,
             @Value("${wavespeed.base-url:https://api.wavespeed.ai/api/v3}") String baseUrl,
             @Value("${wavespeed.timeout.connect:60000}") int connectTimeout,
-            @Value("${wavespeed.timeout.read:360000}") int readTimeout) {
+            @Value("${wavespeed.timeout.read:360000}") int readTimeout,
+            RemoteCallMetrics remoteCallMetrics) {
         
         if (apiKey == null || apiKey.isBlank()) {
             throw new IllegalArgumentException("WAVESPEED_API_KEY is required");
@@ -51,6 +53,7 @@ public class WaveSpeedClient {
         factory.setConnectTimeout(connectTimeout);
         factory.setReadTimeout(readTimeout);
         this.restTemplate = new RestTemplate(factory);
+        this.restTemplate.getInterceptors().add(remoteCallMetrics.interceptor());
         
         LOGGER.info("WaveSpeedClient initialized with API key: {}...", apiKey.substring(0, Math.min(4, apiKey.length())));
     }
@@ -0,0 +1,74 @@
+package com.example.sticker_art_gallery.service.messaging;
+
+import com.example.sticker_art_gallery.model.messaging.BroadcastJobEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Аудитория рассылки как keyset-курсор по {@code users.id}: каждая страница - {@code id > cursor ORDER BY id LIMIT n}
+ * по первичному ключу, без OFFSET и без загрузки всей аудитории в память.
+ * Заблокированные пользователи ({@code user_profiles.is_blocked}) исключаются всегда.
+ */
+@Component
+public class BroadcastAudienceQuery {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BroadcastAudienceQuery(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Фильтр аудитории; null/false - условие не применяется
+     */
+    public record Audience(String role, OffsetDateTime activeSince, Long referrerUserId, boolean referredOnly) {
+
+        public static Audience of(BroadcastJobEntity job) {
+            return new Audience(
+                    job.getAudienceRole(),
+                    job.getAudienceActiveSince(),
+                    job.getAudienceReferrerUserId(),
+                    job.isAudienceReferredOnly());
+        }
+    }
+
+    /**
+     * Следующая страница Telegram ID после {@code afterUserId} (null - с начала)
+     */
+    public List<Long> nextPage(Audience audience, Long afterUserId, int limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = buildSql(audience, afterUserId, limit, args);
+        return jdbcTemplate.queryForList(sql, Long.class, args.toArray());
+    }
+
+    static String buildSql(Audience audience, Long afterUserId, int limit, List<Object> args) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT u.id FROM users u LEFT JOIN user_profiles p ON p.user_id = u.id " +
+                "WHERE COALESCE(p.is_blocked, FALSE) = FALSE");
+        if (afterUserId != null) {
+            sql.append(" AND u.id > ?");
+            args.add(afterUserId);
+        }
+        if (audience.role() != null) {
+            sql.append(" AND p.role = ?");
+            args.add(audience.role());
+        }
+        if (audience.activeSince() != null) {
+            sql.append(" AND u.updated_at >= ?");
+            args.add(audience.activeSince());
+        }
+        if (audience.referrerUserId() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM referrals r WHERE r.referred_user_id = u.id AND r.referrer_user_id = ?)");
+            args.add(audience.referrerUserId());
+        } else if (audience.referredOnly()) {
+            sql.append(" AND EXISTS (SELECT 1 FROM referrals r WHERE r.referred_user_id = u.id)");
+        }
+        sql.append(" ORDER BY u.id LIMIT ?");
+        args.add(limit);
+        return sql.toString();
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.sticker_art_gallery.service.messaging;
+
+import com.example.sticker_art_gallery.dto.messaging.BroadcastJobDto;
+import com.example.sticker_art_gallery.dto.messaging.CreateBroadcastRequest;
+import com.example.sticker_art_gallery.dto.messaging.SendBotMessageRequest;
+import com.example.sticker_art_gallery.model.messaging.BroadcastJobEntity;
+import com.example.sticker_art_gallery.model.messaging.BroadcastJobStatus;
+import com.example.sticker_art_gallery.repository.BroadcastJobRepository;
+import com.example.sticker_art_gallery.service.telegram.TelegramSendScheduler;
+import com.example.sticker_art_gallery.service.user.UserService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Массовая рассылка сообщений по заданиям из {@code broadcast_jobs}.
+ * <p>
+ * Исполнитель задания обходит аудиторию страницами по keyset-курсору ({@link BroadcastAudienceQuery}),
+ * отправляет страницу параллельно через {@link UserService#sendBotMessageToUser} в полосе
+ * {@link TelegramSendScheduler.Lane#BULK} (транзакционные сообщения пользователям идут вперёд) и фиксирует
+ * курсор и счётчики одним UPDATE на страницу. В памяти держится только текущая страница.
+ * <p>
+ * Пауза/отмена - смена статуса в БД, исполнитель проверяет его между страницами и при выходе отпускает аренду.
+ * Аренда выдаётся инстансу ({@code lease_owner}): перед каждой страницей исполнитель продлевает её, а прогресс
+ * пишет только владелец действующей аренды - потерявший аренду исполнитель останавливается, не отправляя дальше.
+ * После рестарта задания RUNNING продолжаются с курсора; пользователи последней незафиксированной страницы могут
+ * получить сообщение повторно.
+ */
+@Service
+public class BroadcastService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastService.class);
+
+    private static final List<BroadcastJobStatus> PAUSABLE = List.of(BroadcastJobStatus.PENDING, BroadcastJobStatus.RUNNING);
+    private static final List<BroadcastJobStatus> RESUMABLE = List.of(BroadcastJobStatus.PAUSED);
+    private static final List<BroadcastJobStatus> CANCELLABLE =
+            List.of(BroadcastJobStatus.PENDING, BroadcastJobStatus.RUNNING, BroadcastJobStatus.PAUSED);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final BroadcastJobRepository repository;
+    private final BroadcastAudienceQuery audienceQuery;
+    private final UserService userService;
+    private final TelegramSendScheduler sendScheduler;
+    private final Executor jobExecutor;
+    private final Executor sendExecutor;
+    private final int pageSize;
+    private final Duration lease;
+    /** Владелец аренды в {@code broadcast_jobs.lease_owner}: уникален для каждого запуска приложения */
+    private final String instanceId = (System.getenv().getOrDefault("HOSTNAME", "local") + "-"
+            + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8));
+
+    /** Задания, исполняемые этим инстансом; под его монитором согласуются запуск и выход исполнителя */
+    private final Set<Long> activeJobs = new HashSet<>();
+    private volatile boolean stopping;
+
+    public BroadcastService(
+            BroadcastJobRepository repository,
+            BroadcastAudienceQuery audienceQuery,
+            UserService userService,
+            TelegramSendScheduler sendScheduler,
+            @Qualifier("broadcastExecutor") Executor jobExecutor,
+            @Qualifier("broadcastSendExecutor") Executor sendExecutor,
+            @Value("${app.broadcast.page-size:200}") int pageSize,
+            @Value("${app.broadcast.lease-seconds:300}") long leaseSeconds) {
+        this.repository = repository;
+        this.audienceQuery = audienceQuery;
+        this.userService = userService;
+        this.sendScheduler = sendScheduler;
+        this.jobExecutor = jobExecutor;
+        this.sendExecutor = sendExecutor;
+        this.pageSize = Math.max(10, Math.min(1000, pageSize));
+        this.lease = Duration.ofSeconds(Math.max(60, leaseSeconds));
+    }
+
+    public BroadcastJobDto create(CreateBroadcastRequest request, Long adminId) {
+        BroadcastJobEntity job = new BroadcastJobEntity();
+        job.setMessageText(request.getText());
+        job.setParseMode(request.getParseMode());
+        job.setDisableWebPagePreview(request.isDisableWebPagePreview());
+        job.setAudienceRole(request.getRole());
+        job.setAudienceActiveSince(request.getActiveSince());
+        job.setAudienceReferrerUserId(request.getReferrerUserId());
+        job.setAudienceReferredOnly(request.isReferredOnly());
+        job.setCreatedBy(adminId);
+        job = repository.save(job);
+        LOGGER.info("📣 Broadcast #{} создан админом {}: role={}, activeSince={}, referrer={}, referredOnly={}",
+                job.getId(), adminId, job.getAudienceRole(), job.getAudienceActiveSince(),
+                job.getAudienceReferrerUserId(), job.isAudienceReferredOnly());
+        start(job.getId());
+        return get(job.getId()).orElseThrow();
+    }
+
+    public Optional<BroadcastJobDto> get(Long id) {
+        return repository.findById(id).map(BroadcastJobDto::fromEntity);
+    }
+
+    public List<BroadcastJobDto> list(int limit) {
+        return repository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, Math.max(1, Math.min(100, limit)))).stream()
+                .map(BroadcastJobDto::fromEntity)
+                .toList();
+    }
+
+    /**
+     * Приостановить: исполнитель дорабатывает текущую страницу, фиксирует курсор и останавливается
+     */
+    public BroadcastJobDto pause(Long id) {
+        transitionOrThrow(id, PAUSABLE, BroadcastJobStatus.PAUSED, false);
+        LOGGER.info("⏸️ Broadcast #{} приостановлен", id);
+        return get(id).orElseThrow();
+    }
+
+    public BroadcastJobDto resume(Long id) {
+        transitionOrThrow(id, RESUMABLE, BroadcastJobStatus.RUNNING, false);
+        LOGGER.info("▶️ Broadcast #{} возобновлён", id);
+        start(id);
+        return get(id).orElseThrow();
+    }
+
+    public BroadcastJobDto cancel(Long id) {
+        transitionOrThrow(id, CANCELLABLE, BroadcastJobStatus.CANCELLED, true);
+        LOGGER.info("⏹️ Broadcast #{} отменён", id);
+        return get(id).orElseThrow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeAfterRestart() {
+        resumeOrphaned();
+    }
+
+    /**
+     * Подхватить задания RUNNING, чей исполнитель остановился (рестарт) или пропал (падение инстанса, истекла аренда),
+     * и PENDING, которые не удалось запустить
+     */
+    @Scheduled(fixedDelayString = "${app.broadcast.orphan-check-ms:60000}")
+    public void resumeOrphaned() {
+        try {
+            for (Long id : repository.findOrphanedIds(OffsetDateTime.now())) {
+                LOGGER.info("🔁 Broadcast #{}: продолжаем с сохранённого курсора", id);
+                start(id);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("⚠️ Broadcast: не удалось проверить незавершённые задания: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+    }
+
+    void start(Long id) {
+        if (stopping) {
+            return;
+        }
+        synchronized (activeJobs) {
+            if (!activeJobs.add(id)) {
+                // Исполнитель уже работает здесь и увидит RUNNING на следующей странице
+                return;
+            }
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        if (repository.claim(id, instanceId, now, now.plus(lease)) == 0) {
+            synchronized (activeJobs) {
+                activeJobs.remove(id);
+            }
+            return;
+        }
+        try {
+            jobExecutor.execute(() -> run(id));
+        } catch (TaskRejectedException e) {
+            // Очередь исполнителей заполнена: задание остаётся PENDING без аренды и подхватывается resumeOrphaned
+            repository.unclaim(id, instanceId, OffsetDateTime.now());
+            synchronized (activeJobs) {
+                activeJobs.remove(id);
+            }
+            LOGGER.warn("⚠️ Broadcast #{}: нет свободного исполнителя, запуск отложен: {}", id, e.getMessage());
+        }
+    }
+
+    void run(Long id) {
+        LOGGER.info("📣 Broadcast #{}: старт исполнителя", id);
+        try {
+            while (true) {
+                BroadcastJobEntity job = repository.findById(id).orElse(null);
+                if (job == null || job.getStatus() != BroadcastJobStatus.RUNNING || stopping) {
+                    if (exitUnlessResumed(id)) {
+                        return;
+                    }
+                    continue;
+                }
+                OffsetDateTime pageStartedAt = OffsetDateTime.now();
+                if (repository.renewLease(id, instanceId, pageStartedAt.plus(lease), pageStartedAt) == 0) {
+                    leaseLost(id);
+                    return;
+                }
+                List<Long> userIds = audienceQuery.nextPage(BroadcastAudienceQuery.Audience.of(job), job.getCursorUserId(), pageSize);
+                if (userIds.isEmpty()) {
+                    repository.finish(id, instanceId, BroadcastJobStatus.COMPLETED, null, OffsetDateTime.now());
+                    LOGGER.info("✅ Broadcast #{} завершён: sent={}, failed={}", id, job.getSentCount(), job.getFailedCount());
+                    exitUnlessResumed(id);
+                    return;
+                }
+                PageResult result = sendPage(job, userIds);
+                OffsetDateTime now = OffsetDateTime.now();
+                if (repository.recordProgress(id, instanceId, userIds.get(userIds.size() - 1), result.sent(), result.failed(),
+                        result.lastError(), now.plus(lease), now) == 0) {
+                    leaseLost(id);
+                    return;
+                }
+                LOGGER.debug("📣 Broadcast #{}: страница {} пользователей, sent={}, failed={}",
+                        id, userIds.size(), result.sent(), result.failed());
+            }
+        } catch (Exception e) {
+            LOGGER.error("❌ Broadcast #{} остановлен из-за ошибки: {}", id, e.getMessage(), e);
+            repository.finish(id, instanceId, BroadcastJobStatus.FAILED, truncate(e.getMessage()), OffsetDateTime.now());
+            synchronized (activeJobs) {
+                repository.releaseLease(id, instanceId);
+                activeJobs.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Аренда истекла или перешла к другому инстансу: задание исполняет новый владелец, этот исполнитель только выходит
+     */
+    private void leaseLost(Long id) {
+        synchronized (activeJobs) {
+            activeJobs.remove(id);
+        }
+        LOGGER.warn("⚠️ Broadcast #{}: аренда потеряна, исполнитель остановлен", id);
+    }
+
+    /**
+     * Выход исполнителя согласуется с {@link #start}: если задание успели возобновить, пока исполнитель
+     * собирался выйти, он продолжает работу вместо повторного захвата. Аренда отпускается до снятия из
+     * {@code activeJobs}, чтобы возобновление на любом инстансе захватило задание сразу.
+     */
+    private boolean exitUnlessResumed(Long id) {
+        synchronized (activeJobs) {
+            if (!stopping) {
+                Optional<BroadcastJobEntity> current = repository.findById(id);
+                if (current.isPresent() && current.get().getStatus() == BroadcastJobStatus.RUNNING) {
+                    return false;
+                }
+            }
+            repository.releaseLease(id, instanceId);
+            activeJobs.remove(id);
+        }
+        if (stopping) {
+            LOGGER.info("⏸️ Broadcast #{}: остановка инстанса, продолжим после рестарта", id);
+        }
+        return true;
+    }
+
+    private PageResult sendPage(BroadcastJobEntity job, List<Long> userIds) {
+        AtomicLong sent = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicReference<String> lastError = new AtomicReference<>();
+        List<CompletableFuture<Void>> sends = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            SendBotMessageRequest request = SendBotMessageRequest.builder()
+                    .userId(userId)
+                    .text(job.getMessageText())
+                    .parseMode(job.getParseMode())
+                    .disableWebPagePreview(job.isDisableWebPagePreview())
+                    .build();
+            sends.add(CompletableFuture.runAsync(() -> {
+                try {
+                    sendScheduler.inLane(TelegramSendScheduler.Lane.BULK, () -> userService.sendBotMessageToUser(request));
+                    sent.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    lastError.set("user " + userId + ": " + e.getMessage());
+                    LOGGER.debug("⚠️ Broadcast #{}: не доставлено пользователю {}: {}", job.getId(), userId, e.getMessage());
+                }
+            }, sendExecutor));
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+        return new PageResult(sent.get(), failed.get(), truncate(lastError.get()));
+    }
+
+    private void transitionOrThrow(Long id, List<BroadcastJobStatus> from, BroadcastJobStatus to, boolean terminal) {
+        BroadcastJobEntity job = repository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Рассылка не найдена: " + id));
+        if (repository.transition(id, from, to, terminal, null, OffsetDateTime.now()) == 0) {
+            throw new IllegalStateException("Рассылка #" + id + " в статусе " + job.getStatus() + ", переход в " + to + " невозможен");
+        }
+    }
+
+    private static String truncate(String value) {
+        if (value == null || value.length() <= MAX_ERROR_LENGTH) {
+            return value;
+        }
+        return value.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private record PageResult(long sent, long failed, String lastError) {
+    }
+}
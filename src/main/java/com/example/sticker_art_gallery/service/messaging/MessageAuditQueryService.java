@@ -6,6 +6,7 @@ import com.example.sticker_art_gallery.dto.messaging.MessageAuditSessionDto;
 import com.example.sticker_art_gallery.model.messaging.MessageAuditSessionEntity;
 import com.example.sticker_art_gallery.repository.MessageAuditEventRepository;
 import com.example.sticker_art_gallery.repository.MessageAuditSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -15,17 +16,24 @@ import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Чтение аудита для админки. Таблицы аудита партиционированы по времени, поэтому каждый запрос
+ * ограничивается по ключу партиционирования (started_at / created_at) - Postgres читает только нужные партиции.
+ */
 @Service
 public class MessageAuditQueryService {
 
     private final MessageAuditSessionRepository sessionRepository;
     private final MessageAuditEventRepository eventRepository;
+    private final int retentionDays;
 
     public MessageAuditQueryService(
             MessageAuditSessionRepository sessionRepository,
-            MessageAuditEventRepository eventRepository) {
+            MessageAuditEventRepository eventRepository,
+            @Value("${app.audit.partitions.retention-days:90}") int retentionDays) {
         this.sessionRepository = sessionRepository;
         this.eventRepository = eventRepository;
+        this.retentionDays = retentionDays;
     }
 
     @Transactional(readOnly = true)
@@ -37,8 +45,13 @@ public class MessageAuditQueryService {
             Boolean errorOnly,
             String messageId,
             Pageable pageable) {
+        // Без явного периода ограничиваемся сроком хранения (+ неделя: партиции удаляются целиком),
+        // чтобы условие по started_at всегда было и планировщик отсекал партиции
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime from = dateFrom != null ? dateFrom : now.minusDays(retentionDays + 7L);
+        OffsetDateTime to = dateTo != null ? dateTo : now.plusDays(1);
         Page<MessageAuditSessionEntity> page = sessionRepository.findWithFilters(
-                userId, finalStatus, dateFrom, dateTo, errorOnly, messageId, pageable);
+                userId, finalStatus, from, to, errorOnly, messageId, pageable);
         List<MessageAuditSessionDto> content = page.getContent().stream()
                 .map(MessageAuditSessionDto::fromEntity)
                 .collect(Collectors.toList());
@@ -47,14 +60,24 @@ public class MessageAuditQueryService {
 
     @Transactional(readOnly = true)
     public MessageAuditSessionDto getByMessageId(String messageId) {
-        return sessionRepository.findByMessageId(messageId)
+        return sessionRepository.findByMessageIdViaKey(messageId)
                 .map(MessageAuditSessionDto::fromEntity)
                 .orElse(null);
     }
 
+    /**
+     * События по сессии: окно по created_at - от started_at сессии на срок хранения вперёд
+     * (событие может прийти сколь угодно поздно после старта). Если сессии нет - окно срока хранения от текущего момента.
+     */
     @Transactional(readOnly = true)
     public List<MessageAuditEventDto> getEventsByMessageId(String messageId) {
-        return eventRepository.findByMessageIdOrderByCreatedAtAsc(messageId).stream()
+        OffsetDateTime now = OffsetDateTime.now();
+        return sessionRepository.findByMessageIdViaKey(messageId)
+                .map(session -> eventRepository.findByMessageIdAndCreatedAtBetweenOrderByCreatedAtAsc(
+                        messageId, session.getStartedAt(), session.getStartedAt().plusDays(retentionDays + 7L)))
+                .orElseGet(() -> eventRepository.findByMessageIdAndCreatedAtBetweenOrderByCreatedAtAsc(
+                        messageId, now.minusDays(retentionDays + 7L), now.plusDays(1)))
+                .stream()
                 .map(MessageAuditEventDto::fromEntity)
                 .collect(Collectors.toList());
     }
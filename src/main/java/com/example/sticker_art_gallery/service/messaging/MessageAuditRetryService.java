@@ -58,7 +58,7 @@ public class MessageAuditRetryService {
      * @throws RetryNotAllowedException если retry невозможен (источник не FAILED, или уже запущен/успешен)
      */
     public RetryMessageLogResponse initiateRetry(String sourceMessageId) {
-        MessageAuditSessionEntity source = sessionRepository.findByMessageId(sourceMessageId)
+        MessageAuditSessionEntity source = sessionRepository.findByMessageIdViaKey(sourceMessageId)
                 .orElseThrow(() -> new RetryNotAllowedException("NOT_FOUND", "Сессия не найдена: " + sourceMessageId));
 
         if (!"FAILED".equals(source.getFinalStatus())) {
@@ -2,26 +2,28 @@ package com.example.sticker_art_gallery.service.messaging;
 
 import com.example.sticker_art_gallery.dto.messaging.SendBotMessageRequest;
 import com.example.sticker_art_gallery.dto.messaging.SendBotMessageResponse;
-import com.example.sticker_art_gallery.model.messaging.MessageAuditEventEntity;
 import com.example.sticker_art_gallery.model.messaging.MessageAuditEventStatus;
-import com.example.sticker_art_gallery.model.messaging.MessageAuditSessionEntity;
 import com.example.sticker_art_gallery.model.messaging.MessageAuditStage;
-import com.example.sticker_art_gallery.repository.MessageAuditEventRepository;
-import com.example.sticker_art_gallery.repository.MessageAuditSessionRepository;
+import com.example.sticker_art_gallery.service.audit.AuditWriteBehindSink;
+import com.example.sticker_art_gallery.service.audit.AuditWriteBehindSink.Phase;
+import com.example.sticker_art_gallery.service.audit.AuditWriteBehindSink.Write;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * Audit log for message sending through StickerBot API.
  * Does not throw: failures are logged so the main flow is not affected.
+ * Records are written behind the request thread by {@link AuditWriteBehindSink}.
+ * message_id is globally unique through message_audit_session_keys; updates and events resolve
+ * the session there, so a delayed delivery or retry still finds a session of any age.
  */
 @Service
 public class MessageAuditService {
@@ -36,47 +38,61 @@ public class MessageAuditService {
     public static final String ERROR_NETWORK = "NETWORK_ERROR";
     public static final String ERROR_GENERIC = "MESSAGE_SEND_ERROR";
 
-    private final MessageAuditSessionRepository sessionRepository;
-    private final MessageAuditEventRepository eventRepository;
+    /**
+     * Сессия и её ключ пишутся одним запросом: повтор message_id падает на PK ключей и откатывает вставку сессии
+     */
+    private static final String INSERT_SESSION =
+            "WITH s AS (INSERT INTO message_audit_sessions (message_id, user_id, chat_id, message_text, parse_mode, " +
+            "disable_web_page_preview, request_payload, started_at, expires_at, retry_of_message_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?) RETURNING id, message_id, started_at) " +
+            "INSERT INTO message_audit_session_keys (message_id, session_id, started_at) SELECT message_id, id, started_at FROM s";
+    private static final String SESSION_BY_KEY =
+            " WHERE message_id = ? AND started_at = (SELECT k.started_at FROM message_audit_session_keys k WHERE k.message_id = ?)";
+    private static final String UPDATE_SENT =
+            "UPDATE message_audit_sessions SET final_status = 'SENT', telegram_chat_id = ?, telegram_message_id = ?, " +
+            "completed_at = ?" + SESSION_BY_KEY;
+    private static final String UPDATE_FAILED =
+            "UPDATE message_audit_sessions SET final_status = 'FAILED', error_code = ?, error_message = ?, completed_at = ?" +
+            SESSION_BY_KEY;
+    private static final String INSERT_EVENT =
+            "INSERT INTO message_audit_events (session_id, message_id, stage, event_status, payload, error_code, error_message, created_at) " +
+            "SELECT k.session_id, ?, ?, ?, CAST(? AS jsonb), ?, ?, ? FROM message_audit_session_keys k WHERE k.message_id = ?";
+
+    private final AuditWriteBehindSink sink;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public MessageAuditService(
-            MessageAuditSessionRepository sessionRepository,
-            MessageAuditEventRepository eventRepository) {
-        this.sessionRepository = sessionRepository;
-        this.eventRepository = eventRepository;
+    public MessageAuditService(AuditWriteBehindSink sink) {
+        this.sink = sink;
     }
 
-    @Transactional
     public void startSession(String messageId, SendBotMessageRequest request, String url) {
         try {
-            MessageAuditSessionEntity session = new MessageAuditSessionEntity();
-            session.setMessageId(messageId);
-            session.setUserId(request.getUserId());
-            session.setChatId(request.getChatId());
-            session.setMessageText(request.getText() != null ? request.getText() : "");
-            session.setParseMode(request.getParseMode());
-            session.setDisableWebPagePreview(request.isDisableWebPagePreview());
-            session.setStartedAt(OffsetDateTime.now());
-            session.setExpiresAt(OffsetDateTime.now().plusDays(90));
-            session.setRetryOfMessageId(request.getRetryOfMessageId());
+            OffsetDateTime now = OffsetDateTime.now();
             Map<String, Object> requestPayload = new LinkedHashMap<>();
             requestPayload.put("url", url);
             requestPayload.put("userId", request.getUserId());
             requestPayload.put("chatId", request.getChatId());
             requestPayload.put("parseMode", request.getParseMode());
             requestPayload.put("disableWebPagePreview", request.isDisableWebPagePreview());
-            session.setRequestPayload(objectMapper.writeValueAsString(requestPayload));
-            session = sessionRepository.save(session);
-
-            addEvent(session, messageId, MessageAuditStage.REQUEST_PREPARED, MessageAuditEventStatus.SUCCEEDED,
-                    Map.of("textLength", request.getText() != null ? request.getText().length() : 0), null, null);
+            sink.submit(List.of(
+                    new Write(Phase.SESSION_INSERT, INSERT_SESSION, new Object[]{
+                            messageId,
+                            request.getUserId(),
+                            request.getChatId(),
+                            request.getText() != null ? request.getText() : "",
+                            request.getParseMode(),
+                            request.isDisableWebPagePreview(),
+                            objectMapper.writeValueAsString(requestPayload),
+                            now,
+                            now.plusDays(90),
+                            request.getRetryOfMessageId()}),
+                    event(messageId, MessageAuditStage.REQUEST_PREPARED, MessageAuditEventStatus.SUCCEEDED,
+                            Map.of("textLength", request.getText() != null ? request.getText().length() : 0), null, null, now)));
         } catch (Exception e) {
             LOGGER.warn("Message audit: failed to start session {}: {}", messageId, e.getMessage());
         }
     }
 
-    @Transactional
     public void addStageEvent(
             String messageId,
             MessageAuditStage stage,
@@ -85,82 +101,51 @@ public class MessageAuditService {
             String errorCode,
             String errorMessage) {
         try {
-            Optional<MessageAuditSessionEntity> opt = sessionRepository.findByMessageId(messageId);
-            if (opt.isEmpty()) return;
-            MessageAuditSessionEntity session = opt.get();
-            addEvent(session, messageId, stage, status, payload, errorCode, errorMessage);
+            sink.submit(List.of(event(messageId, stage, status, payload, errorCode, errorMessage, OffsetDateTime.now())));
         } catch (Exception e) {
             LOGGER.warn("Message audit: failed to add stage event {}: {}", messageId, e.getMessage());
         }
     }
 
-    @Transactional
     public void finishSuccess(String messageId, SendBotMessageResponse response) {
         try {
-            Optional<MessageAuditSessionEntity> opt = sessionRepository.findByMessageId(messageId);
-            if (opt.isEmpty()) return;
-            MessageAuditSessionEntity session = opt.get();
-            session.setFinalStatus("SENT");
-            session.setTelegramChatId(response.getChatId());
-            session.setTelegramMessageId(response.getMessageId());
-            session.setCompletedAt(OffsetDateTime.now());
-            sessionRepository.save(session);
-
+            OffsetDateTime now = OffsetDateTime.now();
             Map<String, Object> payload = new LinkedHashMap<>();
             payload.put("chatId", response.getChatId());
             payload.put("messageId", response.getMessageId());
             payload.put("status", response.getStatus());
-            addEvent(session, messageId, MessageAuditStage.COMPLETED, MessageAuditEventStatus.SUCCEEDED, payload, null, null);
+            sink.submit(List.of(
+                    new Write(Phase.SESSION_UPDATE, UPDATE_SENT, new Object[]{
+                            response.getChatId(), response.getMessageId(), now, messageId, messageId}),
+                    event(messageId, MessageAuditStage.COMPLETED, MessageAuditEventStatus.SUCCEEDED, payload, null, null, now)));
         } catch (Exception e) {
             LOGGER.warn("Message audit: failed to finish success {}: {}", messageId, e.getMessage());
         }
     }
 
-    @Transactional
     public void finishFailure(String messageId, String errorCode, String errorMessage, Map<String, Object> payload) {
         try {
-            Optional<MessageAuditSessionEntity> opt = sessionRepository.findByMessageId(messageId);
-            if (opt.isEmpty()) return;
-            MessageAuditSessionEntity session = opt.get();
-            session.setFinalStatus("FAILED");
-            session.setErrorCode(errorCode != null ? errorCode : ERROR_GENERIC);
-            session.setErrorMessage(errorMessage);
-            session.setCompletedAt(OffsetDateTime.now());
-            sessionRepository.save(session);
-
-            addEvent(session, messageId, MessageAuditStage.FAILED, MessageAuditEventStatus.FAILED,
-                    payload, errorCode, errorMessage);
+            OffsetDateTime now = OffsetDateTime.now();
+            sink.submit(List.of(
+                    new Write(Phase.SESSION_UPDATE, UPDATE_FAILED, new Object[]{
+                            errorCode != null ? errorCode : ERROR_GENERIC, errorMessage, now, messageId, messageId}),
+                    event(messageId, MessageAuditStage.FAILED, MessageAuditEventStatus.FAILED,
+                            payload, errorCode, errorMessage, now)));
         } catch (Exception e) {
             LOGGER.warn("Message audit: failed to finish failure {}: {}", messageId, e.getMessage());
         }
     }
 
-    private void addEvent(
-            MessageAuditSessionEntity session,
+    private Write event(
             String messageId,
             MessageAuditStage stage,
             MessageAuditEventStatus status,
-            Object payloadObj,
+            Map<String, Object> payload,
             String errorCode,
-            String errorMessage) {
-        try {
-            String payloadJson = null;
-            if (payloadObj instanceof String) {
-                payloadJson = (String) payloadObj;
-            } else if (payloadObj instanceof Map<?, ?>) {
-                payloadJson = objectMapper.writeValueAsString(payloadObj);
-            }
-            MessageAuditEventEntity event = new MessageAuditEventEntity();
-            event.setSession(session);
-            event.setMessageId(messageId);
-            event.setStage(stage);
-            event.setEventStatus(status);
-            event.setPayload(payloadJson);
-            event.setErrorCode(errorCode);
-            event.setErrorMessage(errorMessage);
-            eventRepository.save(event);
-        } catch (Exception e) {
-            LOGGER.warn("Message audit: failed to persist event {}: {}", messageId, e.getMessage());
-        }
+            String errorMessage,
+            OffsetDateTime createdAt) throws JsonProcessingException {
+        String payloadJson = payload != null ? objectMapper.writeValueAsString(payload) : null;
+        return new Write(Phase.EVENT_INSERT, INSERT_EVENT, new Object[]{
+                messageId, stage.name(), status.name(), payloadJson, errorCode, errorMessage, createdAt, messageId});
     }
 }
@@ -6,6 +6,8 @@ import com.example.sticker_art_gallery.dto.messaging.SendBotMessageResponse;
 import com.example.sticker_art_gallery.exception.BotException;
 import com.example.sticker_art_gallery.model.messaging.MessageAuditEventStatus;
 import com.example.sticker_art_gallery.model.messaging.MessageAuditStage;
+import com.example.sticker_art_gallery.service.telegram.TelegramRateLimitException;
+import com.example.sticker_art_gallery.service.telegram.TelegramSendScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.retry.annotation.Backoff;
@@ -31,18 +33,23 @@ public class StickerBotMessageService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StickerBotMessageService.class);
     private static final String PATH_SEND = "/api/messages/send";
+    private static final java.util.regex.Pattern RETRY_AFTER_IN_BODY =
+            java.util.regex.Pattern.compile("\"retry_after\"\\s*:\\s*(\\d{1,6})");
 
     private final RestTemplate restTemplate;
     private final AppConfig appConfig;
     private final MessageAuditService messageAuditService;
+    private final TelegramSendScheduler sendScheduler;
 
     public StickerBotMessageService(
             RestTemplate restTemplate,
             AppConfig appConfig,
-            MessageAuditService messageAuditService) {
+            MessageAuditService messageAuditService,
+            TelegramSendScheduler sendScheduler) {
         this.restTemplate = restTemplate;
         this.appConfig = appConfig;
         this.messageAuditService = messageAuditService;
+        this.sendScheduler = sendScheduler;
     }
 
     /**
@@ -132,12 +139,21 @@ public class StickerBotMessageService {
                 null);
 
         try {
-            ResponseEntity<SendBotMessageResponse> response = restTemplate.exchange(
-                    url,
-                    org.springframework.http.HttpMethod.POST,
-                    entity,
-                    SendBotMessageResponse.class
-            );
+            // StickerBot сам отправляет в Telegram: темп задаём тем же планировщиком, что и прямые вызовы Bot API
+            String sendUrl = url;
+            // 429 превращаем в TelegramRateLimitException внутри вызова: планировщик выдержит retry_after для чата и повторит
+            ResponseEntity<SendBotMessageResponse> response = sendScheduler.send(request.getUserId(), () -> {
+                try {
+                    return restTemplate.exchange(
+                            sendUrl,
+                            org.springframework.http.HttpMethod.POST,
+                            entity,
+                            SendBotMessageResponse.class
+                    );
+                } catch (HttpClientErrorException.TooManyRequests e) {
+                    throw new TelegramRateLimitException("stickerbot" + PATH_SEND, retryAfterSeconds(e), e);
+                }
+            });
 
             SendBotMessageResponse body = response.getBody();
             if (body == null) {
@@ -186,6 +202,23 @@ public class StickerBotMessageService {
             messageAuditService.finishSuccess(auditMessageId, body);
             LOGGER.info("✅ Сообщение отправлено пользователю {}: chatId={}, messageId={}", request.getUserId(), body.getChatId(), body.getMessageId());
             return body;
+        } catch (TelegramRateLimitException e) {
+            // Попытки планировщика исчерпаны: повтор через @Retryable без учёта retry_after только усилил бы 429
+            HttpClientErrorException cause = (HttpClientErrorException) e.getCause();
+            String responseBody = cause.getResponseBodyAsString();
+            LOGGER.error("❌ StickerBot API 429 после повторов планировщика: retry_after={} с", e.getRetryAfterSeconds());
+            failAndThrowBotException(
+                    auditMessageId,
+                    MessageAuditService.ERROR_HTTP_4XX,
+                    safeMessage(responseBody),
+                    java.util.Map.of(
+                            "httpStatus", String.valueOf(cause.getStatusCode().value()),
+                            "retryAfter", String.valueOf(e.getRetryAfterSeconds()),
+                            "responseBody", safeMessage(responseBody)),
+                    "StickerBot API ошибка: " + cause.getStatusCode() + " — " + safeMessage(responseBody),
+                    cause
+            );
+            return null;
         } catch (HttpClientErrorException e) {
             String responseBody = e.getResponseBodyAsString();
             LOGGER.error("❌ StickerBot API ошибка {}: {}", e.getStatusCode(), responseBody);
@@ -355,7 +388,20 @@ public class StickerBotMessageService {
     }
 
     private boolean isRetryableClientStatus(int statusCode) {
-        return statusCode == 429 || statusCode == 408;
+        return statusCode == 408;
+    }
+
+    /**
+     * retry_after из заголовка Retry-After или из тела ответа (формат Bot API: parameters.retry_after), по умолчанию 1 с
+     */
+    static int retryAfterSeconds(HttpClientErrorException e) {
+        HttpHeaders headers = e.getResponseHeaders();
+        String header = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (header != null && header.trim().matches("\\d+")) {
+            return Integer.parseInt(header.trim());
+        }
+        java.util.regex.Matcher matcher = RETRY_AFTER_IN_BODY.matcher(e.getResponseBodyAsString());
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
     }
 
     private RetryableStickerBotException buildRetryableException(
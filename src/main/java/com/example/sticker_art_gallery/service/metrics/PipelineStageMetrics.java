@@ -0,0 +1,56 @@
+package com.example.sticker_art_gallery.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймеры этапов внутренних pipeline: pipeline.stage{pipeline, stage, outcome}.
+ * Этап может охватывать несколько внешних вызовов (ожидание результата - серия poll),
+ * поэтому меряется отдельно от remote.call.
+ */
+@Component
+public class PipelineStageMetrics {
+
+    public static final String PIPELINE_STAGE = "pipeline.stage";
+
+    private final MeterRegistry registry;
+
+    public PipelineStageMetrics(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this(meterRegistryProvider.getIfAvailable());
+    }
+
+    PipelineStageMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Экземпляр без реестра - для сервисов, создаваемых вручную в тестах
+     */
+    public static PipelineStageMetrics noop() {
+        return new PipelineStageMetrics((MeterRegistry) null);
+    }
+
+    /**
+     * Отметка начала этапа; завершается {@link #stop(long, String, String, String)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(long startNanos, String pipeline, String stage, String outcome) {
+        if (registry == null) {
+            return;
+        }
+        Timer.builder(PIPELINE_STAGE)
+                .description("Длительность этапов pipeline генерации и обогащения")
+                .tags("pipeline", pipeline, "stage", stage, "outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.sticker_art_gallery.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймеры внешних HTTP-вызовов: remote.call{client, method, status, outcome}.
+ *
+ * client - имя внешней системы, определяется по хосту из конфигурации (неизвестные хосты - "other").
+ * method - метод Bot API для Telegram, иначе HTTP-метод и путь, где идентификаторы заменены на {id}:
+ * токен бота и id файлов в теги не попадают, число серий ограничено.
+ * status - HTTP-код ответа или IO_ERROR, если ответа не было.
+ */
+@Component
+public class RemoteCallMetrics {
+
+    public static final String REMOTE_CALL = "remote.call";
+    static final String OTHER_CLIENT = "other";
+    static final String IO_ERROR = "IO_ERROR";
+
+    private static final String TELEGRAM_FILE_PREFIX = "/file/bot";
+    private static final String TELEGRAM_BOT_PREFIX = "/bot";
+
+    private final MeterRegistry registry;
+    private final Map<String, String> clientsByHost = new HashMap<>();
+
+    public RemoteCallMetrics(
+            ObjectProvider<MeterRegistry> meterRegistryProvider,
+            @Value("${app.telegram.api-base-url:https://api.telegram.org}") String telegramApiBaseUrl,
+            @Value("${sticker.processor.url:}") String stickerProcessorUrl,
+            @Value("${wavespeed.base-url:https://api.wavespeed.ai/api/v3}") String waveSpeedBaseUrl,
+            @Value("${app.tonpay.adapter-url:}") String tonPayAdapterUrl,
+            @Value("${app.stickerbot.api-url:}") String stickerBotApiUrl,
+            @Value("${spring.ai.openai.base-url:https://api.openai.com}") String openAiBaseUrl) {
+        this(meterRegistryProvider.getIfAvailable(), Map.of(
+                "telegram", telegramApiBaseUrl,
+                "sticker-processor", stickerProcessorUrl,
+                "wavespeed", waveSpeedBaseUrl,
+                "tonpay", tonPayAdapterUrl,
+                "stickerbot", stickerBotApiUrl,
+                "openai", openAiBaseUrl));
+    }
+
+    RemoteCallMetrics(MeterRegistry registry, Map<String, String> baseUrlsByClient) {
+        this.registry = registry;
+        // api.telegram.org - всегда Telegram, даже если api-base-url указывает на эмулятор
+        clientsByHost.put("api.telegram.org", "telegram");
+        baseUrlsByClient.forEach((client, baseUrl) -> {
+            String host = host(baseUrl);
+            if (host != null) {
+                clientsByHost.put(host, client);
+            }
+        });
+    }
+
+    /**
+     * Экземпляр без реестра - для клиентов, создаваемых вручную (тесты, эмуляторы)
+     */
+    public static RemoteCallMetrics noop() {
+        return new RemoteCallMetrics(null, Map.of());
+    }
+
+    /**
+     * Перехватчик для RestTemplate/RestClient: время обмена до получения заголовков ответа
+     */
+    public ClientHttpRequestInterceptor interceptor() {
+        return (request, body, execution) -> {
+            if (registry == null) {
+                return execution.execute(request, body);
+            }
+            URI uri = request.getURI();
+            String client = client(uri);
+            String method = method(request.getMethod().name(), uri);
+            long start = System.nanoTime();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                int status = response.getStatusCode().value();
+                record(client, method, String.valueOf(status), Outcome.forStatus(status).name(), System.nanoTime() - start);
+                return response;
+            } catch (IOException | RuntimeException e) {
+                record(client, method, IO_ERROR, Outcome.UNKNOWN.name(), System.nanoTime() - start);
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Ответ вызова, который идёт мимо RestTemplate (java.net.http.HttpClient и т.п.)
+     */
+    public void recordResponse(String client, String method, int status, long startNanos) {
+        if (registry != null) {
+            record(client, method, String.valueOf(status), Outcome.forStatus(status).name(), System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Вызов мимо RestTemplate, не получивший ответа
+     */
+    public void recordIoError(String client, String method, long startNanos) {
+        if (registry != null) {
+            record(client, method, IO_ERROR, Outcome.UNKNOWN.name(), System.nanoTime() - startNanos);
+        }
+    }
+
+    private void record(String client, String method, String status, String outcome, long nanos) {
+        Timer.builder(REMOTE_CALL)
+                .description("Внешние вызовы по системе, методу и статусу ответа")
+                .tags("client", client, "method", method, "status", status, "outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    String client(URI uri) {
+        String host = uri.getHost();
+        if (host == null) {
+            return OTHER_CLIENT;
+        }
+        return clientsByHost.getOrDefault(host.toLowerCase(Locale.ROOT) + port(uri.getPort()),
+                clientsByHost.getOrDefault(host.toLowerCase(Locale.ROOT), OTHER_CLIENT));
+    }
+
+    /**
+     * Метод Bot API из /bot{token}/{method}, иначе "{HTTP-метод} {путь с {id}}"
+     */
+    static String method(String httpMethod, URI uri) {
+        String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            return httpMethod + " /";
+        }
+        if (path.startsWith(TELEGRAM_FILE_PREFIX) && isBotToken(path, TELEGRAM_FILE_PREFIX.length())) {
+            return "downloadFile";
+        }
+        if (path.startsWith(TELEGRAM_BOT_PREFIX) && isBotToken(path, TELEGRAM_BOT_PREFIX.length())) {
+            int methodStart = path.indexOf('/', TELEGRAM_BOT_PREFIX.length());
+            if (methodStart > 0 && methodStart < path.length() - 1) {
+                return path.substring(methodStart + 1);
+            }
+        }
+        StringBuilder template = new StringBuilder(httpMethod).append(' ');
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start + 1);
+            if (end < 0) {
+                end = path.length();
+            }
+            String segment = path.substring(start + 1, end);
+            template.append('/').append(isIdentifier(segment) ? "{id}" : segment);
+            start = end;
+        }
+        return template.toString();
+    }
+
+    /**
+     * Токен бота в пути имеет вид "{id}:{secret}"
+     */
+    private static boolean isBotToken(String path, int from) {
+        int end = path.indexOf('/', from);
+        int colon = path.indexOf(':', from);
+        return colon > from && (end < 0 || colon < end);
+    }
+
+    /**
+     * Идентификатором считается сегмент длиннее трёх символов с цифрой (file_id, uuid, числовой id)
+     * или совсем длинный; короткие вроде "v3" остаются частью шаблона
+     */
+    private static boolean isIdentifier(String segment) {
+        if (segment.length() >= 24) {
+            return true;
+        }
+        if (segment.length() <= 3) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isDigit(segment.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String host(String baseUrl) {
+        if (baseUrl == null || baseUrl.isBlank()) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(baseUrl.trim());
+            return uri.getHost() == null ? null : uri.getHost().toLowerCase(Locale.ROOT) + port(uri.getPort());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String port(int port) {
+        return port > 0 ? ":" + port : "";
+    }
+}
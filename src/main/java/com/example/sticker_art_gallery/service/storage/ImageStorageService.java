@@ -2,6 +2,7 @@ package com.example.sticker_art_gallery.service.storage;
 
 import com.example.sticker_art_gallery.model.storage.CachedImageEntity;
 import com.example.sticker_art_gallery.repository.CachedImageRepository;
+import com.example.sticker_art_gallery.service.metrics.RemoteCallMetrics;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,9 +37,13 @@ import java.util.UUID;
 public class ImageStorageService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ImageStorageService.class);
+    /** Картинки провайдеров генерации приходят с CDN на произвольных хостах: один client для всех */
+    private static final String IMAGE_SOURCE_CLIENT = "image-source";
+    private static final String DOWNLOAD_METHOD = "GET download";
 
     private final CachedImageRepository cachedImageRepository;
     private final HttpClient httpClient;
+    private final RemoteCallMetrics remoteCallMetrics;
 
     @Value("${app.image-storage.path:./data/images}")
     private String storagePath;
@@ -49,8 +54,9 @@ public class ImageStorageService {
     @Value("${app.image-storage.base-url:${app.url}/api/images}")
     private String baseUrl;
 
-    public ImageStorageService(CachedImageRepository cachedImageRepository) {
+    public ImageStorageService(CachedImageRepository cachedImageRepository, RemoteCallMetrics remoteCallMetrics) {
         this.cachedImageRepository = cachedImageRepository;
+        this.remoteCallMetrics = remoteCallMetrics;
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(30))
                 .followRedirects(HttpClient.Redirect.NORMAL)
@@ -115,7 +121,15 @@ public class ImageStorageService {
                     .GET()
                     .build();
 
-            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            long startNanos = System.nanoTime();
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException e) {
+                remoteCallMetrics.recordIoError(IMAGE_SOURCE_CLIENT, DOWNLOAD_METHOD, startNanos);
+                throw e;
+            }
+            remoteCallMetrics.recordResponse(IMAGE_SOURCE_CLIENT, DOWNLOAD_METHOD, response.statusCode(), startNanos);
             
             if (response.statusCode() != 200) {
                 throw new IOException("Failed to download image, status: " + response.statusCode());
@@ -191,6 +205,42 @@ public class ImageStorageService {
         return storeBytes(originalUrl, imageBytes, contentType, 4000);
     }
 
+    /**
+     * Аватар пользователя заданного размера. Ключ стабильный: при обновлении предыдущая версия заменяется.
+     */
+    @Transactional
+    public CachedImageEntity storeUserAvatar(long userId, int size, byte[] imageBytes, String contentType, long retentionDaysForAvatar) {
+        String originalUrl = userAvatarKey(userId, size);
+        cachedImageRepository.findByOriginalUrl(originalUrl).ifPresent(this::deleteImage);
+        return storeBytes(originalUrl, imageBytes, contentType, retentionDaysForAvatar);
+    }
+
+    /**
+     * Сохранённый аватар пользователя (запись и байты), если он есть и не просрочен
+     */
+    @Transactional(readOnly = true)
+    public Optional<StoredImage> findUserAvatar(long userId, int size) {
+        return cachedImageRepository.findByOriginalUrl(userAvatarKey(userId, size))
+                .filter(entity -> !entity.isExpired())
+                .flatMap(entity -> {
+                    Path filePath = Paths.get(storagePath, entity.getFilePath());
+                    try {
+                        return Files.exists(filePath)
+                                ? Optional.of(new StoredImage(entity, Files.readAllBytes(filePath)))
+                                : Optional.empty();
+                    } catch (IOException e) {
+                        LOGGER.warn("⚠️ Не удалось прочитать аватар {}: {}", entity.getFileName(), e.getMessage());
+                        return Optional.empty();
+                    }
+                });
+    }
+
+    public record StoredImage(CachedImageEntity entity, byte[] data) {}
+
+    private static String userAvatarKey(long userId, int size) {
+        return "user-avatar:" + userId + ":" + size;
+    }
+
     /**
      * Читает байты сохранённого кэша (для копирования в долговременный reference/preview пресета).
      */
@@ -165,6 +165,11 @@ public class StickerSetCreationService {
         LOGGER.info("💾 Сохранение изображения в стикерсет: userId={}, imageUuid={}, stickerSetName={}", 
                 userId, imageUuid, stickerSetName);
         
+        // Снапшот набора на всю операцию: getStickerSet запрашивается и разбирается один раз до загрузки
+        // и один раз после. Оба чтения идут мимо кэша stickerSetInfo: лимит 120 стикеров и наличие набора
+        // проверяются по актуальному состоянию (стикеры и сам набор могли удалить в Telegram)
+        StickerSetSnapshot snapshot = null;
+
         // 1. Определить стикерсет
         if (stickerSetName == null || stickerSetName.isBlank()) {
             // Получить имя дефолтного стикерсета
@@ -172,8 +177,8 @@ public class StickerSetCreationService {
             stickerSetName = namingService.generateDefaultName(userId, username);
             
             // Проверить существование в Telegram
-            TelegramBotApiService.StickerSetInfo setInfo = telegramBotApiService.getStickerSetInfoSimple(stickerSetName);
-            if (setInfo == null || !setInfo.exists()) {
+            snapshot = loadFreshSnapshot(stickerSetName);
+            if (snapshot == null) {
                 // Дефолтный стикерсет не существует - IO-фаза: создаем его с текущим стикером
                 LOGGER.info("📦 Дефолтный стикерсет не существует, создаем: {}", stickerSetName);
                 String defaultTitle = appConfig.getTelegram().getDefaultStickerSetTitle();
@@ -197,7 +202,8 @@ public class StickerSetCreationService {
                 LOGGER.info("✅ Дефолтный стикерсет создан: {}", stickerSetName);
                 
                 // Стикер уже добавлен при создании, индекс будет 0
-                String stickerFileId = telegramBotApiService.getStickerFileId(stickerSetName, 0);
+                StickerSetSnapshot created = loadFreshSnapshot(stickerSetName);
+                String stickerFileId = created != null ? created.fileIdAt(0) : null;
                 if (stickerFileId == null || stickerFileId.isBlank()) {
                     throw new RuntimeException("Failed to resolve sticker file_id after creating set: " + stickerSetName);
                 }
@@ -210,19 +216,16 @@ public class StickerSetCreationService {
         } else {
             // Валидация владения
             namingService.validateStickerSetName(stickerSetName);
+            snapshot = loadFreshSnapshot(stickerSetName);
         }
         
-        // 2. Проверить лимит
-        TelegramBotApiService.StickerSetInfo setInfo = telegramBotApiService.getStickerSetInfoSimple(stickerSetName);
-        if (setInfo != null && setInfo.exists() && setInfo.getStickerCount() >= MAX_STICKERS_PER_SET) {
+        // 2. Проверить лимит (по снапшоту операции, без повторного запроса)
+        if (snapshot != null && snapshot.stickerCount() >= MAX_STICKERS_PER_SET) {
             throw new IllegalStateException(
                 "Sticker set is full (120 stickers max). Please create a new set."
             );
         }
         
-        // 2.1. Получить предыдущее состояние набора (file_id в порядке Telegram)
-        java.util.List<String> previousFileIds = telegramBotApiService.getStickerFileIdsInOrder(stickerSetName);
-        
         // 3. IO-фаза: получить файл и добавить
         File stickerFile = imageStorageService.getFileByUuid(imageUuid);
         
@@ -240,47 +243,26 @@ public class StickerSetCreationService {
         
         LOGGER.info("✅ Стикер добавлен в стикерсет: {}", stickerSetName);
 
-        // 4. Получить новое состояние набора и найти добавленный стикер по сравнению с предыдущим
-        java.util.List<String> updatedFileIds = telegramBotApiService.getStickerFileIdsInOrder(stickerSetName);
-        if (updatedFileIds == null || updatedFileIds.isEmpty()) {
+        // 4. Получить новое состояние набора (единственный запрос после загрузки) и найти добавленный стикер
+        StickerSetSnapshot updated = loadFreshSnapshot(stickerSetName);
+        if (updated == null || updated.fileIds().isEmpty()) {
             throw new RuntimeException("Failed to fetch updated sticker set file_ids: " + stickerSetName);
         }
 
-        java.util.Set<String> previousSet = previousFileIds != null
-            ? new java.util.HashSet<>(previousFileIds)
-            : java.util.Collections.emptySet();
-
-        String newStickerFileId = null;
-        int stickerIndex = -1;
-        for (int i = 0; i < updatedFileIds.size(); i++) {
-            String fileId = updatedFileIds.get(i);
-            if (!previousSet.contains(fileId)) {
-                newStickerFileId = fileId;
-                stickerIndex = i;
-                break;
-            }
-        }
-
-        // Фоллбек: если не нашли отличия, но размер увеличился на 1 — берём последний
-        if (newStickerFileId == null && previousFileIds != null 
-                && updatedFileIds.size() == previousFileIds.size() + 1) {
-            stickerIndex = updatedFileIds.size() - 1;
-            newStickerFileId = updatedFileIds.get(stickerIndex);
-        }
-
-        if (newStickerFileId == null || stickerIndex < 0) {
+        int stickerIndex = updated.indexOfAddedSince(snapshot);
+        String newStickerFileId = updated.fileIdAt(stickerIndex);
+        if (newStickerFileId == null) {
             throw new RuntimeException("Failed to determine new sticker file_id for set: " + stickerSetName);
         }
 
-        // 5. Получить title стикерсета
-        Object fullStickerSetInfo = telegramBotApiService.getStickerSetInfo(stickerSetName);
-        String title = telegramBotApiService.extractTitleFromStickerSetInfo(fullStickerSetInfo);
+        // 5. title стикерсета - из того же снапшота
+        String title = updated.title();
 
         // Сохраняем обновленный payload в persistent cache, если стикерсет зарегистрирован в БД
         StickerSet existingStickerSet = stickerSetService.findByName(stickerSetName);
         if (existingStickerSet != null) {
             try {
-                stickerSetTelegramCacheService.save(existingStickerSet.getId(), stickerSetName, fullStickerSetInfo);
+                stickerSetTelegramCacheService.save(existingStickerSet.getId(), stickerSetName, updated.payload());
             } catch (Exception e) {
                 LOGGER.warn("⚠️ Не удалось сохранить кеш Telegram payload для стикерсета {}: {}", stickerSetName, e.getMessage());
             }
@@ -289,6 +271,19 @@ public class StickerSetCreationService {
         return new SaveImageToStickerSetResponseDto(stickerSetName, stickerIndex, newStickerFileId, title);
     }
     
+    /**
+     * Актуальное состояние набора - отдельным запросом, без кэша и без присоединения к уже идущему
+     * getStickerSet, который мог вернуть список стикеров до записи.
+     */
+    private StickerSetSnapshot loadFreshSnapshot(String stickerSetName) {
+        try {
+            return StickerSetSnapshot.fromPayload(stickerSetName, telegramBotApiService.getStickerSetInfoFresh(stickerSetName));
+        } catch (Exception e) {
+            LOGGER.info("📦 Стикерсет {} не получен из Telegram: {}", stickerSetName, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Получить username пользователя.
      * 
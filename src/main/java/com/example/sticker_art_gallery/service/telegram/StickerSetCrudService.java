@@ -3,6 +3,8 @@ package com.example.sticker_art_gallery.service.telegram;
 import com.example.sticker_art_gallery.model.category.Category;
 import com.example.sticker_art_gallery.model.telegram.StickerSet;
 import com.example.sticker_art_gallery.repository.StickerSetRepository;
+import com.example.sticker_art_gallery.service.StickerSetListingCache;
+import com.example.sticker_art_gallery.service.StickerSetTopLikesIndex;
 import com.example.sticker_art_gallery.service.category.CategoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,8 +12,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Сервис для базовых CRUD операций со стикерсетами
@@ -22,12 +28,18 @@ public class StickerSetCrudService {
     private static final Logger LOGGER = LoggerFactory.getLogger(StickerSetCrudService.class);
     private final StickerSetRepository stickerSetRepository;
     private final CategoryService categoryService;
+    private final StickerSetTopLikesIndex topLikesIndex;
+    private final StickerSetListingCache listingCache;
     
     @Autowired
     public StickerSetCrudService(StickerSetRepository stickerSetRepository,
-                                CategoryService categoryService) {
+                                CategoryService categoryService,
+                                StickerSetTopLikesIndex topLikesIndex,
+                                StickerSetListingCache listingCache) {
         this.stickerSetRepository = stickerSetRepository;
         this.categoryService = categoryService;
+        this.topLikesIndex = topLikesIndex;
+        this.listingCache = listingCache;
     }
     
     /**
@@ -37,6 +49,13 @@ public class StickerSetCrudService {
         return stickerSetRepository.findById(id).orElse(null);
     }
     
+    /**
+     * Найти стикерсеты по списку ID одним запросом (отсутствующие пропускаются)
+     */
+    public List<StickerSet> findAllByIds(Collection<Long> ids) {
+        return stickerSetRepository.findAllById(ids);
+    }
+    
     /**
      * Найти стикерсет по имени
      */
@@ -89,6 +108,8 @@ public class StickerSetCrudService {
         if (stickerSet.isActive()) {
             stickerSet.markAsDeleted(); // state -> DELETED, deletedAt -> now
             stickerSetRepository.save(stickerSet);
+            topLikesIndex.remove(id);
+            listingCache.invalidate();
             LOGGER.info("✅ Стикерсет ID={} успешно помечен как DELETED", id);
         } else {
             LOGGER.warn("⚠️ Стикерсет ID={} уже удален или заблокирован (state={})", id, stickerSet.getState());
@@ -123,8 +144,45 @@ public class StickerSetCrudService {
         }
         
         StickerSet savedStickerSet = stickerSetRepository.save(stickerSet);
+        listingCache.invalidate();
         LOGGER.info("✅ Категории стикерсета {} успешно обновлены", stickerSetId);
         
         return savedStickerSet;
     }
+
+    /**
+     * Пакетная замена категорий у нескольких стикерсетов в одной транзакции:
+     * один запрос на стикерсеты, один на категории, вставки связей уходят JDBC-батчами (hibernate.jdbc.batch_size).
+     *
+     * @param categoryKeysByStickerSetId ID стикерсета -> новый набор ключей категорий
+     * @return количество обновлённых стикерсетов
+     */
+    @Transactional
+    public int updateCategoriesBulk(Map<Long, Set<String>> categoryKeysByStickerSetId) {
+        if (categoryKeysByStickerSetId == null || categoryKeysByStickerSetId.isEmpty()) {
+            return 0;
+        }
+        Set<String> allKeys = categoryKeysByStickerSetId.values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
+        Map<String, Category> categoriesByKey = allKeys.isEmpty()
+                ? Map.of()
+                : categoryService.getCategoriesByKeys(allKeys).stream()
+                        .collect(Collectors.toMap(Category::getKey, Function.identity()));
+
+        List<StickerSet> stickerSets = stickerSetRepository.findAllById(categoryKeysByStickerSetId.keySet());
+        for (StickerSet stickerSet : stickerSets) {
+            stickerSet.clearCategories();
+            for (String key : categoryKeysByStickerSetId.get(stickerSet.getId())) {
+                Category category = categoriesByKey.get(key);
+                if (category != null) {
+                    stickerSet.addCategory(category);
+                }
+            }
+        }
+        stickerSetRepository.saveAll(stickerSets);
+        listingCache.invalidate();
+        LOGGER.info("✅ Пакетно обновлены категории у {} стикерсетов", stickerSets.size());
+        return stickerSets.size();
+    }
 }
@@ -1,8 +1,13 @@
 package com.example.sticker_art_gallery.service.telegram;
 
 import com.example.sticker_art_gallery.dto.StickerSetDto;
+import com.example.sticker_art_gallery.dto.ViewerContext;
 import com.example.sticker_art_gallery.model.telegram.StickerSet;
+import com.example.sticker_art_gallery.model.telegram.StickerSetTelegramCacheEntity;
+import com.example.sticker_art_gallery.repository.DislikeRepository;
+import com.example.sticker_art_gallery.repository.LikeRepository;
 import com.example.sticker_art_gallery.repository.StickerSetRepository;
+import com.example.sticker_art_gallery.service.metrics.PipelineStageMetrics;
 import com.example.sticker_art_gallery.service.transaction.WalletService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,7 +18,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -23,24 +31,45 @@ import java.util.stream.Collectors;
 public class StickerSetEnrichmentService {
     
     private static final Logger LOGGER = LoggerFactory.getLogger(StickerSetEnrichmentService.class);
+    private static final String PIPELINE_ENRICHMENT = "enrichment";
     private final TelegramBotApiService telegramBotApiService;
     private final StickerSetRepository stickerSetRepository;
     private final WalletService walletService;
     private final StickerSetTelegramCacheService stickerSetTelegramCacheService;
+    private final LikeRepository likeRepository;
+    private final DislikeRepository dislikeRepository;
+    private final PipelineStageMetrics stageMetrics;
     
     @Autowired
     public StickerSetEnrichmentService(TelegramBotApiService telegramBotApiService,
                                      StickerSetRepository stickerSetRepository,
                                      WalletService walletService,
-                                     StickerSetTelegramCacheService stickerSetTelegramCacheService) {
+                                     StickerSetTelegramCacheService stickerSetTelegramCacheService,
+                                     LikeRepository likeRepository,
+                                     DislikeRepository dislikeRepository,
+                                     PipelineStageMetrics stageMetrics) {
         this.telegramBotApiService = telegramBotApiService;
         this.stickerSetRepository = stickerSetRepository;
         this.walletService = walletService;
         this.stickerSetTelegramCacheService = stickerSetTelegramCacheService;
+        this.likeRepository = likeRepository;
+        this.dislikeRepository = dislikeRepository;
+        this.stageMetrics = stageMetrics;
+    }
+
+    StickerSetEnrichmentService(TelegramBotApiService telegramBotApiService,
+                                StickerSetRepository stickerSetRepository,
+                                WalletService walletService,
+                                StickerSetTelegramCacheService stickerSetTelegramCacheService,
+                                LikeRepository likeRepository,
+                                DislikeRepository dislikeRepository) {
+        this(telegramBotApiService, stickerSetRepository, walletService, stickerSetTelegramCacheService,
+                likeRepository, dislikeRepository, PipelineStageMetrics.noop());
     }
     
     /**
-     * Обогащает список стикерсетов данными из Bot API и категориями
+     * Обогащает список стикерсетов данными из Bot API и категориями.
+     * Зритель и записи кэша Telegram загружаются один раз на список, а не на каждый стикерсет.
      */
     public List<StickerSetDto> enrichWithBotApiDataAndCategories(List<StickerSet> stickerSets, String language, Long currentUserId, boolean shortInfo, boolean preview, boolean includeAvailableActions) {
         if (stickerSets.isEmpty()) {
@@ -49,10 +78,21 @@ public class StickerSetEnrichmentService {
         
         LOGGER.debug("🚀 Обогащение {} стикерсетов данными Bot API и категориями (последовательно, shortInfo={}, preview={}, includeAvailableActions={})", stickerSets.size(), shortInfo, preview, includeAvailableActions);
         
+        List<Long> ids = stickerSets.stream().map(StickerSet::getId).collect(Collectors.toList());
+        long startNanos = stageMetrics.start();
+        ViewerContext viewer = resolveViewer(currentUserId, ids, includeAvailableActions);
+        stageMetrics.stop(startNanos, PIPELINE_ENRICHMENT, "viewer", "success");
+
+        startNanos = stageMetrics.start();
+        Map<Long, StickerSetTelegramCacheEntity> cacheEntries = shortInfo ? Map.of() : stickerSetTelegramCacheService.getCachedEntries(ids);
+        stageMetrics.stop(startNanos, PIPELINE_ENRICHMENT, "telegram_cache", "success");
+        
         // Обрабатываем последовательно, чтобы избежать проблем с Hibernate Session
+        startNanos = stageMetrics.start();
         List<StickerSetDto> result = stickerSets.stream()
-                .map(stickerSet -> enrichSingleStickerSetSafelyWithCategories(stickerSet, language, currentUserId, shortInfo, preview, includeAvailableActions))
+                .map(stickerSet -> enrich(stickerSet, language, shortInfo, preview, includeAvailableActions, viewer, cacheEntries))
                 .collect(Collectors.toList());
+        stageMetrics.stop(startNanos, PIPELINE_ENRICHMENT, "map", "success");
         
         LOGGER.debug("✅ Обогащение завершено для {} стикерсетов", result.size());
         return result;
@@ -64,19 +104,34 @@ public class StickerSetEnrichmentService {
      * @param includeAvailableActions если true, вычисляет доступные действия для стикерсета
      */
     public StickerSetDto enrichSingleStickerSetSafelyWithCategories(StickerSet stickerSet, String language, Long currentUserId, boolean shortInfo, boolean preview, boolean includeAvailableActions) {
+        List<Long> ids = stickerSet.getId() == null ? List.of() : List.of(stickerSet.getId());
+        Map<Long, StickerSetTelegramCacheEntity> cacheEntries = shortInfo || ids.isEmpty() ? Map.of() : stickerSetTelegramCacheService.getCachedEntries(ids);
+        return enrich(stickerSet, language, shortInfo, preview, includeAvailableActions,
+                resolveViewer(currentUserId, ids, includeAvailableActions), cacheEntries);
+    }
+    
+    /**
+     * Зритель ответа: роль из SecurityContext, кошелёк и лайки/дизлайки среди {@code stickerSetIds}.
+     * Не более трёх запросов независимо от числа стикерсетов.
+     */
+    public ViewerContext resolveViewer(Long currentUserId, List<Long> stickerSetIds, boolean includeAvailableActions) {
         boolean isAdmin = isCurrentUserAdmin();
-        boolean hasTonWallet = false;
-        if (currentUserId != null && includeAvailableActions) {
-            try {
-                hasTonWallet = walletService.hasActiveWallet(currentUserId);
-            } catch (Exception e) {
-                LOGGER.debug("⚠️ Ошибка при проверке наличия кошелька для пользователя {}: {}", currentUserId, e.getMessage());
-                hasTonWallet = false;
-            }
+        if (currentUserId == null) {
+            return ViewerContext.anonymous(isAdmin);
         }
+        Set<Long> likedIds = stickerSetIds.isEmpty() ? Set.of() : new HashSet<>(likeRepository.findLikedStickerSetIdsByUserId(currentUserId, stickerSetIds));
+        Set<Long> dislikedIds = stickerSetIds.isEmpty() ? Set.of() : new HashSet<>(dislikeRepository.findDislikedStickerSetIdsByUserId(currentUserId, stickerSetIds));
+        return new ViewerContext(currentUserId, isAdmin, hasTonWallet(currentUserId, includeAvailableActions), likedIds, dislikedIds);
+    }
+    
+    /**
+     * @param cacheEntries записи кэша Telegram, загруженные одним запросом на ответ
+     */
+    private StickerSetDto enrich(StickerSet stickerSet, String language, boolean shortInfo, boolean preview, boolean includeAvailableActions,
+                                 ViewerContext viewer, Map<Long, StickerSetTelegramCacheEntity> cacheEntries) {
         LOGGER.debug("🔍 Обогащение стикерсета {}: currentUserId={}, stickerSetUserId={}, isAdmin={}, preview={}, includeAvailableActions={}, hasTonWallet={}", 
-                stickerSet.getId(), currentUserId, stickerSet.getUserId(), isAdmin, preview, includeAvailableActions, hasTonWallet);
-        StickerSetDto dto = StickerSetDto.fromEntity(stickerSet, language, currentUserId, isAdmin, includeAvailableActions, hasTonWallet);
+                stickerSet.getId(), viewer.userId(), stickerSet.getUserId(), viewer.admin(), preview, includeAvailableActions, viewer.hasTonWallet());
+        StickerSetDto dto = StickerSetDto.fromEntity(stickerSet, language, viewer, includeAvailableActions);
         
         if (dto == null) {
             LOGGER.warn("⚠️ Не удалось создать DTO для стикерсета {}", stickerSet.getId());
@@ -91,17 +146,24 @@ public class StickerSetEnrichmentService {
             return dto;
         }
         
-        Object botApiData = stickerSetTelegramCacheService.getCachedPayload(stickerSet.getId()).orElse(null);
+        // Без превью сохранённый JSON уходит в ответ без разбора и повторной сериализации;
+        // превью выбирает случайный стикер, поэтому payload разбирается
+        StickerSetTelegramCacheEntity cache = cacheEntries.get(stickerSet.getId());
+        Object botApiData = cache == null ? null
+                : (preview ? stickerSetTelegramCacheService.getPayload(cache) : stickerSetTelegramCacheService.getRawPayload(cache)).orElse(null);
+        boolean stale = cache == null || stickerSetTelegramCacheService.isStale(cache);
         if (botApiData == null) {
             LOGGER.debug("ℹ️ Cache miss for stickerset {}, scheduling background refresh", stickerSet.getId());
             dto.setTelegramStickerSetInfo(null);
-            stickerSetTelegramCacheService.scheduleRefreshIfNeeded(stickerSet.getId());
+            if (stale) {
+                stickerSetTelegramCacheService.scheduleRefresh(stickerSet.getId(), StickerSetRefreshQueue.Priority.MISSING);
+            }
             return dto;
         }
 
-        if (stickerSetTelegramCacheService.isStale(stickerSet.getId())) {
+        if (stale) {
             LOGGER.debug("♻️ Cache stale for stickerset {}, scheduling background refresh", stickerSet.getId());
-            stickerSetTelegramCacheService.scheduleRefreshIfNeeded(stickerSet.getId());
+            stickerSetTelegramCacheService.scheduleRefresh(stickerSet.getId());
         }
 
         // Применяем фильтрацию для режима превью
@@ -118,8 +180,9 @@ public class StickerSetEnrichmentService {
     /**
      * Фильтрует стикеры в telegramStickerSetInfo для режима превью.
      * Оставляет только 1 случайный стикер из полного списка.
+     * Package-private для JMH-бенчмарка.
      */
-    private Object filterStickersForPreview(Object telegramStickerSetInfo) {
+    static Object filterStickersForPreview(Object telegramStickerSetInfo) {
         if (telegramStickerSetInfo instanceof java.util.Map) {
             @SuppressWarnings("unchecked")
             java.util.Map<String, Object> infoMap = new java.util.LinkedHashMap<>((java.util.Map<String, Object>) telegramStickerSetInfo);
@@ -199,6 +262,18 @@ public class StickerSetEnrichmentService {
         }
     }
     
+    private boolean hasTonWallet(Long currentUserId, boolean includeAvailableActions) {
+        if (currentUserId == null || !includeAvailableActions) {
+            return false;
+        }
+        try {
+            return walletService.hasActiveWallet(currentUserId);
+        } catch (Exception e) {
+            LOGGER.debug("⚠️ Ошибка при проверке наличия кошелька для пользователя {}: {}", currentUserId, e.getMessage());
+            return false;
+        }
+    }
+    
     /**
      * Проверяет, является ли текущий пользователь администратором
      */
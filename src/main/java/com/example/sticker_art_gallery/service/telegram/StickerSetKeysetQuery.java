@@ -0,0 +1,162 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.example.sticker_art_gallery.exception.InvalidCursorException;
+import com.example.sticker_art_gallery.model.telegram.StickerSet;
+import com.example.sticker_art_gallery.model.telegram.StickerSetType;
+import com.example.sticker_art_gallery.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset-выборка ID стикерсетов для режима курсора: {@code (sortKey, id) < (cursor)} вместо OFFSET и без COUNT.
+ * Страница стоит O(size) при любой глубине прокрутки; наборы затем догружает {@link StickerSetPageLoader}.
+ * Предикат записан как {@code key <= v AND (key < v OR id < i)}: первое условие даёт границу
+ * для индексов {@code (key, id)} из V1_0_91.
+ */
+@Component
+public class StickerSetKeysetQuery {
+
+    /**
+     * Ключи сортировки, поддерживаемые в режиме курсора (оба NOT NULL и покрыты индексами)
+     */
+    public static final List<String> SORT_KEYS = List.of("createdAt", "likesCount");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Фильтр выборки; null/false - условие не применяется
+     *
+     * @param publicOnly       только ACTIVE + PUBLIC (галерея, лайкнутые)
+     * @param visibilityFilter ALL/PUBLIC/PRIVATE для списков владельца (при publicOnly игнорируется)
+     * @param includeBlocked   показывать BLOCKED владельцу/админу (при publicOnly игнорируется)
+     */
+    public record Filter(boolean publicOnly,
+                         String visibilityFilter,
+                         boolean includeBlocked,
+                         Long ownerId,
+                         StickerSetType type,
+                         Boolean isVerified,
+                         Collection<String> categoryKeys,
+                         Long likedByUserId) {
+
+        public static Filter gallery(StickerSetType type, Long ownerId, Boolean isVerified, Collection<String> categoryKeys) {
+            return new Filter(true, null, false, ownerId, type, isVerified, categoryKeys, null);
+        }
+
+        public static Filter liked(Long likedByUserId, Collection<String> categoryKeys, StickerSetType type, Long ownerId, Boolean isVerified) {
+            return new Filter(true, null, false, ownerId, type, isVerified, categoryKeys, likedByUserId);
+        }
+
+        public static Filter owner(Long ownerId, String visibilityFilter, boolean includeBlocked, StickerSetType type,
+                                   Boolean isVerified, Collection<String> categoryKeys, Long likedByUserId) {
+            return new Filter(false, visibilityFilter, includeBlocked, ownerId, type, isVerified, categoryKeys, likedByUserId);
+        }
+    }
+
+    /**
+     * ID страницы и признак наличия следующей
+     */
+    public record Slice(List<Long> ids, boolean hasNext) {
+    }
+
+    /**
+     * @param after позиция последнего элемента предыдущей страницы; null - первая страница
+     */
+    public Slice findIds(Filter filter, String sort, boolean descending, KeysetCursor after, int size) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String jpql = buildJpql(filter, sort, descending, after, params);
+        TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(size + 1);
+        List<Long> ids = query.getResultList();
+        boolean hasNext = ids.size() > size;
+        return new Slice(hasNext ? ids.subList(0, size) : ids, hasNext);
+    }
+
+    /**
+     * Значение ключа сортировки у набора - для курсора следующей страницы
+     */
+    public static String sortValue(StickerSet stickerSet, String sort) {
+        return "likesCount".equals(sort)
+                ? String.valueOf(stickerSet.getLikesCount())
+                : String.valueOf(stickerSet.getCreatedAt());
+    }
+
+    static String buildJpql(Filter filter, String sort, boolean descending, KeysetCursor after, Map<String, Object> params) {
+        if (!SORT_KEYS.contains(sort)) {
+            throw new InvalidCursorException("Cursor pagination supports sort=" + String.join("|", SORT_KEYS));
+        }
+        StringBuilder jpql = new StringBuilder("SELECT ss.id FROM StickerSet ss WHERE ");
+        if (filter.publicOnly()) {
+            jpql.append("ss.state = com.example.sticker_art_gallery.model.telegram.StickerSetState.ACTIVE ")
+                .append("AND ss.visibility = com.example.sticker_art_gallery.model.telegram.StickerSetVisibility.PUBLIC");
+        } else {
+            jpql.append(filter.includeBlocked()
+                    ? "ss.state IN (com.example.sticker_art_gallery.model.telegram.StickerSetState.ACTIVE, " +
+                      "com.example.sticker_art_gallery.model.telegram.StickerSetState.BLOCKED)"
+                    : "ss.state = com.example.sticker_art_gallery.model.telegram.StickerSetState.ACTIVE");
+            if ("PUBLIC".equals(filter.visibilityFilter())) {
+                jpql.append(" AND ss.visibility = com.example.sticker_art_gallery.model.telegram.StickerSetVisibility.PUBLIC");
+            } else if ("PRIVATE".equals(filter.visibilityFilter())) {
+                jpql.append(" AND ss.visibility = com.example.sticker_art_gallery.model.telegram.StickerSetVisibility.PRIVATE");
+            }
+        }
+        if (filter.ownerId() != null) {
+            jpql.append(" AND ss.userId = :ownerId");
+            params.put("ownerId", filter.ownerId());
+        }
+        if (filter.type() != null) {
+            jpql.append(" AND ss.type = :type");
+            params.put("type", filter.type());
+        }
+        if (Boolean.TRUE.equals(filter.isVerified())) {
+            jpql.append(" AND ss.isVerified = true");
+        }
+        if (filter.categoryKeys() != null && !filter.categoryKeys().isEmpty()) {
+            jpql.append(" AND ss.id IN (SELECT cs.id FROM StickerSet cs JOIN cs.categories c WHERE c.key IN :categoryKeys)");
+            params.put("categoryKeys", filter.categoryKeys());
+        }
+        if (filter.likedByUserId() != null) {
+            jpql.append(" AND EXISTS (SELECT 1 FROM Like l WHERE l.userId = :likedBy AND l.stickerSet = ss)");
+            params.put("likedBy", filter.likedByUserId());
+        }
+
+        String key = "ss." + sort;
+        String direction = descending ? "DESC" : "ASC";
+        if (after != null) {
+            String op = descending ? "<" : ">";
+            jpql.append(" AND ").append(key).append(' ').append(op).append("= :afterValue")
+                .append(" AND (").append(key).append(' ').append(op).append(" :afterValue OR ss.id ").append(op).append(" :afterId)");
+            params.put("afterValue", parseSortValue(sort, after.value()));
+            params.put("afterId", parseId(after.id()));
+        }
+        jpql.append(" ORDER BY ").append(key).append(' ').append(direction).append(", ss.id ").append(direction);
+        return jpql.toString();
+    }
+
+    private static Object parseSortValue(String sort, String value) {
+        try {
+            return "likesCount".equals(sort) ? Integer.valueOf(value) : LocalDateTime.parse(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+    }
+
+    private static Long parseId(String id) {
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+    }
+}
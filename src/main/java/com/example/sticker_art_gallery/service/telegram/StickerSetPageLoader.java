@@ -0,0 +1,61 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.example.sticker_art_gallery.model.telegram.StickerSet;
+import com.example.sticker_art_gallery.repository.StickerSetRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Вторая фаза выборки страниц галереи: по странице ID загружает стикерсеты с категориями и описаниями.
+ * Число запросов не зависит от размера страницы: ID + count, наборы с категориями, описания.
+ */
+@Component
+public class StickerSetPageLoader {
+
+    private final StickerSetRepository stickerSetRepository;
+
+    public StickerSetPageLoader(StickerSetRepository stickerSetRepository) {
+        this.stickerSetRepository = stickerSetRepository;
+    }
+
+    /**
+     * Порядок и метаданные пагинации берутся из страницы ID
+     */
+    @Transactional(readOnly = true)
+    public Page<StickerSet> load(Page<Long> idPage) {
+        return new PageImpl<>(loadAll(idPage.getContent()), idPage.getPageable(), idPage.getTotalElements());
+    }
+
+    /**
+     * Наборы в порядке {@code ids}. Оба fetch-запроса идут в одном persistence context,
+     * поэтому описания догружаются в те же экземпляры.
+     */
+    @Transactional(readOnly = true)
+    public List<StickerSet> loadAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, StickerSet> byId = new HashMap<>();
+        for (StickerSet stickerSet : stickerSetRepository.findAllWithCategoriesByIdIn(ids)) {
+            byId.put(stickerSet.getId(), stickerSet);
+        }
+        stickerSetRepository.fetchDescriptionsByIdIn(ids);
+
+        List<StickerSet> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            StickerSet stickerSet = byId.get(id);
+            if (stickerSet != null) {
+                ordered.add(stickerSet);
+            }
+        }
+        return ordered;
+    }
+}
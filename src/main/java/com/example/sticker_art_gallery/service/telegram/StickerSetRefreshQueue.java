@@ -0,0 +1,309 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.example.sticker_art_gallery.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Очередь фонового обновления кэша Telegram payload стикерсетов.
+ * <p>
+ * Один стикерсет в очереди не больше одного раза: повторная постановка только повышает приоритет,
+ * а набор, который сейчас обновляется, не ставится повторно. Внутри приоритета - порядок постановки.
+ * При заполнении {@code capacity} новая задача вытесняет самую младшую, если её приоритет выше, иначе отклоняется.
+ * <p>
+ * Рабочие потоки берут задачи не чаще {@code ratePerSecond} (token bucket с запасом {@code burst}).
+ * На 429 все потоки замолкают на retry_after, а задача возвращается в очередь на прежнее место.
+ */
+public class StickerSetRefreshQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StickerSetRefreshQueue.class);
+
+    /**
+     * Приоритет обновления; обрабатывается в порядке объявления
+     */
+    public enum Priority {
+        /** Записи кэша нет - карточка отдаётся без данных Telegram */
+        MISSING,
+        /** Запись устарела и уже была показана */
+        STALE,
+        /** Упреждающий прогрев */
+        WARMUP
+    }
+
+    record Task(long stickersetId, Priority priority, long seq) {
+    }
+
+    private static final Comparator<Task> ORDER = Comparator
+            .comparing(Task::priority)
+            .thenComparingLong(Task::seq);
+
+    private final String name;
+    private final LongConsumer handler;
+    private final int capacity;
+    private final int workers;
+    private final TokenBucket rateLimiter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final TreeSet<Task> ordered = new TreeSet<>(ORDER);
+    private final Map<Long, Task> pending = new HashMap<>();
+    private final Set<Long> inProgress = new HashSet<>();
+    private long nextSeq;
+
+    /** До какого System.nanoTime() запросы к Telegram приостановлены после 429 */
+    private final AtomicLong pausedUntilNanos = new AtomicLong(System.nanoTime());
+
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Counter rateLimitedCounter;
+    private final Counter rejectedCounter;
+
+    private volatile boolean running;
+    private final List<Thread> threads = new ArrayList<>();
+
+    public StickerSetRefreshQueue(String name,
+                                  LongConsumer handler,
+                                  int capacity,
+                                  int workers,
+                                  double ratePerSecond,
+                                  double burst,
+                                  MeterRegistry registry) {
+        this.name = name;
+        this.handler = handler;
+        this.capacity = Math.max(1, capacity);
+        this.workers = Math.max(1, workers);
+        this.rateLimiter = new TokenBucket(Math.max(1, burst), ratePerSecond);
+
+        if (registry != null) {
+            Gauge.builder(name + ".queue.depth", this, StickerSetRefreshQueue::depth)
+                    .description("Стикерсеты, ожидающие обновления кэша Telegram")
+                    .register(registry);
+            Gauge.builder(name + ".in_progress", this, StickerSetRefreshQueue::inProgressCount)
+                    .description("Стикерсеты, обновляемые прямо сейчас")
+                    .register(registry);
+            this.completedCounter = registry.counter(name + ".completed");
+            this.failedCounter = registry.counter(name + ".failed");
+            this.rateLimitedCounter = registry.counter(name + ".rate_limited");
+            this.rejectedCounter = registry.counter(name + ".rejected");
+        } else {
+            this.completedCounter = null;
+            this.failedCounter = null;
+            this.rateLimitedCounter = null;
+            this.rejectedCounter = null;
+        }
+    }
+
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::runWorker, name + "-" + (i + 1));
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        LOGGER.info("🔄 Очередь обновления кэша Telegram: workers={}, capacity={}", workers, capacity);
+    }
+
+    public void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        for (Thread thread : threads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        threads.clear();
+    }
+
+    /**
+     * Поставить стикерсет в очередь
+     *
+     * @return false, если очередь заполнена задачами не ниже по приоритету
+     */
+    public boolean submit(long stickersetId, Priority priority) {
+        lock.lock();
+        try {
+            if (inProgress.contains(stickersetId)) {
+                return true;
+            }
+            Task existing = pending.get(stickersetId);
+            if (existing != null) {
+                if (priority.compareTo(existing.priority()) < 0) {
+                    ordered.remove(existing);
+                    enqueue(new Task(stickersetId, priority, existing.seq()));
+                }
+                return true;
+            }
+            if (pending.size() >= capacity) {
+                Task lowest = ordered.last();
+                if (priority.compareTo(lowest.priority()) >= 0) {
+                    increment(rejectedCounter);
+                    return false;
+                }
+                ordered.remove(lowest);
+                pending.remove(lowest.stickersetId());
+                increment(rejectedCounter);
+                LOGGER.debug("⏏️ Очередь обновления заполнена: стикерсет {} ({}) вытеснен", lowest.stickersetId(), lowest.priority());
+            }
+            enqueue(new Task(stickersetId, priority, nextSeq++));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int depth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inProgressCount() {
+        lock.lock();
+        try {
+            return inProgress.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Обработать одну задачу в вызывающем потоке, если очередь не пуста
+     */
+    boolean processNext() throws InterruptedException {
+        Task task = take(0);
+        if (task == null) {
+            return false;
+        }
+        process(task);
+        return true;
+    }
+
+    private void runWorker() {
+        while (running) {
+            try {
+                Task task = take(TimeUnit.SECONDS.toNanos(1));
+                if (task != null) {
+                    process(task);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("⚠️ Ошибка в очереди обновления кэша Telegram: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private Task take(long timeoutNanos) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            long remaining = timeoutNanos;
+            while (ordered.isEmpty()) {
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            Task task = ordered.pollFirst();
+            pending.remove(task.stickersetId());
+            inProgress.add(task.stickersetId());
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void process(Task task) throws InterruptedException {
+        boolean requeue = false;
+        try {
+            awaitPause();
+            rateLimiter.acquire(1);
+            handler.accept(task.stickersetId());
+            increment(completedCounter);
+        } catch (TelegramRateLimitException e) {
+            increment(rateLimitedCounter);
+            pauseFor(Duration.ofSeconds(Math.max(0, e.getRetryAfterSeconds())));
+            LOGGER.warn("⏳ Telegram 429 при обновлении стикерсета {}: пауза {} с", task.stickersetId(), e.getRetryAfterSeconds());
+            requeue = true;
+        } catch (InterruptedException e) {
+            requeue = true;
+            throw e;
+        } catch (RuntimeException e) {
+            increment(failedCounter);
+            LOGGER.warn("⚠️ Не удалось обновить кэш Telegram для стикерсета {}: {}", task.stickersetId(), e.getMessage());
+        } finally {
+            finish(task, requeue);
+        }
+    }
+
+    private void finish(Task task, boolean requeue) {
+        lock.lock();
+        try {
+            inProgress.remove(task.stickersetId());
+            if (!requeue) {
+                return;
+            }
+            // Пока задача выполнялась, её могли поставить заново - оставляем более важную из двух
+            Task queued = pending.get(task.stickersetId());
+            if (queued != null) {
+                if (ORDER.compare(task, queued) >= 0) {
+                    return;
+                }
+                ordered.remove(queued);
+            }
+            enqueue(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(Task task) {
+        ordered.add(task);
+        pending.put(task.stickersetId(), task);
+        notEmpty.signal();
+    }
+
+    private void pauseFor(Duration pause) {
+        long until = System.nanoTime() + pause.toNanos();
+        pausedUntilNanos.accumulateAndGet(until, (current, next) -> next - current > 0 ? next : current);
+    }
+
+    private void awaitPause() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = pausedUntilNanos.get() - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
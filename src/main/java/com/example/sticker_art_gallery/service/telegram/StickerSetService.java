@@ -13,15 +13,20 @@ import com.example.sticker_art_gallery.model.telegram.StickerSetType;
 import com.example.sticker_art_gallery.service.category.CategoryService;
 import com.example.sticker_art_gallery.service.profile.ArtRewardService;
 import com.example.sticker_art_gallery.service.LikeService;
+import com.example.sticker_art_gallery.service.StickerSetListingCache;
+import com.example.sticker_art_gallery.util.KeysetCursor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import com.example.sticker_art_gallery.util.TransactionCallbacks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import jakarta.transaction.Transactional;
@@ -38,6 +43,9 @@ public class StickerSetService {
     private final StickerSetVisibilityService visibilityService;
     private final StickerSetEnrichmentService enrichmentService;
     private final StickerSetTelegramCacheService stickerSetTelegramCacheService;
+    private final StickerSetPageLoader pageLoader;
+    private final StickerSetKeysetQuery keysetQuery;
+    private final StickerSetListingCache listingCache;
     private LikeService likeService; // Lazy injection to avoid circular dependency
 
     @Autowired
@@ -48,7 +56,10 @@ public class StickerSetService {
                              StickerSetCrudService crudService,
                              StickerSetVisibilityService visibilityService,
                              StickerSetEnrichmentService enrichmentService,
-                             StickerSetTelegramCacheService stickerSetTelegramCacheService) {
+                             StickerSetTelegramCacheService stickerSetTelegramCacheService,
+                             StickerSetPageLoader pageLoader,
+                             StickerSetKeysetQuery keysetQuery,
+                             StickerSetListingCache listingCache) {
         this.stickerSetRepository = stickerSetRepository;
         this.telegramBotApiService = telegramBotApiService;
         this.categoryService = categoryService;
@@ -57,6 +68,9 @@ public class StickerSetService {
         this.visibilityService = visibilityService;
         this.enrichmentService = enrichmentService;
         this.stickerSetTelegramCacheService = stickerSetTelegramCacheService;
+        this.pageLoader = pageLoader;
+        this.keysetQuery = keysetQuery;
+        this.listingCache = listingCache;
     }
     
     @Autowired(required = false)
@@ -247,6 +261,8 @@ public class StickerSetService {
             stickerSetTelegramCacheService.save(createdStickerSet.getId(), stickerSetName, telegramStickerSetInfo);
         } catch (Exception e) {
             LOGGER.warn("⚠️ Не удалось сохранить кеш Telegram payload для стикерсета {}: {}", stickerSetName, e.getMessage());
+            Long createdId = createdStickerSet.getId();
+            TransactionCallbacks.afterCommit(() -> stickerSetTelegramCacheService.scheduleRefresh(createdId, StickerSetRefreshQueue.Priority.MISSING));
         }
         return createdStickerSet;
     }
@@ -316,6 +332,9 @@ public class StickerSetService {
         }
         
         StickerSet savedSet = stickerSetRepository.save(existing);
+        if (savedSet.isVisibleInGallery()) {
+            listingCache.invalidate();
+        }
         LOGGER.info("✅ Восстановлен стикерсет: ID={}, Name={}, UserId={}, Visibility={}", 
                 savedSet.getId(), savedSet.getName(), userId, savedSet.getVisibility());
 
@@ -323,6 +342,8 @@ public class StickerSetService {
             stickerSetTelegramCacheService.save(savedSet.getId(), stickerSetName, telegramStickerSetInfo);
         } catch (Exception e) {
             LOGGER.warn("⚠️ Не удалось обновить кеш Telegram payload при восстановлении {}: {}", stickerSetName, e.getMessage());
+            Long restoredId = savedSet.getId();
+            TransactionCallbacks.afterCommit(() -> stickerSetTelegramCacheService.scheduleRefresh(restoredId, StickerSetRefreshQueue.Priority.MISSING));
         }
         
         // НЕ начисляем ART - это восстановление, не новый стикерсет
@@ -368,6 +389,9 @@ public class StickerSetService {
         }
 
         StickerSet savedSet = stickerSetRepository.save(stickerSet);
+        if (savedSet.isVisibleInGallery()) {
+            listingCache.invalidate();
+        }
         LOGGER.info("📦 Создан стикерсет: ID={}, Title='{}', Name='{}', UserId={}, Visibility={}, Categories={}", 
                 savedSet.getId(), title, name, userId, savedSet.getVisibility(),
                 savedSet.getCategories() != null ? savedSet.getCategories().size() : 0);
@@ -602,7 +626,12 @@ public class StickerSetService {
                                                              StickerSetType type, Long userId, Boolean isVerified, boolean shortInfo, boolean preview) {
         LOGGER.debug("📋 Получение стикерсетов с пагинацией: page={}, size={}, language={}, shortInfo={}, preview={}, type={}, userId={}, isVerified={}",
                 pageRequest.getPage(), pageRequest.getSize(), language, shortInfo, preview, type, userId, isVerified);
-        Page<StickerSet> stickerSetsPage = stickerSetRepository.findPublicNotBlockedFiltered(type, userId, isVerified, pageRequest.toPageable());
+        if (pageRequest.isCursorMode()) {
+            return findByKeyset(StickerSetKeysetQuery.Filter.gallery(type, userId, isVerified, null),
+                    pageRequest, language, currentUserId, shortInfo, preview);
+        }
+        Page<StickerSet> stickerSetsPage = pageLoader.load(
+                stickerSetRepository.findPublicNotBlockedFilteredIds(type, userId, isVerified, pageRequest.toPageable()));
         List<StickerSetDto> enrichedDtos = enrichWithBotApiDataAndCategories(stickerSetsPage.getContent(), language, currentUserId, shortInfo, preview, false);
         return PageResponse.of(stickerSetsPage, enrichedDtos);
     }
@@ -655,7 +684,13 @@ public class StickerSetService {
 
         Set<String> normalizedCategoryKeys = (categoryKeys == null || categoryKeys.isEmpty()) ? null : categoryKeys;
 
-        Page<StickerSet> stickerSetsPage = stickerSetRepository.findUserStickerSetsFiltered(
+        if (pageRequest.isCursorMode()) {
+            return findByKeyset(StickerSetKeysetQuery.Filter.owner(userId, visibilityFilter.name(), includeBlocked, type, isVerified,
+                            normalizedCategoryKeys, likedOnly ? currentUserId : null),
+                    pageRequest, lang, currentUserId, shortInfo, preview);
+        }
+
+        Page<StickerSet> stickerSetsPage = pageLoader.load(stickerSetRepository.findUserStickerSetIdsFiltered(
                 userId,
                 visibilityFilter.name(),
                 type,
@@ -665,7 +700,7 @@ public class StickerSetService {
                 currentUserId,
                 includeBlocked,
                 pageRequest.toPageable()
-        );
+        ));
 
         List<StickerSetDto> enrichedDtos = enrichWithBotApiDataAndCategories(stickerSetsPage.getContent(), lang, currentUserId, shortInfo, preview, false);
 
@@ -700,13 +735,13 @@ public class StickerSetService {
 
         Set<String> normalizedCategoryKeys = (categoryKeys == null || categoryKeys.isEmpty()) ? null : categoryKeys;
 
-        Page<StickerSet> stickerSetsPage = stickerSetRepository.findVerifiedOwnerStickerSetsFiltered(
+        Page<StickerSet> stickerSetsPage = pageLoader.load(stickerSetRepository.findVerifiedOwnerStickerSetIdsFiltered(
                 userId,
                 visibilityFilter.name(),
                 type,
                 normalizedCategoryKeys,
                 pageRequest.toPageable()
-        );
+        ));
 
         List<StickerSetDto> enrichedDtos = enrichWithBotApiDataAndCategories(stickerSetsPage.getContent(), lang, currentUserId, shortInfo, preview, false);
 
@@ -742,9 +777,9 @@ public class StickerSetService {
     public PageResponse<StickerSetDto> findByCategoryKeys(String[] categoryKeys, PageRequest pageRequest, String language, Long currentUserId, StickerSetType type, boolean shortInfo, boolean preview) {
         LOGGER.debug("🏷️ Получение стикерсетов по категориям {} с пагинацией: page={}, size={}, type={}, shortInfo={}, preview={}", 
                 String.join(",", categoryKeys), pageRequest.getPage(), pageRequest.getSize(), type, shortInfo, preview);
-        Page<StickerSet> stickerSetsPage = type == StickerSetType.OFFICIAL
-                ? stickerSetRepository.findByCategoryKeysPublicNotBlockedAndOfficial(categoryKeys, pageRequest.toPageable())
-                : stickerSetRepository.findByCategoryKeysPublicAndNotBlocked(categoryKeys, pageRequest.toPageable());
+        Page<StickerSet> stickerSetsPage = pageLoader.load(type == StickerSetType.OFFICIAL
+                ? stickerSetRepository.findIdsByCategoryKeysPublicNotBlockedAndOfficial(categoryKeys, pageRequest.toPageable())
+                : stickerSetRepository.findIdsByCategoryKeysPublicAndNotBlocked(categoryKeys, pageRequest.toPageable()));
         List<StickerSetDto> enrichedDtos = enrichWithBotApiDataAndCategories(stickerSetsPage.getContent(), language, currentUserId, shortInfo, preview, false);
         return PageResponse.of(stickerSetsPage, enrichedDtos);
     }
@@ -766,11 +801,39 @@ public class StickerSetService {
                                                           StickerSetType type, Long userId, Boolean isVerified, boolean shortInfo, boolean preview) {
         LOGGER.debug("🏷️ Получение стикерсетов по категориям {} с пагинацией: page={}, size={}, shortInfo={}, preview={}, type={}, userId={}, isVerified={}",
                 String.join(",", categoryKeys), pageRequest.getPage(), pageRequest.getSize(), shortInfo, preview, type, userId, isVerified);
-        Page<StickerSet> stickerSetsPage = stickerSetRepository.findByCategoryKeysPublicNotBlockedFiltered(categoryKeys, type, userId, isVerified, pageRequest.toPageable());
+        if (pageRequest.isCursorMode()) {
+            return findByKeyset(StickerSetKeysetQuery.Filter.gallery(type, userId, isVerified, List.of(categoryKeys)),
+                    pageRequest, language, currentUserId, shortInfo, preview);
+        }
+        Page<StickerSet> stickerSetsPage = pageLoader.load(
+                stickerSetRepository.findIdsByCategoryKeysPublicNotBlockedFiltered(categoryKeys, type, userId, isVerified, pageRequest.toPageable()));
         List<StickerSetDto> enrichedDtos = enrichWithBotApiDataAndCategories(stickerSetsPage.getContent(), language, currentUserId, shortInfo, preview, false);
         return PageResponse.of(stickerSetsPage, enrichedDtos);
     }
     
+    /**
+     * Страница в режиме курсора: keyset-выборка ID без OFFSET и COUNT, затем загрузка и обогащение наборов.
+     * nextCursor строится по последнему набору страницы.
+     */
+    public PageResponse<StickerSetDto> findByKeyset(StickerSetKeysetQuery.Filter filter, PageRequest pageRequest, String language,
+                                                    Long currentUserId, boolean shortInfo, boolean preview) {
+        String sort = pageRequest.getSort();
+        KeysetCursor after = KeysetCursor.decode(pageRequest.getCursor(), sort, pageRequest.getDirection());
+        boolean descending = !"ASC".equalsIgnoreCase(pageRequest.getDirection());
+        StickerSetKeysetQuery.Slice slice = keysetQuery.findIds(filter, sort, descending, after, pageRequest.getSize());
+
+        List<StickerSet> stickerSets = pageLoader.loadAll(slice.ids());
+        List<StickerSetDto> enrichedDtos = enrichWithBotApiDataAndCategories(stickerSets, language, currentUserId, shortInfo, preview, false);
+
+        String nextCursor = null;
+        if (slice.hasNext() && !stickerSets.isEmpty()) {
+            StickerSet last = stickerSets.get(stickerSets.size() - 1);
+            nextCursor = new KeysetCursor(sort, descending ? "DESC" : "ASC",
+                    StickerSetKeysetQuery.sortValue(last, sort), String.valueOf(last.getId())).encode();
+        }
+        return PageResponse.ofCursor(enrichedDtos, pageRequest.getSize(), after == null, nextCursor);
+    }
+    
     /**
      * Получить стикерсет по ID с обогащением данных Bot API
      * Если Bot API недоступен, возвращает стикерсет без обогащения
@@ -944,6 +1007,14 @@ public class StickerSetService {
     public StickerSet updateCategories(Long stickerSetId, Set<String> categoryKeys) {
         return crudService.updateCategories(stickerSetId, categoryKeys);
     }
+
+    public int updateCategoriesBulk(Map<Long, Set<String>> categoryKeysByStickerSetId) {
+        return crudService.updateCategoriesBulk(categoryKeysByStickerSetId);
+    }
+
+    public List<StickerSet> findAllByIds(Collection<Long> ids) {
+        return crudService.findAllByIds(ids);
+    }
     
     public List<StickerSetDto> enrichWithBotApiDataAndCategories(List<StickerSet> stickerSets, String language, Long currentUserId, boolean shortInfo) {
         return enrichWithBotApiDataAndCategories(stickerSets, language, currentUserId, shortInfo, false, false);
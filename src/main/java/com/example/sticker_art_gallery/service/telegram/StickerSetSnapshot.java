@@ -0,0 +1,115 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Разобранное один раз состояние стикерсета из ответа Telegram {@code getStickerSet}:
+ * title и file_id стикеров в порядке набора. Живёт в пределах одной операции
+ * (например, сохранения стикера), чтобы не запрашивать и не парсить набор на каждом шаге.
+ */
+public final class StickerSetSnapshot {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String name;
+    private final String title;
+    private final List<String> fileIds;
+    private final Object payload;
+
+    private StickerSetSnapshot(String name, String title, List<String> fileIds, Object payload) {
+        this.name = name;
+        this.title = title;
+        this.fileIds = fileIds;
+        this.payload = payload;
+    }
+
+    /**
+     * @param payload содержимое {@code result} ответа getStickerSet (как возвращает {@link TelegramBotApiService#getStickerSetInfo})
+     * @return снапшот или null, если payload пустой
+     */
+    @SuppressWarnings("unchecked")
+    public static StickerSetSnapshot fromPayload(String name, Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        Map<String, Object> map = payload instanceof Map<?, ?>
+                ? (Map<String, Object>) payload
+                : OBJECT_MAPPER.convertValue(payload, Map.class);
+
+        Object rawTitle = map.get("title");
+        List<String> fileIds = new ArrayList<>();
+        if (map.get("stickers") instanceof List<?> stickers) {
+            for (Object sticker : stickers) {
+                // Берём основной file_id стикера, игнорируя thumbnail/thumb
+                if (sticker instanceof Map<?, ?> stickerMap && stickerMap.get("file_id") != null) {
+                    fileIds.add(stickerMap.get("file_id").toString());
+                }
+            }
+        }
+        return new StickerSetSnapshot(
+                name,
+                rawTitle != null ? rawTitle.toString() : null,
+                Collections.unmodifiableList(fileIds),
+                payload);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String title() {
+        return title;
+    }
+
+    public List<String> fileIds() {
+        return fileIds;
+    }
+
+    public int stickerCount() {
+        return fileIds.size();
+    }
+
+    /**
+     * Исходный payload (для сохранения в persistent cache)
+     */
+    public Object payload() {
+        return payload;
+    }
+
+    public String fileIdAt(int index) {
+        return index >= 0 && index < fileIds.size() ? fileIds.get(index) : null;
+    }
+
+    /**
+     * Индекс стикера, появившегося по сравнению с {@code before}, или -1.
+     * Telegram добавляет стикер в конец набора, поэтому сначала проверяется последний элемент -
+     * это остаётся верным, даже если {@code before} немного устарел.
+     */
+    public int indexOfAddedSince(StickerSetSnapshot before) {
+        if (fileIds.isEmpty()) {
+            return -1;
+        }
+        Set<String> previous = before != null ? new HashSet<>(before.fileIds) : Collections.emptySet();
+        int last = fileIds.size() - 1;
+        if (!previous.contains(fileIds.get(last))) {
+            return last;
+        }
+        for (int i = 0; i < fileIds.size(); i++) {
+            if (!previous.contains(fileIds.get(i))) {
+                return i;
+            }
+        }
+        // Фоллбек: если не нашли отличия, но размер увеличился на 1 — берём последний
+        if (before != null && fileIds.size() == before.fileIds.size() + 1) {
+            return last;
+        }
+        return -1;
+    }
+}
@@ -6,18 +6,29 @@ import com.example.sticker_art_gallery.repository.StickerSetRepository;
 import com.example.sticker_art_gallery.repository.StickerSetTelegramCacheRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.sticker_art_gallery.model.telegram.StickerSetState;
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
-import java.util.concurrent.Executor;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class StickerSetTelegramCacheService {
@@ -28,8 +39,11 @@ public class StickerSetTelegramCacheService {
     private final StickerSetRepository stickerSetRepository;
     private final TelegramBotApiService telegramBotApiService;
     private final ObjectMapper objectMapper;
-    private final Executor stickerCacheRefreshExecutor;
-    private final Set<Long> refreshInFlight = ConcurrentHashMap.newKeySet();
+    /** Фоновые обновления: дедупликация, приоритеты, лимит запросов к Telegram и пауза по 429 */
+    private final StickerSetRefreshQueue refreshQueue;
+    private final Counter notFoundCounter;
+    /** Показы карточек с момента последнего прогрева - сигнал популярности для {@link StickerSetTelegramCacheWarmer} */
+    private final ConcurrentHashMap<Long, LongAdder> recentViews = new ConcurrentHashMap<>();
     private final long refreshAfterDays;
 
     public StickerSetTelegramCacheService(
@@ -37,14 +51,32 @@ public class StickerSetTelegramCacheService {
             StickerSetRepository stickerSetRepository,
             TelegramBotApiService telegramBotApiService,
             ObjectMapper objectMapper,
-            @Qualifier("stickerCacheRefreshExecutor") Executor stickerCacheRefreshExecutor,
-            @Value("${app.sticker-cache.refresh-after-days:7}") long refreshAfterDays) {
+            ObjectProvider<MeterRegistry> meterRegistryProvider,
+            @Value("${app.sticker-cache.refresh-after-days:7}") long refreshAfterDays,
+            @Value("${app.sticker-cache.refresh.rate-per-second:5}") double ratePerSecond,
+            @Value("${app.sticker-cache.refresh.burst:10}") double burst,
+            @Value("${app.sticker-cache.refresh.queue-capacity:5000}") int queueCapacity,
+            @Value("${app.sticker-cache.refresh.workers:2}") int workers) {
         this.cacheRepository = cacheRepository;
         this.stickerSetRepository = stickerSetRepository;
         this.telegramBotApiService = telegramBotApiService;
         this.objectMapper = objectMapper;
-        this.stickerCacheRefreshExecutor = stickerCacheRefreshExecutor;
         this.refreshAfterDays = refreshAfterDays;
+
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable();
+        this.refreshQueue = new StickerSetRefreshQueue("sticker.cache.refresh", this::refreshNow,
+                queueCapacity, workers, ratePerSecond, burst, registry);
+        this.notFoundCounter = registry != null ? registry.counter("sticker.cache.refresh.not_found") : null;
+    }
+
+    @PostConstruct
+    void start() {
+        refreshQueue.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        refreshQueue.stop();
     }
 
     public Optional<Object> getCachedPayload(Long stickersetId) {
@@ -58,6 +90,52 @@ public class StickerSetTelegramCacheService {
                 .orElse(true);
     }
 
+    /**
+     * Записи кэша для страницы галереи одним запросом вместо findById на каждый набор
+     */
+    public Map<Long, StickerSetTelegramCacheEntity> getCachedEntries(Collection<Long> stickersetIds) {
+        if (stickersetIds.isEmpty()) {
+            return Map.of();
+        }
+        stickersetIds.forEach(id -> recentViews.computeIfAbsent(id, key -> new LongAdder()).increment());
+        return cacheRepository.findAllById(stickersetIds).stream()
+                .collect(Collectors.toMap(StickerSetTelegramCacheEntity::getStickersetId, Function.identity()));
+    }
+
+    /**
+     * Забирает накопленные показы и обнуляет счётчики
+     */
+    public Map<Long, Long> drainRecentViews() {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Long id : recentViews.keySet()) {
+            LongAdder views = recentViews.remove(id);
+            if (views != null) {
+                drained.put(id, views.sum());
+            }
+        }
+        return drained;
+    }
+
+    public Optional<Object> getPayload(StickerSetTelegramCacheEntity cache) {
+        return deserializePayload(cache.getStickersetId(), cache.getTelegramPayload());
+    }
+
+    /**
+     * Сохранённый JSON без разбора: Jackson пишет его в ответ как есть.
+     * Колонка jsonb гарантирует валидность, поэтому повторная проверка не нужна.
+     */
+    public Optional<RawValue> getRawPayload(StickerSetTelegramCacheEntity cache) {
+        String payload = cache.getTelegramPayload();
+        if (payload == null || payload.isBlank() || "null".equals(payload)) {
+            return Optional.empty();
+        }
+        return Optional.of(new RawValue(payload));
+    }
+
+    public boolean isStale(StickerSetTelegramCacheEntity cache) {
+        return cache.getRefreshAfter().isBefore(OffsetDateTime.now());
+    }
+
     public void scheduleRefreshIfNeeded(Long stickersetId) {
         if (stickersetId == null) {
             return;
@@ -68,12 +146,30 @@ public class StickerSetTelegramCacheService {
             return;
         }
 
-        if (!refreshInFlight.add(stickersetId)) {
-            LOGGER.debug("⏳ Refresh already in progress for stickerset {}", stickersetId);
-            return;
-        }
+        scheduleRefresh(stickersetId);
+    }
 
-        stickerCacheRefreshExecutor.execute(() -> refreshNow(stickersetId));
+    /**
+     * Фоновое обновление устаревшей записи без повторной проверки - для вызывающих, у которых запись кэша уже на руках
+     */
+    public void scheduleRefresh(Long stickersetId) {
+        scheduleRefresh(stickersetId, StickerSetRefreshQueue.Priority.STALE);
+    }
+
+    /**
+     * Поставить стикерсет в очередь обновления с заданным приоритетом
+     *
+     * @return false, если очередь заполнена и задача отклонена
+     */
+    public boolean scheduleRefresh(Long stickersetId, StickerSetRefreshQueue.Priority priority) {
+        if (stickersetId == null) {
+            return true;
+        }
+        boolean accepted = refreshQueue.submit(stickersetId, priority);
+        if (!accepted) {
+            LOGGER.debug("⏳ Refresh queue is full, stickerset {} ({}) skipped", stickersetId, priority);
+        }
+        return accepted;
     }
 
     @Transactional
@@ -107,6 +203,10 @@ public class StickerSetTelegramCacheService {
 
         stickerSetRepository.findById(stickersetId).ifPresent(stickerSet -> {
             boolean updated = false;
+            if (stickerSet.getTelegramMissingAt() != null) {
+                stickerSet.setTelegramMissingAt(null);
+                updated = true;
+            }
             String title = telegramBotApiService.extractTitleFromStickerSetInfo(telegramPayload);
             if (title != null && !title.equals(stickerSet.getTitle())) {
                 stickerSet.setTitle(title);
@@ -124,20 +224,30 @@ public class StickerSetTelegramCacheService {
         LOGGER.debug("💾 Saved telegram cache for stickerset {} ({})", stickersetId, stickersetName);
     }
 
-    public void refreshNow(Long stickersetId) {
+    /**
+     * Обновить кэш одного стикерсета. {@link TelegramRateLimitException} и прочие ошибки пробрасываются
+     * (очередь повторяет задачу после retry_after или учитывает сбой); отсутствие набора в Telegram -
+     * конечное состояние: набор помечается telegram_missing_at и больше не запрашивается.
+     */
+    public void refreshNow(long stickersetId) {
+        StickerSet stickerSet = stickerSetRepository.findById(stickersetId).orElse(null);
+        if (stickerSet == null || stickerSet.getState() != StickerSetState.ACTIVE || stickerSet.getTelegramMissingAt() != null) {
+            return;
+        }
+
+        Object payload;
         try {
-            StickerSet stickerSet = stickerSetRepository.findById(stickersetId).orElse(null);
-            if (stickerSet == null) {
-                return;
+            payload = telegramBotApiService.getStickerSetInfo(stickerSet.getName());
+        } catch (TelegramStickerSetNotFoundException e) {
+            if (stickerSetRepository.markTelegramMissing(stickersetId, LocalDateTime.now()) > 0) {
+                LOGGER.warn("🚫 Стикерсет {} ({}) не найден в Telegram, помечен для проверки", stickersetId, stickerSet.getName());
+                if (notFoundCounter != null) {
+                    notFoundCounter.increment();
+                }
             }
-
-            Object payload = telegramBotApiService.getStickerSetInfo(stickerSet.getName());
-            save(stickersetId, stickerSet.getName(), payload);
-        } catch (Exception e) {
-            LOGGER.warn("⚠️ Failed to refresh telegram cache for stickerset {}: {}", stickersetId, e.getMessage());
-        } finally {
-            refreshInFlight.remove(stickersetId);
+            return;
         }
+        save(stickersetId, stickerSet.getName(), payload);
     }
 
     private Optional<Object> deserializePayload(Long stickersetId, String payload) {
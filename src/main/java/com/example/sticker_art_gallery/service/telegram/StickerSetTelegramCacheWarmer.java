@@ -0,0 +1,129 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.example.sticker_art_gallery.repository.StickerSetTelegramCacheRepository;
+import com.example.sticker_art_gallery.repository.projection.StickerSetWarmupCandidateProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Упреждающий прогрев stickerset_telegram_cache, чтобы карточки не отдавались с пустым
+ * telegramStickerSetInfo после истечения refresh_after.
+ *
+ * Раз в interval-ms выбирает активные стикерсеты без кэша или с refresh_after в пределах
+ * lookahead-hours и ставит в фоновое обновление не больше max-refreshes-per-run из них.
+ * Порядок: сначала без кэша, затем по недавним показам (с затуханием между прогонами),
+ * лайкам и новизне.
+ */
+@Component
+public class StickerSetTelegramCacheWarmer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StickerSetTelegramCacheWarmer.class);
+
+    /**
+     * Сколько кандидатов читать из БД на один слот бюджета: остальные ранжируются по показам в памяти
+     */
+    private static final int CANDIDATES_PER_SLOT = 10;
+
+    private final StickerSetTelegramCacheRepository cacheRepository;
+    private final StickerSetTelegramCacheService cacheService;
+    private final boolean enabled;
+    private final int maxRefreshesPerRun;
+    private final Duration lookahead;
+
+    /** Показы с затуханием: на каждом прогоне прежнее значение делится пополам */
+    private final Map<Long, Long> viewScores = new HashMap<>();
+
+    public StickerSetTelegramCacheWarmer(
+            StickerSetTelegramCacheRepository cacheRepository,
+            StickerSetTelegramCacheService cacheService,
+            @Value("${app.sticker-cache.warmer.enabled:true}") boolean enabled,
+            @Value("${app.sticker-cache.warmer.max-refreshes-per-run:100}") int maxRefreshesPerRun,
+            @Value("${app.sticker-cache.warmer.lookahead-hours:24}") long lookaheadHours) {
+        this.cacheRepository = cacheRepository;
+        this.cacheService = cacheService;
+        this.enabled = enabled;
+        this.maxRefreshesPerRun = maxRefreshesPerRun;
+        this.lookahead = Duration.ofHours(lookaheadHours);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sticker-cache.warmer.interval-ms:300000}",
+               initialDelayString = "${app.sticker-cache.warmer.initial-delay-ms:60000}")
+    public void scheduledWarmUp() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            warmUp();
+        } catch (Exception e) {
+            LOGGER.warn("⚠️ Прогрев кэша Telegram payload не выполнен: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Один прогон прогрева
+     *
+     * @return сколько стикерсетов поставлено в обновление
+     */
+    public synchronized int warmUp() {
+        updateViewScores(cacheService.drainRecentViews());
+        if (maxRefreshesPerRun <= 0) {
+            return 0;
+        }
+
+        List<StickerSetWarmupCandidateProjection> candidates = cacheRepository.findWarmupCandidates(
+                OffsetDateTime.now().plus(lookahead), PageRequest.of(0, maxRefreshesPerRun * CANDIDATES_PER_SLOT));
+        List<StickerSetWarmupCandidateProjection> prioritized = prioritize(candidates);
+
+        int scheduled = 0;
+        int missing = 0;
+        for (StickerSetWarmupCandidateProjection candidate : prioritized) {
+            if (scheduled >= maxRefreshesPerRun) {
+                break;
+            }
+            if (!cacheService.scheduleRefresh(candidate.getId(), StickerSetRefreshQueue.Priority.WARMUP)) {
+                LOGGER.info("⏳ Очередь обновления кэша заполнена, прогрев продолжится в следующий прогон");
+                break;
+            }
+            scheduled++;
+            if (candidate.getRefreshAfter() == null) {
+                missing++;
+            }
+        }
+
+        if (scheduled > 0) {
+            LOGGER.info("🔥 Прогрев кэша Telegram payload: поставлено {} (без кэша: {}), кандидатов {}",
+                    scheduled, missing, candidates.size());
+        }
+        return scheduled;
+    }
+
+    /**
+     * Без кэша - первыми; далее по недавним показам. Порядок из БД (лайки, новизна) сохраняется
+     * как вторичный, так как сортировка устойчивая.
+     */
+    private List<StickerSetWarmupCandidateProjection> prioritize(List<StickerSetWarmupCandidateProjection> candidates) {
+        List<StickerSetWarmupCandidateProjection> ordered = new ArrayList<>(candidates);
+        ordered.sort(Comparator
+                .comparing((StickerSetWarmupCandidateProjection c) -> c.getRefreshAfter() != null)
+                .thenComparing(c -> viewScores.getOrDefault(c.getId(), 0L), Comparator.reverseOrder()));
+        return ordered;
+    }
+
+    private void updateViewScores(Map<Long, Long> recentViews) {
+        viewScores.replaceAll((id, score) -> score / 2);
+        viewScores.values().removeIf(score -> score == 0);
+        recentViews.forEach((id, views) -> viewScores.merge(id, views, Long::sum));
+    }
+}
@@ -6,6 +6,8 @@ import com.example.sticker_art_gallery.model.telegram.StickerSetType;
 import com.example.sticker_art_gallery.model.telegram.StickerSetVisibility;
 import com.example.sticker_art_gallery.repository.ArtTransactionRepository;
 import com.example.sticker_art_gallery.repository.StickerSetRepository;
+import com.example.sticker_art_gallery.service.StickerSetListingCache;
+import com.example.sticker_art_gallery.service.StickerSetTopLikesIndex;
 import com.example.sticker_art_gallery.service.profile.ArtRewardService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,14 +25,20 @@ public class StickerSetVisibilityService {
     private final StickerSetRepository stickerSetRepository;
     private final ArtRewardService artRewardService;
     private final ArtTransactionRepository artTransactionRepository;
+    private final StickerSetTopLikesIndex topLikesIndex;
+    private final StickerSetListingCache listingCache;
     
     @Autowired
     public StickerSetVisibilityService(StickerSetRepository stickerSetRepository,
                                       ArtRewardService artRewardService,
-                                      ArtTransactionRepository artTransactionRepository) {
+                                      ArtTransactionRepository artTransactionRepository,
+                                      StickerSetTopLikesIndex topLikesIndex,
+                                      StickerSetListingCache listingCache) {
         this.stickerSetRepository = stickerSetRepository;
         this.artRewardService = artRewardService;
         this.artTransactionRepository = artTransactionRepository;
+        this.topLikesIndex = topLikesIndex;
+        this.listingCache = listingCache;
     }
     
     /**
@@ -50,6 +58,8 @@ public class StickerSetVisibilityService {
         // Меняем видимость
         stickerSet.setVisibility(StickerSetVisibility.PUBLIC);
         StickerSet saved = stickerSetRepository.save(stickerSet);
+        topLikesIndex.update(saved);
+        listingCache.invalidate();
         
         // Начисляем ART за ПЕРВУЮ публикацию этого name
         String stickerName = stickerSet.getName();
@@ -94,6 +104,8 @@ public class StickerSetVisibilityService {
         // Меняем видимость
         stickerSet.setVisibility(StickerSetVisibility.PRIVATE);
         StickerSet saved = stickerSetRepository.save(stickerSet);
+        topLikesIndex.update(saved);
+        listingCache.invalidate();
         LOGGER.info("✅ Стикерсет ID={} сделан приватным", id);
         
         return saved;
@@ -119,6 +131,9 @@ public class StickerSetVisibilityService {
         stickerSet.markAsBlocked(reason); // state -> BLOCKED, blockReason -> reason
         
         StickerSet savedStickerSet = stickerSetRepository.save(stickerSet);
+        
+        topLikesIndex.update(savedStickerSet);
+        listingCache.invalidate();
         LOGGER.info("✅ Стикерсет {} успешно заблокирован", stickerSetId);
         
         return savedStickerSet;
@@ -139,6 +154,9 @@ public class StickerSetVisibilityService {
             stickerSet.setBlockReason(null);
             
             StickerSet savedStickerSet = stickerSetRepository.save(stickerSet);
+            
+            topLikesIndex.update(savedStickerSet);
+            listingCache.invalidate();
             LOGGER.info("✅ Стикерсет {} успешно разблокирован", stickerSetId);
             
             return savedStickerSet;
@@ -159,6 +177,8 @@ public class StickerSetVisibilityService {
         
         stickerSet.setType(StickerSetType.OFFICIAL);
         StickerSet saved = stickerSetRepository.save(stickerSet);
+        topLikesIndex.update(saved);
+        listingCache.invalidate();
         LOGGER.info("✅ Стикерсет {} отмечен как официальный", stickerSetId);
         return saved;
     }
@@ -175,6 +195,8 @@ public class StickerSetVisibilityService {
         
         stickerSet.setType(StickerSetType.USER);
         StickerSet saved = stickerSetRepository.save(stickerSet);
+        topLikesIndex.update(saved);
+        listingCache.invalidate();
         LOGGER.info("✅ Стикерсет {} отмечен как неофициальный", stickerSetId);
         return saved;
     }
@@ -1,5 +1,6 @@
 package com.example.sticker_art_gallery.service.telegram;
 
+import com.example.sticker_art_gallery.service.metrics.RemoteCallMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.FileSystemResource;
@@ -26,6 +27,10 @@ public class TelegramApiService {
     private final RestTemplate restTemplate = new RestTemplate();
     private String botToken;
     
+    public TelegramApiService(RemoteCallMetrics remoteCallMetrics) {
+        restTemplate.getInterceptors().add(remoteCallMetrics.interceptor());
+    }
+    
     public void setBotToken(String botToken) {
         this.botToken = botToken;
     }
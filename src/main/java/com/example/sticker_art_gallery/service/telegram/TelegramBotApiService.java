@@ -1,6 +1,8 @@
 package com.example.sticker_art_gallery.service.telegram;
 
 import com.example.sticker_art_gallery.config.AppConfig;
+import com.example.sticker_art_gallery.service.metrics.RemoteCallMetrics;
+import com.example.sticker_art_gallery.util.SingleFlight;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -8,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -30,32 +33,80 @@ import java.util.Map;
 public class TelegramBotApiService {
     
     private static final Logger LOGGER = LoggerFactory.getLogger(TelegramBotApiService.class);
-    private static final String TELEGRAM_API_URL = "https://api.telegram.org/bot";
+    private static final String DEFAULT_API_BASE_URL = "https://api.telegram.org";
+    private static final String STICKERSET_INVALID = "STICKERSET_INVALID";
     
     private final RestTemplate restTemplate;
     private final AppConfig appConfig;
     private final ObjectMapper objectMapper;
+    private final TelegramSendScheduler sendScheduler;
+    /** Одновременные getStickerSet по одному имени схлопываются в один HTTP-запрос */
+    private final SingleFlight<String, Object> stickerSetFetches = new SingleFlight<>();
     
     @Autowired
-    public TelegramBotApiService(AppConfig appConfig, ObjectMapper objectMapper) {
-        this(appConfig, objectMapper, new RestTemplate());
+    public TelegramBotApiService(AppConfig appConfig, ObjectMapper objectMapper, TelegramSendScheduler sendScheduler,
+                                 RemoteCallMetrics remoteCallMetrics) {
+        this(appConfig, objectMapper, instrumentedRestTemplate(remoteCallMetrics), sendScheduler);
     }
 
     TelegramBotApiService(AppConfig appConfig, ObjectMapper objectMapper, RestTemplate restTemplate) {
+        this(appConfig, objectMapper, restTemplate, TelegramSendScheduler.unthrottled());
+    }
+
+    TelegramBotApiService(AppConfig appConfig, ObjectMapper objectMapper, RestTemplate restTemplate,
+                          TelegramSendScheduler sendScheduler) {
         this.restTemplate = restTemplate;
         this.appConfig = appConfig;
         this.objectMapper = objectMapper;
+        this.sendScheduler = sendScheduler;
+    }
+
+    private static RestTemplate instrumentedRestTemplate(RemoteCallMetrics remoteCallMetrics) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(remoteCallMetrics.interceptor());
+        return restTemplate;
     }
     
     /**
      * Получает информацию о стикерсете через Telegram Bot API
-     * Результат кэшируется в Caffeine на 15 минут
+     * Результат кэшируется в Caffeine на 15 минут. Одновременные запросы одного набора
+     * (в том числе мимо кэша - внутренние вызовы) разделяют один HTTP-запрос к Telegram.
      * 
      * @param stickerSetName имя стикерсета
      * @return JSON объект с информацией о стикерсете или null если ошибка
      */
     @Cacheable(value = "stickerSetInfo", key = "#stickerSetName", unless = "#result == null")
     public Object getStickerSetInfo(String stickerSetName) {
+        return stickerSetFetches.execute(stickerSetName, () -> fetchStickerSetInfo(stickerSetName));
+    }
+
+    /**
+     * Потоки, ожидающие уже идущий getStickerSet этого набора
+     */
+    int stickerSetFetchWaiters(String stickerSetName) {
+        return stickerSetFetches.waiters(stickerSetName);
+    }
+
+    /**
+     * Актуальное состояние стикерсета для чтения перед записью и сразу после неё (addStickerToSet,
+     * createNewStickerSet). Идёт в Telegram мимо кэша и мимо SingleFlight: общий с другими вызовами
+     * запрос мог стартовать до записи и вернуть прежний список стикеров. Результат кладётся в кэш
+     * stickerSetInfo поверх старого payload; если набора больше нет, запись кэша удаляется.
+     *
+     * @param stickerSetName имя стикерсета
+     * @return JSON объект с информацией о стикерсете
+     */
+    @CachePut(value = "stickerSetInfo", key = "#stickerSetName", unless = "#result == null")
+    public Object getStickerSetInfoFresh(String stickerSetName) {
+        try {
+            return fetchStickerSetInfo(stickerSetName);
+        } catch (TelegramStickerSetNotFoundException e) {
+            evictStickerSetCache(stickerSetName);
+            throw e;
+        }
+    }
+
+    private Object fetchStickerSetInfo(String stickerSetName) {
         try {
             LOGGER.debug("🔍 Получение информации о стикерсете '{}' (запрос к Telegram API)", stickerSetName);
             
@@ -67,7 +118,7 @@ public class TelegramBotApiService {
             }
             
             // Формируем URL для запроса
-            String url = TELEGRAM_API_URL + botToken + "/getStickerSet?name=" + stickerSetName;
+            String url = apiUrl() + botToken + "/getStickerSet?name=" + stickerSetName;
             
             LOGGER.debug("🌐 Отправляем запрос к Telegram Bot API: {}", url.replace(botToken, "***"));
             
@@ -90,6 +141,9 @@ public class TelegramBotApiService {
                         ? responseJson.get("description").asText() 
                         : "Unknown error";
                     LOGGER.warn("❌ Ошибка от Telegram Bot API для стикерсета '{}': {}", stickerSetName, errorDescription);
+                    if (errorDescription.contains(STICKERSET_INVALID)) {
+                        throw new TelegramStickerSetNotFoundException(stickerSetName, null);
+                    }
                     throw new RuntimeException("Telegram API error: " + errorDescription);
                 }
             } else {
@@ -97,6 +151,17 @@ public class TelegramBotApiService {
                 throw new RuntimeException("HTTP error: " + response.getStatusCode());
             }
             
+        } catch (TelegramStickerSetNotFoundException e) {
+            throw e;
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw rateLimited("getStickerSet", e);
+        } catch (HttpClientErrorException.BadRequest e) {
+            if (e.getResponseBodyAsString().contains(STICKERSET_INVALID)) {
+                LOGGER.warn("❌ Стикерсет '{}' не найден в Telegram", stickerSetName);
+                throw new TelegramStickerSetNotFoundException(stickerSetName, e);
+            }
+            LOGGER.error("❌ Ошибка сетевого запроса к Telegram Bot API для стикерсета '{}': {}", stickerSetName, e.getMessage());
+            throw new RuntimeException("Network error while fetching sticker set info", e);
         } catch (RestClientException e) {
             LOGGER.error("❌ Ошибка сетевого запроса к Telegram Bot API для стикерсета '{}': {}", stickerSetName, e.getMessage());
             throw new RuntimeException("Network error while fetching sticker set info", e);
@@ -154,7 +219,7 @@ public class TelegramBotApiService {
             
             // Формируем URL для запроса getChatMember
             // Используем getChatMember с chat_id = user_id для получения информации о пользователе
-            String url = TELEGRAM_API_URL + botToken + "/getChatMember?chat_id=" + userId + "&user_id=" + userId;
+            String url = apiUrl() + botToken + "/getChatMember?chat_id=" + userId + "&user_id=" + userId;
             
             LOGGER.debug("🌐 Отправляем запрос к Telegram Bot API: {}", url.replace(botToken, "***"));
             
@@ -231,7 +296,7 @@ public class TelegramBotApiService {
             }
             
             // Формируем URL для запроса getUserProfilePhotos
-            String url = TELEGRAM_API_URL + botToken + "/getUserProfilePhotos?user_id=" + userId + "&limit=1";
+            String url = apiUrl() + botToken + "/getUserProfilePhotos?user_id=" + userId + "&limit=1";
             
             LOGGER.debug("🌐 Отправляем запрос к Telegram Bot API: {}", url.replace(botToken, "***"));
             
@@ -286,7 +351,30 @@ public class TelegramBotApiService {
     public void evictAllUserProfilePhotosCache() {
         LOGGER.info("🗑️ Очистка всего кэша фото профилей");
     }
-    
+
+    /**
+     * Скачивает файл по file_id: getFile для получения file_path, затем загрузка с файлового сервера Bot API
+     *
+     * @param fileId file_id из ответа Telegram (фото профиля, стикер)
+     * @return байты файла
+     * @throws RuntimeException если файл не найден или загрузка не удалась
+     */
+    public byte[] downloadFile(String fileId) {
+        JsonNode file = callTelegramApi("getFile", Map.of("file_id", fileId));
+        String filePath = file.path("file_path").asText(null);
+        if (filePath == null || filePath.isBlank()) {
+            throw new RuntimeException("Telegram getFile returned no file_path for " + fileId);
+        }
+
+        String url = fileUrl() + appConfig.getTelegram().getBotToken() + "/" + filePath;
+        byte[] bytes = restTemplate.getForObject(url, byte[].class);
+        if (bytes == null || bytes.length == 0) {
+            throw new RuntimeException("Telegram file server returned empty body for " + filePath);
+        }
+        LOGGER.debug("📥 Скачан файл Telegram {} ({} байт)", filePath, bytes.length);
+        return bytes;
+    }
+
     /**
      * Проверяет существование стикерсета в Telegram и возвращает его информацию
      * Используется для валидации перед добавлением в базу данных
@@ -410,7 +498,7 @@ public class TelegramBotApiService {
                 throw new IllegalArgumentException("Токен бота не настроен");
             }
 
-            String url = TELEGRAM_API_URL + botToken + "/createNewStickerSet";
+            String url = apiUrl() + botToken + "/createNewStickerSet";
             
             LOGGER.info("🎯 Создаем стикерсет: {} | Title: {} | UserId: {} | Emoji: {}", name, title, userId, emoji);
             LOGGER.info("📁 Файл стикера: {} | Размер: {} bytes | Существует: {}", 
@@ -474,7 +562,7 @@ public class TelegramBotApiService {
                 throw new IllegalArgumentException("Токен бота не настроен");
             }
 
-            String url = TELEGRAM_API_URL + botToken + "/addStickerToSet";
+            String url = apiUrl() + botToken + "/addStickerToSet";
             
             LOGGER.info("➕ Добавляем стикер к стикерсету: {} | UserId: {} | Emoji: {}", name, userId, emoji);
             
@@ -532,7 +620,7 @@ public class TelegramBotApiService {
                 throw new IllegalArgumentException("Токен бота не настроен");
             }
 
-            String url = TELEGRAM_API_URL + botToken + "/deleteStickerFromSet";
+            String url = apiUrl() + botToken + "/deleteStickerFromSet";
             
             LOGGER.info("🗑️ Удаляем стикер из стикерсета: fileId={} | UserId: {}", stickerFileId, userId);
             
@@ -603,26 +691,8 @@ public class TelegramBotApiService {
      */
     public java.util.List<String> getStickerFileIdsInOrder(String stickerSetName) {
         try {
-            Object stickerSetInfo = getStickerSetInfo(stickerSetName);
-            if (stickerSetInfo == null) {
-                return null;
-            }
-
-            JsonNode root = objectMapper.valueToTree(stickerSetInfo);
-            if (!root.has("stickers") || !root.get("stickers").isArray()) {
-                return null;
-            }
-
-            JsonNode stickers = root.get("stickers");
-            java.util.List<String> result = new java.util.ArrayList<>();
-            for (JsonNode sticker : stickers) {
-                JsonNode fileIdNode = sticker.get("file_id");
-                if (fileIdNode != null && !fileIdNode.isNull()) {
-                    result.add(fileIdNode.asText());
-                }
-            }
-
-            return result;
+            StickerSetSnapshot snapshot = StickerSetSnapshot.fromPayload(stickerSetName, getStickerSetInfo(stickerSetName));
+            return snapshot != null ? snapshot.fileIds() : null;
         } catch (Exception e) {
             LOGGER.error("❌ Ошибка при получении списка file_id стикеров: {}", e.getMessage(), e);
             return null;
@@ -642,50 +712,17 @@ public class TelegramBotApiService {
         try {
             LOGGER.info("🔍 Получаем file_id стикера из стикерсета: '{}' | Индекс: {}", stickerSetName, stickerIndex);
 
-            String botToken = appConfig.getTelegram().getBotToken();
-            if (botToken == null || botToken.trim().isEmpty()) {
-                LOGGER.warn("⚠️ Токен бота не настроен в конфигурации");
-                throw new IllegalArgumentException("Токен бота не настроен");
-            }
-
-            String url = TELEGRAM_API_URL + botToken + "/getStickerSet?name=" + stickerSetName;
-            LOGGER.info("🌐 Запрос к Telegram API: {}", url.replace(botToken, "***"));
-
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-
-            String responseBody = response.getBody();
-            LOGGER.info("📬 Ответ от Telegram API: Status={} | Body={}",
-                    response.getStatusCode(),
-                    responseBody != null ? responseBody.substring(0, Math.min(200, responseBody.length())) + "..." : "null");
-
-            if (!response.getStatusCode().is2xxSuccessful() || responseBody == null) {
-                return null;
-            }
-
-            JsonNode root = objectMapper.readTree(responseBody);
-            if (!root.has("ok") || !root.get("ok").asBoolean()) {
-                return null;
-            }
-
-            JsonNode result = root.get("result");
-            if (result == null || !result.has("stickers")) {
+            StickerSetSnapshot snapshot = StickerSetSnapshot.fromPayload(stickerSetName, getStickerSetInfo(stickerSetName));
+            if (snapshot == null) {
                 return null;
             }
 
-            JsonNode stickers = result.get("stickers");
-            if (!stickers.isArray() || stickers.size() <= stickerIndex) {
+            String fileId = snapshot.fileIdAt(stickerIndex);
+            if (fileId == null) {
                 LOGGER.warn("⚠️ Стикер с индексом {} не найден в массиве stickers", stickerIndex);
                 return null;
             }
 
-            JsonNode sticker = stickers.get(stickerIndex);
-            JsonNode fileIdNode = sticker.get("file_id");
-            if (fileIdNode == null || fileIdNode.isNull()) {
-                LOGGER.warn("⚠️ Поле file_id у стикера с индексом {} отсутствует", stickerIndex);
-                return null;
-            }
-
-            String fileId = fileIdNode.asText();
             LOGGER.info("✅ Найден основной file_id стикера: {}", fileId);
             return fileId;
 
@@ -704,13 +741,17 @@ public class TelegramBotApiService {
      * @return message_id отправленного сообщения или -1 при ошибке
      */
     public int sendMessage(Long chatId, String text, String parseMode) {
+        return sendScheduler.send(chatId, () -> doSendMessage(chatId, text, parseMode));
+    }
+
+    private int doSendMessage(Long chatId, String text, String parseMode) {
         try {
             String botToken = appConfig.getTelegram().getBotToken();
             if (botToken == null || botToken.trim().isEmpty()) {
                 throw new IllegalStateException("Токен бота не настроен (app.telegram.bot-token)");
             }
 
-            String url = TELEGRAM_API_URL + botToken + "/sendMessage";
+            String url = apiUrl() + botToken + "/sendMessage";
 
             java.util.Map<String, Object> requestBody = new java.util.LinkedHashMap<>();
             requestBody.put("chat_id", chatId);
@@ -741,6 +782,8 @@ public class TelegramBotApiService {
                 throw new RuntimeException("Telegram sendMessage error: " + desc);
             }
             throw new RuntimeException("HTTP error: " + response.getStatusCode());
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw rateLimited("sendMessage", e);
         } catch (RestClientException e) {
             LOGGER.error("❌ Network error in sendMessage: chatId={}, error={}", chatId, e.getMessage());
             throw new RuntimeException("Network error in sendMessage", e);
@@ -768,8 +811,7 @@ public class TelegramBotApiService {
         if (messageThreadId != null) {
             payload.put("message_thread_id", messageThreadId);
         }
-        JsonNode result = callTelegramApi("sendMessage", payload);
-        return result.path("message_id").asInt(-1);
+        return sendToChat(chatId, "sendMessage", payload);
     }
 
     public int sendSticker(Long chatId, String stickerFileId, Object replyMarkup, Integer messageThreadId) {
@@ -782,8 +824,7 @@ public class TelegramBotApiService {
         if (messageThreadId != null) {
             payload.put("message_thread_id", messageThreadId);
         }
-        JsonNode result = callTelegramApi("sendSticker", payload);
-        return result.path("message_id").asInt(-1);
+        return sendToChat(chatId, "sendSticker", payload);
     }
 
     public int sendPhoto(Long chatId, String photoFileId, String caption, String parseMode, Object replyMarkup, Integer messageThreadId) {
@@ -802,8 +843,7 @@ public class TelegramBotApiService {
         if (messageThreadId != null) {
             payload.put("message_thread_id", messageThreadId);
         }
-        JsonNode result = callTelegramApi("sendPhoto", payload);
-        return result.path("message_id").asInt(-1);
+        return sendToChat(chatId, "sendPhoto", payload);
     }
 
     public int sendDocument(Long chatId, String documentFileId, String caption, String parseMode, Object replyMarkup, Integer messageThreadId) {
@@ -822,8 +862,7 @@ public class TelegramBotApiService {
         if (messageThreadId != null) {
             payload.put("message_thread_id", messageThreadId);
         }
-        JsonNode result = callTelegramApi("sendDocument", payload);
-        return result.path("message_id").asInt(-1);
+        return sendToChat(chatId, "sendDocument", payload);
     }
 
     public int sendVoice(Long chatId, String voiceFileId, String caption, String parseMode, Object replyMarkup, Integer messageThreadId) {
@@ -842,8 +881,7 @@ public class TelegramBotApiService {
         if (messageThreadId != null) {
             payload.put("message_thread_id", messageThreadId);
         }
-        JsonNode result = callTelegramApi("sendVoice", payload);
-        return result.path("message_id").asInt(-1);
+        return sendToChat(chatId, "sendVoice", payload);
     }
 
     public int sendVideo(Long chatId, String videoFileId, String caption, String parseMode, Object replyMarkup, Integer messageThreadId) {
@@ -862,8 +900,7 @@ public class TelegramBotApiService {
         if (messageThreadId != null) {
             payload.put("message_thread_id", messageThreadId);
         }
-        JsonNode result = callTelegramApi("sendVideo", payload);
-        return result.path("message_id").asInt(-1);
+        return sendToChat(chatId, "sendVideo", payload);
     }
 
     public void answerCallbackQuery(String callbackQueryId, String text, Boolean showAlert) {
@@ -945,7 +982,8 @@ public class TelegramBotApiService {
         if (replyMarkup != null) {
             payload.put("reply_markup", replyMarkup);
         }
-        callTelegramApi("editMessageText", payload);
+        // Правка меню - ответ на нажатие кнопки в потоке webhook: без ожидания per-chat лимита, 429 - вызывающему
+        sendScheduler.sendInteractive(chatId, () -> callTelegramApi("editMessageText", payload));
     }
 
     public ChannelMembershipStatus getRequiredChannelMembershipStatus(Long userId) {
@@ -970,23 +1008,55 @@ public class TelegramBotApiService {
         try {
             JsonNode result = callTelegramApi("getChatMember", payload);
             String status = result.path("status").asText("");
-            if ("member".equals(status)
-                    || "administrator".equals(status)
-                    || "creator".equals(status)
-                    || "restricted".equals(status)) {
-                return ChannelMembershipStatus.SUBSCRIBED;
+            ChannelMembershipStatus membershipStatus = ChannelMembershipStatus.fromChatMemberStatus(status);
+            if (membershipStatus == ChannelMembershipStatus.UNKNOWN) {
+                LOGGER.warn("⚠️ Неизвестный статус участника канала: userId={}, status={}", userId, status);
             }
-            if ("left".equals(status) || "kicked".equals(status)) {
-                return ChannelMembershipStatus.NOT_SUBSCRIBED;
-            }
-            LOGGER.warn("⚠️ Неизвестный статус участника канала: userId={}, status={}", userId, status);
-            return ChannelMembershipStatus.UNKNOWN;
+            return membershipStatus;
         } catch (RuntimeException e) {
             LOGGER.warn("⚠️ Не удалось проверить подписку на канал: userId={}, error={}", userId, e.getMessage());
             return ChannelMembershipStatus.UNKNOWN;
         }
     }
 
+    /**
+     * Отправка в чат через {@link TelegramSendScheduler}: с учётом глобального и per-chat лимитов и retry_after
+     */
+    private int sendToChat(Long chatId, String method, java.util.Map<String, Object> payload) {
+        JsonNode result = sendScheduler.send(chatId, () -> callTelegramApi(method, payload));
+        return result.path("message_id").asInt(-1);
+    }
+
+    /**
+     * {base}/bot - префикс методов Bot API; base берётся из app.telegram.api-base-url (эмулятор в нагрузочных тестах)
+     */
+    private String apiUrl() {
+        return apiBaseUrl() + "/bot";
+    }
+
+    private String fileUrl() {
+        return apiBaseUrl() + "/file/bot";
+    }
+
+    private String apiBaseUrl() {
+        String base = appConfig.getTelegram() != null ? appConfig.getTelegram().getApiBaseUrl() : null;
+        if (base == null || base.isBlank()) {
+            return DEFAULT_API_BASE_URL;
+        }
+        return base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+    }
+
+    private TelegramRateLimitException rateLimited(String method, HttpClientErrorException.TooManyRequests e) {
+        int retryAfter = 1;
+        try {
+            JsonNode root = objectMapper.readTree(e.getResponseBodyAsString());
+            retryAfter = root.path("parameters").path("retry_after").asInt(retryAfter);
+        } catch (Exception parseError) {
+            LOGGER.debug("Не удалось разобрать тело 429 от Telegram: {}", parseError.getMessage());
+        }
+        return new TelegramRateLimitException(method, retryAfter, e);
+    }
+
     private JsonNode callTelegramApi(String method, java.util.Map<String, Object> requestBody) {
         try {
             String botToken = appConfig.getTelegram().getBotToken();
@@ -994,7 +1064,7 @@ public class TelegramBotApiService {
                 throw new IllegalStateException("Токен бота не настроен (app.telegram.bot-token)");
             }
 
-            String url = TELEGRAM_API_URL + botToken + "/" + method;
+            String url = apiUrl() + botToken + "/" + method;
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             String jsonBody = objectMapper.writeValueAsString(requestBody != null ? requestBody : java.util.Map.of());
@@ -1012,6 +1082,8 @@ public class TelegramBotApiService {
             }
 
             return root.path("result");
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw rateLimited(method, e);
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -1037,7 +1109,7 @@ public class TelegramBotApiService {
                 throw new IllegalArgumentException("Токен бота не настроен");
             }
 
-            String url = TELEGRAM_API_URL + botToken + "/createInvoiceLink";
+            String url = apiUrl() + botToken + "/createInvoiceLink";
             
             LOGGER.info("💳 Создаем invoice link: title={}, payload={}, currency={}, prices={}", 
                     title, payload, currency, prices.size());
@@ -1152,6 +1224,22 @@ public class TelegramBotApiService {
     public enum ChannelMembershipStatus {
         SUBSCRIBED,
         NOT_SUBSCRIBED,
-        UNKNOWN
+        UNKNOWN;
+
+        /**
+         * Статус из поля {@code status} объекта ChatMember (getChatMember и update chat_member)
+         */
+        public static ChannelMembershipStatus fromChatMemberStatus(String status) {
+            if ("member".equals(status)
+                    || "administrator".equals(status)
+                    || "creator".equals(status)
+                    || "restricted".equals(status)) {
+                return SUBSCRIBED;
+            }
+            if ("left".equals(status) || "kicked".equals(status)) {
+                return NOT_SUBSCRIBED;
+            }
+            return UNKNOWN;
+        }
     }
 }
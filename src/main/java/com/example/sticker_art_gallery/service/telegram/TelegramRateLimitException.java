@@ -0,0 +1,18 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+/**
+ * Telegram ответил 429 Too Many Requests; {@code retryAfterSeconds} - значение {@code parameters.retry_after}
+ */
+public class TelegramRateLimitException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public TelegramRateLimitException(String method, int retryAfterSeconds, Throwable cause) {
+        super("Telegram API " + method + " rate limited: retry after " + retryAfterSeconds + "s", cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.example.sticker_art_gallery.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Планировщик исходящих отправок в чаты Telegram: перед вызовом Bot API поток ждёт разрешения
+ * глобального лимита бота (~30 сообщений/с) и лимита конкретного чата (1 сообщение/с, для групп ещё 20/мин).
+ * На 429 выдерживается {@code retry_after} для чата и вызов повторяется.
+ * <p>
+ * Две полосы: {@link Lane#TRANSACTIONAL} (ответы пользователю, по умолчанию) резервирует глобальный токен сразу
+ * и встаёт в очередь первой; {@link Lane#BULK} (рассылки) берёт токен, только если он свободен и
+ * транзакционных ожидающих нет. Полоса задаётся для текущего потока через {@link #inLane}.
+ * <p>
+ * {@link Lane#INTERACTIVE} (правка меню бота на нажатие кнопки, {@link #sendInteractive}) не ждёт вовсе: вызов идёт
+ * из потока webhook, поэтому per-chat лимит к нему не применяется, а 429 или действующая пауза чата
+ * сразу пробрасываются вызывающему как {@link TelegramRateLimitException}.
+ */
+@Component
+public class TelegramSendScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TelegramSendScheduler.class);
+
+    public enum Lane {
+        INTERACTIVE,
+        TRANSACTIONAL,
+        BULK
+    }
+
+    private static final ThreadLocal<Lane> CURRENT_LANE = new ThreadLocal<>();
+
+    private final boolean throttled;
+    private final TokenBucket global;
+    private final long bulkPollNanos;
+    private final double chatPerSecond;
+    private final double groupPerMinute;
+    private final int maxAttempts;
+    private final Cache<Long, ChatLimiter> chats;
+    private final AtomicInteger transactionalWaiting = new AtomicInteger();
+    private final Map<Lane, LaneMetrics> metrics = new EnumMap<>(Lane.class);
+
+    @Autowired
+    public TelegramSendScheduler(
+            @Value("${app.telegram.send.global-per-second:30}") double globalPerSecond,
+            @Value("${app.telegram.send.chat-per-second:1}") double chatPerSecond,
+            @Value("${app.telegram.send.group-per-minute:20}") double groupPerMinute,
+            @Value("${app.telegram.send.max-attempts:3}") int maxAttempts,
+            ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this(true, globalPerSecond, chatPerSecond, groupPerMinute, maxAttempts, meterRegistryProvider.getIfAvailable());
+    }
+
+    private TelegramSendScheduler(boolean throttled, double globalPerSecond, double chatPerSecond,
+                                  double groupPerMinute, int maxAttempts, MeterRegistry registry) {
+        this.throttled = throttled;
+        this.global = new TokenBucket(globalPerSecond, globalPerSecond);
+        this.bulkPollNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), (long) (TimeUnit.SECONDS.toNanos(1) / globalPerSecond));
+        this.chatPerSecond = chatPerSecond;
+        this.groupPerMinute = groupPerMinute;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.chats = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(2))
+                .build();
+        for (Lane lane : Lane.values()) {
+            metrics.put(lane, new LaneMetrics(registry, lane));
+        }
+    }
+
+    /**
+     * Планировщик без ограничений (для unit-тестов клиентов Bot API)
+     */
+    public static TelegramSendScheduler unthrottled() {
+        return new TelegramSendScheduler(false, 1_000, 1_000, 60_000, 1, null);
+    }
+
+    /**
+     * Выполнить {@code body} так, что все отправки текущего потока внутри идут по полосе {@code lane}
+     */
+    public <T> T inLane(Lane lane, Supplier<T> body) {
+        Lane previous = CURRENT_LANE.get();
+        CURRENT_LANE.set(lane);
+        try {
+            return body.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_LANE.remove();
+            } else {
+                CURRENT_LANE.set(previous);
+            }
+        }
+    }
+
+    public Lane currentLane() {
+        Lane lane = CURRENT_LANE.get();
+        return lane != null ? lane : Lane.TRANSACTIONAL;
+    }
+
+    /**
+     * Выполнить отправку в чат с соблюдением лимитов; на {@link TelegramRateLimitException} ждёт retry_after и повторяет
+     */
+    public <T> T send(Long chatId, Supplier<T> call) {
+        if (!throttled) {
+            return call.get();
+        }
+        Lane lane = currentLane();
+        if (lane == Lane.INTERACTIVE) {
+            return sendInteractive(chatId, call);
+        }
+        LaneMetrics laneMetrics = metrics.get(lane);
+        for (int attempt = 1; ; attempt++) {
+            acquire(lane, chatId, laneMetrics);
+            try {
+                return call.get();
+            } catch (TelegramRateLimitException e) {
+                laneMetrics.rateLimited();
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                LOGGER.warn("⏳ Telegram 429 для чата {}: ждём {} с (полоса {}, попытка {}/{})",
+                        chatId, e.getRetryAfterSeconds(), lane, attempt, maxAttempts);
+                limiterFor(chatId).pauseFor(Duration.ofSeconds(Math.max(1, e.getRetryAfterSeconds())));
+            }
+        }
+    }
+
+    /**
+     * Отправка без ожидания (полоса {@link Lane#INTERACTIVE}): глобальный токен берётся, только если свободен,
+     * per-chat лимит не применяется. Если чат на паузе после 429 или Telegram ответил 429 - исключение
+     * сразу уходит вызывающему, а пауза чата учитывается остальными полосами.
+     */
+    public <T> T sendInteractive(Long chatId, Supplier<T> call) {
+        if (!throttled) {
+            return call.get();
+        }
+        LaneMetrics laneMetrics = metrics.get(Lane.INTERACTIVE);
+        ChatLimiter limiter = chatId != null ? limiterFor(chatId) : null;
+        long pausedNanos = limiter != null ? limiter.pausedRemainingNanos() : 0;
+        if (pausedNanos > 0) {
+            laneMetrics.rateLimited();
+            throw new TelegramRateLimitException("chat " + chatId,
+                    (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(pausedNanos + TimeUnit.SECONDS.toNanos(1) - 1)), null);
+        }
+        global.tryAcquire(1);
+        laneMetrics.waited(0);
+        try {
+            return call.get();
+        } catch (TelegramRateLimitException e) {
+            laneMetrics.rateLimited();
+            if (limiter != null) {
+                limiter.pauseFor(Duration.ofSeconds(Math.max(1, e.getRetryAfterSeconds())));
+            }
+            throw e;
+        }
+    }
+
+    private void acquire(Lane lane, Long chatId, LaneMetrics laneMetrics) {
+        long startedAt = System.nanoTime();
+        if (chatId != null) {
+            limiterFor(chatId).acquire();
+        }
+        if (lane == Lane.TRANSACTIONAL) {
+            transactionalWaiting.incrementAndGet();
+            try {
+                sleepNanos(global.reserve(1));
+            } finally {
+                transactionalWaiting.decrementAndGet();
+            }
+        } else {
+            // Bulk не уходит в долг: ждёт, пока токен свободен и транзакционные отправки не ждут
+            while (transactionalWaiting.get() > 0 || !global.tryAcquire(1)) {
+                LockSupport.parkNanos(bulkPollNanos);
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted while waiting for Telegram send slot");
+                }
+            }
+        }
+        laneMetrics.waited(System.nanoTime() - startedAt);
+    }
+
+    private ChatLimiter limiterFor(Long chatId) {
+        return chats.get(chatId, id -> new ChatLimiter(
+                new TokenBucket(1, chatPerSecond),
+                // Отрицательный chat_id - группа/канал: дополнительно не больше group-per-minute в минуту
+                id < 0 ? new TokenBucket(groupPerMinute, groupPerMinute / 60.0) : null));
+    }
+
+    private static void sleepNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Telegram send slot", e);
+        }
+    }
+
+    private static final class ChatLimiter {
+
+        private final TokenBucket perSecond;
+        private final TokenBucket perMinute;
+        private volatile long pausedUntilNanos;
+
+        ChatLimiter(TokenBucket perSecond, TokenBucket perMinute) {
+            this.perSecond = perSecond;
+            this.perMinute = perMinute;
+        }
+
+        void pauseFor(Duration duration) {
+            pausedUntilNanos = Math.max(pausedUntilNanos, System.nanoTime() + duration.toNanos());
+        }
+
+        long pausedRemainingNanos() {
+            return pausedUntilNanos - System.nanoTime();
+        }
+
+        void acquire() {
+            sleepNanos(pausedUntilNanos - System.nanoTime());
+            sleepNanos(perSecond.reserve(1));
+            if (perMinute != null) {
+                sleepNanos(perMinute.reserve(1));
+            }
+        }
+    }
+
+    private static final class LaneMetrics {
+
+        private final Timer waitTimer;
+        private final Counter requestsCounter;
+        private final Counter rateLimitedCounter;
+
+        LaneMetrics(MeterRegistry registry, Lane lane) {
+            if (registry == null) {
+                this.waitTimer = null;
+                this.requestsCounter = null;
+                this.rateLimitedCounter = null;
+                return;
+            }
+            String tag = lane.name().toLowerCase();
+            this.waitTimer = Timer.builder("telegram.send.wait")
+                    .description("Ожидание слота отправки в Telegram")
+                    .tag("lane", tag)
+                    .register(registry);
+            this.requestsCounter = registry.counter("telegram.send.requests", "lane", tag);
+            this.rateLimitedCounter = registry.counter("telegram.send.rate_limited", "lane", tag);
+        }
+
+        void waited(long nanos) {
+            if (requestsCounter != null) {
+                requestsCounter.increment();
+            }
+            if (waitTimer != null) {
+                waitTimer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void rateLimited() {
+            if (rateLimitedCounter != null) {
+                rateLimitedCounter.increment();
+            }
+        }
+    }
+}
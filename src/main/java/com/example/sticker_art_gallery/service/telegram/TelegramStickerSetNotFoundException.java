@@ -0,0 +1,19 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+/**
+ * Telegram не знает стикерсет с таким именем (getStickerSet → {@code STICKERSET_INVALID}):
+ * набор удалён или переименован в Telegram, повторные запросы бессмысленны
+ */
+public class TelegramStickerSetNotFoundException extends RuntimeException {
+
+    private final String stickerSetName;
+
+    public TelegramStickerSetNotFoundException(String stickerSetName, Throwable cause) {
+        super("Telegram sticker set not found: " + stickerSetName, cause);
+        this.stickerSetName = stickerSetName;
+    }
+
+    public String getStickerSetName() {
+        return stickerSetName;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.sticker_art_gallery.service.telegram;
 
 import com.example.sticker_art_gallery.config.AppConfig;
+import com.example.sticker_art_gallery.service.metrics.RemoteCallMetrics;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -42,10 +43,12 @@ public class TelegramWebhookOwnershipService {
     private final ObjectMapper objectMapper;
     private final RestTemplate restTemplate;
 
-    public TelegramWebhookOwnershipService(AppConfig appConfig, ObjectMapper objectMapper) {
+    public TelegramWebhookOwnershipService(AppConfig appConfig, ObjectMapper objectMapper,
+                                           RemoteCallMetrics remoteCallMetrics) {
         this.appConfig = appConfig;
         this.objectMapper = objectMapper;
         this.restTemplate = new RestTemplate();
+        this.restTemplate.getInterceptors().add(remoteCallMetrics.interceptor());
     }
 
     /**
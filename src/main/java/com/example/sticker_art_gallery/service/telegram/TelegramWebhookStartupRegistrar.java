@@ -55,7 +55,8 @@ public class TelegramWebhookStartupRegistrar {
                 "callback_query",
                 "inline_query",
                 "chosen_inline_result",
-                "web_app_query"
+                "web_app_query",
+                "chat_member"
         );
 
         try {
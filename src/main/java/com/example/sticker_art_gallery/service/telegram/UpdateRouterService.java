@@ -58,6 +58,11 @@ public class UpdateRouterService {
             return;
         }
 
+        if (update.has("chat_member")) {
+            stickerGalleryFlowService.handleChatMemberUpdate(update.path("chat_member"));
+            return;
+        }
+
         if (update.has("callback_query")) {
             JsonNode callbackQuery = update.path("callback_query");
             if (supportBridgeService.handleSupportCallback(callbackQuery)) {
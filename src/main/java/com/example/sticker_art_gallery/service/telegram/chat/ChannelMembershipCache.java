@@ -0,0 +1,189 @@
+package com.example.sticker_art_gallery.service.telegram.chat;
+
+import com.example.sticker_art_gallery.config.AppConfig;
+import com.example.sticker_art_gallery.service.telegram.TelegramBotApiService;
+import com.example.sticker_art_gallery.service.telegram.TelegramBotApiService.ChannelMembershipStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Кэш подписки пользователей на обязательный канал, чтобы навигация по меню бота не ждала getChatMember.
+ *
+ * Подтверждённая подписка живёт subscribed-ttl и после refresh-after обновляется в фоне
+ * на membershipRefreshExecutor (пока идёт обновление, отдаётся прежний статус). Отсутствие подписки кэшируется коротко,
+ * UNKNOWN (ошибка Telegram) не кэшируется. Update chat_member из канала сразу перезаписывает статус.
+ */
+@Component
+public class ChannelMembershipCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChannelMembershipCache.class);
+
+    private final TelegramBotApiService telegramBotApiService;
+    private final AppConfig appConfig;
+    private final LoadingCache<Long, ChannelMembershipStatus> statuses;
+
+    @Autowired
+    public ChannelMembershipCache(
+            TelegramBotApiService telegramBotApiService,
+            AppConfig appConfig,
+            @Value("${app.telegram.membership-cache.subscribed-ttl-minutes:360}") long subscribedTtlMinutes,
+            @Value("${app.telegram.membership-cache.not-subscribed-ttl-seconds:30}") long notSubscribedTtlSeconds,
+            @Value("${app.telegram.membership-cache.refresh-after-minutes:30}") long refreshAfterMinutes,
+            @Value("${app.telegram.membership-cache.max-size:100000}") long maxSize,
+            @Qualifier("membershipRefreshExecutor") Executor refreshExecutor) {
+        this(telegramBotApiService, appConfig, Duration.ofMinutes(subscribedTtlMinutes),
+                Duration.ofSeconds(notSubscribedTtlSeconds), Duration.ofMinutes(refreshAfterMinutes), maxSize,
+                refreshExecutor);
+    }
+
+    ChannelMembershipCache(TelegramBotApiService telegramBotApiService,
+                           AppConfig appConfig,
+                           Duration subscribedTtl,
+                           Duration notSubscribedTtl,
+                           Duration refreshAfter,
+                           long maxSize,
+                           Executor refreshExecutor) {
+        this.telegramBotApiService = telegramBotApiService;
+        this.appConfig = appConfig;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new StatusExpiry(subscribedTtl.toNanos(), notSubscribedTtl.toNanos()))
+                .refreshAfterWrite(refreshAfter)
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(new MembershipLoader(telegramBotApiService));
+    }
+
+    /**
+     * Доля проверок подписки, обслуженных без обращения к Bot API
+     */
+    @Autowired(required = false)
+    void registerCacheMetrics(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, statuses, "channel_membership");
+    }
+
+    /**
+     * Статус подписки: из кэша, при промахе - синхронный getChatMember
+     */
+    public ChannelMembershipStatus getStatus(long userId) {
+        return statuses.get(userId);
+    }
+
+    /**
+     * Явная перепроверка (кнопка "Я подписался"): подтверждённая подписка берётся из кэша,
+     * иначе статус запрашивается у Telegram заново, минуя короткий отрицательный кэш
+     */
+    public ChannelMembershipStatus recheck(long userId) {
+        ChannelMembershipStatus cached = statuses.getIfPresent(userId);
+        if (cached == ChannelMembershipStatus.SUBSCRIBED) {
+            return cached;
+        }
+        ChannelMembershipStatus fresh = telegramBotApiService.getRequiredChannelMembershipStatus(userId);
+        store(userId, fresh);
+        return fresh;
+    }
+
+    /**
+     * Update chat_member: вступление/выход пользователя в обязательном канале
+     *
+     * @return true, если update относится к обязательному каналу и учтён
+     */
+    public boolean onChatMemberUpdate(JsonNode chatMember) {
+        if (!isRequiredChannel(chatMember.path("chat"))) {
+            return false;
+        }
+        JsonNode newMember = chatMember.path("new_chat_member");
+        long userId = newMember.path("user").path("id").asLong(-1);
+        if (userId <= 0) {
+            return false;
+        }
+        ChannelMembershipStatus status = ChannelMembershipStatus.fromChatMemberStatus(newMember.path("status").asText(""));
+        store(userId, status);
+        LOGGER.debug("📣 chat_member: userId={}, status={}", userId, status);
+        return true;
+    }
+
+    public void invalidate(long userId) {
+        statuses.invalidate(userId);
+    }
+
+    private void store(long userId, ChannelMembershipStatus status) {
+        if (status == ChannelMembershipStatus.UNKNOWN) {
+            statuses.invalidate(userId);
+        } else {
+            statuses.put(userId, status);
+        }
+    }
+
+    private boolean isRequiredChannel(JsonNode chat) {
+        AppConfig.Telegram telegram = appConfig.getTelegram();
+        if (telegram == null || chat.isMissingNode()) {
+            return false;
+        }
+        Long requiredId = telegram.getRequiredChannelId();
+        if (requiredId != null) {
+            return requiredId == chat.path("id").asLong();
+        }
+        String requiredUsername = telegram.getRequiredChannelUsername();
+        if (requiredUsername == null || requiredUsername.isBlank()) {
+            return false;
+        }
+        String normalized = requiredUsername.startsWith("@") ? requiredUsername.substring(1) : requiredUsername;
+        return normalized.equalsIgnoreCase(chat.path("username").asText(""));
+    }
+
+    /**
+     * При фоновом обновлении ошибка Telegram (UNKNOWN) не затирает известный статус
+     */
+    private record MembershipLoader(TelegramBotApiService telegramBotApiService)
+            implements CacheLoader<Long, ChannelMembershipStatus> {
+
+        @Override
+        public ChannelMembershipStatus load(Long userId) {
+            return telegramBotApiService.getRequiredChannelMembershipStatus(userId);
+        }
+
+        @Override
+        public ChannelMembershipStatus reload(Long userId, ChannelMembershipStatus oldValue) {
+            ChannelMembershipStatus status = load(userId);
+            return status == ChannelMembershipStatus.UNKNOWN ? oldValue : status;
+        }
+    }
+
+    private record StatusExpiry(long subscribedTtlNanos, long notSubscribedTtlNanos)
+            implements Expiry<Long, ChannelMembershipStatus> {
+
+        @Override
+        public long expireAfterCreate(Long userId, ChannelMembershipStatus status, long currentTime) {
+            return switch (status) {
+                case SUBSCRIBED -> subscribedTtlNanos;
+                case NOT_SUBSCRIBED -> notSubscribedTtlNanos;
+                case UNKNOWN -> 0;
+            };
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, ChannelMembershipStatus status, long currentTime, long currentDuration) {
+            return expireAfterCreate(userId, status, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, ChannelMembershipStatus status, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -26,15 +26,18 @@ public class StickerGalleryFlowService {
     private final StickerSetRepository stickerSetRepository;
     private final StickerSetService stickerSetService;
     private final TelegramBotApiService telegramBotApiService;
+    private final ChannelMembershipCache channelMembershipCache;
 
     public StickerGalleryFlowService(AppConfig appConfig,
                                      StickerSetRepository stickerSetRepository,
                                      StickerSetService stickerSetService,
-                                     TelegramBotApiService telegramBotApiService) {
+                                     TelegramBotApiService telegramBotApiService,
+                                     ChannelMembershipCache channelMembershipCache) {
         this.appConfig = appConfig;
         this.stickerSetRepository = stickerSetRepository;
         this.stickerSetService = stickerSetService;
         this.telegramBotApiService = telegramBotApiService;
+        this.channelMembershipCache = channelMembershipCache;
     }
 
     public void handleStart(JsonNode message) {
@@ -54,6 +57,15 @@ public class StickerGalleryFlowService {
         telegramBotApiService.sendMessage(chatId, "Диалог отменен. Используйте /start, чтобы начать заново.", null, null, null, null);
     }
 
+    /**
+     * Update chat_member: обновляет кэш подписки на обязательный канал
+     */
+    public void handleChatMemberUpdate(JsonNode chatMember) {
+        if (!channelMembershipCache.onChatMemberUpdate(chatMember)) {
+            LOGGER.debug("chat_member update ignored: chatId={}", chatMember.path("chat").path("id").asLong());
+        }
+    }
+
     public void handleIncomingSticker(JsonNode message) {
         String setName = message.path("sticker").path("set_name").asText(null);
         long chatId = message.path("chat").path("id").asLong();
@@ -109,7 +121,9 @@ public class StickerGalleryFlowService {
         long userId = callbackQuery.path("from").path("id").asLong();
         String firstName = callbackQuery.path("from").path("first_name").asText("друг");
         if (CHECK_CHANNEL_SUBSCRIPTION.equals(data)) {
-            TelegramBotApiService.ChannelMembershipStatus membershipStatus = getRequiredChannelMembershipStatus(userId);
+            TelegramBotApiService.ChannelMembershipStatus membershipStatus = isChannelSubscriptionRequired()
+                    ? channelMembershipCache.recheck(userId)
+                    : TelegramBotApiService.ChannelMembershipStatus.SUBSCRIBED;
             if (membershipStatus == TelegramBotApiService.ChannelMembershipStatus.SUBSCRIBED) {
                 showMainMenu(chatId, firstName, messageId);
                 telegramBotApiService.answerCallbackQuery(callbackId, "Подписка подтверждена", false);
@@ -237,7 +251,7 @@ public class StickerGalleryFlowService {
         if (!isChannelSubscriptionRequired()) {
             return TelegramBotApiService.ChannelMembershipStatus.SUBSCRIBED;
         }
-        return telegramBotApiService.getRequiredChannelMembershipStatus(userId);
+        return channelMembershipCache.getStatus(userId);
     }
 
     private String startText(String name) {
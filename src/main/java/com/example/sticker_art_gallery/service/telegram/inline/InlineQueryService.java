@@ -7,6 +7,7 @@ import com.example.sticker_art_gallery.service.telegram.StickerSetService;
 import com.example.sticker_art_gallery.service.telegram.TelegramBotApiService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -143,7 +144,10 @@ public class InlineQueryService {
             return fallbackFromTelegram(dto.getName());
         }
         try {
-            JsonNode info = objectMapper.valueToTree(telegramInfo);
+            // Без превью payload приходит сырым JSON (RawValue), valueToTree его не разбирает
+            JsonNode info = telegramInfo instanceof RawValue raw
+                    ? objectMapper.readTree(String.valueOf(raw.rawValue()))
+                    : objectMapper.valueToTree(telegramInfo);
             JsonNode stickers = info.path("stickers");
             if (stickers.isArray() && !stickers.isEmpty()) {
                 String fileId = stickers.get(0).path("file_id").asText(null);
@@ -0,0 +1,375 @@
+package com.example.sticker_art_gallery.service.user;
+
+import com.example.sticker_art_gallery.service.storage.ImageStorageService;
+import com.example.sticker_art_gallery.service.telegram.TelegramBotApiService;
+import com.example.sticker_art_gallery.util.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Аватары пользователей: фото профиля Telegram скачивается один раз (getUserProfilePhotos → getFile),
+ * уменьшается до квадратов фиксированных размеров и сохраняется в {@link ImageStorageService}.
+ *
+ * Отдаётся из памяти (Caffeine) или с диска; после refresh-after-days устаревший аватар
+ * продолжает отдаваться, а обновление идёт в фоне. Запись в памяти живёт до устаревания аватара, а устаревшая -
+ * refresh-retry-minutes: фоновое обновление ставится при загрузке записи с диска, то есть не чаще раза за этот
+ * интервал, а не на каждый запрос. Одновременные запросы одного пользователя
+ * схлопываются в одну загрузку, а число параллельных загрузок из Telegram ограничено.
+ */
+@Service
+public class UserAvatarService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserAvatarService.class);
+    private static final String CONTENT_TYPE = "image/jpeg";
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final TelegramBotApiService telegramBotApiService;
+    private final ImageStorageService imageStorageService;
+    private final Executor avatarRefreshExecutor;
+    private final List<Integer> sizes;
+    private final Duration refreshAfter;
+    private final Duration refreshRetry;
+    private final long retentionDays;
+    private final long fetchWaitMs;
+    private final Semaphore telegramPermits;
+    private final Cache<String, Avatar> avatars;
+    /** Пользователи без фото профиля: повторно спрашиваем Telegram не чаще missing-ttl */
+    private final Cache<Long, Boolean> missing;
+    private final SingleFlight<Long, Map<Integer, Avatar>> fetches = new SingleFlight<>();
+    private final Set<Long> refreshInFlight = ConcurrentHashMap.newKeySet();
+
+    public UserAvatarService(
+            TelegramBotApiService telegramBotApiService,
+            ImageStorageService imageStorageService,
+            @Qualifier("avatarRefreshExecutor") Executor avatarRefreshExecutor,
+            @Value("${app.avatars.sizes:64,128}") List<Integer> sizes,
+            @Value("${app.avatars.refresh-after-days:7}") long refreshAfterDays,
+            @Value("${app.avatars.retention-days:90}") long retentionDays,
+            @Value("${app.avatars.max-concurrent-fetches:4}") int maxConcurrentFetches,
+            @Value("${app.avatars.fetch-wait-ms:5000}") long fetchWaitMs,
+            @Value("${app.avatars.memory-cache-size:2000}") long memoryCacheSize,
+            @Value("${app.avatars.missing-ttl-minutes:60}") long missingTtlMinutes,
+            @Value("${app.avatars.refresh-retry-minutes:10}") long refreshRetryMinutes) {
+        if (sizes.isEmpty() || sizes.stream().anyMatch(size -> size <= 0)) {
+            throw new IllegalArgumentException("app.avatars.sizes must contain positive sizes");
+        }
+        this.telegramBotApiService = telegramBotApiService;
+        this.imageStorageService = imageStorageService;
+        this.avatarRefreshExecutor = avatarRefreshExecutor;
+        this.sizes = sizes.stream().distinct().sorted().toList();
+        this.refreshAfter = Duration.ofDays(refreshAfterDays);
+        this.refreshRetry = Duration.ofMinutes(Math.max(1, refreshRetryMinutes));
+        this.retentionDays = retentionDays;
+        this.fetchWaitMs = fetchWaitMs;
+        this.telegramPermits = new Semaphore(maxConcurrentFetches);
+        this.avatars = Caffeine.newBuilder()
+                .maximumSize(memoryCacheSize)
+                .expireAfter(new Expiry<String, Avatar>() {
+                    @Override
+                    public long expireAfterCreate(String key, Avatar avatar, long currentTime) {
+                        return timeToLive(avatar).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Avatar avatar, long currentTime, long currentDuration) {
+                        return timeToLive(avatar).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Avatar avatar, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(memoryCacheSize)
+                .expireAfterWrite(Duration.ofMinutes(missingTtlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Метрики кэшей аватаров в памяти; вызывается, только если в контексте есть MeterRegistry
+     */
+    @Autowired(required = false)
+    void registerCacheMetrics(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, avatars, "user_avatars");
+        CaffeineCacheMetrics.monitor(meterRegistry, missing, "user_avatars_missing");
+    }
+
+    /**
+     * Готовый аватар
+     *
+     * @param etag      ETag по хэшу содержимого
+     * @param fetchedAt когда фото было скачано из Telegram
+     */
+    public record Avatar(byte[] data, String contentType, String etag, OffsetDateTime fetchedAt) {
+    }
+
+    /**
+     * Аватар пользователя ближайшего размера (не меньше запрошенного, иначе максимальный)
+     *
+     * @return пусто, если у пользователя нет фото профиля или Telegram его не отдал
+     * @throws AvatarFetchBusyException если лимит одновременных загрузок из Telegram исчерпан
+     */
+    public Optional<Avatar> getAvatar(long userId, int requestedSize) {
+        int size = resolveSize(requestedSize);
+        String key = cacheKey(userId, size);
+
+        Avatar avatar = avatars.getIfPresent(key);
+        if (avatar != null) {
+            return Optional.of(avatar);
+        }
+        avatar = imageStorageService.findUserAvatar(userId, size)
+                .map(stored -> toAvatar(stored.data(), stored.entity().getContentType(), stored.entity().getCreatedAt()))
+                .orElse(null);
+        if (avatar != null) {
+            avatars.put(key, avatar);
+            if (isStale(avatar)) {
+                scheduleRefresh(userId);
+            }
+            return Optional.of(avatar);
+        }
+
+        if (missing.getIfPresent(userId) != null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(fetches.execute(userId, () -> fetchAndStore(userId, true)).get(size));
+    }
+
+    /**
+     * Допустимый размер: наименьший из настроенных, не меньший запрошенного
+     */
+    int resolveSize(int requestedSize) {
+        return sizes.stream()
+                .filter(size -> size >= requestedSize)
+                .findFirst()
+                .orElse(sizes.get(sizes.size() - 1));
+    }
+
+    private boolean isStale(Avatar avatar) {
+        return avatar.fetchedAt().plus(refreshAfter).isBefore(OffsetDateTime.now());
+    }
+
+    /**
+     * Свежий аватар держится в памяти до момента устаревания, устаревший - refresh-retry
+     */
+    private Duration timeToLive(Avatar avatar) {
+        Duration untilStale = Duration.between(OffsetDateTime.now(), avatar.fetchedAt().plus(refreshAfter));
+        return untilStale.compareTo(refreshRetry) > 0 ? untilStale : refreshRetry;
+    }
+
+    private void scheduleRefresh(long userId) {
+        if (!refreshInFlight.add(userId)) {
+            return;
+        }
+        try {
+            avatarRefreshExecutor.execute(() -> {
+                try {
+                    fetches.execute(userId, () -> fetchAndStore(userId, false));
+                } catch (Exception e) {
+                    LOGGER.warn("⚠️ Фоновое обновление аватара пользователя {} не удалось: {}", userId, e.getMessage());
+                } finally {
+                    refreshInFlight.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshInFlight.remove(userId);
+            LOGGER.debug("⏳ Очередь обновления аватаров заполнена, пользователь {} обновится позже", userId);
+        }
+    }
+
+    /**
+     * Скачивает фото профиля и сохраняет все размеры
+     *
+     * @param wait ждать свободного слота загрузки (запрос пользователя) или пропустить (фоновое обновление)
+     * @return аватары по размерам; пусто - фото нет
+     */
+    private Map<Integer, Avatar> fetchAndStore(long userId, boolean wait) {
+        if (!acquirePermit(wait)) {
+            if (wait) {
+                throw new AvatarFetchBusyException("Too many concurrent avatar downloads");
+            }
+            return Map.of();
+        }
+        try {
+            Object profilePhotos = telegramBotApiService.getUserProfilePhotos(userId);
+            if (profilePhotos == null) {
+                // Ошибка Telegram (null без исключения) - не запоминаем как "фото нет"
+                return Map.of();
+            }
+            String fileId = selectFileId(profilePhotos, sizes.get(sizes.size() - 1));
+            if (fileId == null) {
+                missing.put(userId, Boolean.TRUE);
+                return Map.of();
+            }
+
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(telegramBotApiService.downloadFile(fileId)));
+            if (source == null) {
+                throw new IllegalStateException("Unsupported profile photo format for user " + userId);
+            }
+
+            OffsetDateTime fetchedAt = OffsetDateTime.now();
+            Map<Integer, Avatar> result = new HashMap<>();
+            for (int size : sizes) {
+                byte[] bytes = encodeJpeg(resizeSquare(source, size));
+                imageStorageService.storeUserAvatar(userId, size, bytes, CONTENT_TYPE, retentionDays);
+                Avatar avatar = toAvatar(bytes, CONTENT_TYPE, fetchedAt);
+                avatars.put(cacheKey(userId, size), avatar);
+                result.put(size, avatar);
+            }
+            missing.invalidate(userId);
+            LOGGER.debug("🖼️ Аватар пользователя {} сохранён в размерах {}", userId, sizes);
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to process profile photo of user " + userId, e);
+        } finally {
+            telegramPermits.release();
+        }
+    }
+
+    private boolean acquirePermit(boolean wait) {
+        if (!wait) {
+            return telegramPermits.tryAcquire();
+        }
+        try {
+            return telegramPermits.tryAcquire(fetchWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * file_id наименьшей версии первого фото, у которой меньшая сторона не меньше targetSize
+     * (иначе самой большой): Telegram отдаёт 160/320/640 px, большие версии для аватара не нужны
+     */
+    @SuppressWarnings("unchecked")
+    static String selectFileId(Object profilePhotos, int targetSize) {
+        if (!(profilePhotos instanceof Map<?, ?> map) || !(map.get("photos") instanceof List<?> photos)
+                || photos.isEmpty() || !(photos.get(0) instanceof List<?> photoSizes) || photoSizes.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> best = null;
+        for (Object item : photoSizes) {
+            Map<String, Object> photoSize = (Map<String, Object>) item;
+            int side = minSide(photoSize);
+            if (best == null) {
+                best = photoSize;
+                continue;
+            }
+            int bestSide = minSide(best);
+            boolean fits = side >= targetSize;
+            boolean bestFits = bestSide >= targetSize;
+            if ((fits && (!bestFits || side < bestSide)) || (!fits && !bestFits && side > bestSide)) {
+                best = photoSize;
+            }
+        }
+        return (String) best.get("file_id");
+    }
+
+    private static int minSide(Map<String, Object> photoSize) {
+        int width = photoSize.get("width") instanceof Number n ? n.intValue() : 0;
+        int height = photoSize.get("height") instanceof Number n ? n.intValue() : 0;
+        return Math.min(width, height);
+    }
+
+    /**
+     * Центральный квадрат, уменьшенный до size×size
+     */
+    static BufferedImage resizeSquare(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        int x = (source.getWidth() - side) / 2;
+        int y = (source.getHeight() - side) / 2;
+
+        BufferedImage target = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.drawImage(source, 0, 0, size, size, x, y, x + side, y + side, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static Avatar toAvatar(byte[] data, String contentType, OffsetDateTime fetchedAt) {
+        return new Avatar(data, contentType, "\"" + hash(data) + "\"", fetchedAt);
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String cacheKey(long userId, int size) {
+        return userId + ":" + size;
+    }
+
+    /**
+     * Все слоты загрузки из Telegram заняты дольше fetch-wait-ms
+     */
+    public static class AvatarFetchBusyException extends RuntimeException {
+        public AvatarFetchBusyException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.sticker_art_gallery.util;
+
+import com.example.sticker_art_gallery.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор keyset-пагинации: позиция последнего элемента страницы как (значение ключа сортировки, id).
+ * Сортировка и направление зашиты в курсор - курсор от одной сортировки не принимается для другой.
+ *
+ * @param sort      поле сортировки
+ * @param direction ASC или DESC
+ * @param value     значение поля сортировки у последнего элемента (строкой)
+ * @param id        id последнего элемента - разрешает равенства по ключу сортировки
+ */
+public record KeysetCursor(String sort, String direction, String value, String id) {
+
+    private static final char SEPARATOR = '\n';
+
+    public String encode() {
+        String raw = sort + SEPARATOR + direction + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return null для пустого курсора (первая страница)
+     * @throws InvalidCursorException если курсор не разбирается или выдан для другой сортировки
+     */
+    public static KeysetCursor decode(String cursor, String expectedSort, String expectedDirection) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+        String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+        if (parts.length != 4 || parts[2].isEmpty() || parts[3].isEmpty()) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (!parts[0].equals(expectedSort) || !parts[1].equalsIgnoreCase(expectedDirection)) {
+            throw new InvalidCursorException("Cursor was issued for sort=" + parts[0] + "," + parts[1]);
+        }
+        return new KeysetCursor(parts[0], parts[1], parts[2], parts[3]);
+    }
+
+    public boolean isDescending() {
+        return "DESC".equalsIgnoreCase(direction);
+    }
+}
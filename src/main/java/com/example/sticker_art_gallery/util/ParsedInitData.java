@@ -0,0 +1,192 @@
+package com.example.sticker_art_gallery.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Разобранная за один проход initData от Telegram Web App.
+ *
+ * Параметры хранятся отсортированными в порядке строк "key=value" - в этом порядке
+ * их склеивает dataCheckString для hash, поэтому повторная сортировка не нужна.
+ * Как и раньше: пары без '=' отбрасываются, при повторе ключа побеждает первое значение,
+ * значение URL-декодируется (а при ошибке декодирования остаётся как есть).
+ *
+ * Снаружи пакета экземпляр можно получить только из {@link TelegramInitDataValidator#validate(String)},
+ * поэтому наличие объекта означает, что подпись и auth_date уже проверены.
+ */
+public final class ParsedInitData {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParsedInitData.class);
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Порядок строк "key=value" для разных ключей: значение не влияет на результат,
+     * так как строки расходятся не позже символа '=' более короткого ключа
+     */
+    static final Comparator<String> PAIR_ORDER = ParsedInitData::comparePairKeys;
+
+    private final String raw;
+    private final String[] keys;
+    private final String[] values;
+    private final int size;
+
+    private ParsedInitData(String raw, String[] keys, String[] values, int size) {
+        this.raw = raw;
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    static ParsedInitData parse(String initData) {
+        String[] keys = new String[INITIAL_CAPACITY];
+        String[] values = new String[INITIAL_CAPACITY];
+        int size = 0;
+
+        int length = initData.length();
+        int start = 0;
+        while (start < length) {
+            int end = initData.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            int eq = initData.indexOf('=', start);
+            if (eq >= 0 && eq < end) {
+                String key = initData.substring(start, eq);
+                int position = Arrays.binarySearch(keys, 0, size, key, PAIR_ORDER);
+                if (position < 0) {
+                    position = -position - 1;
+                    if (size == keys.length) {
+                        keys = Arrays.copyOf(keys, size * 2);
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    System.arraycopy(keys, position, keys, position + 1, size - position);
+                    System.arraycopy(values, position, values, position + 1, size - position);
+                    keys[position] = key;
+                    values[position] = decode(key, initData, eq + 1, end);
+                    size++;
+                }
+            }
+            start = end + 1;
+        }
+        return new ParsedInitData(initData, keys, values, size);
+    }
+
+    /**
+     * URLDecoder вызывается только для значений, где есть что декодировать
+     */
+    private static String decode(String key, String initData, int from, int to) {
+        String value = initData.substring(from, to);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '+') {
+                try {
+                    return URLDecoder.decode(value, StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException e) {
+                    LOGGER.warn("⚠️ Ошибка URL-декодирования параметра {}: {}", key, e.getMessage());
+                    return value;
+                }
+            }
+        }
+        return value;
+    }
+
+    private static int comparePairKeys(String left, String right) {
+        int common = Math.min(left.length(), right.length());
+        for (int i = 0; i < common; i++) {
+            char l = left.charAt(i);
+            char r = right.charAt(i);
+            if (l != r) {
+                return l - r;
+            }
+        }
+        if (left.length() == right.length()) {
+            return 0;
+        }
+        return left.length() < right.length()
+                ? '=' - right.charAt(common)
+                : left.charAt(common) - '=';
+    }
+
+    /**
+     * Строка для проверки hash: все параметры, кроме hash, в порядке строк "key=value"
+     */
+    String hashDataCheckString() {
+        StringBuilder result = new StringBuilder(raw.length());
+        for (int i = 0; i < size; i++) {
+            if (!"hash".equals(keys[i])) {
+                appendPair(result, i);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Строка для проверки signature: без hash и signature, в лексикографическом порядке ключей
+     */
+    String signatureDataCheckString() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+
+        StringBuilder result = new StringBuilder(raw.length());
+        for (int i : order) {
+            if (!"hash".equals(keys[i]) && !"signature".equals(keys[i])) {
+                appendPair(result, i);
+            }
+        }
+        return result.toString();
+    }
+
+    private void appendPair(StringBuilder result, int index) {
+        if (result.length() > 0) {
+            result.append('\n');
+        }
+        result.append(keys[index]).append('=').append(values[index]);
+    }
+
+    /**
+     * Значение параметра (уже URL-декодированное) или null
+     */
+    public String get(String key) {
+        int position = Arrays.binarySearch(keys, 0, size, key, PAIR_ORDER);
+        return position >= 0 ? values[position] : null;
+    }
+
+    /**
+     * Исходная строка initData в том виде, в котором пришла от клиента
+     */
+    public String raw() {
+        return raw;
+    }
+
+    public String user() {
+        return get("user");
+    }
+
+    public String authDate() {
+        return get("auth_date");
+    }
+
+    public String hash() {
+        return get("hash");
+    }
+
+    public String signature() {
+        return get("signature");
+    }
+
+    public String startParam() {
+        return get("start_param");
+    }
+
+    public int size() {
+        return size;
+    }
+}
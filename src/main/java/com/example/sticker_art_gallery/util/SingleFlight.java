@@ -0,0 +1,52 @@
+package com.example.sticker_art_gallery.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Схлопывание одновременных одинаковых вызовов: пока вызов по ключу выполняется,
+ * остальные потоки с тем же ключом ждут его результат (или исключение) вместо повторного запроса.
+ * Результат не запоминается - после завершения следующий вызов снова идёт в источник.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                if (e.getCause() instanceof Error err) {
+                    throw err;
+                }
+                throw e;
+            }
+        }
+        try {
+            V value = call.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Сколько потоков сейчас ждут выполняющийся вызов по ключу (оценка, для метрик и тестов)
+     */
+    public int waiters(K key) {
+        CompletableFuture<V> running = inFlight.get(key);
+        return running != null ? running.getNumberOfDependents() : 0;
+    }
+}
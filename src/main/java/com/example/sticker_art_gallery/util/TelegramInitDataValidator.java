@@ -13,12 +13,10 @@ import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
-import java.util.Arrays;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.stream.Collectors;
+import java.util.Base64;
 
 @Component
 public class TelegramInitDataValidator {
@@ -26,9 +24,34 @@ public class TelegramInitDataValidator {
     private static final Logger LOGGER = LoggerFactory.getLogger(TelegramInitDataValidator.class);
     private static final String HMAC_SHA256 = "HmacSHA256";
     private static final long MAX_AUTH_AGE_SECONDS = 86400; // 24 часа как в JavaScript коде
+    private static final byte[] WEB_APP_DATA = "WebAppData".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<KeyedMac> HASH_MAC = ThreadLocal.withInitial(KeyedMac::new);
+    private static final ThreadLocal<KeyedMac> SIGNATURE_MAC = ThreadLocal.withInitial(KeyedMac::new);
 
     private final AppConfig appConfig;
     private final ObjectMapper objectMapper;
+    private volatile SigningKeys signingKeys;
+
+    private record SigningKeys(String botToken, SecretKeySpec hashKey, SecretKeySpec signatureKey) {
+    }
+
+    /**
+     * Mac потока и ключ, которым он сейчас инициализирован
+     */
+    private static final class KeyedMac {
+        private final Mac mac;
+        private SecretKeySpec key;
+
+        private KeyedMac() {
+            try {
+                this.mac = Mac.getInstance(HMAC_SHA256);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("HmacSHA256 недоступен", e);
+            }
+        }
+    }
 
     @Autowired
     public TelegramInitDataValidator(AppConfig appConfig, ObjectMapper objectMapper) {
@@ -36,75 +59,81 @@ public class TelegramInitDataValidator {
         this.objectMapper = objectMapper;
     }
 
-    public boolean validateInitData(String initData) {
+    /**
+     * Проверяет initData и возвращает её разбор для дальнейшего использования (telegram_id, user, start_param)
+     * без повторного парсинга.
+     *
+     * @return разобранная initData или null, если она невалидна
+     */
+    public ParsedInitData validate(String initData) {
         LOGGER.debug("🔍 Начинаем валидацию initData");
         
         if (initData == null || initData.trim().isEmpty()) {
             LOGGER.warn("❌ InitData пустая или null");
-            return false;
+            return null;
         }
 
         try {
-            // Получаем токен бота из базы данных
             String botToken = getBotToken();
             if (botToken == null) {
                 LOGGER.warn("❌ Токен бота не найден");
-                return false;
+                return null;
             }
-            LOGGER.debug("✅ Токен бота получен (длина: {})", botToken.length());
-            
-            // Подробное логирование входных данных
-            LOGGER.debug("Полный initData: {}", initData);
             
-            // Парсим параметры
-            Map<String, String> params = parseInitData(initData);
+            ParsedInitData params = ParsedInitData.parse(initData);
+            LOGGER.debug("🔍 InitData разобрана: {} параметров", params.size());
             
             // Проверяем наличие обязательных полей
-            if (!params.containsKey("auth_date")) {
+            String authDateStr = params.authDate();
+            if (authDateStr == null) {
                 LOGGER.warn("❌ Отсутствует обязательное поле auth_date");
-                return false;
+                return null;
             }
             
-            String hash = params.get("hash");
-            String signature = params.get("signature");
-            String authDateStr = params.get("auth_date");
+            String hash = params.hash();
+            String signature = params.signature();
             
             if (hash == null && signature == null) {
                 LOGGER.warn("❌ Отсутствуют поля подписи (hash или signature)");
-                return false;
+                return null;
             }
             
             // Проверяем время auth_date
             if (!validateAuthDate(authDateStr)) {
-                return false;
+                return null;
             }
             
             // Проверяем подпись (поддерживаем оба формата)
-            boolean signatureValid = false;
+            SigningKeys keys = signingKeys(botToken);
+            boolean signatureValid;
             if (hash != null) {
-                signatureValid = validateHash(params, hash, botToken);
+                signatureValid = validateHash(params, hash, keys);
                 if (!signatureValid) {
                     LOGGER.warn("❌ Неверная подпись hash");
                 }
-            } else if (signature != null) {
-                signatureValid = validateSignature(params, signature, botToken);
+            } else {
+                signatureValid = validateSignature(params, signature, keys);
                 if (!signatureValid) {
                     LOGGER.warn("❌ Неверная подпись signature");
                 }
             }
             
-            if (signatureValid) {
-                LOGGER.debug("✅ InitData валидна");
+            if (!signatureValid) {
+                return null;
             }
-            
-            return signatureValid;
+            LOGGER.debug("✅ InitData валидна");
+            return params;
             
         } catch (Exception e) {
             LOGGER.error("❌ Ошибка валидации initData: {}", e.getMessage(), e);
-            return false;
+            return null;
         }
     }
 
+    public boolean validateInitData(String initData) {
+        return validate(initData) != null;
+    }
+
     private String getBotToken() {
         try {
             String botToken = appConfig.getTelegram().getBotToken();
@@ -112,7 +141,6 @@ public class TelegramInitDataValidator {
                 LOGGER.error("❌ Токен бота не настроен в конфигурации");
                 return null;
             }
-            LOGGER.debug("✅ Токен бота получен из конфигурации (длина: {})", botToken.length());
             return botToken;
         } catch (Exception e) {
             LOGGER.error("❌ Ошибка получения токена бота: {}", e.getMessage(), e);
@@ -120,31 +148,34 @@ public class TelegramInitDataValidator {
         }
     }
 
-    private Map<String, String> parseInitData(String initData) {
-        LOGGER.debug("🔍 Парсим initData: {}", initData);
-        
-        Map<String, String> params = Arrays.stream(initData.split("&"))
-                .map(param -> param.split("=", 2))
-                .filter(parts -> parts.length == 2)
-                .collect(Collectors.toMap(
-                        parts -> parts[0],
-                        parts -> {
-                            try {
-                                // URL-декодируем значение параметра
-                                String decodedValue = java.net.URLDecoder.decode(parts[1], StandardCharsets.UTF_8);
-                                LOGGER.debug("🔍 Параметр {}: '{}' -> '{}'", parts[0], parts[1], decodedValue);
-                                return decodedValue;
-                            } catch (Exception e) {
-                                LOGGER.warn("⚠️ Ошибка URL-декодирования параметра {}: {}", parts[0], e.getMessage());
-                                return parts[1]; // Возвращаем исходное значение если декодирование не удалось
-                            }
-                        },
-                        (existing, replacement) -> existing,
-                        TreeMap::new
-                ));
-        
-        LOGGER.debug("🔍 Результат парсинга: {}", params);
-        return params;
+    /**
+     * Секретные ключи зависят только от токена бота: считаются один раз и пересчитываются при его смене
+     */
+    private SigningKeys signingKeys(String botToken) {
+        SigningKeys keys = signingKeys;
+        if (keys == null || !keys.botToken().equals(botToken)) {
+            byte[] token = botToken.getBytes(StandardCharsets.UTF_8);
+            // hash: HMAC-SHA256 от botToken с ключом "WebAppData"
+            byte[] hashSecret = hmacOnce(WEB_APP_DATA, token);
+            // signature: наоборот - botToken как ключ, "WebAppData" как данные
+            byte[] signatureSecret = hmacOnce(token, WEB_APP_DATA);
+            keys = new SigningKeys(botToken,
+                    new SecretKeySpec(hashSecret, HMAC_SHA256),
+                    new SecretKeySpec(signatureSecret, HMAC_SHA256));
+            signingKeys = keys;
+            LOGGER.debug("🔑 Секретные ключи initData вычислены для текущего токена бота");
+        }
+        return keys;
+    }
+
+    private static byte[] hmacOnce(byte[] key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(key, HMAC_SHA256));
+            return mac.doFinal(data);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("HmacSHA256 недоступен", e);
+        }
     }
 
     private boolean validateAuthDate(String authDateStr) {
@@ -179,120 +210,64 @@ public class TelegramInitDataValidator {
     }
 
     /**
-     * Правильное создание dataCheckString согласно документации Telegram
-     * Параметры должны быть отсортированы в лексикографическом порядке
+     * Проверка hash по алгоритму JavaScript: HMAC-SHA256 от dataCheckString в hex,
+     * сравнение за постоянное время
      */
-    private String buildDataCheckString(Map<String, String> params) {
-        return params.entrySet().stream()
-                .filter(entry -> !"hash".equals(entry.getKey()) && !"signature".equals(entry.getKey()))  // Исключаем hash и signature
-                .sorted(Map.Entry.comparingByKey())  // Лексикографическая сортировка
-                .map(entry -> entry.getKey() + "=" + entry.getValue())
-                .collect(Collectors.joining("\n"));
+    private boolean validateHash(ParsedInitData params, String expectedHash, SigningKeys keys) {
+        byte[] hashBytes = hmac(HASH_MAC, keys.hashKey(), params.hashDataCheckString());
+        byte[] calculatedHash = toHexAscii(hashBytes);
+        return MessageDigest.isEqual(calculatedHash, expectedHash.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Исправленная версия validateHash по алгоритму JavaScript
+     * Проверка signature: HMAC-SHA256 в URL-safe Base64 без padding, сравнение за постоянное время
      */
-    private boolean validateHash(Map<String, String> params, String expectedHash, String botToken) {
-        try {
-            LOGGER.debug("🔍 Начинаем валидацию hash по алгоритму JavaScript");
-            LOGGER.debug("🔍 Полученные параметры: {}", params);
-            LOGGER.debug("🔍 Ожидаемый hash: {}", expectedHash);
-            LOGGER.debug("🔍 Токен бота (первые 10 символов): {}", botToken.substring(0, Math.min(10, botToken.length())));
-            
-            // Создаём массив пар ключ-значение, исключая параметр 'hash'
-            java.util.List<String> dataCheckEntries = new java.util.ArrayList<>();
-            for (Map.Entry<String, String> entry : params.entrySet()) {
-                if (!"hash".equals(entry.getKey())) {
-                    String key = entry.getKey();
-                    String value = entry.getValue();
-                    LOGGER.debug("🔍 Добавляем параметр: {}={}", key, value);
-                    dataCheckEntries.add(key + "=" + value);
-                }
-            }
-            
-            // Сортируем пары в алфавитном порядке по ключу
-            dataCheckEntries.sort(String::compareTo);
-            LOGGER.debug("🔍 Отсортированные параметры: {}", dataCheckEntries);
-            
-            // Формируем строку для проверки
-            String dataCheckString = String.join("\n", dataCheckEntries);
-            LOGGER.debug("🔍 Data check string: {}", dataCheckString.replace("\n", "\\n"));
-            
-            // Создаём секретный ключ: HMAC-SHA256 от botToken с ключом "WebAppData"
-            Mac mac = Mac.getInstance(HMAC_SHA256);
-            SecretKeySpec botTokenKeySpec = new SecretKeySpec("WebAppData".getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
-            mac.init(botTokenKeySpec);
-            byte[] secretKey = mac.doFinal(botToken.getBytes(StandardCharsets.UTF_8));
-            LOGGER.debug("🔍 Секретный ключ создан (длина: {} байт)", secretKey.length);
-            
-            // Вычисляем HMAC-SHA256 для dataCheckString с использованием секретного ключа
-            mac = Mac.getInstance(HMAC_SHA256);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(secretKey, HMAC_SHA256);
-            mac.init(secretKeySpec);
-            byte[] hashBytes = mac.doFinal(dataCheckString.getBytes(StandardCharsets.UTF_8));
-            
-            String calculatedHash = bytesToHex(hashBytes);
-            LOGGER.debug("🔍 Вычисленный hash: {}", calculatedHash);
-            LOGGER.debug("🔍 Сравнение хешей: ожидаемый={}, вычисленный={}", expectedHash, calculatedHash);
-            
-            boolean isValid = calculatedHash.equals(expectedHash);
-            LOGGER.debug("🔍 Результат валидации hash: {}", isValid ? "✅ Валиден" : "❌ Невалиден");
-            
-            return isValid;
-
-        } catch (Exception e) {
-            LOGGER.error("❌ Ошибка валидации hash: {}", e.getMessage(), e);
-            return false;
-        }
+    private boolean validateSignature(ParsedInitData params, String expectedSignature, SigningKeys keys) {
+        byte[] signatureBytes = hmac(SIGNATURE_MAC, keys.signatureKey(), params.signatureDataCheckString());
+        byte[] calculatedSignature = Base64.getUrlEncoder().withoutPadding().encode(signatureBytes);
+        return MessageDigest.isEqual(calculatedSignature, expectedSignature.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Упрощенная и исправленная версия validateSignature
+     * Mac не потокобезопасен, поэтому у каждого потока свой экземпляр; init повторяется только при смене ключа
      */
-    private boolean validateSignature(Map<String, String> params, String expectedSignature, String botToken) {
+    private static byte[] hmac(ThreadLocal<KeyedMac> holder, SecretKeySpec key, String data) {
+        KeyedMac keyedMac = holder.get();
         try {
-            String dataCheckString = buildDataCheckString(params);
-            
-            LOGGER.debug("Data check string для signature: {}", dataCheckString);
-            
-            // Создаем секретный ключ (botToken как ключ, "WebAppData" как данные)
-            Mac hmacSha256 = Mac.getInstance(HMAC_SHA256);
-            SecretKeySpec botTokenKeySpec = new SecretKeySpec(botToken.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
-            hmacSha256.init(botTokenKeySpec);
-            byte[] secretKey = hmacSha256.doFinal("WebAppData".getBytes(StandardCharsets.UTF_8));
-            
-            // Подписываем данные
-            hmacSha256 = Mac.getInstance(HMAC_SHA256);
-            SecretKeySpec dataKeySpec = new SecretKeySpec(secretKey, HMAC_SHA256);
-            hmacSha256.init(dataKeySpec);
-            byte[] signatureBytes = hmacSha256.doFinal(dataCheckString.getBytes(StandardCharsets.UTF_8));
-            
-            // Только URL-safe Base64 без padding
-            String calculatedSignature = java.util.Base64.getUrlEncoder().withoutPadding().encodeToString(signatureBytes);
-            
-            LOGGER.debug("Сравнение signature: ожидаемый={}, вычисленный={}", expectedSignature, calculatedSignature);
-            
-            return calculatedSignature.equals(expectedSignature);
-            
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            LOGGER.error("❌ Ошибка вычисления signature: {}", e.getMessage(), e);
-            return false;
+            if (keyedMac.key != key) {
+                keyedMac.mac.init(key);
+                keyedMac.key = key;
+            }
+        } catch (InvalidKeyException e) {
+            throw new IllegalStateException("Некорректный ключ HmacSHA256", e);
         }
+        return keyedMac.mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
     }
 
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder result = new StringBuilder();
-        for (byte b : bytes) {
-            result.append(String.format("%02x", b));
+    private static byte[] toHexAscii(byte[] bytes) {
+        byte[] result = new byte[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            result[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+            result[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0f];
         }
-        return result.toString();
+        return result;
     }
 
     public Long extractTelegramId(String initData) {
         try {
-            Map<String, String> params = parseInitData(initData);
-            String userStr = params.get("user");
+            return extractTelegramId(ParsedInitData.parse(initData));
+        } catch (Exception e) {
+            LOGGER.error("❌ Ошибка извлечения telegram_id: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Извлекает telegram_id из уже разобранной initData (поле id в JSON параметра user)
+     */
+    public Long extractTelegramId(ParsedInitData params) {
+        try {
+            String userStr = params.user();
             if (userStr == null || userStr.isBlank()) {
                 return null;
             }
@@ -328,8 +303,7 @@ public class TelegramInitDataValidator {
      */
     public String extractStartParam(String initData) {
         try {
-            Map<String, String> params = parseInitData(initData);
-            String startParam = params.get("start_param");
+            String startParam = ParsedInitData.parse(initData).startParam();
             
             if (startParam != null && !startParam.isEmpty()) {
                 LOGGER.debug("🔍 Извлечен start_param: {}", startParam);
@@ -0,0 +1,66 @@
+package com.example.sticker_art_gallery.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Потокобезопасный token bucket: ёмкость {@code capacity}, пополнение {@code refillPerSecond} токенов в секунду.
+ * {@link #acquire(double)} резервирует токены сразу (баланс может уйти в минус) и ждёт, пока долг не погасится,
+ * поэтому ожидающие обслуживаются примерно в порядке прихода. Запрос больше ёмкости урезается до ёмкости.
+ */
+public final class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double available;
+    private long lastRefillNanos;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and refillPerSecond must be positive");
+        }
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.available = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Взять токены, если они есть прямо сейчас
+     */
+    public synchronized boolean tryAcquire(double tokens) {
+        refill();
+        double needed = Math.min(tokens, capacity);
+        if (available >= needed) {
+            available -= needed;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Взять токены, при необходимости дождавшись пополнения
+     */
+    public void acquire(double tokens) throws InterruptedException {
+        long waitNanos = reserve(tokens);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Зарезервировать токены и вернуть, сколько наносекунд нужно подождать до их фактической доступности
+     */
+    public synchronized long reserve(double tokens) {
+        refill();
+        double needed = Math.min(tokens, capacity);
+        double deficit = needed - available;
+        available -= needed;
+        return deficit <= 0 ? 0 : (long) Math.ceil(deficit / refillPerNano);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,316 @@
+-- Миграция: перевод таблиц аудита на недельное range-партиционирование
+-- Версия: 1.0.89
+-- Описание:
+--   generation_audit_sessions/events и message_audit_sessions/events становятся
+--   партиционированными по времени (sessions - started_at, events - created_at), одна партиция на неделю
+--   (понедельник 00:00 UTC). Retention выполняется удалением целых партиций (AuditPartitionManager)
+--   вместо построчного DELETE.
+--   Ограничения партиционирования:
+--     * первичный ключ включает ключ партиционирования: (id, started_at);
+--     * уникальный индекс партиционированной таблицы тоже обязан включать started_at, поэтому глобальная
+--       уникальность task_id/message_id держится на маленьких непартиционированных таблицах
+--       generation_audit_session_keys/message_audit_session_keys (ключ -> session_id, started_at);
+--       по ним же запись аудита находит сессию и её точный started_at для отсечения партиций;
+--     * FK events -> sessions убран: события и сессии удаляются партициями независимо,
+--       session_id остаётся обычной колонкой (JPA-связь не меняется);
+--     * у каждой таблицы есть DEFAULT-партиция: запись с датой вне созданных недель не теряется,
+--       а при создании недельной партиции её строки переносятся из DEFAULT.
+--   Данные переносятся из старых таблиц, последовательности id продолжаются.
+
+-- ============================================================================
+-- 1. Функция создания недельной партиции (используется миграцией и AuditPartitionManager)
+-- ============================================================================
+CREATE OR REPLACE FUNCTION audit_ensure_weekly_partition(parent_table TEXT, week_start DATE)
+RETURNS TEXT AS $$
+DECLARE
+    monday DATE := date_trunc('week', week_start)::date;
+    partition_name TEXT := parent_table || '_p' || to_char(date_trunc('week', week_start), 'YYYYMMDD');
+    default_name TEXT := parent_table || '_default';
+    range_from TIMESTAMPTZ := (monday::timestamp AT TIME ZONE 'UTC');
+    range_to TIMESTAMPTZ := ((monday + 7)::timestamp AT TIME ZONE 'UTC');
+    key_column TEXT;
+    parked BOOLEAN := FALSE;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    -- Строки недели, попавшие в DEFAULT, мешают создать партицию: переносим их в новую таблицу и подключаем её
+    IF to_regclass(default_name) IS NOT NULL THEN
+        SELECT a.attname INTO key_column
+        FROM pg_partitioned_table pt
+        JOIN pg_attribute a ON a.attrelid = pt.partrelid AND a.attnum = pt.partattrs[0]
+        WHERE pt.partrelid = parent_table::regclass;
+
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= %L AND %I < %L)',
+                       default_name, key_column, range_from, key_column, range_to)
+            INTO parked;
+    END IF;
+
+    IF parked THEN
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name, parent_table);
+        EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                       default_name, key_column, range_from, key_column, range_to, partition_name);
+        EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       parent_table, partition_name, range_from, range_to);
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent_table, range_from, range_to);
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION audit_ensure_weekly_partition(TEXT, DATE) IS 'Создаёт (если нет) недельную партицию <parent>_pYYYYMMDD для недели, содержащей week_start; строки недели из <parent>_default переносятся в неё';
+
+CREATE OR REPLACE FUNCTION audit_ensure_default_partition(parent_table TEXT)
+RETURNS TEXT AS $$
+DECLARE
+    default_name TEXT := parent_table || '_default';
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I DEFAULT', default_name, parent_table);
+    RETURN default_name;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION audit_ensure_default_partition(TEXT) IS 'Создаёт (если нет) DEFAULT-партицию <parent>_default для строк вне недельных партиций';
+
+-- ============================================================================
+-- 2. Новые партиционированные таблицы
+-- ============================================================================
+CREATE TABLE generation_audit_sessions_new (
+    id BIGSERIAL NOT NULL,
+    task_id VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    raw_prompt TEXT NOT NULL,
+    processed_prompt TEXT,
+    request_params JSONB,
+    provider_ids JSONB,
+    final_status VARCHAR(50),
+    error_code VARCHAR(100),
+    error_message TEXT,
+    started_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMPTZ,
+    expires_at TIMESTAMPTZ NOT NULL DEFAULT (CURRENT_TIMESTAMP + INTERVAL '90 days'),
+    CONSTRAINT pk_generation_audit_sessions PRIMARY KEY (id, started_at),
+    CONSTRAINT fk_generation_audit_sessions_user_p
+        FOREIGN KEY (user_id) REFERENCES user_profiles(user_id) ON DELETE CASCADE
+) PARTITION BY RANGE (started_at);
+
+CREATE TABLE generation_audit_events_new (
+    id BIGSERIAL NOT NULL,
+    session_id BIGINT NOT NULL,
+    task_id VARCHAR(255) NOT NULL,
+    stage VARCHAR(80) NOT NULL,
+    event_status VARCHAR(50) NOT NULL,
+    payload JSONB,
+    error_code VARCHAR(100),
+    error_message TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_generation_audit_events PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE message_audit_sessions_new (
+    id BIGSERIAL NOT NULL,
+    message_id VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    chat_id BIGINT,
+    message_text TEXT NOT NULL,
+    parse_mode VARCHAR(50),
+    disable_web_page_preview BOOLEAN NOT NULL DEFAULT FALSE,
+    request_payload JSONB,
+    final_status VARCHAR(50),
+    error_code VARCHAR(100),
+    error_message TEXT,
+    telegram_chat_id BIGINT,
+    telegram_message_id BIGINT,
+    started_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMPTZ,
+    expires_at TIMESTAMPTZ NOT NULL DEFAULT (CURRENT_TIMESTAMP + INTERVAL '90 days'),
+    retry_of_message_id VARCHAR(255),
+    CONSTRAINT pk_message_audit_sessions PRIMARY KEY (id, started_at),
+    CONSTRAINT fk_message_audit_sessions_user_p
+        FOREIGN KEY (user_id) REFERENCES user_profiles(user_id) ON DELETE CASCADE
+) PARTITION BY RANGE (started_at);
+
+CREATE TABLE message_audit_events_new (
+    id BIGSERIAL NOT NULL,
+    session_id BIGINT NOT NULL,
+    message_id VARCHAR(255) NOT NULL,
+    stage VARCHAR(80) NOT NULL,
+    event_status VARCHAR(50) NOT NULL,
+    payload JSONB,
+    error_code VARCHAR(100),
+    error_message TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_message_audit_events PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Глобальная уникальность ключей сессий (непартиционированные, одна узкая строка на сессию)
+CREATE TABLE generation_audit_session_keys (
+    task_id VARCHAR(255) NOT NULL,
+    session_id BIGINT NOT NULL,
+    started_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT pk_generation_audit_session_keys PRIMARY KEY (task_id)
+);
+
+CREATE TABLE message_audit_session_keys (
+    message_id VARCHAR(255) NOT NULL,
+    session_id BIGINT NOT NULL,
+    started_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT pk_message_audit_session_keys PRIMARY KEY (message_id)
+);
+
+-- ============================================================================
+-- 3. Подмена таблиц: старые -> *_legacy, новые -> штатные имена
+-- ============================================================================
+ALTER TABLE generation_audit_events RENAME TO generation_audit_events_legacy;
+ALTER TABLE generation_audit_sessions RENAME TO generation_audit_sessions_legacy;
+ALTER TABLE message_audit_events RENAME TO message_audit_events_legacy;
+ALTER TABLE message_audit_sessions RENAME TO message_audit_sessions_legacy;
+
+ALTER TABLE generation_audit_sessions_new RENAME TO generation_audit_sessions;
+ALTER TABLE generation_audit_events_new RENAME TO generation_audit_events;
+ALTER TABLE message_audit_sessions_new RENAME TO message_audit_sessions;
+ALTER TABLE message_audit_events_new RENAME TO message_audit_events;
+
+-- ============================================================================
+-- 4. Партиции: DEFAULT и недельные от недели самой старой записи до текущей недели + 4 недели вперёд
+-- ============================================================================
+SELECT audit_ensure_default_partition('generation_audit_sessions');
+SELECT audit_ensure_default_partition('generation_audit_events');
+SELECT audit_ensure_default_partition('message_audit_sessions');
+SELECT audit_ensure_default_partition('message_audit_events');
+
+DO $$
+DECLARE
+    oldest TIMESTAMPTZ;
+    week DATE;
+    last_week DATE := (date_trunc('week', CURRENT_TIMESTAMP AT TIME ZONE 'UTC') + INTERVAL '4 weeks')::date;
+BEGIN
+    SELECT LEAST(
+               (SELECT MIN(started_at) FROM generation_audit_sessions_legacy),
+               (SELECT MIN(created_at) FROM generation_audit_events_legacy),
+               (SELECT MIN(started_at) FROM message_audit_sessions_legacy),
+               (SELECT MIN(created_at) FROM message_audit_events_legacy),
+               CURRENT_TIMESTAMP)
+      INTO oldest;
+
+    week := date_trunc('week', oldest AT TIME ZONE 'UTC')::date;
+    WHILE week <= last_week LOOP
+        PERFORM audit_ensure_weekly_partition('generation_audit_sessions', week);
+        PERFORM audit_ensure_weekly_partition('generation_audit_events', week);
+        PERFORM audit_ensure_weekly_partition('message_audit_sessions', week);
+        PERFORM audit_ensure_weekly_partition('message_audit_events', week);
+        week := week + 7;
+    END LOOP;
+END;
+$$;
+
+-- ============================================================================
+-- 5. Перенос данных и продолжение последовательностей
+-- ============================================================================
+INSERT INTO generation_audit_sessions (id, task_id, user_id, raw_prompt, processed_prompt, request_params, provider_ids,
+                                       final_status, error_code, error_message, started_at, completed_at, expires_at)
+SELECT id, task_id, user_id, raw_prompt, processed_prompt, request_params, provider_ids,
+       final_status, error_code, error_message, started_at, completed_at, expires_at
+FROM generation_audit_sessions_legacy;
+
+INSERT INTO generation_audit_session_keys (task_id, session_id, started_at)
+SELECT task_id, id, started_at
+FROM generation_audit_sessions_legacy;
+
+INSERT INTO generation_audit_events (id, session_id, task_id, stage, event_status, payload, error_code, error_message, created_at)
+SELECT id, session_id, task_id, stage, event_status, payload, error_code, error_message, created_at
+FROM generation_audit_events_legacy;
+
+INSERT INTO message_audit_sessions (id, message_id, user_id, chat_id, message_text, parse_mode, disable_web_page_preview,
+                                    request_payload, final_status, error_code, error_message, telegram_chat_id,
+                                    telegram_message_id, started_at, completed_at, expires_at, retry_of_message_id)
+SELECT id, message_id, user_id, chat_id, message_text, parse_mode, disable_web_page_preview,
+       request_payload, final_status, error_code, error_message, telegram_chat_id,
+       telegram_message_id, started_at, completed_at, expires_at, retry_of_message_id
+FROM message_audit_sessions_legacy;
+
+INSERT INTO message_audit_session_keys (message_id, session_id, started_at)
+SELECT message_id, id, started_at
+FROM message_audit_sessions_legacy;
+
+INSERT INTO message_audit_events (id, session_id, message_id, stage, event_status, payload, error_code, error_message, created_at)
+SELECT id, session_id, message_id, stage, event_status, payload, error_code, error_message, created_at
+FROM message_audit_events_legacy;
+
+SELECT setval('generation_audit_sessions_new_id_seq', COALESCE((SELECT MAX(id) FROM generation_audit_sessions), 0) + 1, false);
+SELECT setval('generation_audit_events_new_id_seq', COALESCE((SELECT MAX(id) FROM generation_audit_events), 0) + 1, false);
+SELECT setval('message_audit_sessions_new_id_seq', COALESCE((SELECT MAX(id) FROM message_audit_sessions), 0) + 1, false);
+SELECT setval('message_audit_events_new_id_seq', COALESCE((SELECT MAX(id) FROM message_audit_events), 0) + 1, false);
+
+-- ============================================================================
+-- 6. Удаление старых таблиц (вместе с их последовательностями и индексами), возврат штатных имён
+-- ============================================================================
+DROP TABLE generation_audit_events_legacy;
+DROP TABLE generation_audit_sessions_legacy;
+DROP TABLE message_audit_events_legacy;
+DROP TABLE message_audit_sessions_legacy;
+
+ALTER SEQUENCE generation_audit_sessions_new_id_seq RENAME TO generation_audit_sessions_id_seq;
+ALTER SEQUENCE generation_audit_events_new_id_seq RENAME TO generation_audit_events_id_seq;
+ALTER SEQUENCE message_audit_sessions_new_id_seq RENAME TO message_audit_sessions_id_seq;
+ALTER SEQUENCE message_audit_events_new_id_seq RENAME TO message_audit_events_id_seq;
+
+ALTER TABLE generation_audit_sessions
+    RENAME CONSTRAINT fk_generation_audit_sessions_user_p TO fk_generation_audit_sessions_user;
+ALTER TABLE message_audit_sessions
+    RENAME CONSTRAINT fk_message_audit_sessions_user_p TO fk_message_audit_sessions_user;
+
+-- ============================================================================
+-- 7. Индексы (создаются на родителе и наследуются всеми партициями)
+-- ============================================================================
+CREATE INDEX idx_generation_audit_sessions_task_id
+    ON generation_audit_sessions(task_id, started_at);
+CREATE INDEX idx_generation_audit_sessions_user_started
+    ON generation_audit_sessions(user_id, started_at DESC);
+CREATE INDEX idx_generation_audit_sessions_final_status
+    ON generation_audit_sessions(final_status);
+
+CREATE INDEX idx_generation_audit_events_task_created
+    ON generation_audit_events(task_id, created_at);
+CREATE INDEX idx_generation_audit_events_session_created
+    ON generation_audit_events(session_id, created_at);
+
+CREATE INDEX idx_message_audit_sessions_message_id
+    ON message_audit_sessions(message_id, started_at);
+CREATE INDEX idx_message_audit_sessions_user_started
+    ON message_audit_sessions(user_id, started_at DESC);
+CREATE INDEX idx_message_audit_sessions_final_status
+    ON message_audit_sessions(final_status);
+CREATE INDEX idx_message_audit_sessions_started_at
+    ON message_audit_sessions(started_at DESC);
+CREATE INDEX idx_message_audit_sessions_retry_of
+    ON message_audit_sessions(retry_of_message_id)
+    WHERE retry_of_message_id IS NOT NULL;
+
+CREATE INDEX idx_message_audit_events_message_created
+    ON message_audit_events(message_id, created_at);
+CREATE INDEX idx_message_audit_events_session_created
+    ON message_audit_events(session_id, created_at);
+
+-- Для удаления ключей вместе с партициями по retention
+CREATE INDEX idx_generation_audit_session_keys_started
+    ON generation_audit_session_keys(started_at);
+CREATE INDEX idx_message_audit_session_keys_started
+    ON message_audit_session_keys(started_at);
+
+-- ============================================================================
+-- 8. Комментарии
+-- ============================================================================
+COMMENT ON TABLE generation_audit_sessions IS 'Аудит-сессии генерации стикеров, недельные партиции по started_at; retention - удаление партиций';
+COMMENT ON TABLE generation_audit_events IS 'События по этапам pipeline генерации (append-only), недельные партиции по created_at';
+COMMENT ON TABLE message_audit_sessions IS 'Аудит-сессии отправки сообщений через StickerBot API, недельные партиции по started_at';
+COMMENT ON TABLE message_audit_events IS 'События этапов отправки сообщения (append-only), недельные партиции по created_at';
+COMMENT ON COLUMN generation_audit_sessions.expires_at IS 'Информационно: фактическое удаление - целой партицией по retention';
+COMMENT ON COLUMN message_audit_sessions.expires_at IS 'Информационно: фактическое удаление - целой партицией по retention';
+COMMENT ON COLUMN generation_audit_events.session_id IS 'ID сессии аудита (без FK: сессии и события удаляются партициями)';
+COMMENT ON COLUMN message_audit_events.session_id IS 'ID сессии аудита (без FK: сессии и события удаляются партициями)';
+COMMENT ON TABLE generation_audit_session_keys IS 'Глобально уникальный task_id аудит-сессии -> (session_id, started_at); удаляется вместе с партициями';
+COMMENT ON TABLE message_audit_session_keys IS 'Глобально уникальный message_id аудит-сессии -> (session_id, started_at); удаляется вместе с партициями';
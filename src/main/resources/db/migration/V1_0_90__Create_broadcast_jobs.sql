@@ -0,0 +1,36 @@
+-- Миграция: задания массовой рассылки сообщений (админка)
+-- Версия: 1.0.90
+-- Описание:
+--   Задание хранит текст, фильтр аудитории и прогресс обхода users по keyset-курсору (cursor_user_id):
+--   после рестарта рассылка продолжается со следующего после курсора пользователя.
+--   lease_owner/lease_until - аренда исполнителя (инстанс и срок); прогресс пишет только владелец действующей аренды,
+--   задание RUNNING с истёкшей арендой подхватывается заново.
+
+CREATE TABLE broadcast_jobs (
+    id                         BIGSERIAL PRIMARY KEY,
+    status                     VARCHAR(16)  NOT NULL,
+    message_text               TEXT         NOT NULL,
+    parse_mode                 VARCHAR(50),
+    disable_web_page_preview   BOOLEAN      NOT NULL DEFAULT FALSE,
+    audience_role              VARCHAR(16),
+    audience_active_since      TIMESTAMPTZ,
+    audience_referrer_user_id  BIGINT,
+    audience_referred_only     BOOLEAN      NOT NULL DEFAULT FALSE,
+    cursor_user_id             BIGINT,
+    sent_count                 BIGINT       NOT NULL DEFAULT 0,
+    failed_count               BIGINT       NOT NULL DEFAULT 0,
+    last_error                 TEXT,
+    lease_owner                VARCHAR(100),
+    lease_until                TIMESTAMPTZ,
+    created_by                 BIGINT,
+    created_at                 TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+    updated_at                 TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+    started_at                 TIMESTAMPTZ,
+    completed_at               TIMESTAMPTZ
+);
+
+CREATE INDEX idx_broadcast_jobs_status ON broadcast_jobs(status);
+CREATE INDEX idx_broadcast_jobs_created_at ON broadcast_jobs(created_at DESC);
+
+-- Фильтр по активности обходит users по id с условием на updated_at
+CREATE INDEX IF NOT EXISTS idx_users_updated_at ON users(updated_at);
@@ -0,0 +1,24 @@
+-- Индексы для keyset-пагинации (режим cursor): порядок (ключ сортировки, id) совпадает с ORDER BY,
+-- поэтому страница после курсора читается диапазоном индекса без OFFSET
+
+-- Галерея: публичные активные наборы по дате и по лайкам
+CREATE INDEX IF NOT EXISTS idx_stickersets_public_created_id
+ON stickersets(created_at DESC, id DESC)
+WHERE state = 'ACTIVE' AND visibility = 'PUBLIC';
+
+CREATE INDEX IF NOT EXISTS idx_stickersets_public_likes_id
+ON stickersets(likes_count DESC, id DESC)
+WHERE state = 'ACTIVE' AND visibility = 'PUBLIC';
+
+-- Профиль: наборы владельца
+CREATE INDEX IF NOT EXISTS idx_stickersets_user_created_id
+ON stickersets(user_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_stickersets_user_likes_id
+ON stickersets(user_id, likes_count DESC, id DESC);
+
+-- История генераций: (user_id, created_at, task_id) заменяет (user_id, created_at)
+CREATE INDEX IF NOT EXISTS idx_generation_tasks_user_created_task
+ON generation_tasks(user_id, created_at DESC, task_id DESC);
+
+DROP INDEX IF EXISTS idx_generation_tasks_user_created;
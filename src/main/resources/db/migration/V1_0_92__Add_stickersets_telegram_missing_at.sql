@@ -0,0 +1,7 @@
+-- Стикерсет не найден в Telegram (getStickerSet → STICKERSET_INVALID): набор удалён или переименован.
+-- Фоновое обновление кэша такие наборы больше не запрашивает; отметка снимается при успешном обновлении
+ALTER TABLE stickersets ADD COLUMN IF NOT EXISTS telegram_missing_at TIMESTAMP NULL;
+
+CREATE INDEX IF NOT EXISTS idx_stickersets_telegram_missing_at
+ON stickersets(telegram_missing_at)
+WHERE telegram_missing_at IS NOT NULL;
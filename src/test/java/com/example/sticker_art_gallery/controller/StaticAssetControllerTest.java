@@ -0,0 +1,68 @@
+package com.example.sticker_art_gallery.controller;
+
+import com.example.sticker_art_gallery.config.StaticAssetCatalog;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StaticAssetController: статика из памяти")
+class StaticAssetControllerTest {
+
+    private static StaticAssetController controller;
+    private static StaticAssetCatalog catalog;
+
+    @BeforeAll
+    static void setUp() {
+        catalog = new StaticAssetCatalog();
+        controller = new StaticAssetController(catalog);
+    }
+
+    @Test
+    @DisplayName("HTML ссылается на ассеты с версией, версия отдаётся как immutable")
+    void html_isFingerprinted_andVersionedUrlIsImmutable() {
+        String html = new String(catalog.find("admin/index.html").orElseThrow().identity(), StandardCharsets.UTF_8);
+        StaticAssetCatalog.Asset api = catalog.find("admin/js/api.js").orElseThrow();
+        assertThat(html).contains("/admin/js/api.js?v=" + api.version());
+
+        ResponseEntity<byte[]> index = controller.asset(request("/admin/index.html"), null, null, null);
+        ResponseEntity<byte[]> versioned = controller.asset(request("/admin/js/api.js"), api.version(), null, null);
+
+        assertThat(index.getHeaders().getCacheControl()).isEqualTo("no-cache");
+        assertThat(versioned.getHeaders().getCacheControl()).contains("immutable");
+    }
+
+    @Test
+    @DisplayName("gzip по Accept-Encoding, 304 по совпадающему ETag, 404 для неизвестного пути")
+    void negotiatesEncodingAndRevalidates() {
+        StaticAssetCatalog.Asset api = catalog.find("admin/js/api.js").orElseThrow();
+
+        ResponseEntity<byte[]> gzip = controller.asset(request("/admin/js/api.js"), null, "br;q=0, gzip, deflate", null);
+        ResponseEntity<byte[]> notModified = controller.asset(request("/admin/js/api.js"), null, "gzip", api.etag());
+        ResponseEntity<byte[]> missing = controller.asset(request("/admin/js/missing.js"), null, "gzip", null);
+
+        assertThat(gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzip.getBody()).hasSizeLessThan(api.identity().length);
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void accepts_respectsZeroQuality() {
+        assertThat(StaticAssetController.accepts("gzip, br", "br")).isTrue();
+        assertThat(StaticAssetController.accepts("gzip;q=0", "gzip")).isFalse();
+        assertThat(StaticAssetController.accepts("gzip; q=0.5", "gzip")).isTrue();
+        assertThat(StaticAssetController.accepts(null, "gzip")).isFalse();
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
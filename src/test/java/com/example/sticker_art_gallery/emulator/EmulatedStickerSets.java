@@ -0,0 +1,107 @@
+package com.example.sticker_art_gallery.emulator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Стикерсеты эмулятора в памяти; общие для Bot API и save-to-set sticker-processor.
+ * Неизвестный набор создаётся при первом getStickerSet (1-30 стикеров, детерминированно по имени),
+ * кроме имён с {@link EmulatorSettings#missingPrefix()} - для них Telegram отвечает STICKERSET_INVALID.
+ */
+public final class EmulatedStickerSets {
+
+    private final String missingPrefix;
+    private final Map<String, StickerSet> sets = new ConcurrentHashMap<>();
+    private final AtomicLong fileSeq = new AtomicLong();
+
+    public EmulatedStickerSets(String missingPrefix) {
+        this.missingPrefix = missingPrefix;
+    }
+
+    public Optional<StickerSet> find(String name) {
+        if (name == null || name.isBlank() || name.startsWith(missingPrefix)) {
+            return Optional.empty();
+        }
+        return Optional.of(sets.computeIfAbsent(name, this::synthesize));
+    }
+
+    /**
+     * @return false, если имя уже занято
+     */
+    public boolean create(String name, String title, String emoji) {
+        StickerSet created = new StickerSet(name, title != null ? title : name, new ArrayList<>());
+        created.add(newSticker(emoji));
+        return sets.putIfAbsent(name, created) == null;
+    }
+
+    /**
+     * Добавить стикер в уже известный эмулятору набор (созданный или прочитанный через getStickerSet)
+     *
+     * @return file_id добавленного стикера или пусто, если набора нет
+     */
+    public Optional<String> addSticker(String name, String emoji) {
+        StickerSet set = name != null ? sets.get(name) : null;
+        return Optional.ofNullable(set).map(existing -> existing.add(newSticker(emoji)));
+    }
+
+    public void clear() {
+        sets.clear();
+    }
+
+    private StickerSet synthesize(String name) {
+        StickerSet set = new StickerSet(name, "Emulated " + name, new ArrayList<>());
+        int count = 1 + Math.floorMod(name.hashCode(), 30);
+        for (int i = 0; i < count; i++) {
+            set.add(newSticker("🙂"));
+        }
+        return set;
+    }
+
+    private Sticker newSticker(String emoji) {
+        long seq = fileSeq.incrementAndGet();
+        return new Sticker("emu_file_" + seq, "emu_u" + seq, emoji != null && !emoji.isBlank() ? emoji : "🙂");
+    }
+
+    public record Sticker(String fileId, String fileUniqueId, String emoji) {
+    }
+
+    public record StickerSet(String name, String title, List<Sticker> stickers) {
+
+        synchronized String add(Sticker sticker) {
+            stickers.add(sticker);
+            return sticker.fileId();
+        }
+
+        /**
+         * Объект StickerSet в формате Bot API
+         */
+        public synchronized Map<String, Object> toBotApi() {
+            List<Map<String, Object>> items = new ArrayList<>(stickers.size());
+            for (Sticker sticker : stickers) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("file_id", sticker.fileId());
+                item.put("file_unique_id", sticker.fileUniqueId());
+                item.put("type", "regular");
+                item.put("width", 512);
+                item.put("height", 512);
+                item.put("is_animated", false);
+                item.put("is_video", false);
+                item.put("emoji", sticker.emoji());
+                item.put("set_name", name);
+                item.put("file_size", EmulatorHttp.WEBP_1X1.length);
+                items.add(item);
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("name", name);
+            result.put("title", title);
+            result.put("sticker_type", "regular");
+            result.put("stickers", items);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.sticker_art_gallery.emulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Разбор запросов и запись ответов для обработчиков эмулятора
+ */
+final class EmulatorHttp {
+
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /** Минимальный валидный WebP 1x1 (lossless) - ответ на генерацию, combine и скачивание файлов */
+    static final byte[] WEBP_1X1 = {
+            'R', 'I', 'F', 'F', 0x1a, 0x00, 0x00, 0x00, 'W', 'E', 'B', 'P',
+            'V', 'P', '8', 'L', 0x0d, 0x00, 0x00, 0x00, 0x2f, 0x00, 0x00, 0x00,
+            0x10, 0x07, 0x10, 0x11, 0x11, (byte) 0x88, (byte) 0x88, (byte) 0xfe, 0x07, 0x00
+    };
+
+    private static final Pattern PART_NAME = Pattern.compile("name=\"([^\"]*)\"");
+
+    private EmulatorHttp() {
+    }
+
+    /**
+     * Параметры запроса: query string, затем тело (JSON-объект, form-urlencoded или текстовые поля multipart)
+     */
+    static Map<String, String> readParams(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseUrlEncoded(exchange.getRequestURI().getRawQuery(), params);
+
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (body.length == 0) {
+            return params;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        contentType = contentType == null ? "" : contentType.toLowerCase();
+        if (contentType.startsWith("application/json")) {
+            JsonNode root = OBJECT_MAPPER.readTree(body);
+            Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode value = field.getValue();
+                params.put(field.getKey(), value.isValueNode() ? value.asText() : value.toString());
+            }
+        } else if (contentType.startsWith("multipart/form-data")) {
+            parseMultipart(body, contentType, params);
+        } else if (contentType.startsWith("application/x-www-form-urlencoded")) {
+            parseUrlEncoded(new String(body, StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    static void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        send(exchange, status, "application/json", OBJECT_MAPPER.writeValueAsBytes(body));
+    }
+
+    static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void parseUrlEncoded(String raw, Map<String, String> params) {
+        if (raw == null || raw.isEmpty()) {
+            return;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Только текстовые поля: файлы стикеров эмулятору не нужны
+     */
+    private static void parseMultipart(byte[] body, String contentType, Map<String, String> params) {
+        int boundaryAt = contentType.indexOf("boundary=");
+        if (boundaryAt < 0) {
+            return;
+        }
+        String boundary = "--" + contentType.substring(boundaryAt + "boundary=".length()).replace("\"", "").split(";")[0].trim();
+        // ISO-8859-1 сохраняет байты один к одному, текстовые значения перекодируются в UTF-8 ниже
+        String raw = new String(body, StandardCharsets.ISO_8859_1);
+        for (String part : raw.split(Pattern.quote(boundary))) {
+            int headersEnd = part.indexOf("\r\n\r\n");
+            if (headersEnd < 0) {
+                continue;
+            }
+            String headers = part.substring(0, headersEnd);
+            if (headers.contains("filename=")) {
+                continue;
+            }
+            Matcher name = PART_NAME.matcher(headers);
+            if (!name.find()) {
+                continue;
+            }
+            String value = part.substring(headersEnd + 4);
+            if (value.endsWith("\r\n")) {
+                value = value.substring(0, value.length() - 2);
+            }
+            params.put(name.group(1), new String(value.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8));
+        }
+    }
+}
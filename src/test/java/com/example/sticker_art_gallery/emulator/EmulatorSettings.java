@@ -0,0 +1,69 @@
+package com.example.sticker_art_gallery.emulator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Настройки эмулятора из системных свойств {@code emulator.*}:
+ * <ul>
+ *     <li>{@code emulator.port} - порт (по умолчанию 18080, 0 - любой свободный);</li>
+ *     <li>{@code emulator.fault.default} и {@code emulator.fault.<метод>} - {@link FaultProfile} для всех
+ *     или одного метода (имя метода Bot API либо generate / poll / save-to-set / combine);</li>
+ *     <li>{@code emulator.processor.generation-time} - {@link LatencyDistribution} готовности генерации;</li>
+ *     <li>{@code emulator.processor.generation-failure-rate} - доля генераций, завершающихся ошибкой;</li>
+ *     <li>{@code emulator.telegram.member-status} - статус getChatMember (member, left, ...);</li>
+ *     <li>{@code emulator.telegram.missing-prefix} - наборы с таким префиксом имени Telegram "не знает".</li>
+ * </ul>
+ */
+public final class EmulatorSettings {
+
+    private final Map<String, String> values;
+    private final FaultProfile defaultProfile;
+    private final Map<String, FaultProfile> profiles = new HashMap<>();
+
+    public EmulatorSettings(Map<String, String> values) {
+        this.values = Map.copyOf(values);
+        this.defaultProfile = FaultProfile.parse(values.get("emulator.fault.default"));
+        values.forEach((key, value) -> {
+            if (key.startsWith("emulator.fault.") && !key.equals("emulator.fault.default")) {
+                profiles.put(key.substring("emulator.fault.".length()), FaultProfile.parse(value));
+            }
+        });
+    }
+
+    public static EmulatorSettings fromSystemProperties() {
+        Map<String, String> values = new HashMap<>();
+        Properties properties = System.getProperties();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith("emulator.")) {
+                values.put(name, properties.getProperty(name));
+            }
+        }
+        return new EmulatorSettings(values);
+    }
+
+    public int port() {
+        return Integer.parseInt(values.getOrDefault("emulator.port", "18080"));
+    }
+
+    public FaultProfile profile(String endpoint) {
+        return profiles.getOrDefault(endpoint, defaultProfile);
+    }
+
+    public LatencyDistribution generationTime() {
+        return LatencyDistribution.parse(values.getOrDefault("emulator.processor.generation-time", "lognormal:8000:0.4"));
+    }
+
+    public double generationFailureRate() {
+        return Double.parseDouble(values.getOrDefault("emulator.processor.generation-failure-rate", "0"));
+    }
+
+    public String memberStatus() {
+        return values.getOrDefault("emulator.telegram.member-status", "member");
+    }
+
+    public String missingPrefix() {
+        return values.getOrDefault("emulator.telegram.missing-prefix", "missing_");
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.sticker_art_gallery.emulator;
+
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Локальный эмулятор внешних сервисов для нагрузочного тестирования без Telegram и sticker-processor.
+ * <p>
+ * Один HTTP-порт обслуживает Bot API ({@code /bot...}, {@code /file/bot...}) и sticker-processor
+ * ({@code /stickers/...}). Приложение направляется на эмулятор переменными
+ * {@code TELEGRAM_API_BASE_URL=http://localhost:18080} и {@code STICKER_PROCESSOR_URL=http://localhost:18080}.
+ * Задержки, доля ошибок и 429 настраиваются через {@link EmulatorSettings}.
+ * Служебные ручки: {@code GET /__emulator/stats} - счётчики по методам, {@code POST /__emulator/reset} - сброс.
+ * <p>
+ * Запуск: {@code ./gradlew runEmulator -Demulator.fault.getStickerSet=latency=lognormal:120:0.6,429=0.05}
+ */
+public final class ExternalServicesEmulator implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExternalServicesEmulator.class);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final TelegramBotApiEmulator telegram;
+    private final StickerProcessorEmulator stickerProcessor;
+    private final EmulatedStickerSets stickerSets;
+
+    private ExternalServicesEmulator(HttpServer server, ExecutorService executor, EmulatorSettings settings) {
+        this.server = server;
+        this.executor = executor;
+        this.stickerSets = new EmulatedStickerSets(settings.missingPrefix());
+        this.telegram = new TelegramBotApiEmulator(settings, stickerSets);
+        this.stickerProcessor = new StickerProcessorEmulator(settings, stickerSets);
+
+        server.createContext("/bot", telegram);
+        server.createContext("/file/bot", telegram);
+        server.createContext("/stickers", stickerProcessor);
+        server.createContext("/__emulator/stats", exchange ->
+                EmulatorHttp.sendJson(exchange, 200, stats()));
+        server.createContext("/__emulator/reset", exchange -> {
+            reset();
+            EmulatorHttp.sendJson(exchange, 200, Map.of("ok", true));
+        });
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Запустить эмулятор на {@link EmulatorSettings#port()}
+     */
+    public static ExternalServicesEmulator start(EmulatorSettings settings) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(settings.port()), 1024);
+        // Задержки эмулируются sleep в потоке запроса, поэтому пул не ограничен
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "emulator-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ExternalServicesEmulator emulator = new ExternalServicesEmulator(server, executor, settings);
+        server.start();
+        LOGGER.info("🧪 Эмулятор Telegram Bot API и sticker-processor: {}", emulator.baseUrl());
+        return emulator;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + port();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("telegram", telegram.stats());
+        stats.put("stickerProcessor", stickerProcessor.stats());
+        return stats;
+    }
+
+    public void reset() {
+        telegram.resetStats();
+        stickerProcessor.resetStats();
+        stickerSets.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws Exception {
+        ExternalServicesEmulator emulator = start(EmulatorSettings.fromSystemProperties());
+        LOGGER.info("👉 TELEGRAM_API_BASE_URL={} STICKER_PROCESSOR_URL={}", emulator.baseUrl(), emulator.baseUrl());
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            LOGGER.info("📊 Эмулятор: {}", emulator.stats());
+            emulator.close();
+            stopped.countDown();
+        }));
+        stopped.await();
+    }
+}
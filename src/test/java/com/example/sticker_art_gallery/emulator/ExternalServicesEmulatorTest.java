@@ -0,0 +1,118 @@
+package com.example.sticker_art_gallery.emulator;
+
+import com.example.sticker_art_gallery.config.AppConfig;
+import com.example.sticker_art_gallery.dto.generation.GenerateStickerV2Request;
+import com.example.sticker_art_gallery.service.generation.StickerProcessorGenerationClient;
+import com.example.sticker_art_gallery.service.metrics.RemoteCallMetrics;
+import com.example.sticker_art_gallery.service.telegram.TelegramBotApiService;
+import com.example.sticker_art_gallery.service.telegram.TelegramRateLimitException;
+import com.example.sticker_art_gallery.service.telegram.TelegramSendScheduler;
+import com.example.sticker_art_gallery.service.telegram.TelegramStickerSetNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ExternalServicesEmulator: эмулятор Bot API и sticker-processor")
+class ExternalServicesEmulatorTest {
+
+    private ExternalServicesEmulator emulator;
+
+    @AfterEach
+    void tearDown() {
+        if (emulator != null) {
+            emulator.close();
+        }
+    }
+
+    @Test
+    @DisplayName("getStickerSet: синтетический набор, STICKERSET_INVALID для missing_ и 429 с retry_after")
+    void telegramClient_worksAgainstEmulator() throws Exception {
+        emulator = start(Map.of("emulator.fault.sendMessage", "429=1,retry-after=3"));
+        TelegramBotApiService api = telegramApi();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> set = (Map<String, Object>) api.getStickerSetInfo("cats_by_bot");
+        assertThat(set.get("name")).isEqualTo("cats_by_bot");
+        assertThat((List<?>) set.get("stickers")).isNotEmpty();
+
+        assertThatThrownBy(() -> api.getStickerSetInfo("missing_cats"))
+                .isInstanceOf(TelegramStickerSetNotFoundException.class);
+        assertThatThrownBy(() -> api.sendMessage(42L, "hi", null))
+                .isInstanceOfSatisfying(TelegramRateLimitException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(3));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Long>> telegramStats = (Map<String, Map<String, Long>>) emulator.stats().get("telegram");
+        assertThat(telegramStats.get("getStickerSet")).containsEntry("ok", 2L);
+        assertThat(telegramStats.get("sendMessage")).containsEntry("429", 1L);
+    }
+
+    @Test
+    @DisplayName("generate → poll → save-to-set, результат виден через getStickerSet")
+    void generationFlow_worksAgainstEmulator() throws Exception {
+        emulator = start(Map.of("emulator.processor.generation-time", "fixed:1000"));
+        StickerProcessorGenerationClient client = new StickerProcessorGenerationClient(new RestTemplate(), emulator.baseUrl());
+        GenerateStickerV2Request request = new GenerateStickerV2Request();
+        request.setPrompt("cat");
+        request.setModel("flux-schnell");
+        assertThat(client.pollResult("unknown").getHttpStatus()).isEqualTo(404);
+
+        StickerProcessorGenerationClient.SubmitResult submit = client.submitGenerate(request);
+        assertThat(submit.fileId()).isNotBlank();
+        assertThat(client.pollResult(submit.fileId()).getHttpStatus()).isEqualTo(202);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        StickerProcessorGenerationClient.PollResult poll = client.pollResult(submit.fileId());
+        while (!poll.isImageReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            poll = client.pollResult(submit.fileId());
+        }
+        assertThat(poll.isImageReady()).isTrue();
+
+        StickerProcessorGenerationClient.SaveResult saved = client.saveToSet(submit.fileId(), 7L, "gen_by_bot", "Gen", "🐱", 30);
+        assertThat(saved.httpStatus()).isEqualTo(200);
+        assertThat(saved.payload()).containsEntry("operation", "created");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> set = (Map<String, Object>) telegramApi().getStickerSetInfo("gen_by_bot");
+        assertThat((List<?>) set.get("stickers")).hasSize(1);
+    }
+
+    @Test
+    void faultProfile_parsesAndRolls() {
+        FaultProfile profile = FaultProfile.parse("latency=uniform:10:20,error=0.5,429=0.5,retry-after=7");
+
+        assertThat(profile.retryAfterSeconds()).isEqualTo(7);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100; i++) {
+            assertThat(profile.latency().sampleMillis(random)).isBetween(10L, 20L);
+            assertThat(profile.roll(random)).isNotEqualTo(FaultProfile.Fault.NONE);
+        }
+        assertThat(FaultProfile.parse("").roll(random)).isEqualTo(FaultProfile.Fault.NONE);
+        assertThat(LatencyDistribution.parse("lognormal:100:0").sampleMillis(random)).isEqualTo(100L);
+    }
+
+    private static ExternalServicesEmulator start(Map<String, String> overrides) throws Exception {
+        Map<String, String> values = new HashMap<>(overrides);
+        values.put("emulator.port", "0");
+        return ExternalServicesEmulator.start(new EmulatorSettings(values));
+    }
+
+    private TelegramBotApiService telegramApi() {
+        AppConfig appConfig = new AppConfig();
+        appConfig.getTelegram().setBotToken("123:emulated");
+        appConfig.getTelegram().setApiBaseUrl(emulator.baseUrl());
+        return new TelegramBotApiService(appConfig, new ObjectMapper(), TelegramSendScheduler.unthrottled(),
+                RemoteCallMetrics.noop());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.sticker_art_gallery.emulator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Общая часть обработчиков эмулятора: задержка и сбои по {@link FaultProfile} метода, затем обычный ответ.
+ * Формат 429 и 5xx задаёт конкретный сервис.
+ */
+abstract class FaultInjectingHandler implements HttpHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FaultInjectingHandler.class);
+
+    private final EmulatorSettings settings;
+    private final Map<String, Map<String, LongAdder>> stats = new ConcurrentHashMap<>();
+
+    FaultInjectingHandler(EmulatorSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public final void handle(HttpExchange exchange) throws IOException {
+        String endpoint = endpoint(exchange);
+        try {
+            FaultProfile profile = settings.profile(endpoint);
+            RandomGenerator random = ThreadLocalRandom.current();
+            EmulatorHttp.sleep(profile.latency().sampleMillis(random));
+            switch (profile.roll(random)) {
+                case RATE_LIMITED -> {
+                    record(endpoint, "429");
+                    exchange.getResponseHeaders().set("Retry-After", String.valueOf(profile.retryAfterSeconds()));
+                    rateLimited(exchange, profile.retryAfterSeconds());
+                }
+                case ERROR -> {
+                    record(endpoint, "error");
+                    failed(exchange);
+                }
+                case NONE -> {
+                    record(endpoint, "ok");
+                    serve(exchange, endpoint);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("⚠️ Эмулятор: ошибка обработки {}: {}", endpoint, e.getMessage(), e);
+            record(endpoint, "internal");
+            EmulatorHttp.sendJson(exchange, 500, Map.of("detail", "emulator failure: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Снимок счётчиков: метод → исход (ok, 429, error) → число запросов
+     */
+    Map<String, Map<String, Long>> stats() {
+        Map<String, Map<String, Long>> snapshot = new TreeMap<>();
+        stats.forEach((endpoint, outcomes) -> {
+            Map<String, Long> counts = new TreeMap<>();
+            outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+            snapshot.put(endpoint, counts);
+        });
+        return snapshot;
+    }
+
+    void resetStats() {
+        stats.clear();
+    }
+
+    /** Имя метода для профиля сбоев и статистики */
+    abstract String endpoint(HttpExchange exchange);
+
+    abstract void serve(HttpExchange exchange, String endpoint) throws IOException;
+
+    abstract void rateLimited(HttpExchange exchange, int retryAfterSeconds) throws IOException;
+
+    abstract void failed(HttpExchange exchange) throws IOException;
+
+    private void record(String endpoint, String outcome) {
+        stats.computeIfAbsent(endpoint, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, key -> new LongAdder())
+                .increment();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.sticker_art_gallery.emulator;
+
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Поведение одного метода эмулятора: задержка, доля ошибок 5xx и доля 429 с retry_after.
+ * Формат: {@code latency=lognormal:80:0.5,error=0.01,429=0.05,retry-after=2}; пропущенные ключи - без сбоев.
+ */
+public record FaultProfile(LatencyDistribution latency, double errorRate, double rateLimitRate, int retryAfterSeconds) {
+
+    public static final FaultProfile NONE = new FaultProfile(LatencyDistribution.none(), 0, 0, 1);
+
+    public enum Fault {
+        NONE,
+        ERROR,
+        RATE_LIMITED
+    }
+
+    public static FaultProfile parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return NONE;
+        }
+        LatencyDistribution latency = LatencyDistribution.none();
+        double errorRate = 0;
+        double rateLimitRate = 0;
+        int retryAfter = 1;
+        for (String entry : spec.split(",")) {
+            String[] kv = entry.split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Некорректный профиль сбоев: " + spec);
+            }
+            String value = kv[1].trim();
+            switch (kv[0].trim().toLowerCase(Locale.ROOT)) {
+                case "latency" -> latency = LatencyDistribution.parse(value);
+                case "error" -> errorRate = Double.parseDouble(value);
+                case "429" -> rateLimitRate = Double.parseDouble(value);
+                case "retry-after" -> retryAfter = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Неизвестный ключ профиля сбоев: " + kv[0]);
+            }
+        }
+        return new FaultProfile(latency, errorRate, rateLimitRate, retryAfter);
+    }
+
+    /**
+     * Сбой для очередного запроса: сначала 429, затем 5xx, иначе обычный ответ
+     */
+    public Fault roll(RandomGenerator random) {
+        double dice = random.nextDouble();
+        if (dice < rateLimitRate) {
+            return Fault.RATE_LIMITED;
+        }
+        if (dice < rateLimitRate + errorRate) {
+            return Fault.ERROR;
+        }
+        return Fault.NONE;
+    }
+}
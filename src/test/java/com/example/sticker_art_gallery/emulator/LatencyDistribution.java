@@ -0,0 +1,58 @@
+package com.example.sticker_art_gallery.emulator;
+
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Распределение задержки ответа эмулятора, мс.
+ * Формат: {@code 0}, {@code fixed:50}, {@code uniform:20:200}, {@code lognormal:80:0.5} (медиана и sigma).
+ */
+public interface LatencyDistribution {
+
+    long sampleMillis(RandomGenerator random);
+
+    static LatencyDistribution none() {
+        return new Fixed(0);
+    }
+
+    static LatencyDistribution parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return none();
+        }
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        try {
+            return switch (parts[0]) {
+                case "fixed" -> new Fixed(Long.parseLong(parts[1]));
+                case "uniform" -> new Uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                case "lognormal" -> new LogNormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                default -> new Fixed(Long.parseLong(parts[0]));
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректное распределение задержки: " + spec, e);
+        }
+    }
+
+    record Fixed(long millis) implements LatencyDistribution {
+        @Override
+        public long sampleMillis(RandomGenerator random) {
+            return millis;
+        }
+    }
+
+    record Uniform(long minMillis, long maxMillis) implements LatencyDistribution {
+        @Override
+        public long sampleMillis(RandomGenerator random) {
+            return maxMillis <= minMillis ? minMillis : random.nextLong(minMillis, maxMillis + 1);
+        }
+    }
+
+    /**
+     * Длинный хвост, как у реальных внешних API: большая часть ответов около медианы, редкие - в разы дольше
+     */
+    record LogNormal(double medianMillis, double sigma) implements LatencyDistribution {
+        @Override
+        public long sampleMillis(RandomGenerator random) {
+            return Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.sticker_art_gallery.emulator;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Эмулятор sticker-processor: generate → poll (202, пока генерация "идёт") → save-to-set, и combine-from-set.
+ * Время генерации задаётся {@code emulator.processor.generation-time}, доля неудачных генераций (poll → 422) -
+ * {@code emulator.processor.generation-failure-rate}. save-to-set добавляет стикер в набор эмулятора Bot API,
+ * поэтому последующий getStickerSet видит результат.
+ */
+final class StickerProcessorEmulator extends FaultInjectingHandler {
+
+    private static final String WAVESPEED = "/stickers/wavespeed/";
+
+    private final EmulatorSettings settings;
+    private final EmulatedStickerSets stickerSets;
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+    private final AtomicLong seq = new AtomicLong();
+
+    StickerProcessorEmulator(EmulatorSettings settings, EmulatedStickerSets stickerSets) {
+        super(settings);
+        this.settings = settings;
+        this.stickerSets = stickerSets;
+    }
+
+    @Override
+    String endpoint(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals("/stickers/combine-from-set")) {
+            return "combine";
+        }
+        if (path.startsWith(WAVESPEED)) {
+            String rest = path.substring(WAVESPEED.length());
+            if (rest.equals("generate") || rest.equals("save-to-set")) {
+                return rest;
+            }
+            return "poll";
+        }
+        return "unknown";
+    }
+
+    @Override
+    void serve(HttpExchange exchange, String endpoint) throws IOException {
+        switch (endpoint) {
+            case "generate" -> generate(exchange);
+            case "poll" -> poll(exchange);
+            case "save-to-set" -> saveToSet(exchange);
+            case "combine" -> {
+                EmulatorHttp.readParams(exchange);
+                EmulatorHttp.send(exchange, 200, "image/webp", EmulatorHttp.WEBP_1X1);
+            }
+            default -> EmulatorHttp.sendJson(exchange, 404, Map.of("detail", "Not Found"));
+        }
+    }
+
+    @Override
+    void rateLimited(HttpExchange exchange, int retryAfterSeconds) throws IOException {
+        EmulatorHttp.sendJson(exchange, 429, Map.of("detail", "Rate limit exceeded, retry after " + retryAfterSeconds + "s"));
+    }
+
+    @Override
+    void failed(HttpExchange exchange) throws IOException {
+        EmulatorHttp.sendJson(exchange, 503, Map.of("detail", "Service temporarily unavailable (emulated)"));
+    }
+
+    private void generate(HttpExchange exchange) throws IOException {
+        EmulatorHttp.readParams(exchange);
+        long id = seq.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long readyAt = System.currentTimeMillis() + Math.max(0, settings.generationTime().sampleMillis(random));
+        boolean fails = random.nextDouble() < settings.generationFailureRate();
+        String fileId = "emu_gen_" + id;
+        generations.put(fileId, new Generation(readyAt, fails));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("file_id", fileId);
+        body.put("status", "processing");
+        body.put("provider_request_id", "emu-req-" + id);
+        EmulatorHttp.sendJson(exchange, 202, body);
+    }
+
+    private void poll(HttpExchange exchange) throws IOException {
+        String fileId = exchange.getRequestURI().getPath().substring(WAVESPEED.length());
+        Generation generation = generations.get(fileId);
+        if (generation == null) {
+            EmulatorHttp.sendJson(exchange, 404, Map.of("detail", "File not found"));
+        } else if (System.currentTimeMillis() < generation.readyAt()) {
+            EmulatorHttp.sendJson(exchange, 202, Map.of("status", "processing"));
+        } else if (generation.fails()) {
+            EmulatorHttp.sendJson(exchange, 422, Map.of("detail", "Generation failed (emulated)"));
+        } else {
+            EmulatorHttp.send(exchange, 200, "image/webp", EmulatorHttp.WEBP_1X1);
+        }
+    }
+
+    private void saveToSet(HttpExchange exchange) throws IOException {
+        Map<String, String> params = EmulatorHttp.readParams(exchange);
+        String fileId = params.get("file_id");
+        Generation generation = fileId != null ? generations.get(fileId) : null;
+        if (generation == null || generation.fails() || System.currentTimeMillis() < generation.readyAt()) {
+            EmulatorHttp.sendJson(exchange, 409, Map.of("detail", "Image is not ready"));
+            return;
+        }
+        String name = params.get("name");
+        String emoji = params.get("emoji");
+        String operation;
+        Optional<String> telegramFileId = stickerSets.addSticker(name, emoji);
+        if (telegramFileId.isPresent()) {
+            operation = "added";
+        } else if (stickerSets.create(name, params.get("title"), emoji)) {
+            operation = "created";
+            telegramFileId = stickerSets.find(name).map(set -> set.stickers().get(0).fileId());
+        } else {
+            EmulatorHttp.sendJson(exchange, 400, Map.of("detail", "Invalid sticker set name"));
+            return;
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("operation", operation);
+        body.put("sticker_set_name", name);
+        body.put("telegram_file_id", telegramFileId.orElse(null));
+        EmulatorHttp.sendJson(exchange, 200, body);
+    }
+
+    private record Generation(long readyAt, boolean fails) {
+    }
+}
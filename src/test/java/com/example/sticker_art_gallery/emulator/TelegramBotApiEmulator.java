@@ -0,0 +1,137 @@
+package com.example.sticker_art_gallery.emulator;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Эмулятор Telegram Bot API: {@code /bot<token>/<method>} и {@code /file/bot<token>/<path>}.
+ * <p>
+ * Реализованы методы, которые вызывает приложение: getStickerSet, createNewStickerSet, addStickerToSet,
+ * getChatMember, sendMessage, answerInlineQuery, а также getFile и getUserProfilePhotos.
+ * Прочие методы отвечают {@code {"ok":true,"result":true}}. Токен не проверяется.
+ */
+final class TelegramBotApiEmulator extends FaultInjectingHandler {
+
+    private static final String FILE_PREFIX = "/file/bot";
+
+    private final EmulatorSettings settings;
+    private final EmulatedStickerSets stickerSets;
+    private final AtomicInteger messageIds = new AtomicInteger();
+
+    TelegramBotApiEmulator(EmulatorSettings settings, EmulatedStickerSets stickerSets) {
+        super(settings);
+        this.settings = settings;
+        this.stickerSets = stickerSets;
+    }
+
+    @Override
+    String endpoint(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        if (path.startsWith(FILE_PREFIX)) {
+            return "file";
+        }
+        int slash = path.indexOf('/', "/bot".length());
+        return slash < 0 ? "unknown" : path.substring(slash + 1);
+    }
+
+    @Override
+    void serve(HttpExchange exchange, String method) throws IOException {
+        if ("file".equals(method)) {
+            EmulatorHttp.send(exchange, 200, "image/webp", EmulatorHttp.WEBP_1X1);
+            return;
+        }
+        Map<String, String> params = EmulatorHttp.readParams(exchange);
+        switch (method) {
+            case "getStickerSet" -> {
+                Optional<EmulatedStickerSets.StickerSet> set = stickerSets.find(params.get("name"));
+                if (set.isEmpty()) {
+                    badRequest(exchange, "Bad Request: STICKERSET_INVALID");
+                } else {
+                    ok(exchange, set.get().toBotApi());
+                }
+            }
+            case "createNewStickerSet" -> {
+                if (stickerSets.create(params.get("name"), params.get("title"), params.get("emojis"))) {
+                    ok(exchange, true);
+                } else {
+                    badRequest(exchange, "Bad Request: sticker set name is already occupied");
+                }
+            }
+            case "addStickerToSet" -> {
+                // Набор из галереи "существует в Telegram", даже если эмулятор его ещё не видел
+                stickerSets.find(params.get("name"));
+                if (stickerSets.addSticker(params.get("name"), params.get("emojis")).isPresent()) {
+                    ok(exchange, true);
+                } else {
+                    badRequest(exchange, "Bad Request: STICKERSET_INVALID");
+                }
+            }
+            case "getChatMember" -> {
+                Map<String, Object> user = new LinkedHashMap<>();
+                user.put("id", parseLong(params.get("user_id")));
+                user.put("is_bot", false);
+                user.put("first_name", "User " + params.get("user_id"));
+                Map<String, Object> member = new LinkedHashMap<>();
+                member.put("user", user);
+                member.put("status", settings.memberStatus());
+                ok(exchange, member);
+            }
+            case "sendMessage" -> {
+                Map<String, Object> message = new LinkedHashMap<>();
+                message.put("message_id", messageIds.incrementAndGet());
+                message.put("date", Instant.now().getEpochSecond());
+                message.put("chat", Map.of("id", parseLong(params.get("chat_id")), "type", "private"));
+                message.put("text", params.getOrDefault("text", ""));
+                ok(exchange, message);
+            }
+            case "getFile" -> {
+                String fileId = params.getOrDefault("file_id", "unknown");
+                Map<String, Object> file = new LinkedHashMap<>();
+                file.put("file_id", fileId);
+                file.put("file_unique_id", "u_" + fileId);
+                file.put("file_size", EmulatorHttp.WEBP_1X1.length);
+                file.put("file_path", "stickers/" + fileId + ".webp");
+                ok(exchange, file);
+            }
+            case "getUserProfilePhotos" -> ok(exchange, Map.of("total_count", 0, "photos", List.of()));
+            default -> ok(exchange, true);
+        }
+    }
+
+    @Override
+    void rateLimited(HttpExchange exchange, int retryAfterSeconds) throws IOException {
+        EmulatorHttp.sendJson(exchange, 429, Map.of(
+                "ok", false,
+                "error_code", 429,
+                "description", "Too Many Requests: retry after " + retryAfterSeconds,
+                "parameters", Map.of("retry_after", retryAfterSeconds)));
+    }
+
+    @Override
+    void failed(HttpExchange exchange) throws IOException {
+        EmulatorHttp.sendJson(exchange, 502, Map.of("ok", false, "error_code", 502, "description", "Bad Gateway"));
+    }
+
+    private static void ok(HttpExchange exchange, Object result) throws IOException {
+        EmulatorHttp.sendJson(exchange, 200, Map.of("ok", true, "result", result));
+    }
+
+    private static void badRequest(HttpExchange exchange, String description) throws IOException {
+        EmulatorHttp.sendJson(exchange, 400, Map.of("ok", false, "error_code", 400, "description", description));
+    }
+
+    private static Object parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (RuntimeException e) {
+            return value;
+        }
+    }
+}
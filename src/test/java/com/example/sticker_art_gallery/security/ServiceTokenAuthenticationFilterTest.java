@@ -0,0 +1,66 @@
+package com.example.sticker_art_gallery.security;
+
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@Epic("Безопасность")
+@Feature("Межсервисная аутентификация")
+@DisplayName("ServiceTokenAuthenticationFilter: доступ к actuator")
+class ServiceTokenAuthenticationFilterTest {
+
+    @Mock
+    private ServiceTokenService serviceTokenService;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("health и info не требуют токена, metrics и prometheus - требуют")
+    void actuatorPaths_onlyHealthAndInfoArePublic() {
+        ServiceTokenAuthenticationFilter filter = new ServiceTokenAuthenticationFilter(serviceTokenService);
+
+        assertThat(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/actuator/health"))).isTrue();
+        assertThat(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/actuator/health/liveness"))).isTrue();
+        assertThat(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/actuator/info"))).isTrue();
+        assertThat(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/actuator/prometheus"))).isFalse();
+        assertThat(filter.shouldNotFilter(new MockHttpServletRequest("GET", "/actuator/metrics/jvm.memory.used"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Prometheus без X-Service-Token - 401, с валидным токеном - роль INTERNAL")
+    void prometheus_requiresServiceToken() throws Exception {
+        ServiceTokenAuthenticationFilter filter = new ServiceTokenAuthenticationFilter(serviceTokenService);
+        MockHttpServletResponse anonymous = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/prometheus"), anonymous, new MockFilterChain());
+        assertThat(anonymous.getStatus()).isEqualTo(401);
+
+        when(serviceTokenService.authenticate("scrape-token")).thenReturn(Optional.of("prometheus"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/prometheus");
+        request.addHeader("X-Service-Token", "scrape-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+                .extracting(Object::toString)
+                .containsExactly("ROLE_INTERNAL");
+    }
+}
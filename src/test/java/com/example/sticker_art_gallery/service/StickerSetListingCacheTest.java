@@ -0,0 +1,120 @@
+package com.example.sticker_art_gallery.service;
+
+import com.example.sticker_art_gallery.dto.PageRequest;
+import com.example.sticker_art_gallery.dto.PageResponse;
+import com.example.sticker_art_gallery.dto.StickerSetDto;
+import com.example.sticker_art_gallery.dto.StickerSetFilterRequest;
+import com.example.sticker_art_gallery.repository.DislikeRepository;
+import com.example.sticker_art_gallery.repository.LikeRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("StickerSetListingCache")
+class StickerSetListingCacheTest {
+
+    private static final Long VIEWER_ID = 42L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private LikeRepository likeRepository;
+    private DislikeRepository dislikeRepository;
+    private StickerSetListingCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        likeRepository = mock(LikeRepository.class);
+        dislikeRepository = mock(DislikeRepository.class);
+        cache = new StickerSetListingCache(objectMapper, likeRepository, dislikeRepository, true, 30, 100, 2);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void isCacheable_shouldSkipLikedOnlyDeepPagesAndCursorContinuation() {
+        assertTrue(cache.isCacheable(filter(0, null, null)));
+        assertTrue(cache.isCacheable(filter(1, null, null)));
+        assertFalse(cache.isCacheable(filter(2, null, null)));
+        assertTrue(cache.isCacheable(filter(0, "", null)));
+        assertFalse(cache.isCacheable(filter(0, "abc", null)));
+
+        StickerSetFilterRequest liked = filter(0, null, VIEWER_ID);
+        liked.setLikedOnly(true);
+        assertFalse(cache.isCacheable(liked));
+    }
+
+    @Test
+    void get_shouldRenderOnceForAllViewersAndReloadAfterInvalidate() {
+        byte[] anonymous = cache.get(filter(0, null, null), loader());
+        byte[] viewer = cache.get(filter(0, null, VIEWER_ID), loader());
+
+        assertEquals(1, loads.get());
+        assertArrayEquals(anonymous, viewer);
+
+        cache.invalidate();
+        cache.get(filter(0, null, null), loader());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void normalizedKey_shouldIgnoreCategoryOrderAndViewer() {
+        StickerSetFilterRequest first = filter(0, null, null);
+        first.setCategoryKeys(Set.of("animals", "memes"));
+        StickerSetFilterRequest second = filter(0, null, VIEWER_ID);
+        second.setCategoryKeys(Set.of("memes", "animals"));
+
+        assertEquals(StickerSetListingCache.normalizedKey(first), StickerSetListingCache.normalizedKey(second));
+    }
+
+    @Test
+    void get_shouldOverlayViewerLikesOnCachedPage() throws Exception {
+        when(likeRepository.findLikedStickerSetIdsByUserId(VIEWER_ID, List.of(1L, 2L))).thenReturn(List.of(2L));
+        when(dislikeRepository.findDislikedStickerSetIdsByUserId(VIEWER_ID, List.of(1L, 2L))).thenReturn(List.of(1L));
+        cache.get(filter(0, null, null), loader());
+
+        JsonNode content = objectMapper.readTree(cache.get(filter(0, null, VIEWER_ID), loader())).path("content");
+
+        assertFalse(content.get(0).path("isLikedByCurrentUser").asBoolean());
+        assertTrue(content.get(0).path("isDislikedByCurrentUser").asBoolean());
+        assertTrue(content.get(1).path("isLikedByCurrentUser").asBoolean());
+        assertFalse(content.get(1).path("isDislikedByCurrentUser").asBoolean());
+        assertEquals(1, loads.get());
+    }
+
+    private Supplier<PageResponse<StickerSetDto>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return PageResponse.ofCursor(List.of(dto(1L), dto(2L)), 20, true, null);
+        };
+    }
+
+    private static StickerSetDto dto(Long id) {
+        StickerSetDto dto = new StickerSetDto();
+        dto.setId(id);
+        return dto;
+    }
+
+    private static StickerSetFilterRequest filter(int page, String cursor, Long currentUserId) {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(page);
+        pageRequest.setCursor(cursor);
+        StickerSetFilterRequest filter = new StickerSetFilterRequest();
+        filter.setPageRequest(pageRequest);
+        filter.setLanguage("en");
+        filter.setCurrentUserId(currentUserId);
+        return filter;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.sticker_art_gallery.service;
+
+import com.example.sticker_art_gallery.model.telegram.StickerSet;
+import com.example.sticker_art_gallery.model.telegram.StickerSetState;
+import com.example.sticker_art_gallery.model.telegram.StickerSetType;
+import com.example.sticker_art_gallery.model.telegram.StickerSetVisibility;
+import com.example.sticker_art_gallery.repository.StickerSetRepository;
+import com.example.sticker_art_gallery.repository.projection.StickerSetLikesRankProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("StickerSetTopLikesIndex")
+class StickerSetTopLikesIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private StickerSetRepository stickerSetRepository;
+    private StickerSetTopLikesIndex index;
+
+    @BeforeEach
+    void setUp() {
+        stickerSetRepository = mock(StickerSetRepository.class);
+        when(stickerSetRepository.findLikesRankOfPublicActive()).thenReturn(List.of(
+                row(1L, 5, BASE, StickerSetType.USER),
+                row(2L, 10, BASE, StickerSetType.OFFICIAL),
+                row(3L, 5, BASE.plusDays(1), StickerSetType.OFFICIAL),
+                row(4L, 0, BASE, StickerSetType.USER)
+        ));
+        index = new StickerSetTopLikesIndex(stickerSetRepository);
+    }
+
+    @Test
+    void rebuild_shouldOrderByLikesThenCreatedAtDesc() {
+        assertFalse(index.isReady());
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        StickerSetTopLikesIndex.Slice slice = index.page(false, 0, 10);
+        assertEquals(List.of(2L, 3L, 1L, 4L), ids(slice));
+        assertEquals(4, slice.total());
+    }
+
+    @Test
+    void page_shouldRespectOffsetAndOfficialPartition() {
+        index.rebuild();
+
+        assertEquals(List.of(3L, 1L), ids(index.page(false, 1, 2)));
+        StickerSetTopLikesIndex.Slice official = index.page(true, 0, 10);
+        assertEquals(List.of(2L, 3L), ids(official));
+        assertEquals(2, official.total());
+    }
+
+    @Test
+    void update_shouldMoveEntryAndDropInvisibleSets() {
+        index.rebuild();
+
+        index.update(stickerSet(4L, 11, BASE, StickerSetType.USER, StickerSetVisibility.PUBLIC));
+        assertEquals(List.of(4L, 2L, 3L, 1L), ids(index.page(false, 0, 10)));
+
+        index.update(stickerSet(2L, 10, BASE, StickerSetType.OFFICIAL, StickerSetVisibility.PRIVATE));
+        assertEquals(List.of(4L, 3L, 1L), ids(index.page(false, 0, 10)));
+        assertEquals(List.of(3L), ids(index.page(true, 0, 10)));
+        assertEquals(1, index.page(true, 0, 10).total());
+
+        index.remove(1L);
+        assertEquals(2, index.page(false, 0, 10).total());
+    }
+
+    private static List<Long> ids(StickerSetTopLikesIndex.Slice slice) {
+        return slice.entries().stream().map(StickerSetTopLikesIndex.Entry::id).toList();
+    }
+
+    private static StickerSet stickerSet(Long id, int likes, LocalDateTime createdAt,
+                                         StickerSetType type, StickerSetVisibility visibility) {
+        StickerSet stickerSet = new StickerSet();
+        stickerSet.setId(id);
+        stickerSet.setLikesCount(likes);
+        stickerSet.setCreatedAt(createdAt);
+        stickerSet.setType(type);
+        stickerSet.setState(StickerSetState.ACTIVE);
+        stickerSet.setVisibility(visibility);
+        return stickerSet;
+    }
+
+    private static StickerSetLikesRankProjection row(Long id, int likes, LocalDateTime createdAt, StickerSetType type) {
+        return new StickerSetLikesRankProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getLikesCount() {
+                return likes;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public StickerSetType getType() {
+                return type;
+            }
+        };
+    }
+}
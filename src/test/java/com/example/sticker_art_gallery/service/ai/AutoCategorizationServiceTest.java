@@ -0,0 +1,100 @@
+package com.example.sticker_art_gallery.service.ai;
+
+import com.example.sticker_art_gallery.dto.CategorySuggestionResult;
+import com.example.sticker_art_gallery.model.category.Category;
+import com.example.sticker_art_gallery.model.telegram.StickerSet;
+import com.example.sticker_art_gallery.repository.CategoryRepository;
+import com.example.sticker_art_gallery.service.telegram.StickerSetService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AutoCategorizationService")
+class AutoCategorizationServiceTest {
+
+    @Mock
+    private AIService aiService;
+
+    @Mock
+    private StickerSetService stickerSetService;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private AutoCategorizationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AutoCategorizationService(aiService, stickerSetService, categoryRepository, new ObjectMapper(), Runnable::run);
+        ReflectionTestUtils.setField(service, "maxCategories", 3);
+        ReflectionTestUtils.setField(service, "cacheTtlMinutes", 60L);
+        ReflectionTestUtils.setField(service, "batchSize", 50);
+        ReflectionTestUtils.setField(service, "tokensPerMinute", 1_000_000L);
+        service.initBatching();
+    }
+
+    @Test
+    @DisplayName("Пакет: одинаковые title уходят в AI один раз, категории применяются одним bulk-обновлением")
+    void bulk_shouldSendOneBatchAndApplyInBulk() {
+        when(stickerSetService.findAllByIds(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                stickerSet(1L, "Cute Cats"), stickerSet(2L, "Cute Cats"), stickerSet(3L, "Memes 2026")));
+        when(categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc()).thenReturn(List.of(
+                category("animals", "Животные", "Animals"), category("memes", "Мемы", "Memes")));
+        when(aiService.completion(anyString(), anyString(), anyString(), isNull())).thenReturn("""
+                ```json
+                {"results": [
+                  {"id": 0, "categories": [{"key": "animals", "confidence": 0.95, "reason": "cats"}]},
+                  {"id": 1, "categories": [{"key": "memes", "confidence": 0.6, "reason": "memes"},
+                                            {"key": "unknown_key", "confidence": 0.9, "reason": "x"}]}
+                ]}
+                ```""");
+        when(stickerSetService.updateCategoriesBulk(Map.of(1L, Set.of("animals"), 2L, Set.of("animals")))).thenReturn(2);
+
+        Map<Long, CategorySuggestionResult> results =
+                service.suggestCategoriesForStickerSets(List.of(1L, 2L, 3L), true, "en", 0.8);
+
+        verify(aiService, times(1)).completion(anyString(), anyString(), anyString(), isNull());
+        assertEquals("Animals", results.get(1L).getSuggestedCategories().get(0).getCategoryName());
+        assertEquals(1, results.get(3L).getSuggestedCategories().size());
+        assertEquals("memes", results.get(3L).getSuggestedCategories().get(0).getCategoryKey());
+        verify(stickerSetService).updateCategoriesBulk(Map.of(1L, Set.of("animals"), 2L, Set.of("animals")));
+
+        // повторный прогон обслуживается из кэша
+        service.suggestCategoriesForStickerSets(List.of(1L, 2L, 3L), false, "en", null);
+        verify(aiService, times(1)).completion(anyString(), anyString(), anyString(), isNull());
+        assertTrue(results.containsKey(2L));
+    }
+
+    private static StickerSet stickerSet(Long id, String title) {
+        StickerSet s = new StickerSet();
+        s.setId(id);
+        s.setTitle(title);
+        return s;
+    }
+
+    private static Category category(String key, String nameRu, String nameEn) {
+        Category c = new Category();
+        c.setKey(key);
+        c.setNameRu(nameRu);
+        c.setNameEn(nameEn);
+        return c;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.sticker_art_gallery.service.ai;
+
+import com.example.sticker_art_gallery.dto.BulkCategorySuggestionJobDto;
+import com.example.sticker_art_gallery.dto.BulkCategorySuggestionRequest;
+import com.example.sticker_art_gallery.dto.CategorySuggestionResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BulkCategorizationJobService")
+class BulkCategorizationJobServiceTest {
+
+    @Mock
+    private AutoCategorizationService autoCategorizationService;
+
+    private BulkCategorizationJobService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BulkCategorizationJobService(autoCategorizationService, 60);
+    }
+
+    @Test
+    @DisplayName("submit возвращается сразу со статусом RUNNING, результат доступен по jobId после завершения")
+    void submit_shouldReturnRunningJobAndExposeResultWhenDone() {
+        CompletableFuture<Map<Long, CategorySuggestionResult>> pending = new CompletableFuture<>();
+        when(autoCategorizationService.suggestCategoriesForStickerSetsAsync(List.of(1L, 2L), true, "ru", 0.8))
+                .thenReturn(pending);
+
+        BulkCategorySuggestionJobDto job = service.submit(request(List.of(1L, 2L), true, 0.8), "ru");
+
+        assertEquals(BulkCategorySuggestionJobDto.Status.RUNNING, job.getStatus());
+        assertEquals(2, job.getRequested());
+        assertNull(service.get(job.getJobId()).orElseThrow().getResults());
+
+        CategorySuggestionResult result = new CategorySuggestionResult();
+        pending.complete(Map.of(1L, result));
+
+        BulkCategorySuggestionJobDto done = service.get(job.getJobId()).orElseThrow();
+        assertEquals(BulkCategorySuggestionJobDto.Status.COMPLETED, done.getStatus());
+        assertNotNull(done.getCompletedAt());
+        assertEquals(Map.of(1L, result), done.getResults());
+    }
+
+    @Test
+    @DisplayName("Ошибка AI переводит задание в FAILED с текстом ошибки")
+    void submit_shouldMarkJobFailedOnError() {
+        when(autoCategorizationService.suggestCategoriesForStickerSetsAsync(List.of(5L), false, "en", null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("AI unavailable")));
+
+        BulkCategorySuggestionJobDto job = service.submit(request(List.of(5L), false, null), "en");
+
+        assertEquals(BulkCategorySuggestionJobDto.Status.FAILED, job.getStatus());
+        assertEquals("AI unavailable", job.getError());
+        assertTrue(service.get("unknown").isEmpty());
+    }
+
+    private static BulkCategorySuggestionRequest request(List<Long> ids, boolean apply, Double minConfidence) {
+        BulkCategorySuggestionRequest request = new BulkCategorySuggestionRequest();
+        request.setStickerSetIds(ids);
+        request.setApply(apply);
+        request.setMinConfidence(minConfidence);
+        return request;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.sticker_art_gallery.service.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("AuditPartitionManager")
+class AuditPartitionManagerTest {
+
+    @Test
+    @DisplayName("Создаются партиции текущей недели и premake-weeks следующих, начиная с понедельника")
+    void weeksToEnsure_shouldStartFromMonday() {
+        List<LocalDate> weeks = AuditPartitionManager.weeksToEnsure(LocalDate.of(2026, 10, 22), 2);
+
+        assertEquals(List.of(
+                LocalDate.of(2026, 10, 19),
+                LocalDate.of(2026, 10, 26),
+                LocalDate.of(2026, 11, 2)), weeks);
+    }
+
+    @Test
+    @DisplayName("Удаляются только партиции, неделя которых целиком старше срока хранения")
+    void expiredPartitions_shouldSelectWholeWeeksOlderThanRetention() {
+        List<String> partitions = List.of(
+                "generation_audit_events_p20260706",  // неделя до 13.07 - старше 90 дней
+                "generation_audit_events_p20260713",  // неделя до 20.07 - граница: 20.07 = today - 90
+                "generation_audit_events_p20260720",  // пересекает границу хранения - остаётся
+                "generation_audit_events_p20261019",
+                "generation_audit_events_manual");
+
+        List<String> expired = AuditPartitionManager.expiredPartitions(
+                "generation_audit_events", partitions, LocalDate.of(2026, 10, 18), 90);
+
+        assertEquals(List.of("generation_audit_events_p20260706", "generation_audit_events_p20260713"), expired);
+    }
+
+    @Test
+    @DisplayName("Граница хранения совпадает с началом самой старой неудаляемой партиции")
+    void retainedFrom_shouldMatchOldestKeptPartition() {
+        LocalDate today = LocalDate.of(2026, 10, 18);
+
+        OffsetDateTime retainedFrom = AuditPartitionManager.retainedFrom(today, 90);
+
+        // today - 90 = 20.07 (понедельник): неделя 13.07 удаляется, неделя 20.07 - нет
+        assertEquals(OffsetDateTime.of(2026, 7, 20, 0, 0, 0, 0, ZoneOffset.UTC), retainedFrom);
+        assertEquals(List.of("generation_audit_events_p20260713"), AuditPartitionManager.expiredPartitions(
+                "generation_audit_events",
+                List.of("generation_audit_events_p20260713", "generation_audit_events_p20260720"), today, 90));
+        assertEquals(OffsetDateTime.of(2026, 7, 13, 0, 0, 0, 0, ZoneOffset.UTC),
+                AuditPartitionManager.retainedFrom(LocalDate.of(2026, 10, 17), 90));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.sticker_art_gallery.service.audit;
+
+import com.example.sticker_art_gallery.service.audit.AuditWriteBehindSink.Phase;
+import com.example.sticker_art_gallery.service.audit.AuditWriteBehindSink.Write;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditWriteBehindSink")
+class AuditWriteBehindSinkTest {
+
+    private static final String INSERT_SESSION = "INSERT session";
+    private static final String UPDATE_SESSION = "UPDATE session";
+    private static final String INSERT_EVENT = "INSERT event";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private AuditWriteBehindSink sink(String mode, int capacity, String overflow) {
+        return new AuditWriteBehindSink(jdbcTemplate, transactionManager, meterRegistryProvider,
+                mode, capacity, 100, 200, overflow, 0);
+    }
+
+    @Test
+    @DisplayName("Async: вызов не пишет в БД, пачка пишется фазами - сессии, обновления, события - через JDBC batch")
+    @SuppressWarnings("unchecked")
+    void drain_shouldWritePhasesInOrderAsBatches() {
+        AuditWriteBehindSink sink = sink("async", 100, "drop");
+
+        sink.submit(List.of(
+                new Write(Phase.SESSION_INSERT, INSERT_SESSION, new Object[]{"task-1"}),
+                new Write(Phase.EVENT_INSERT, INSERT_EVENT, new Object[]{"task-1", "REQUEST_ACCEPTED"})));
+        sink.submit(List.of(
+                new Write(Phase.SESSION_UPDATE, UPDATE_SESSION, new Object[]{"task-1"}),
+                new Write(Phase.EVENT_INSERT, INSERT_EVENT, new Object[]{"task-1", "COMPLETED"})));
+        sink.submit(List.of(
+                new Write(Phase.SESSION_INSERT, INSERT_SESSION, new Object[]{"task-2"})));
+
+        verify(jdbcTemplate, never()).batchUpdate(eq(INSERT_SESSION), anyList());
+        assertEquals(5, sink.queueDepth());
+
+        assertEquals(5, sink.drainOnce());
+        assertEquals(0, sink.queueDepth());
+
+        InOrder order = inOrder(jdbcTemplate);
+        ArgumentCaptor<List<Object[]>> sessions = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Object[]>> events = ArgumentCaptor.forClass(List.class);
+        order.verify(jdbcTemplate).batchUpdate(eq(INSERT_SESSION), sessions.capture());
+        order.verify(jdbcTemplate).batchUpdate(eq(UPDATE_SESSION), anyList());
+        order.verify(jdbcTemplate).batchUpdate(eq(INSERT_EVENT), events.capture());
+
+        assertEquals(2, sessions.getValue().size());
+        assertEquals("task-2", sessions.getValue().get(1)[0]);
+        assertEquals("REQUEST_ACCEPTED", events.getValue().get(0)[1]);
+        assertEquals("COMPLETED", events.getValue().get(1)[1]);
+    }
+
+    @Test
+    @DisplayName("Переполнение в режиме drop: записи отбрасываются, вызывающий поток не ждёт")
+    void submit_whenFull_shouldDrop() {
+        AuditWriteBehindSink sink = sink("async", 2, "drop");
+
+        assertTrue(sink.submit(List.of(
+                new Write(Phase.SESSION_INSERT, INSERT_SESSION, new Object[]{"task-1"}),
+                new Write(Phase.EVENT_INSERT, INSERT_EVENT, new Object[]{"task-1"}))));
+        assertFalse(sink.submit(List.of(new Write(Phase.EVENT_INSERT, INSERT_EVENT, new Object[]{"task-1"}))));
+
+        assertEquals(2, sink.queueDepth());
+    }
+
+    @Test
+    @DisplayName("Sync: запись выполняется сразу в вызывающем потоке")
+    void submit_inSyncMode_shouldWriteImmediately() {
+        AuditWriteBehindSink sink = sink("sync", 10, "drop");
+
+        sink.submit(List.of(new Write(Phase.EVENT_INSERT, INSERT_EVENT, new Object[]{"task-1"})));
+
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(INSERT_EVENT), anyList());
+        assertEquals(0, sink.queueDepth());
+    }
+
+    @Test
+    @DisplayName("Обновления и события, не нашедшие сессию, считаются в audit.sink.unmatched")
+    void flush_shouldCountUpdatesMatchingNoSession() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        when(meterRegistryProvider.getIfAvailable()).thenReturn(registry);
+        when(jdbcTemplate.batchUpdate(eq(UPDATE_SESSION), anyList())).thenReturn(new int[]{1, 0});
+        when(jdbcTemplate.batchUpdate(eq(INSERT_EVENT), anyList())).thenReturn(new int[]{0});
+        AuditWriteBehindSink sink = sink("sync", 10, "drop");
+
+        sink.submit(List.of(
+                new Write(Phase.SESSION_UPDATE, UPDATE_SESSION, new Object[]{"task-1"}),
+                new Write(Phase.SESSION_UPDATE, UPDATE_SESSION, new Object[]{"task-old"}),
+                new Write(Phase.EVENT_INSERT, INSERT_EVENT, new Object[]{"task-old"})));
+
+        assertEquals(2.0, registry.counter("audit.sink.unmatched").count());
+        assertEquals(3.0, registry.counter("audit.sink.written").count());
+    }
+
+    @Test
+    @DisplayName("Sync: запись идёт в отдельной транзакции и не присоединяется к транзакции вызывающего кода")
+    void submit_inSyncMode_shouldUseRequiresNew() {
+        AuditWriteBehindSink sink = sink("sync", 10, "drop");
+
+        sink.submit(List.of(new Write(Phase.EVENT_INSERT, INSERT_EVENT, new Object[]{"task-1"})));
+
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+}
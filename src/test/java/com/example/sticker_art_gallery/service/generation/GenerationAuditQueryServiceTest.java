@@ -0,0 +1,78 @@
+package com.example.sticker_art_gallery.service.generation;
+
+import com.example.sticker_art_gallery.model.generation.GenerationAuditSessionEntity;
+import com.example.sticker_art_gallery.repository.GenerationAuditEventRepository;
+import com.example.sticker_art_gallery.repository.GenerationAuditSessionRepository;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@Epic("Аудит генерации")
+@Feature("Чтение аудита по партициям")
+@DisplayName("GenerationAuditQueryService: поиск по task_id ограничен ключом партиционирования")
+class GenerationAuditQueryServiceTest {
+
+    @Mock
+    private GenerationAuditSessionRepository sessionRepository;
+
+    @Mock
+    private GenerationAuditEventRepository eventRepository;
+
+    private GenerationAuditQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new GenerationAuditQueryService(sessionRepository, eventRepository, 90);
+    }
+
+    @Test
+    @DisplayName("События ищутся в окне от started_at сессии, найденной через таблицу ключей")
+    void events_useSessionStartedAtFromKeys() {
+        OffsetDateTime startedAt = OffsetDateTime.parse("2026-03-02T10:00:00Z");
+        GenerationAuditSessionEntity session = new GenerationAuditSessionEntity();
+        session.setTaskId("task-1");
+        session.setStartedAt(startedAt);
+        when(sessionRepository.findByTaskIdViaKey("task-1")).thenReturn(Optional.of(session));
+        when(eventRepository.findByTaskIdInWindow("task-1", startedAt, startedAt.plusDays(97))).thenReturn(List.of());
+
+        assertThat(service.getEventsByTaskId("task-1")).isEmpty();
+
+        verify(sessionRepository, never()).findByTaskId(any());
+        verify(eventRepository, never()).findByTaskIdOrderByCreatedAtAsc(any());
+    }
+
+    @Test
+    @DisplayName("Без сессии события ищутся в окне срока хранения, а не по всем партициям")
+    void events_withoutSession_areBoundedByRetention() {
+        when(sessionRepository.findByTaskIdViaKey("task-2")).thenReturn(Optional.empty());
+        when(eventRepository.findByTaskIdInWindow(eq("task-2"), any(), any())).thenReturn(List.of());
+        OffsetDateTime before = OffsetDateTime.now();
+
+        service.getEventsByTaskId("task-2");
+
+        ArgumentCaptor<OffsetDateTime> from = ArgumentCaptor.forClass(OffsetDateTime.class);
+        ArgumentCaptor<OffsetDateTime> to = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(eventRepository).findByTaskIdInWindow(eq("task-2"), from.capture(), to.capture());
+        assertThat(from.getValue()).isBefore(before.minusDays(96)).isAfter(before.minusDays(98));
+        assertThat(to.getValue()).isAfter(before);
+        verify(eventRepository, never()).findByTaskIdOrderByCreatedAtAsc(any());
+    }
+}
@@ -10,18 +10,24 @@ import com.example.sticker_art_gallery.testdata.TestDataBuilder;
 import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
 import io.qameta.allure.Story;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -35,7 +41,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 class GenerationAuditServiceTest {
 
     private static final Long USER_ID = TestDataBuilder.TEST_USER_ID;
-    private static final String TASK_ID = "test-task-audit-001";
+
+    /**
+     * Аудит пишется в собственной транзакции (REQUIRES_NEW) и не откатывается вместе с тестом,
+     * поэтому у каждого теста свой task_id, а записи удаляются в tearDown
+     */
+    private String taskId;
 
     @Autowired
     private GenerationAuditService auditService;
@@ -45,12 +56,35 @@ class GenerationAuditServiceTest {
     private GenerationAuditEventRepository eventRepository;
     @Autowired
     private UserProfileRepository userProfileRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @BeforeEach
     void setUp() {
-        if (!userProfileRepository.existsByUserId(USER_ID)) {
-            userProfileRepository.save(TestDataBuilder.createTestUserProfile(USER_ID));
-        }
+        taskId = "test-task-audit-" + UUID.randomUUID();
+        // Профиль нужен закоммиченным: FK сессии аудита проверяется в отдельной транзакции
+        newTransaction().executeWithoutResult(status -> {
+            if (!userProfileRepository.existsByUserId(USER_ID)) {
+                userProfileRepository.save(TestDataBuilder.createTestUserProfile(USER_ID));
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        newTransaction().executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM generation_audit_events WHERE task_id = ?", taskId);
+            jdbcTemplate.update("DELETE FROM generation_audit_sessions WHERE task_id = ?", taskId);
+            jdbcTemplate.update("DELETE FROM generation_audit_session_keys WHERE task_id = ?", taskId);
+        });
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
     }
 
     @Test
@@ -58,15 +92,15 @@ class GenerationAuditServiceTest {
     @DisplayName("startSession создает сессию и событие REQUEST_ACCEPTED")
     void startSession_createsSessionAndEvent() {
         OffsetDateTime expiresAt = OffsetDateTime.now().plusDays(90);
-        auditService.startSession(TASK_ID, USER_ID, "raw prompt", Map.of("seed", 42), expiresAt);
+        auditService.startSession(taskId, USER_ID, "raw prompt", Map.of("seed", 42), expiresAt);
 
-        GenerationAuditSessionEntity session = sessionRepository.findByTaskId(TASK_ID).orElse(null);
+        GenerationAuditSessionEntity session = sessionRepository.findByTaskId(taskId).orElse(null);
         assertThat(session).isNotNull();
         assertThat(session.getUserId()).isEqualTo(USER_ID);
         assertThat(session.getRawPrompt()).isEqualTo("raw prompt");
         assertThat(session.getRequestParams()).contains("42");
 
-        List<GenerationAuditEventEntity> events = eventRepository.findByTaskIdOrderByCreatedAtAsc(TASK_ID);
+        List<GenerationAuditEventEntity> events = eventRepository.findByTaskIdOrderByCreatedAtAsc(taskId);
         assertThat(events).hasSize(1);
         assertThat(events.get(0).getStage()).isEqualTo(GenerationAuditStage.REQUEST_ACCEPTED);
     }
@@ -76,15 +110,15 @@ class GenerationAuditServiceTest {
     @DisplayName("finishSuccess обновляет сессию и добавляет событие COMPLETED")
     void finishSuccess_updatesSessionAndAddsEvent() {
         OffsetDateTime expiresAt = OffsetDateTime.now().plusDays(90);
-        auditService.startSession(TASK_ID, USER_ID, "prompt", null, expiresAt);
-        auditService.finishSuccess(TASK_ID, Map.of("imageUrl", "https://example.com/img.png"));
+        auditService.startSession(taskId, USER_ID, "prompt", null, expiresAt);
+        auditService.finishSuccess(taskId, Map.of("imageUrl", "https://example.com/img.png"));
 
-        GenerationAuditSessionEntity session = sessionRepository.findByTaskId(TASK_ID).orElse(null);
+        GenerationAuditSessionEntity session = sessionRepository.findByTaskId(taskId).orElse(null);
         assertThat(session).isNotNull();
         assertThat(session.getFinalStatus()).isEqualTo("COMPLETED");
         assertThat(session.getCompletedAt()).isNotNull();
 
-        List<GenerationAuditEventEntity> events = eventRepository.findByTaskIdOrderByCreatedAtAsc(TASK_ID);
+        List<GenerationAuditEventEntity> events = eventRepository.findByTaskIdOrderByCreatedAtAsc(taskId);
         assertThat(events).hasSize(2);
         assertThat(events.get(1).getStage()).isEqualTo(GenerationAuditStage.COMPLETED);
     }
@@ -94,13 +128,26 @@ class GenerationAuditServiceTest {
     @DisplayName("finishFailure записывает errorCode и errorMessage")
     void finishFailure_recordsError() {
         OffsetDateTime expiresAt = OffsetDateTime.now().plusDays(90);
-        auditService.startSession(TASK_ID, USER_ID, "prompt", null, expiresAt);
-        auditService.finishFailure(TASK_ID, GenerationAuditService.ERROR_WAVESPEED_TIMEOUT, "Timed out", null);
+        auditService.startSession(taskId, USER_ID, "prompt", null, expiresAt);
+        auditService.finishFailure(taskId, GenerationAuditService.ERROR_WAVESPEED_TIMEOUT, "Timed out", null);
 
-        GenerationAuditSessionEntity session = sessionRepository.findByTaskId(TASK_ID).orElse(null);
+        GenerationAuditSessionEntity session = sessionRepository.findByTaskId(taskId).orElse(null);
         assertThat(session).isNotNull();
         assertThat(session.getFinalStatus()).isEqualTo("FAILED");
         assertThat(session.getErrorCode()).isEqualTo(GenerationAuditService.ERROR_WAVESPEED_TIMEOUT);
         assertThat(session.getErrorMessage()).isEqualTo("Timed out");
     }
+
+    @Test
+    @Story("Уникальность task_id")
+    @DisplayName("Повторный startSession с тем же task_id не создаёт вторую сессию")
+    void startSession_twice_keepsSingleSession() {
+        OffsetDateTime expiresAt = OffsetDateTime.now().plusDays(90);
+        auditService.startSession(taskId, USER_ID, "first", null, expiresAt);
+        auditService.startSession(taskId, USER_ID, "second", null, expiresAt);
+
+        GenerationAuditSessionEntity session = sessionRepository.findByTaskId(taskId).orElse(null);
+        assertThat(session).isNotNull();
+        assertThat(session.getRawPrompt()).isEqualTo("first");
+    }
 }
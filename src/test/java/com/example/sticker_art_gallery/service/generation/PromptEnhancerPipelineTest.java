@@ -0,0 +1,84 @@
+package com.example.sticker_art_gallery.service.generation;
+
+import com.example.sticker_art_gallery.model.generation.PromptEnhancerEntity;
+import com.example.sticker_art_gallery.model.profile.UserProfileEntity;
+import com.example.sticker_art_gallery.repository.PromptEnhancerRepository;
+import com.example.sticker_art_gallery.service.ai.AIService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PromptEnhancerPipeline")
+class PromptEnhancerPipelineTest {
+
+    @Mock
+    private PromptEnhancerRepository enhancerRepository;
+
+    @Mock
+    private AIService aiService;
+
+    private PromptEnhancerPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new PromptEnhancerPipeline(enhancerRepository, aiService, 60, 100, 60);
+    }
+
+    @Test
+    @DisplayName("Повторный промпт не ходит в LLM, список энхансеров читается из снапшота")
+    void repeatedPrompt_shouldBeServedFromCache() {
+        PromptEnhancerEntity global = enhancer(1L, "translate", "sys-translate", true, null);
+        PromptEnhancerEntity foreign = enhancer(2L, "personal", "sys-personal", false, 777L);
+        when(enhancerRepository.findAllEnabledWithOwner()).thenReturn(List.of(global, foreign));
+        when(aiService.completion(anyString(), eq("кот"), eq("sys-translate"), isNull())).thenReturn("```\n\"cat\"\n```");
+
+        assertEquals("cat", pipeline.apply("кот", 10L));
+        assertEquals("cat", pipeline.apply("кот", 10L));
+
+        verify(aiService, times(1)).completion(anyString(), eq("кот"), eq("sys-translate"), isNull());
+        verify(enhancerRepository, times(1)).findAllEnabledWithOwner();
+    }
+
+    @Test
+    @DisplayName("Энхансеры применяются цепочкой в порядке снапшота; ошибка шага не прерывает цепочку")
+    void chain_shouldContinueAfterFailedEnhancer() {
+        PromptEnhancerEntity first = enhancer(1L, "broken", "sys-1", true, null);
+        PromptEnhancerEntity second = enhancer(2L, "own", "sys-2", false, 10L);
+        when(enhancerRepository.findAllEnabledWithOwner()).thenReturn(List.of(first, second));
+        when(aiService.completion(anyString(), eq("dog"), eq("sys-1"), isNull())).thenThrow(new IllegalStateException("timeout"));
+        when(aiService.completion(anyString(), eq("dog"), eq("sys-2"), isNull())).thenReturn("happy dog");
+
+        assertEquals("happy dog", pipeline.apply("dog", 10L));
+    }
+
+    private static PromptEnhancerEntity enhancer(Long id, String code, String systemPrompt, boolean global, Long ownerId) {
+        PromptEnhancerEntity e = new PromptEnhancerEntity();
+        e.setId(id);
+        e.setCode(code);
+        e.setSystemPrompt(systemPrompt);
+        e.setIsGlobal(global);
+        e.setUpdatedAt(OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        if (ownerId != null) {
+            UserProfileEntity owner = new UserProfileEntity();
+            owner.setUserId(ownerId);
+            e.setOwner(owner);
+        }
+        return e;
+    }
+}
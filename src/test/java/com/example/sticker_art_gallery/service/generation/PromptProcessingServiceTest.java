@@ -3,9 +3,7 @@ package com.example.sticker_art_gallery.service.generation;
 import com.example.sticker_art_gallery.model.generation.StylePresetEntity;
 import com.example.sticker_art_gallery.model.generation.StylePresetRemoveBackgroundMode;
 import com.example.sticker_art_gallery.model.profile.UserProfileEntity;
-import com.example.sticker_art_gallery.repository.PromptEnhancerRepository;
 import com.example.sticker_art_gallery.repository.StylePresetRepository;
-import com.example.sticker_art_gallery.service.ai.AIService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,7 +11,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Collections;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -28,14 +25,11 @@ import static org.mockito.Mockito.when;
 class PromptProcessingServiceTest {
 
     @Mock
-    private PromptEnhancerRepository enhancerRepository;
+    private PromptEnhancerPipeline enhancerPipeline;
 
     @Mock
     private StylePresetRepository presetRepository;
 
-    @Mock
-    private AIService aiService;
-
     @Mock
     private StylePresetPromptComposer presetPromptComposer;
 
@@ -54,7 +48,7 @@ class PromptProcessingServiceTest {
         preset.setIsGlobal(true);
         preset.setIsEnabled(true);
 
-        when(enhancerRepository.findAvailableForUser(10L)).thenReturn(Collections.emptyList());
+        when(enhancerPipeline.apply("cute cat", 10L)).thenReturn("cute cat");
         when(presetRepository.findById(5L)).thenReturn(Optional.of(preset));
         when(presetPromptComposer.buildRawPrompt(preset, "cute cat", null)).thenReturn("cute cat");
 
@@ -76,7 +70,7 @@ class PromptProcessingServiceTest {
         preset.setIsGlobal(true);
         preset.setIsEnabled(true);
 
-        when(enhancerRepository.findAvailableForUser(11L)).thenReturn(Collections.emptyList());
+        when(enhancerPipeline.apply("fox", 11L)).thenReturn("fox");
         when(presetRepository.findById(6L)).thenReturn(Optional.of(preset));
         when(presetPromptComposer.buildRawPrompt(preset, "fox", null)).thenReturn("fox");
 
@@ -104,7 +98,7 @@ class PromptProcessingServiceTest {
         preset.setRemoveBackgroundMode(StylePresetRemoveBackgroundMode.FORCE_OFF);
         preset.setIsEnabled(true);
 
-        when(enhancerRepository.findAvailableForUser(10L)).thenReturn(Collections.emptyList());
+        when(enhancerPipeline.apply("built", 10L)).thenReturn("built");
         when(presetRepository.findById(7L)).thenReturn(Optional.of(preset));
         when(presetPromptComposer.buildRawPrompt(preset, "author line", null)).thenReturn("built");
 
@@ -12,6 +12,7 @@ import com.example.sticker_art_gallery.service.profile.ArtRewardService;
 import com.example.sticker_art_gallery.service.profile.UserProfileService;
 import com.example.sticker_art_gallery.service.referral.ReferralService;
 import com.example.sticker_art_gallery.service.storage.ImageStorageService;
+import com.example.sticker_art_gallery.service.metrics.PipelineStageMetrics;
 import com.example.sticker_art_gallery.service.telegram.StickerSetService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -68,7 +69,8 @@ class StickerGenerationServiceRoyaltyTest {
                 generationArtBillingService,
                 styleFeedItemPromotionService,
                 userPresetCreationBlueprintService,
-                stickerSetService
+                stickerSetService,
+                PipelineStageMetrics.noop()
         );
     }
 
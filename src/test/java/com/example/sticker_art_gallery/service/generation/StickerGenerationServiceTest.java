@@ -20,6 +20,7 @@ import com.example.sticker_art_gallery.service.profile.UserProfileService;
 import com.example.sticker_art_gallery.service.stylefeed.StyleFeedItemPromotionService;
 import com.example.sticker_art_gallery.service.referral.ReferralService;
 import com.example.sticker_art_gallery.service.storage.ImageStorageService;
+import com.example.sticker_art_gallery.service.metrics.PipelineStageMetrics;
 import com.example.sticker_art_gallery.service.telegram.StickerSetService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -115,7 +116,8 @@ class StickerGenerationServiceTest {
                 generationArtBillingService,
                 styleFeedItemPromotionService,
                 userPresetCreationBlueprintService,
-                stickerSetService
+                stickerSetService,
+                PipelineStageMetrics.noop()
         ));
 
         // Избегаем запуска полного async pipeline в unit-тесте startGeneration
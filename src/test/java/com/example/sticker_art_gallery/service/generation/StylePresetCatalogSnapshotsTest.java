@@ -0,0 +1,116 @@
+package com.example.sticker_art_gallery.service.generation;
+
+import com.example.sticker_art_gallery.dto.generation.StylePresetCategoryDto;
+import com.example.sticker_art_gallery.dto.generation.StylePresetDto;
+import com.example.sticker_art_gallery.dto.generation.StylePresetListView;
+import com.example.sticker_art_gallery.model.generation.StylePresetCatalogVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StylePresetCatalogSnapshots")
+class StylePresetCatalogSnapshotsTest {
+
+    @Mock
+    private StylePresetService presetService;
+
+    private StylePresetCatalogVersion catalogVersion;
+    private StylePresetCatalogSnapshots snapshots;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new StylePresetCatalogVersion();
+        snapshots = new StylePresetCatalogSnapshots(presetService, catalogVersion, 1000, 10);
+        when(presetService.getCatalogPresets(anyBoolean(), anyBoolean(), any()))
+                .thenReturn(List.of(preset(1L, null, 1, "Anime"), preset(3L, 9L, 1, "Pixel")));
+        lenient().when(presetService.getOwnAvailablePresets(anyLong(), anyBoolean(), anyBoolean(), any()))
+                .thenReturn(List.of());
+    }
+
+    @Test
+    void repeatedRequest_shouldBeServedFromSnapshotWithoutReload() {
+        when(presetService.availablePresetsListSupportsWeakEtag(StylePresetListView.browse, false)).thenReturn(true);
+
+        StylePresetCatalogSnapshots.Snapshot first = snapshots.getAvailablePresets(7L, false, false, StylePresetListView.browse);
+        StylePresetCatalogSnapshots.Snapshot second = snapshots.getAvailablePresets(7L, false, false, StylePresetListView.browse);
+
+        assertSame(first, second);
+        assertNotNull(first.etag());
+        assertEquals(StylePresetListEtag.weakHexDigest(first.presets()), first.etag());
+        verify(presetService, times(1)).getCatalogPresets(false, false, StylePresetListView.browse);
+        verify(presetService, times(1)).getOwnAvailablePresets(7L, false, false, StylePresetListView.browse);
+    }
+
+    @Test
+    @DisplayName("Общий каталог материализуется один раз на проекцию, а не на каждого зрителя")
+    void catalog_shouldBeSharedBetweenViewers() {
+        StylePresetCatalogSnapshots.Snapshot first = snapshots.getAvailablePresets(7L, false, false, StylePresetListView.browse);
+        StylePresetCatalogSnapshots.Snapshot second = snapshots.getAvailablePresets(8L, false, false, StylePresetListView.browse);
+
+        assertSame(first.presets(), second.presets());
+        verify(presetService, times(1)).getCatalogPresets(false, false, StylePresetListView.browse);
+    }
+
+    @Test
+    @DisplayName("Пресеты зрителя накладываются на каталог в порядке каталога и заменяют его копию")
+    void ownPresets_shouldBeMergedInCatalogOrder() {
+        when(presetService.availablePresetsListSupportsWeakEtag(StylePresetListView.browse, false)).thenReturn(true);
+        StylePresetDto ownPublished = preset(3L, 9L, 1, "Pixel");
+        ownPublished.setCanDeleteAsAuthor(true);
+        when(presetService.getOwnAvailablePresets(9L, false, false, StylePresetListView.browse))
+                .thenReturn(List.of(preset(2L, 9L, 1, "Doodle"), ownPublished, preset(4L, 9L, 2, "Aaa")));
+
+        StylePresetCatalogSnapshots.Snapshot owner = snapshots.getAvailablePresets(9L, false, false, StylePresetListView.browse);
+        StylePresetCatalogSnapshots.Snapshot other = snapshots.getAvailablePresets(7L, false, false, StylePresetListView.browse);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), owner.presets().stream().map(StylePresetDto::getId).toList());
+        assertSame(ownPublished, owner.presets().get(2));
+        assertEquals(List.of(1L, 3L), other.presets().stream().map(StylePresetDto::getId).toList());
+        assertNotEquals(owner.etag(), other.etag());
+    }
+
+    @Test
+    void catalogChange_shouldMaterializeNewSnapshot() {
+        snapshots.getAvailablePresets(7L, true, false, StylePresetListView.full);
+        catalogVersion.bumpAfterCommit(StylePresetCatalogVersion.Scope.USER_PRESETS);
+        StylePresetCatalogSnapshots.Snapshot reloaded = snapshots.getAvailablePresets(7L, true, false, StylePresetListView.full);
+
+        assertNull(reloaded.etag());
+        verify(presetService, times(2)).getCatalogPresets(true, false, StylePresetListView.full);
+        verify(presetService, times(2)).getOwnAvailablePresets(7L, true, false, StylePresetListView.full);
+    }
+
+    private static StylePresetDto preset(Long id, Long ownerId, int categorySortOrder, String name) {
+        StylePresetCategoryDto category = new StylePresetCategoryDto();
+        category.setSortOrder(categorySortOrder);
+        StylePresetDto dto = new StylePresetDto();
+        dto.setId(id);
+        dto.setOwnerId(ownerId);
+        dto.setCategory(category);
+        dto.setSortOrder(0);
+        dto.setName(name);
+        dto.setUpdatedAt(OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        return dto;
+    }
+}
@@ -9,6 +9,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -240,4 +242,20 @@ class StylePresetPromptComposerTest {
         preset.setPromptInputJson(Map.of("enabled", true));
         assertFalse(composer.computeShowFreestylePromptInUi(preset, 1L));
     }
+
+    @Test
+    @DisplayName("Скомпилированный пресет: правка шаблона в памяти без смены updatedAt не отдаёт устаревший промпт")
+    void compiledPreset_shouldRecompileWhenEntityChangedInMemory() {
+        StylePresetEntity preset = new StylePresetEntity();
+        preset.setId(42L);
+        preset.setUpdatedAt(OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        preset.setUiMode(StylePresetUiMode.LOCKED_TEMPLATE);
+        preset.setPromptSuffix("Sticker of {{emotion}} cat");
+
+        assertEquals("Sticker of happy cat", composer.buildRawPrompt(preset, "", Map.of("emotion", "happy")));
+        assertEquals("Sticker of sad cat", composer.buildRawPrompt(preset, "", Map.of("emotion", "sad")));
+
+        preset.setPromptSuffix("Emoji: {{emotion}} $1 dog");
+        assertEquals("Emoji: sad $1 dog", composer.buildRawPrompt(preset, "", Map.of("emotion", "sad")));
+    }
 }
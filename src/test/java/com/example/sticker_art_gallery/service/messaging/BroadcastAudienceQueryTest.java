@@ -0,0 +1,41 @@
+package com.example.sticker_art_gallery.service.messaging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BroadcastAudienceQuery: keyset-запрос аудитории")
+class BroadcastAudienceQueryTest {
+
+    @Test
+    @DisplayName("Без фильтров: только исключение заблокированных, keyset по id без OFFSET")
+    void buildSql_noFilters() {
+        List<Object> args = new ArrayList<>();
+
+        String sql = BroadcastAudienceQuery.buildSql(new BroadcastAudienceQuery.Audience(null, null, null, false), null, 200, args);
+
+        assertThat(sql).contains("COALESCE(p.is_blocked, FALSE) = FALSE")
+                .endsWith("ORDER BY u.id LIMIT ?")
+                .doesNotContain("OFFSET")
+                .doesNotContain("u.id > ?");
+        assertThat(args).containsExactly(200);
+    }
+
+    @Test
+    @DisplayName("Все фильтры и курсор: параметры в порядке плейсхолдеров")
+    void buildSql_allFilters() {
+        OffsetDateTime since = OffsetDateTime.parse("2026-09-01T00:00:00Z");
+        List<Object> args = new ArrayList<>();
+
+        String sql = BroadcastAudienceQuery.buildSql(
+                new BroadcastAudienceQuery.Audience("USER", since, 555L, true), 1000L, 50, args);
+
+        assertThat(sql).contains("u.id > ?", "p.role = ?", "u.updated_at >= ?", "r.referrer_user_id = ?");
+        assertThat(args).containsExactly(1000L, "USER", since, 555L, 50);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.sticker_art_gallery.service.messaging;
+
+import com.example.sticker_art_gallery.dto.messaging.SendBotMessageRequest;
+import com.example.sticker_art_gallery.exception.BotException;
+import com.example.sticker_art_gallery.model.messaging.BroadcastJobEntity;
+import com.example.sticker_art_gallery.model.messaging.BroadcastJobStatus;
+import com.example.sticker_art_gallery.repository.BroadcastJobRepository;
+import com.example.sticker_art_gallery.service.telegram.TelegramSendScheduler;
+import com.example.sticker_art_gallery.service.user.UserService;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@Epic("Лог отправки сообщений")
+@Feature("Массовая рассылка")
+@DisplayName("BroadcastService: обход аудитории и управление заданием")
+class BroadcastServiceTest {
+
+    private static final long JOB_ID = 7L;
+
+    @Mock
+    private BroadcastJobRepository repository;
+
+    @Mock
+    private BroadcastAudienceQuery audienceQuery;
+
+    @Mock
+    private UserService userService;
+
+    private BroadcastService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BroadcastService(repository, audienceQuery, userService, TelegramSendScheduler.unthrottled(),
+                Runnable::run, Runnable::run, 10, 300);
+    }
+
+    @Test
+    @DisplayName("Страницы отправляются по курсору, прогресс фиксируется на каждую страницу, затем COMPLETED")
+    void run_walksPagesAndCompletes() {
+        BroadcastJobEntity first = job(null);
+        BroadcastJobEntity second = job(12L);
+        BroadcastJobEntity done = job(12L);
+        done.setStatus(BroadcastJobStatus.COMPLETED);
+        when(repository.findById(JOB_ID)).thenReturn(Optional.of(first), Optional.of(second), Optional.of(done));
+        when(audienceQuery.nextPage(any(), isNull(), eq(10))).thenReturn(List.of(10L, 11L, 12L));
+        when(audienceQuery.nextPage(any(), eq(12L), eq(10))).thenReturn(List.of());
+        List<Long> recipients = new ArrayList<>();
+        when(repository.renewLease(eq(JOB_ID), anyString(), any(), any())).thenReturn(1);
+        when(repository.recordProgress(eq(JOB_ID), anyString(), any(), anyLong(), anyLong(), any(), any(), any())).thenReturn(1);
+        when(userService.sendBotMessageToUser(any(SendBotMessageRequest.class))).thenAnswer(inv -> {
+            SendBotMessageRequest request = inv.getArgument(0);
+            recipients.add(request.getUserId());
+            if (request.getUserId() == 11L) {
+                throw new BotException("Forbidden: bot was blocked by the user");
+            }
+            return null;
+        });
+
+        service.run(JOB_ID);
+
+        assertThat(recipients).containsExactly(10L, 11L, 12L);
+        verify(repository).recordProgress(eq(JOB_ID), anyString(), eq(12L), eq(2L), eq(1L), any(), any(), any());
+        verify(repository).finish(eq(JOB_ID), anyString(), eq(BroadcastJobStatus.COMPLETED), isNull(), any());
+    }
+
+    @Test
+    @DisplayName("Задание на паузе: исполнитель выходит, не запрашивая аудиторию")
+    void run_pausedJob_stopsWithoutSending() {
+        BroadcastJobEntity paused = job(50L);
+        paused.setStatus(BroadcastJobStatus.PAUSED);
+        when(repository.findById(JOB_ID)).thenReturn(Optional.of(paused));
+
+        service.run(JOB_ID);
+
+        verify(audienceQuery, never()).nextPage(any(), any(), anyInt());
+        verify(repository, never()).recordProgress(anyLong(), anyString(), any(), anyLong(), anyLong(), any(), any(), any());
+        verify(repository).releaseLease(eq(JOB_ID), anyString());
+    }
+
+    @Test
+    @DisplayName("Аренда не продлилась (истекла или у другого инстанса): исполнитель выходит, не отправляя страницу")
+    void run_leaseLost_stopsBeforeSending() {
+        when(repository.findById(JOB_ID)).thenReturn(Optional.of(job(50L)));
+        when(repository.renewLease(eq(JOB_ID), anyString(), any(), any())).thenReturn(0);
+
+        service.run(JOB_ID);
+
+        verify(audienceQuery, never()).nextPage(any(), any(), anyInt());
+        verify(repository, never()).releaseLease(anyLong(), anyString());
+        verify(repository, never()).finish(anyLong(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Прогресс не записан (аренда потеряна во время страницы): следующая страница не отправляется")
+    void run_progressRejected_stopsAfterPage() {
+        when(repository.findById(JOB_ID)).thenReturn(Optional.of(job(null)));
+        when(repository.renewLease(eq(JOB_ID), anyString(), any(), any())).thenReturn(1);
+        when(audienceQuery.nextPage(any(), isNull(), eq(10))).thenReturn(List.of(10L));
+        when(repository.recordProgress(eq(JOB_ID), anyString(), any(), anyLong(), anyLong(), any(), any(), any())).thenReturn(0);
+
+        service.run(JOB_ID);
+
+        verify(audienceQuery).nextPage(any(), any(), anyInt());
+        verify(userService).sendBotMessageToUser(any(SendBotMessageRequest.class));
+        verify(repository, never()).finish(anyLong(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Очередь исполнителей переполнена: захват откатывается в PENDING, повторный запуск возможен")
+    void start_executorRejects_unclaimsJob() {
+        service = new BroadcastService(repository, audienceQuery, userService, TelegramSendScheduler.unthrottled(),
+                task -> {
+                    throw new TaskRejectedException("queue full");
+                }, Runnable::run, 10, 300);
+        when(repository.claim(eq(JOB_ID), anyString(), any(), any())).thenReturn(1);
+
+        service.start(JOB_ID);
+        service.start(JOB_ID);
+
+        verify(repository, times(2)).claim(eq(JOB_ID), anyString(), any(), any());
+        verify(repository, times(2)).unclaim(eq(JOB_ID), anyString(), any());
+        verify(repository, never()).findById(JOB_ID);
+    }
+
+    @Test
+    @DisplayName("Повторный запуск не стартует исполнителя, если задание уже захвачено")
+    void start_notClaimed_doesNotRun() {
+        when(repository.claim(eq(JOB_ID), anyString(), any(), any())).thenReturn(0);
+
+        service.start(JOB_ID);
+
+        verify(repository, never()).findById(JOB_ID);
+    }
+
+    @Test
+    @DisplayName("Пауза завершённой рассылки отклоняется")
+    void pause_completedJob_throws() {
+        BroadcastJobEntity done = job(99L);
+        done.setStatus(BroadcastJobStatus.COMPLETED);
+        when(repository.findById(JOB_ID)).thenReturn(Optional.of(done));
+        when(repository.transition(eq(JOB_ID), any(), eq(BroadcastJobStatus.PAUSED), anyBoolean(), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.pause(JOB_ID)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static BroadcastJobEntity job(Long cursor) {
+        BroadcastJobEntity job = new BroadcastJobEntity();
+        job.setId(JOB_ID);
+        job.setStatus(BroadcastJobStatus.RUNNING);
+        job.setMessageText("Новые стили уже в галерее");
+        job.setParseMode("plain");
+        job.setCursorUserId(cursor);
+        return job;
+    }
+}
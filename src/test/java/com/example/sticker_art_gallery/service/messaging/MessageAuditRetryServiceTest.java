@@ -54,7 +54,7 @@ class MessageAuditRetryServiceTest {
     @Severity(SeverityLevel.CRITICAL)
     void initiateRetry_failedSession_returnsRetryResponse() {
         MessageAuditSessionEntity source = buildFailedSession("source-id-1");
-        when(sessionRepository.findByMessageId("source-id-1")).thenReturn(Optional.of(source));
+        when(sessionRepository.findByMessageIdViaKey("source-id-1")).thenReturn(Optional.of(source));
         when(sessionRepository.findActiveOrSuccessfulRetryBySourceMessageId("source-id-1"))
                 .thenReturn(Optional.empty());
 
@@ -77,7 +77,7 @@ class MessageAuditRetryServiceTest {
         source.setMessageText("Тестовое сообщение");
         source.setParseMode("plain");
 
-        when(sessionRepository.findByMessageId("source-id-2")).thenReturn(Optional.of(source));
+        when(sessionRepository.findByMessageIdViaKey("source-id-2")).thenReturn(Optional.of(source));
         when(sessionRepository.findActiveOrSuccessfulRetryBySourceMessageId("source-id-2"))
                 .thenReturn(Optional.empty());
 
@@ -102,7 +102,7 @@ class MessageAuditRetryServiceTest {
     @Severity(SeverityLevel.CRITICAL)
     void initiateRetry_sentSession_throwsNotFailed() {
         MessageAuditSessionEntity source = buildSession("source-id-3", "SENT");
-        when(sessionRepository.findByMessageId("source-id-3")).thenReturn(Optional.of(source));
+        when(sessionRepository.findByMessageIdViaKey("source-id-3")).thenReturn(Optional.of(source));
 
         assertThatThrownBy(() -> retryService.initiateRetry("source-id-3"))
                 .isInstanceOf(MessageAuditRetryService.RetryNotAllowedException.class)
@@ -118,7 +118,7 @@ class MessageAuditRetryServiceTest {
     @Description("Если сессия с таким messageId не существует, должен быть выброшен NOT_FOUND")
     @Severity(SeverityLevel.CRITICAL)
     void initiateRetry_unknownMessageId_throwsNotFound() {
-        when(sessionRepository.findByMessageId("unknown-id")).thenReturn(Optional.empty());
+        when(sessionRepository.findByMessageIdViaKey("unknown-id")).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> retryService.initiateRetry("unknown-id"))
                 .isInstanceOf(MessageAuditRetryService.RetryNotAllowedException.class)
@@ -138,7 +138,7 @@ class MessageAuditRetryServiceTest {
         MessageAuditSessionEntity existingRetry = buildSession("retry-id-4", "SENT");
         existingRetry.setRetryOfMessageId("source-id-4");
 
-        when(sessionRepository.findByMessageId("source-id-4")).thenReturn(Optional.of(source));
+        when(sessionRepository.findByMessageIdViaKey("source-id-4")).thenReturn(Optional.of(source));
         when(sessionRepository.findActiveOrSuccessfulRetryBySourceMessageId("source-id-4"))
                 .thenReturn(Optional.of(existingRetry));
 
@@ -160,7 +160,7 @@ class MessageAuditRetryServiceTest {
         retryService.activeRetries.put("source-id-5", "existing-retry-uuid");
 
         MessageAuditSessionEntity source = buildFailedSession("source-id-5");
-        when(sessionRepository.findByMessageId("source-id-5")).thenReturn(Optional.of(source));
+        when(sessionRepository.findByMessageIdViaKey("source-id-5")).thenReturn(Optional.of(source));
         when(sessionRepository.findActiveOrSuccessfulRetryBySourceMessageId("source-id-5"))
                 .thenReturn(Optional.empty());
 
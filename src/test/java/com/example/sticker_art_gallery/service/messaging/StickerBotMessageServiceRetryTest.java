@@ -1,5 +1,6 @@
 package com.example.sticker_art_gallery.service.messaging;
 
+import com.example.sticker_art_gallery.service.telegram.TelegramSendScheduler;
 import com.example.sticker_art_gallery.config.AppConfig;
 import com.example.sticker_art_gallery.dto.messaging.SendBotMessageResponse;
 import com.example.sticker_art_gallery.exception.BotException;
@@ -28,6 +29,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -146,6 +148,47 @@ class StickerBotMessageServiceRetryTest {
         );
     }
 
+    @Test
+    @DisplayName("429 не ретраится через @Retryable: ожидание retry_after - дело планировщика отправок")
+    void sendToUser_tooManyRequests_notRetriedBySpringRetry() {
+        when(restTemplate.exchange(
+                eq(API_URL + "/api/messages/send"),
+                eq(HttpMethod.POST),
+                any(HttpEntity.class),
+                eq(SendBotMessageResponse.class)))
+                .thenThrow(HttpClientErrorException.create(
+                        HttpStatus.TOO_MANY_REQUESTS,
+                        "Too Many Requests",
+                        new HttpHeaders(),
+                        "{\"ok\":false,\"parameters\":{\"retry_after\":5}}".getBytes(),
+                        null
+                ));
+
+        assertThatThrownBy(() -> service.sendPlainTextToUser(USER_ID, MESSAGE_TEXT))
+                .isInstanceOf(BotException.class)
+                .hasMessageContaining("429");
+
+        verify(restTemplate, times(1)).exchange(
+                eq(API_URL + "/api/messages/send"),
+                eq(HttpMethod.POST),
+                any(HttpEntity.class),
+                eq(SendBotMessageResponse.class)
+        );
+        verify(messageAuditService).finishFailure(
+                ArgumentMatchers.anyString(),
+                eq(MessageAuditService.ERROR_HTTP_4XX),
+                ArgumentMatchers.anyString(),
+                ArgumentMatchers.argThat(payload -> "5".equals(payload.get("retryAfter"))));
+        verify(messageAuditService, never()).addStageEvent(
+                ArgumentMatchers.anyString(),
+                eq(MessageAuditStage.API_CALL_FAILED),
+                eq(MessageAuditEventStatus.RETRY),
+                ArgumentMatchers.anyMap(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()
+        );
+    }
+
     @Configuration
     @EnableRetry
     static class TestConfig {
@@ -179,7 +222,7 @@ class StickerBotMessageServiceRetryTest {
                 RestTemplate restTemplate,
                 AppConfig appConfig,
                 MessageAuditService messageAuditService) {
-            return new StickerBotMessageService(restTemplate, appConfig, messageAuditService);
+            return new StickerBotMessageService(restTemplate, appConfig, messageAuditService, TelegramSendScheduler.unthrottled());
         }
     }
 }
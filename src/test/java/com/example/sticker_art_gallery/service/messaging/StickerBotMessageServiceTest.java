@@ -1,9 +1,11 @@
 package com.example.sticker_art_gallery.service.messaging;
 
+import com.example.sticker_art_gallery.service.telegram.TelegramSendScheduler;
 import com.example.sticker_art_gallery.config.AppConfig;
 import com.example.sticker_art_gallery.dto.messaging.SendBotMessageRequest;
 import com.example.sticker_art_gallery.dto.messaging.SendBotMessageResponse;
 import com.example.sticker_art_gallery.exception.BotException;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
 import io.qameta.allure.Story;
@@ -14,7 +16,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,10 +27,13 @@ import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -59,7 +66,7 @@ class StickerBotMessageServiceTest {
         stickerBotConfig.setApiUrl(API_URL);
         stickerBotConfig.setServiceToken(SERVICE_TOKEN);
         when(appConfig.getStickerbot()).thenReturn(stickerBotConfig);
-        service = new StickerBotMessageService(restTemplate, appConfig, messageAuditService);
+        service = new StickerBotMessageService(restTemplate, appConfig, messageAuditService, TelegramSendScheduler.unthrottled());
     }
 
     @Test
@@ -126,7 +133,7 @@ class StickerBotMessageServiceTest {
     @DisplayName("sendToUser при пустом api-url выбрасывает BotException")
     void sendToUser_emptyApiUrl_throwsBotException() {
         stickerBotConfig.setApiUrl("");
-        service = new StickerBotMessageService(restTemplate, appConfig, messageAuditService);
+        service = new StickerBotMessageService(restTemplate, appConfig, messageAuditService, TelegramSendScheduler.unthrottled());
         SendBotMessageRequest request = SendBotMessageRequest.builder().userId(USER_ID).text(MESSAGE_TEXT).build();
 
         assertThatThrownBy(() -> service.sendToUser(request))
@@ -139,7 +146,7 @@ class StickerBotMessageServiceTest {
     @DisplayName("sendToUser при пустом service-token выбрасывает BotException")
     void sendToUser_emptyToken_throwsBotException() {
         stickerBotConfig.setServiceToken("");
-        service = new StickerBotMessageService(restTemplate, appConfig, messageAuditService);
+        service = new StickerBotMessageService(restTemplate, appConfig, messageAuditService, TelegramSendScheduler.unthrottled());
         SendBotMessageRequest request = SendBotMessageRequest.builder().userId(USER_ID).text(MESSAGE_TEXT).build();
 
         assertThatThrownBy(() -> service.sendToUser(request))
@@ -161,6 +168,27 @@ class StickerBotMessageServiceTest {
                 .hasMessageContaining("401");
     }
 
+    @Test
+    @Story("Ошибка внешнего API")
+    @DisplayName("sendToUser при 429 ждёт retry_after в планировщике и повторяет отправку")
+    void sendToUser_api429_waitsRetryAfterInScheduler() {
+        TelegramSendScheduler scheduler = new TelegramSendScheduler(1_000, 1_000, 60_000, 2, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        service = new StickerBotMessageService(restTemplate, appConfig, messageAuditService, scheduler);
+        SendBotMessageRequest request = SendBotMessageRequest.builder().userId(USER_ID).text(MESSAGE_TEXT).build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        when(restTemplate.exchange(eq(API_URL + "/api/messages/send"), eq(HttpMethod.POST), any(HttpEntity.class), eq(SendBotMessageResponse.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null))
+                .thenReturn(ResponseEntity.ok(new SendBotMessageResponse("sent", 100L, 200L, "plain")));
+
+        long startedAt = System.nanoTime();
+        SendBotMessageResponse result = service.sendToUser(request);
+
+        assertThat(result.isSent()).isTrue();
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isGreaterThanOrEqualTo(Duration.ofMillis(900));
+        verify(restTemplate, times(2)).exchange(eq(API_URL + "/api/messages/send"), eq(HttpMethod.POST), any(HttpEntity.class), eq(SendBotMessageResponse.class));
+    }
+
     @Test
     @Story("Ошибка внешнего API")
     @DisplayName("sendToUser при 502 от API выбрасывает BotException")
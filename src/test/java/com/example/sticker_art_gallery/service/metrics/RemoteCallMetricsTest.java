@@ -0,0 +1,141 @@
+package com.example.sticker_art_gallery.service.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты таймеров внешних вызовов и этапов pipeline
+ */
+@Epic("Мониторинг")
+@Feature("Метрики внешних вызовов")
+@DisplayName("Тесты RemoteCallMetrics и PipelineStageMetrics")
+class RemoteCallMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private RemoteCallMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new RemoteCallMetrics(registry, Map.of(
+                "telegram", "http://localhost:18081",
+                "sticker-processor", "https://stickers.example.com",
+                "wavespeed", "https://api.wavespeed.ai/api/v3"));
+    }
+
+    @Test
+    @Story("Нормализация method")
+    @DisplayName("Метод Bot API берётся из пути, токен бота в тег не попадает")
+    @Severity(SeverityLevel.CRITICAL)
+    void methodExtractsBotApiMethodWithoutToken() {
+        assertEquals("sendMessage",
+                RemoteCallMetrics.method("POST", URI.create("https://api.telegram.org/bot123:ABC-def/sendMessage")));
+        assertEquals("downloadFile",
+                RemoteCallMetrics.method("GET", URI.create("https://api.telegram.org/file/bot123:ABC/stickers/file_42.webp")));
+        assertEquals("GET /bot/status",
+                RemoteCallMetrics.method("GET", URI.create("https://example.com/bot/status")));
+    }
+
+    @Test
+    @Story("Нормализация method")
+    @DisplayName("Идентификаторы в пути заменяются на {id}, короткие сегменты остаются")
+    @Severity(SeverityLevel.NORMAL)
+    void methodReplacesIdentifiersInPath() {
+        assertEquals("GET /api/v3/predictions/{id}/result",
+                RemoteCallMetrics.method("GET", URI.create("https://api.wavespeed.ai/api/v3/predictions/a1b2c3d4/result")));
+        assertEquals("POST /stickers/{id}",
+                RemoteCallMetrics.method("POST", URI.create("https://stickers.example.com/stickers/CAACAgIAAxkBAAEabcdefghijklmnop")));
+        assertEquals("GET /", RemoteCallMetrics.method("GET", URI.create("https://example.com")));
+    }
+
+    @Test
+    @Story("Определение client")
+    @DisplayName("client определяется по хосту с портом, api.telegram.org - всегда telegram")
+    @Severity(SeverityLevel.NORMAL)
+    void clientResolvesByHostAndPort() {
+        assertEquals("telegram", metrics.client(URI.create("http://localhost:18081/bot1:a/getMe")));
+        assertEquals("telegram", metrics.client(URI.create("https://api.telegram.org/bot1:a/getMe")));
+        assertEquals("wavespeed", metrics.client(URI.create("https://API.wavespeed.ai/api/v3/predictions")));
+        assertEquals(RemoteCallMetrics.OTHER_CLIENT, metrics.client(URI.create("http://localhost:9999/x")));
+        assertEquals(RemoteCallMetrics.OTHER_CLIENT, metrics.client(URI.create("https://cdn.example.org/a.png")));
+    }
+
+    @Test
+    @Story("Перехватчик HTTP")
+    @DisplayName("Перехватчик пишет remote.call со статусом ответа и IO_ERROR при исключении")
+    @Severity(SeverityLevel.CRITICAL)
+    void interceptorRecordsStatusAndIoError() throws Exception {
+        ClientHttpRequestInterceptor interceptor = metrics.interceptor();
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST,
+                URI.create("https://stickers.example.com/stickers/12345/status"));
+
+        ClientHttpRequestExecution tooManyRequests =
+                (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.TOO_MANY_REQUESTS);
+        interceptor.intercept(request, new byte[0], tooManyRequests);
+
+        ClientHttpRequestExecution failing = (req, body) -> {
+            throw new IOException("connection reset");
+        };
+        assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], failing));
+
+        Timer clientError = registry.find(RemoteCallMetrics.REMOTE_CALL)
+                .tags("client", "sticker-processor", "method", "POST /stickers/{id}/status",
+                        "status", "429", "outcome", "CLIENT_ERROR")
+                .timer();
+        Timer ioError = registry.find(RemoteCallMetrics.REMOTE_CALL)
+                .tags("client", "sticker-processor", "status", RemoteCallMetrics.IO_ERROR)
+                .timer();
+        assertNotNull(clientError);
+        assertEquals(1, clientError.count());
+        assertNotNull(ioError);
+        assertEquals(1, ioError.count());
+    }
+
+    @Test
+    @Story("Перехватчик HTTP")
+    @DisplayName("noop-экземпляр не пишет метрик и пропускает вызов")
+    @Severity(SeverityLevel.MINOR)
+    void noopPassesThrough() throws Exception {
+        MockClientHttpResponse response = new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("https://example.com/a"));
+
+        assertSame(response, RemoteCallMetrics.noop().interceptor().intercept(request, new byte[0], (req, body) -> response));
+        RemoteCallMetrics.noop().recordIoError("x", "y", System.nanoTime());
+        PipelineStageMetrics.noop().stop(System.nanoTime(), "generation", "total", "completed");
+    }
+
+    @Test
+    @Story("Этапы pipeline")
+    @DisplayName("PipelineStageMetrics пишет pipeline.stage с тегами pipeline, stage и outcome")
+    @Severity(SeverityLevel.NORMAL)
+    void stageMetricsRecordsTimer() {
+        PipelineStageMetrics stages = new PipelineStageMetrics(registry);
+
+        stages.stop(stages.start(), "generation_v2", "await_result", "timeout");
+        metrics.recordResponse("image-source", "GET download", 200, System.nanoTime());
+
+        Timer stage = registry.find(PipelineStageMetrics.PIPELINE_STAGE)
+                .tags("pipeline", "generation_v2", "stage", "await_result", "outcome", "timeout")
+                .timer();
+        assertNotNull(stage);
+        assertEquals(1, stage.count());
+        assertNotNull(registry.find(RemoteCallMetrics.REMOTE_CALL)
+                .tags("client", "image-source", "status", "200", "outcome", "SUCCESS").timer());
+    }
+}
@@ -20,6 +20,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -253,20 +256,57 @@ class StickerSetCreationServiceTest {
         when(telegramConfig.getDefaultStickerSetTitle()).thenReturn("Gallery Default");
 
         String expectedName = "alice_by_stixlybot";
-        when(telegramBotApiService.getStickerSetInfoSimple(expectedName)).thenReturn(null);
+        when(telegramBotApiService.getStickerSetInfoFresh(expectedName))
+                .thenThrow(new RuntimeException("Telegram API error: Bad Request: STICKERSET_INVALID"))
+                .thenReturn(stickerSetPayload("Gallery Default", "tg-file-1"));
         when(telegramBotApiService.createNewStickerSet(
                 eq(userId),
                 eq(stickerFile),
                 eq(expectedName),
                 eq("Gallery Default"),
                 eq("🎨"))).thenReturn(true);
-        when(telegramBotApiService.getStickerFileId(expectedName, 0)).thenReturn("tg-file-1");
 
         SaveImageToStickerSetResponseDto result =
                 creationService.saveImageToStickerSet(userId, imageUuid, null, "🎨");
 
         assertEquals(expectedName, result.getStickerSetName());
+        assertEquals("tg-file-1", result.getStickerFileId());
         verify(stickerSetService).ensureTelegramStickerSetInGallery(
                 eq(userId), eq(expectedName), eq("Gallery Default"), eq(StickerSetType.GENERATED), eq(true));
     }
+
+    @Test
+    @DisplayName("saveImageToStickerSet: набор читается мимо кэша один раз до загрузки и один раз после, title берётся из того же снапшота")
+    void saveImageToStickerSet_intoExistingSet_readsSetOnceBeforeAndOnceAfterUpload() throws Exception {
+        long userId = 500L;
+        UUID imageUuid = UUID.randomUUID();
+        File stickerFile = tempDir.resolve("existing.png").toFile();
+        assertTrue(stickerFile.createNewFile());
+        when(imageStorageService.getFileByUuid(imageUuid)).thenReturn(stickerFile);
+
+        String setName = "mypack_by_stixlybot";
+        when(telegramBotApiService.getStickerSetInfoFresh(setName))
+                .thenReturn(stickerSetPayload("My Pack", "f1", "f2"))
+                .thenReturn(stickerSetPayload("My Pack", "f1", "f2", "f3"));
+        when(telegramBotApiService.addStickerToSet(userId, stickerFile, setName, "🔥")).thenReturn(true);
+
+        SaveImageToStickerSetResponseDto result =
+                creationService.saveImageToStickerSet(userId, imageUuid, setName, "🔥");
+
+        assertEquals(2, result.getStickerIndex());
+        assertEquals("f3", result.getStickerFileId());
+        assertEquals("My Pack", result.getTitle());
+        verify(telegramBotApiService, never()).getStickerSetInfo(setName);
+        verify(telegramBotApiService, times(2)).getStickerSetInfoFresh(setName);
+        verify(telegramBotApiService, never()).getStickerFileIdsInOrder(anyString());
+        verify(telegramBotApiService, never()).getStickerSetInfoSimple(anyString());
+    }
+
+    private static Map<String, Object> stickerSetPayload(String title, String... fileIds) {
+        List<Map<String, Object>> stickers = new ArrayList<>();
+        for (String fileId : fileIds) {
+            stickers.add(Map.of("file_id", fileId, "thumbnail", Map.of("file_id", "thumb-" + fileId)));
+        }
+        return Map.of("title", title, "stickers", stickers);
+    }
 }
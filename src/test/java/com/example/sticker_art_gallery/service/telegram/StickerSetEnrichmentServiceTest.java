@@ -0,0 +1,130 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.example.sticker_art_gallery.dto.StickerSetAction;
+import com.example.sticker_art_gallery.dto.StickerSetDto;
+import com.example.sticker_art_gallery.model.telegram.StickerSet;
+import com.example.sticker_art_gallery.model.telegram.StickerSetTelegramCacheEntity;
+import com.example.sticker_art_gallery.repository.DislikeRepository;
+import com.example.sticker_art_gallery.repository.LikeRepository;
+import com.example.sticker_art_gallery.repository.StickerSetRepository;
+import com.example.sticker_art_gallery.service.transaction.WalletService;
+import com.example.sticker_art_gallery.testdata.StickerSetTestBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StickerSetEnrichmentService: данные зрителя и payload Telegram")
+class StickerSetEnrichmentServiceTest {
+
+    private static final Long VIEWER_ID = 501L;
+    private static final Long OWNER_ID = 502L;
+
+    @Mock
+    private TelegramBotApiService telegramBotApiService;
+
+    @Mock
+    private StickerSetRepository stickerSetRepository;
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private StickerSetTelegramCacheService stickerSetTelegramCacheService;
+
+    @Mock
+    private LikeRepository likeRepository;
+
+    @Mock
+    private DislikeRepository dislikeRepository;
+
+    private StickerSetEnrichmentService enrichmentService;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.clearContext();
+        enrichmentService = new StickerSetEnrichmentService(telegramBotApiService, stickerSetRepository, walletService,
+                stickerSetTelegramCacheService, likeRepository, dislikeRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Кошелёк и лайки запрашиваются один раз на список, флаги расставляются по ID")
+    void enrichList_resolvesViewerOnce() {
+        List<StickerSet> stickerSets = List.of(stickerSet(1L), stickerSet(2L), stickerSet(3L));
+        when(likeRepository.findLikedStickerSetIdsByUserId(VIEWER_ID, List.of(1L, 2L, 3L))).thenReturn(List.of(2L));
+        when(dislikeRepository.findDislikedStickerSetIdsByUserId(VIEWER_ID, List.of(1L, 2L, 3L))).thenReturn(List.of(3L));
+        when(walletService.hasActiveWallet(VIEWER_ID)).thenReturn(true);
+
+        List<StickerSetDto> dtos = enrichmentService.enrichWithBotApiDataAndCategories(stickerSets, "en", VIEWER_ID, true, false, true);
+
+        assertThat(dtos).extracting(StickerSetDto::isLikedByCurrentUser).containsExactly(false, true, false);
+        assertThat(dtos).extracting(StickerSetDto::isDislikedByCurrentUser).containsExactly(false, false, true);
+        assertThat(dtos).allSatisfy(dto -> assertThat(dto.getAvailableActions()).contains(StickerSetAction.DONATE));
+        verify(walletService, times(1)).hasActiveWallet(VIEWER_ID);
+        verify(likeRepository, times(1)).findLikedStickerSetIdsByUserId(anyLong(), anyList());
+    }
+
+    @Test
+    @DisplayName("Анонимный зритель: без запросов лайков и кошелька")
+    void enrichList_anonymous_noViewerQueries() {
+        List<StickerSetDto> dtos = enrichmentService.enrichWithBotApiDataAndCategories(
+                List.of(stickerSet(1L), stickerSet(2L)), "en", null, true, false, true);
+
+        assertThat(dtos).hasSize(2).noneMatch(StickerSetDto::isLikedByCurrentUser);
+        verify(likeRepository, never()).findLikedStickerSetIdsByUserId(anyLong(), anyList());
+        verify(walletService, never()).hasActiveWallet(anyLong());
+    }
+
+    @Test
+    @DisplayName("Без превью сохранённый payload пишется в ответ как есть, без разбора")
+    void enrichSingle_passesStoredPayloadThrough() throws Exception {
+        String payload = "{\"name\":\"enrich_1_by_StickerGalleryBot\",\"stickers\":[{\"file_id\":\"CAAC1\"}]}";
+        StickerSetTelegramCacheEntity cache = new StickerSetTelegramCacheEntity();
+        cache.setStickersetId(1L);
+        cache.setTelegramPayload(payload);
+        cache.setRefreshAfter(OffsetDateTime.now().plusDays(1));
+        when(stickerSetTelegramCacheService.getCachedEntries(List.of(1L))).thenReturn(Map.of(1L, cache));
+        when(stickerSetTelegramCacheService.getRawPayload(cache)).thenCallRealMethod();
+
+        StickerSetDto dto = enrichmentService.enrichSingleStickerSetSafelyWithCategories(stickerSet(1L), "en", null, false, false, false);
+
+        assertThat(dto.getTelegramStickerSetInfo()).isInstanceOf(RawValue.class);
+        assertThat(new ObjectMapper().findAndRegisterModules().writeValueAsString(dto))
+                .contains("\"telegramStickerSetInfo\":" + payload);
+        verify(stickerSetTelegramCacheService, never()).getPayload(cache);
+    }
+
+    private static StickerSet stickerSet(Long id) {
+        StickerSet stickerSet = StickerSetTestBuilder.builder()
+                .withUserId(OWNER_ID)
+                .withName("enrich_" + id + "_by_StickerGalleryBot")
+                .withIsVerified(true)
+                .build();
+        stickerSet.setId(id);
+        return stickerSet;
+    }
+}
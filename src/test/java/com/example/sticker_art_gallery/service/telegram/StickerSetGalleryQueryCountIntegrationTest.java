@@ -0,0 +1,94 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.example.sticker_art_gallery.dto.PageRequest;
+import com.example.sticker_art_gallery.dto.PageResponse;
+import com.example.sticker_art_gallery.dto.StickerSetDto;
+import com.example.sticker_art_gallery.repository.StickerSetRepository;
+import com.example.sticker_art_gallery.testdata.StickerSetTestBuilder;
+import com.example.sticker_art_gallery.teststeps.StickerSetTestSteps;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Tag("integration")
+@Epic("Стикерсеты")
+@Feature("Галерея: число запросов на страницу")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StickerSetGalleryQueryCountIntegrationTest {
+
+    private static final Long OWNER_ID = 703600001L;
+    private static final Long VIEWER_ID = 703600002L;
+    private static final int SETS = 20;
+
+    @Autowired
+    private StickerSetTestSteps testSteps;
+
+    @Autowired
+    private StickerSetRepository stickerSetRepository;
+
+    @Autowired
+    private StickerSetService stickerSetService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<String> names = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() {
+        testSteps.createTestUserAndProfile(OWNER_ID);
+        testSteps.createTestUserAndProfile(VIEWER_ID);
+        for (int i = 0; i < SETS; i++) {
+            names.add("query_count_" + i + "_by_StickerGalleryBot");
+        }
+        testSteps.cleanupTestStickerSets(names);
+        for (String name : names) {
+            stickerSetRepository.save(StickerSetTestBuilder.builder()
+                    .withUserId(OWNER_ID)
+                    .withTitle(name)
+                    .withName(name)
+                    .build());
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        testSteps.cleanupTestStickerSets(names);
+    }
+
+    @Test
+    @Story("Двухфазная выборка")
+    @DisplayName("Число SQL-запросов страницы не зависит от её размера")
+    void pageQueryCount_doesNotGrowWithPageSize() {
+        long small = statementsFor(5);
+        long large = statementsFor(SETS);
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    private long statementsFor(int size) {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setSize(size);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // shortInfo: промах кэша Telegram запускает фоновое обновление, его запросы зашумили бы счётчик
+        PageResponse<StickerSetDto> page = stickerSetService.findAllWithPagination(
+                pageRequest, "en", VIEWER_ID, null, OWNER_ID, null, true, false);
+
+        assertThat(page.getContent()).hasSize(size);
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.example.sticker_art_gallery.exception.InvalidCursorException;
+import com.example.sticker_art_gallery.model.telegram.StickerSetType;
+import com.example.sticker_art_gallery.util.KeysetCursor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("StickerSetKeysetQuery: keyset-выборка и курсор")
+class StickerSetKeysetQueryTest {
+
+    @Test
+    @DisplayName("Первая страница галереи: фильтры без keyset-условия, ORDER BY ключ + id")
+    void buildJpql_firstPage() {
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        String jpql = StickerSetKeysetQuery.buildJpql(
+                StickerSetKeysetQuery.Filter.gallery(StickerSetType.USER, null, true, List.of("cats")),
+                "createdAt", true, null, params);
+
+        assertThat(jpql).contains("StickerSetVisibility.PUBLIC", "ss.isVerified = true", "c.key IN :categoryKeys")
+                .doesNotContain(":afterValue")
+                .endsWith("ORDER BY ss.createdAt DESC, ss.id DESC");
+        assertThat(params).containsOnlyKeys("type", "categoryKeys");
+    }
+
+    @Test
+    @DisplayName("Страница после курсора: граница по ключу для индекса и разрешение равенств по id")
+    void buildJpql_afterCursor() {
+        Map<String, Object> params = new LinkedHashMap<>();
+        KeysetCursor after = new KeysetCursor("likesCount", "ASC", "7", "42");
+
+        String jpql = StickerSetKeysetQuery.buildJpql(
+                StickerSetKeysetQuery.Filter.owner(5L, "PRIVATE", true, null, null, null, 9L),
+                "likesCount", false, after, params);
+
+        assertThat(jpql).contains("StickerSetState.BLOCKED", "StickerSetVisibility.PRIVATE", "l.userId = :likedBy",
+                "ss.likesCount >= :afterValue AND (ss.likesCount > :afterValue OR ss.id > :afterId)")
+                .endsWith("ORDER BY ss.likesCount ASC, ss.id ASC");
+        assertThat(params).containsEntry("afterValue", 7).containsEntry("afterId", 42L).containsEntry("ownerId", 5L);
+    }
+
+    @Test
+    @DisplayName("Курсор кодируется обратимо и не принимается для другой сортировки")
+    void cursor_roundTripAndSortMismatch() {
+        String value = LocalDateTime.of(2025, 3, 1, 12, 30, 15, 123_000).toString();
+        String encoded = new KeysetCursor("createdAt", "DESC", value, "100").encode();
+
+        assertThat(KeysetCursor.decode(encoded, "createdAt", "DESC"))
+                .isEqualTo(new KeysetCursor("createdAt", "DESC", value, "100"));
+        assertThat(KeysetCursor.decode("", "createdAt", "DESC")).isNull();
+        assertThatThrownBy(() -> KeysetCursor.decode(encoded, "likesCount", "DESC"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("%%%", "createdAt", "DESC"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @DisplayName("Сортировка без индекса в режиме курсора отклоняется")
+    void buildJpql_unsupportedSort() {
+        assertThatThrownBy(() -> StickerSetKeysetQuery.buildJpql(
+                StickerSetKeysetQuery.Filter.gallery(null, null, null, null), "title", true, null, new LinkedHashMap<>()))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.example.sticker_art_gallery.model.telegram.StickerSet;
+import com.example.sticker_art_gallery.repository.StickerSetRepository;
+import io.qameta.allure.Epic;
+import io.qameta.allure.Feature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@Epic("Стикерсеты")
+@Feature("Галерея: двухфазная выборка")
+@DisplayName("StickerSetPageLoader: загрузка страницы по ID")
+class StickerSetPageLoaderTest {
+
+    @Mock
+    private StickerSetRepository stickerSetRepository;
+
+    @InjectMocks
+    private StickerSetPageLoader pageLoader;
+
+    @Test
+    @DisplayName("Порядок и метаданные страницы берутся из страницы ID")
+    void load_keepsIdOrderAndTotals() {
+        Page<Long> ids = new PageImpl<>(List.of(3L, 1L, 2L), PageRequest.of(1, 3), 42);
+        when(stickerSetRepository.findAllWithCategoriesByIdIn(ids.getContent()))
+                .thenReturn(List.of(stickerSet(1L), stickerSet(2L), stickerSet(3L)));
+
+        Page<StickerSet> page = pageLoader.load(ids);
+
+        assertThat(page.getContent()).extracting(StickerSet::getId).containsExactly(3L, 1L, 2L);
+        assertThat(page.getTotalElements()).isEqualTo(42);
+        assertThat(page.getNumber()).isEqualTo(1);
+        verify(stickerSetRepository).fetchDescriptionsByIdIn(ids.getContent());
+    }
+
+    @Test
+    @DisplayName("Пустая страница ID не порождает запросов за наборами")
+    void load_emptyPage_skipsFetch() {
+        Page<StickerSet> page = pageLoader.load(new PageImpl<>(List.of(), PageRequest.of(5, 20), 42));
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(42);
+        verify(stickerSetRepository, never()).findAllWithCategoriesByIdIn(any());
+    }
+
+    private static StickerSet stickerSet(Long id) {
+        StickerSet stickerSet = new StickerSet();
+        stickerSet.setId(id);
+        return stickerSet;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.example.sticker_art_gallery.service.telegram.StickerSetRefreshQueue.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StickerSetRefreshQueue: очередь обновления кэша Telegram")
+class StickerSetRefreshQueueTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Long> processed = new ArrayList<>();
+
+    @Test
+    @DisplayName("Повторная постановка не дублирует задачу, а только повышает приоритет")
+    void submit_deduplicatesAndUpgradesPriority() throws Exception {
+        StickerSetRefreshQueue queue = queue(processed::add, 10);
+
+        queue.submit(1L, Priority.WARMUP);
+        queue.submit(2L, Priority.STALE);
+        queue.submit(3L, Priority.WARMUP);
+        queue.submit(1L, Priority.MISSING);
+        queue.submit(2L, Priority.WARMUP);
+
+        assertThat(queue.depth()).isEqualTo(3);
+        drain(queue);
+        assertThat(processed).containsExactly(1L, 2L, 3L);
+        assertThat(registry.counter("test.refresh.completed").count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Заполненная очередь вытесняет задачу ниже по приоритету или отклоняет новую")
+    void submit_atCapacity_evictsLowerOrRejects() throws Exception {
+        StickerSetRefreshQueue queue = queue(processed::add, 2);
+
+        assertThat(queue.submit(1L, Priority.STALE)).isTrue();
+        assertThat(queue.submit(2L, Priority.WARMUP)).isTrue();
+        assertThat(queue.submit(3L, Priority.WARMUP)).isFalse();
+        assertThat(queue.submit(4L, Priority.MISSING)).isTrue();
+
+        assertThat(queue.depth()).isEqualTo(2);
+        drain(queue);
+        assertThat(processed).containsExactly(4L, 1L);
+        assertThat(registry.counter("test.refresh.rejected").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("429 возвращает задачу в очередь на прежнее место, прочие ошибки не повторяются")
+    void rateLimited_isRequeued_otherFailuresAreNot() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        StickerSetRefreshQueue queue = queue(id -> {
+            if (id == 1L && calls.getAndIncrement() == 0) {
+                throw new TelegramRateLimitException("getStickerSet", 0, null);
+            }
+            if (id == 2L) {
+                throw new IllegalStateException("boom");
+            }
+            processed.add(id);
+        }, 10);
+
+        queue.submit(1L, Priority.STALE);
+        queue.submit(2L, Priority.STALE);
+        queue.submit(3L, Priority.WARMUP);
+
+        drain(queue);
+
+        assertThat(processed).containsExactly(1L, 3L);
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(registry.counter("test.refresh.rate_limited").count()).isEqualTo(1);
+        assertThat(registry.counter("test.refresh.failed").count()).isEqualTo(1);
+        assertThat(queue.depth()).isZero();
+    }
+
+    private StickerSetRefreshQueue queue(LongConsumer handler, int capacity) {
+        return new StickerSetRefreshQueue("test.refresh", handler, capacity, 1, 1000, 1000, registry);
+    }
+
+    private static void drain(StickerSetRefreshQueue queue) throws InterruptedException {
+        while (queue.processNext()) {
+            // обрабатываем в потоке теста
+        }
+    }
+}
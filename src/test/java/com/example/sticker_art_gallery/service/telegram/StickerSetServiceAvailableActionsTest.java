@@ -7,6 +7,7 @@ import com.example.sticker_art_gallery.repository.StickerSetRepository;
 import com.example.sticker_art_gallery.model.telegram.StickerSetState;
 import com.example.sticker_art_gallery.model.telegram.StickerSetVisibility;
 import com.example.sticker_art_gallery.model.telegram.StickerSetType;
+import com.example.sticker_art_gallery.service.StickerSetListingCache;
 import com.example.sticker_art_gallery.service.category.CategoryService;
 import com.example.sticker_art_gallery.service.profile.ArtRewardService;
 import io.qameta.allure.*;
@@ -60,6 +61,15 @@ class StickerSetServiceAvailableActionsTest {
     @Mock
     private StickerSetTelegramCacheService stickerSetTelegramCacheService;
 
+    @Mock
+    private StickerSetPageLoader pageLoader;
+
+    @Mock
+    private StickerSetKeysetQuery keysetQuery;
+
+    @Mock
+    private StickerSetListingCache listingCache;
+
     @Mock
     private com.example.sticker_art_gallery.service.transaction.WalletService walletService;
 
@@ -90,7 +100,10 @@ class StickerSetServiceAvailableActionsTest {
             crudService,
             visibilityService,
             enrichmentService,
-            stickerSetTelegramCacheService
+            stickerSetTelegramCacheService,
+            pageLoader,
+            keysetQuery,
+            listingCache
         );
     }
 
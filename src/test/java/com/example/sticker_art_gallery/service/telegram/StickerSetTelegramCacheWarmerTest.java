@@ -0,0 +1,114 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import com.example.sticker_art_gallery.repository.StickerSetTelegramCacheRepository;
+import com.example.sticker_art_gallery.repository.projection.StickerSetWarmupCandidateProjection;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.sticker_art_gallery.service.telegram.StickerSetRefreshQueue.Priority.WARMUP;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StickerSetTelegramCacheWarmer: упреждающий прогрев кэша Telegram")
+class StickerSetTelegramCacheWarmerTest {
+
+    @Mock
+    private StickerSetTelegramCacheRepository cacheRepository;
+
+    @Mock
+    private StickerSetTelegramCacheService cacheService;
+
+    @Test
+    @DisplayName("Сначала наборы без кэша, затем по показам; не больше бюджета за прогон")
+    void warmUp_prioritizesMissingThenViews_withinBudget() {
+        StickerSetTelegramCacheWarmer warmer = new StickerSetTelegramCacheWarmer(cacheRepository, cacheService, true, 3, 24);
+        OffsetDateTime soon = OffsetDateTime.now().plusHours(2);
+        // Порядок из БД: без кэша, затем по лайкам
+        when(cacheRepository.findWarmupCandidates(any(OffsetDateTime.class), any(Pageable.class))).thenReturn(List.of(
+                candidate(1L, 0, null),
+                candidate(2L, 50, soon),
+                candidate(3L, 10, soon),
+                candidate(4L, 5, soon)));
+        when(cacheService.drainRecentViews()).thenReturn(Map.of(4L, 30L, 3L, 2L));
+        when(cacheService.scheduleRefresh(anyLong(), eq(WARMUP))).thenReturn(true);
+
+        int scheduled = warmer.warmUp();
+
+        assertThat(scheduled).isEqualTo(3);
+        InOrder order = inOrder(cacheService);
+        order.verify(cacheService).scheduleRefresh(1L, WARMUP);
+        order.verify(cacheService).scheduleRefresh(4L, WARMUP);
+        order.verify(cacheService).scheduleRefresh(3L, WARMUP);
+        verify(cacheService, never()).scheduleRefresh(2L, WARMUP);
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(cacheRepository).findWarmupCandidates(any(OffsetDateTime.class), page.capture());
+        assertThat(page.getValue().getPageSize()).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Отказ очереди обновления останавливает прогон")
+    void warmUp_stopsWhenRefreshQueueIsFull() {
+        StickerSetTelegramCacheWarmer warmer = new StickerSetTelegramCacheWarmer(cacheRepository, cacheService, true, 10, 24);
+        when(cacheRepository.findWarmupCandidates(any(OffsetDateTime.class), any(Pageable.class))).thenReturn(List.of(
+                candidate(1L, 0, null), candidate(2L, 0, null), candidate(3L, 0, null)));
+        when(cacheService.scheduleRefresh(anyLong(), eq(WARMUP))).thenReturn(true, false);
+
+        assertThat(warmer.warmUp()).isEqualTo(1);
+        verify(cacheService, times(2)).scheduleRefresh(anyLong(), eq(WARMUP));
+        verify(cacheService, never()).scheduleRefresh(3L, WARMUP);
+    }
+
+    @Test
+    void scheduledWarmUp_disabled_doesNothing() {
+        StickerSetTelegramCacheWarmer warmer = new StickerSetTelegramCacheWarmer(cacheRepository, cacheService, false, 10, 24);
+
+        warmer.scheduledWarmUp();
+
+        verify(cacheService, never()).scheduleRefresh(anyLong(), any());
+        verify(cacheService, never()).drainRecentViews();
+    }
+
+    private static StickerSetWarmupCandidateProjection candidate(Long id, int likes, OffsetDateTime refreshAfter) {
+        return new StickerSetWarmupCandidateProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getLikesCount() {
+                return likes;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return LocalDateTime.now().minusDays(id);
+            }
+
+            @Override
+            public OffsetDateTime getRefreshAfter() {
+                return refreshAfter;
+            }
+        };
+    }
+}
@@ -15,6 +15,15 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -25,6 +34,11 @@ import static org.mockito.Mockito.*;
 @DisplayName("Тесты TelegramBotApiService")
 class TelegramBotApiServiceTest {
 
+    /**
+     * Верхняя граница ожиданий в многопоточных тестах: первый вызов в свежей JVM заметно медленнее
+     */
+    private static final long AWAIT_SECONDS = 60;
+
     @Mock
     private RestTemplate restTemplate;
 
@@ -95,7 +109,7 @@ class TelegramBotApiServiceTest {
     @DisplayName("extractTitleFromStickerSetInfo без поля title должен возвращать null")
     void extractTitleFromStickerSetInfo_WithoutTitleField_ShouldReturnNull() {
         // Given
-        Object stickerSetInfo = java.util.Map.of("name", "no-title");
+        Object stickerSetInfo = Map.of("name", "no-title");
 
         // When
         String result = telegramBotApiService.extractTitleFromStickerSetInfo(stickerSetInfo);
@@ -213,7 +227,92 @@ class TelegramBotApiServiceTest {
         verify(restTemplate).getForEntity(contains("/getChatMember?chat_id=777&user_id=777"), eq(String.class));
     }
 
+    @Test
+    @DisplayName("Одновременные getStickerSetInfo одного набора разделяют один запрос к Telegram")
+    void getStickerSetInfo_ConcurrentCallsForSameSet_ShareOneHttpCall() throws Exception {
+        when(appConfig.getTelegram()).thenReturn(telegramConfig);
+        when(telegramConfig.getBotToken()).thenReturn("bot-token");
+        CountDownLatch requestStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.getForEntity(contains("/getStickerSet?name=shared_by_bot"), eq(String.class)))
+                .thenAnswer(invocation -> {
+                    requestStarted.countDown();
+                    assertTrue(release.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+                    return new ResponseEntity<>(
+                            "{\"ok\":true,\"result\":{\"title\":\"Shared\",\"stickers\":[{\"file_id\":\"f1\"}]}}",
+                            HttpStatus.OK);
+                });
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            Future<Object> first = pool.submit(() -> telegramBotApiService.getStickerSetInfo("shared_by_bot"));
+            assertTrue(requestStarted.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+            Future<String> second = pool.submit(() -> telegramBotApiService.getStickerFileId("shared_by_bot", 0));
+            Future<List<String>> third = pool.submit(() -> telegramBotApiService.getStickerFileIdsInOrder("shared_by_bot"));
+            // Запрос первого вызова заблокирован в стабе, пока оба вторичных вызова не встанут в ожидание его результата
+            awaitFetchWaiters("shared_by_bot", 2);
+            release.countDown();
+
+            assertEquals("Shared", telegramBotApiService.extractTitleFromStickerSetInfo(first.get(AWAIT_SECONDS, TimeUnit.SECONDS)));
+            assertEquals("f1", second.get(AWAIT_SECONDS, TimeUnit.SECONDS));
+            assertEquals(List.of("f1"), third.get(AWAIT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+
+        verify(restTemplate, times(1)).getForEntity(contains("/getStickerSet?name=shared_by_bot"), eq(String.class));
+    }
+
+    @Test
+    @DisplayName("getStickerSetInfoFresh не присоединяется к идущему getStickerSet и делает свой запрос")
+    void getStickerSetInfoFresh_DoesNotJoinInFlightFetch() throws Exception {
+        when(appConfig.getTelegram()).thenReturn(telegramConfig);
+        when(telegramConfig.getBotToken()).thenReturn("bot-token");
+        CountDownLatch staleStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.getForEntity(contains("/getStickerSet?name=fresh_by_bot"), eq(String.class)))
+                .thenAnswer(invocation -> {
+                    staleStarted.countDown();
+                    assertTrue(release.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+                    return new ResponseEntity<>(
+                            "{\"ok\":true,\"result\":{\"title\":\"Old\",\"stickers\":[{\"file_id\":\"f1\"}]}}",
+                            HttpStatus.OK);
+                })
+                .thenReturn(new ResponseEntity<>(
+                        "{\"ok\":true,\"result\":{\"title\":\"New\",\"stickers\":[{\"file_id\":\"f1\"},{\"file_id\":\"f2\"}]}}",
+                        HttpStatus.OK));
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> stale = pool.submit(() -> telegramBotApiService.getStickerSetInfo("fresh_by_bot"));
+            assertTrue(staleStarted.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+
+            Object fresh = telegramBotApiService.getStickerSetInfoFresh("fresh_by_bot");
+
+            assertEquals(List.of("f1", "f2"), StickerSetSnapshot.fromPayload("fresh_by_bot", fresh).fileIds());
+            release.countDown();
+            assertEquals("Old", telegramBotApiService.extractTitleFromStickerSetInfo(stale.get(AWAIT_SECONDS, TimeUnit.SECONDS)));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+
+        verify(restTemplate, times(2)).getForEntity(contains("/getStickerSet?name=fresh_by_bot"), eq(String.class));
+    }
+
+    private void awaitFetchWaiters(String stickerSetName, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(AWAIT_SECONDS);
+        while (telegramBotApiService.stickerSetFetchWaiters(stickerSetName) < expected) {
+            if (System.nanoTime() > deadline) {
+                fail("Вторичные вызовы не присоединились к идущему запросу getStickerSet");
+            }
+            // Не крутимся вхолостую: ожидающие потоки должны успеть дойти до join()
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
     private Object createMockStickerSetInfo(String title) {
-        return java.util.Map.of("title", title);
+        return Map.of("title", title);
     }
 }
@@ -0,0 +1,131 @@
+package com.example.sticker_art_gallery.service.telegram;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TelegramSendSchedulerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @SuppressWarnings("unchecked")
+    private TelegramSendScheduler scheduler(double globalPerSecond, double chatPerSecond, int maxAttempts) {
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(registry);
+        return new TelegramSendScheduler(globalPerSecond, chatPerSecond, 20, maxAttempts, provider);
+    }
+
+    @Test
+    @DisplayName("Повторные отправки в один чат выдерживают per-chat интервал")
+    void send_sameChat_isPaced() {
+        TelegramSendScheduler scheduler = scheduler(1_000, 10, 1);
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            scheduler.send(42L, () -> "ok");
+        }
+        long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+
+        // Первый токен доступен сразу, ещё два - по 100 мс
+        assertTrue(elapsedMs >= 150, "elapsed " + elapsedMs + "ms");
+    }
+
+    @Test
+    @DisplayName("Разные чаты не ждут друг друга")
+    void send_differentChats_notPaced() {
+        TelegramSendScheduler scheduler = scheduler(1_000, 1, 1);
+
+        long startedAt = System.nanoTime();
+        for (long chatId = 1; chatId <= 5; chatId++) {
+            scheduler.send(chatId, () -> "ok");
+        }
+        long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+
+        assertTrue(elapsedMs < 500, "elapsed " + elapsedMs + "ms");
+    }
+
+    @Test
+    @DisplayName("429 повторяется после retry_after и учитывается в метрике полосы")
+    void send_rateLimited_retriesAfterPause() {
+        TelegramSendScheduler scheduler = scheduler(1_000, 1_000, 3);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = scheduler.send(7L, () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new TelegramRateLimitException("sendMessage", 1, null);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(2, calls.get());
+        assertEquals(1.0, registry.counter("telegram.send.rate_limited", "lane", "transactional").count());
+        assertEquals(2.0, registry.counter("telegram.send.requests", "lane", "transactional").count());
+    }
+
+    @Test
+    @DisplayName("После исчерпания попыток 429 пробрасывается вызывающему")
+    void send_rateLimitedTooManyTimes_throws() {
+        TelegramSendScheduler scheduler = scheduler(1_000, 1_000, 1);
+
+        assertThrows(TelegramRateLimitException.class, () -> scheduler.send(7L, () -> {
+            throw new TelegramRateLimitException("sendMessage", 1, null);
+        }));
+    }
+
+    @Test
+    @DisplayName("inLane переключает полосу только внутри блока")
+    void inLane_scopesLaneToBlock() {
+        TelegramSendScheduler scheduler = scheduler(1_000, 1_000, 1);
+
+        TelegramSendScheduler.Lane inside = scheduler.inLane(TelegramSendScheduler.Lane.BULK, () -> {
+            scheduler.send(1L, () -> "ok");
+            return scheduler.currentLane();
+        });
+
+        assertEquals(TelegramSendScheduler.Lane.BULK, inside);
+        assertEquals(TelegramSendScheduler.Lane.TRANSACTIONAL, scheduler.currentLane());
+        assertEquals(1.0, registry.counter("telegram.send.requests", "lane", "bulk").count());
+    }
+
+    @Test
+    @DisplayName("Интерактивные правки в один чат не ждут per-chat интервал")
+    void sendInteractive_sameChat_notPaced() {
+        TelegramSendScheduler scheduler = scheduler(1_000, 1, 1);
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            scheduler.sendInteractive(42L, () -> "ok");
+        }
+        long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+
+        assertTrue(elapsedMs < 500, "elapsed " + elapsedMs + "ms");
+        assertEquals(5.0, registry.counter("telegram.send.requests", "lane", "interactive").count());
+    }
+
+    @Test
+    @DisplayName("Интерактивная правка на 429 не повторяется, а ставит чат на паузу и пробрасывает исключение")
+    void sendInteractive_rateLimited_surfacesAndPausesChat() {
+        TelegramSendScheduler scheduler = scheduler(1_000, 1_000, 3);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(TelegramRateLimitException.class, () -> scheduler.sendInteractive(7L, () -> {
+            calls.incrementAndGet();
+            throw new TelegramRateLimitException("editMessageText", 30, null);
+        }));
+        TelegramRateLimitException paused = assertThrows(TelegramRateLimitException.class,
+                () -> scheduler.sendInteractive(7L, () -> calls.incrementAndGet()));
+
+        assertEquals(1, calls.get());
+        assertTrue(paused.getRetryAfterSeconds() > 0 && paused.getRetryAfterSeconds() <= 30);
+        assertEquals(2.0, registry.counter("telegram.send.rate_limited", "lane", "interactive").count());
+    }
+}
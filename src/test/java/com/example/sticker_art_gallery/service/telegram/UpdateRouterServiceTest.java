@@ -73,4 +73,33 @@ class UpdateRouterServiceTest {
         verify(stickerGalleryFlowService).handleStart(update.path("message"));
         verify(stickerGalleryFlowService, never()).handleHelp(update.path("message"));
     }
+
+    @Test
+    @DisplayName("chat_member передаётся в кэш подписки на канал")
+    void routeUpdate_ShouldRouteChatMemberUpdate() throws Exception {
+        UpdateRouterService service = new UpdateRouterService(
+                dedupService,
+                stickerGalleryFlowService,
+                supportBridgeService,
+                paymentUpdateService,
+                inlineQueryService,
+                inlineGenerationService
+        );
+
+        when(dedupService.isDuplicate(101L)).thenReturn(false);
+
+        JsonNode update = objectMapper.readTree("""
+                {
+                  "update_id": 101,
+                  "chat_member": {
+                    "chat": { "id": -1001, "type": "channel" },
+                    "new_chat_member": { "status": "member", "user": { "id": 777 } }
+                  }
+                }
+                """);
+
+        service.routeUpdate(update);
+
+        verify(stickerGalleryFlowService).handleChatMemberUpdate(update.path("chat_member"));
+    }
 }
@@ -0,0 +1,89 @@
+package com.example.sticker_art_gallery.service.telegram.chat;
+
+import com.example.sticker_art_gallery.config.AppConfig;
+import com.example.sticker_art_gallery.service.telegram.TelegramBotApiService;
+import com.example.sticker_art_gallery.service.telegram.TelegramBotApiService.ChannelMembershipStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChannelMembershipCache: кэш подписки на обязательный канал")
+class ChannelMembershipCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private TelegramBotApiService telegramBotApiService;
+
+    @Mock
+    private AppConfig appConfig;
+
+    @Mock
+    private AppConfig.Telegram telegramConfig;
+
+    private ChannelMembershipCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ChannelMembershipCache(telegramBotApiService, appConfig,
+                Duration.ofHours(6), Duration.ofSeconds(30), Duration.ofMinutes(30), 1000, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("UNKNOWN не кэшируется, подтверждённая подписка - кэшируется")
+    void unknownIsNotCached_subscribedIs() {
+        when(telegramBotApiService.getRequiredChannelMembershipStatus(1L))
+                .thenReturn(ChannelMembershipStatus.UNKNOWN, ChannelMembershipStatus.SUBSCRIBED);
+
+        assertThat(cache.getStatus(1L)).isEqualTo(ChannelMembershipStatus.UNKNOWN);
+        assertThat(cache.getStatus(1L)).isEqualTo(ChannelMembershipStatus.SUBSCRIBED);
+        assertThat(cache.getStatus(1L)).isEqualTo(ChannelMembershipStatus.SUBSCRIBED);
+
+        verify(telegramBotApiService, times(2)).getRequiredChannelMembershipStatus(1L);
+    }
+
+    @Test
+    @DisplayName("Перепроверка по кнопке обходит отрицательный кэш")
+    void recheck_bypassesNegativeCache() {
+        when(telegramBotApiService.getRequiredChannelMembershipStatus(2L))
+                .thenReturn(ChannelMembershipStatus.NOT_SUBSCRIBED, ChannelMembershipStatus.SUBSCRIBED);
+
+        assertThat(cache.getStatus(2L)).isEqualTo(ChannelMembershipStatus.NOT_SUBSCRIBED);
+        assertThat(cache.recheck(2L)).isEqualTo(ChannelMembershipStatus.SUBSCRIBED);
+        assertThat(cache.getStatus(2L)).isEqualTo(ChannelMembershipStatus.SUBSCRIBED);
+        assertThat(cache.recheck(2L)).isEqualTo(ChannelMembershipStatus.SUBSCRIBED);
+
+        verify(telegramBotApiService, times(2)).getRequiredChannelMembershipStatus(2L);
+    }
+
+    @Test
+    @DisplayName("chat_member учитывается только для обязательного канала")
+    void chatMemberUpdate_onlyForRequiredChannel() throws Exception {
+        when(appConfig.getTelegram()).thenReturn(telegramConfig);
+        when(telegramConfig.getRequiredChannelId()).thenReturn(-1001L);
+
+        boolean otherChannel = cache.onChatMemberUpdate(objectMapper.readTree("""
+                { "chat": { "id": -1002 }, "new_chat_member": { "status": "member", "user": { "id": 3 } } }
+                """));
+        boolean requiredChannel = cache.onChatMemberUpdate(objectMapper.readTree("""
+                { "chat": { "id": -1001 }, "new_chat_member": { "status": "member", "user": { "id": 3 } } }
+                """));
+
+        assertThat(otherChannel).isFalse();
+        assertThat(requiredChannel).isTrue();
+        assertThat(cache.getStatus(3L)).isEqualTo(ChannelMembershipStatus.SUBSCRIBED);
+        verify(telegramBotApiService, times(0)).getRequiredChannelMembershipStatus(3L);
+    }
+}
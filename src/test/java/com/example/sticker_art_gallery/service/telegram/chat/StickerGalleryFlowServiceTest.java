@@ -13,11 +13,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,7 +50,10 @@ class StickerGalleryFlowServiceTest {
     @BeforeEach
     void setUp() {
         when(appConfig.getTelegram()).thenReturn(telegramConfig);
-        service = new StickerGalleryFlowService(appConfig, stickerSetRepository, stickerSetService, telegramBotApiService);
+        ChannelMembershipCache membershipCache = new ChannelMembershipCache(telegramBotApiService, appConfig,
+                Duration.ofHours(6), Duration.ofSeconds(30), Duration.ofMinutes(30), 1000, Runnable::run);
+        service = new StickerGalleryFlowService(appConfig, stickerSetRepository, stickerSetService, telegramBotApiService,
+                membershipCache);
     }
 
     @Test
@@ -141,4 +147,43 @@ class StickerGalleryFlowServiceTest {
         );
         verify(telegramBotApiService).answerCallbackQuery("cb-1", "Подписка подтверждена", false);
     }
+
+    @Test
+    @DisplayName("Повторный /start не ходит в Telegram за подпиской, chat_member о выходе из канала закрывает меню")
+    void handleStart_UsesCachedMembership_AndChatMemberUpdateRevokesIt() throws Exception {
+        when(telegramConfig.isChannelSubscriptionRequired()).thenReturn(true);
+        when(telegramConfig.getRequiredChannelId()).thenReturn(null);
+        when(telegramConfig.getRequiredChannelUsername()).thenReturn("stixlyofficial");
+        when(telegramBotApiService.getRequiredChannelMembershipStatus(123L))
+                .thenReturn(TelegramBotApiService.ChannelMembershipStatus.SUBSCRIBED);
+
+        JsonNode message = objectMapper.readTree("""
+                {
+                  "chat": { "id": 555 },
+                  "from": { "id": 123, "first_name": "Alex" }
+                }
+                """);
+        service.handleStart(message);
+        service.handleStart(message);
+
+        verify(telegramBotApiService, times(1)).getRequiredChannelMembershipStatus(123L);
+
+        service.handleChatMemberUpdate(objectMapper.readTree("""
+                {
+                  "chat": { "id": -1001, "username": "StixlyOfficial", "type": "channel" },
+                  "new_chat_member": { "status": "left", "user": { "id": 123 } }
+                }
+                """));
+        service.handleStart(message);
+
+        verify(telegramBotApiService, times(1)).getRequiredChannelMembershipStatus(123L);
+        verify(telegramBotApiService).sendMessage(
+                eq(555L),
+                contains("сначала подпишитесь"),
+                eq("HTML"),
+                any(),
+                isNull(),
+                isNull()
+        );
+    }
 }
@@ -0,0 +1,194 @@
+package com.example.sticker_art_gallery.service.user;
+
+import com.example.sticker_art_gallery.model.storage.CachedImageEntity;
+import com.example.sticker_art_gallery.service.storage.ImageStorageService;
+import com.example.sticker_art_gallery.service.telegram.TelegramBotApiService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserAvatarService: загрузка, хранение и обновление аватаров")
+class UserAvatarServiceTest {
+
+    private static final long USER_ID = 777L;
+
+    @Mock
+    private TelegramBotApiService telegramBotApiService;
+
+    @Mock
+    private ImageStorageService imageStorageService;
+
+    @Test
+    @DisplayName("Одновременные запросы одного пользователя - одна загрузка из Telegram, сохраняются все размеры")
+    void concurrentRequests_shareOneDownload() throws Exception {
+        UserAvatarService service = service(Runnable::run);
+        CountDownLatch downloadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(telegramBotApiService.getUserProfilePhotos(USER_ID)).thenReturn(profilePhotos());
+        when(telegramBotApiService.downloadFile("photo_160")).thenAnswer(invocation -> {
+            downloadStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return jpeg(160);
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<Optional<UserAvatarService.Avatar>>> results = new ArrayList<>();
+            results.add(pool.submit(() -> service.getAvatar(USER_ID, 128)));
+            assertThat(downloadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 5; i++) {
+                results.add(pool.submit(() -> service.getAvatar(USER_ID, 100)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Optional<UserAvatarService.Avatar>> result : results) {
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(result.get(5, TimeUnit.SECONDS).orElseThrow().data()));
+                assertThat(image.getWidth()).isEqualTo(128);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(telegramBotApiService, times(1)).downloadFile(anyString());
+        verify(imageStorageService).storeUserAvatar(eq(USER_ID), eq(64), any(), eq("image/jpeg"), anyLong());
+        verify(imageStorageService).storeUserAvatar(eq(USER_ID), eq(128), any(), eq("image/jpeg"), anyLong());
+        assertThat(service.getAvatar(USER_ID, 64)).isPresent();
+        verify(telegramBotApiService, times(1)).getUserProfilePhotos(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Устаревший аватар отдаётся сразу, обновление уходит в фон")
+    void staleStoredAvatar_isServedAndRefreshed() throws Exception {
+        List<Runnable> scheduled = new ArrayList<>();
+        UserAvatarService service = service(scheduled::add);
+        byte[] stored = jpeg(64);
+        CachedImageEntity entity = new CachedImageEntity();
+        entity.setContentType("image/jpeg");
+        entity.setCreatedAt(OffsetDateTime.now().minusDays(30));
+        when(imageStorageService.findUserAvatar(USER_ID, 64))
+                .thenReturn(Optional.of(new ImageStorageService.StoredImage(entity, stored)));
+
+        UserAvatarService.Avatar first = service.getAvatar(USER_ID, 64).orElseThrow();
+        service.getAvatar(USER_ID, 64);
+
+        assertThat(first.data()).isEqualTo(stored);
+        assertThat(scheduled).hasSize(1);
+        verify(telegramBotApiService, never()).getUserProfilePhotos(anyLong());
+
+        when(telegramBotApiService.getUserProfilePhotos(USER_ID)).thenReturn(profilePhotos());
+        when(telegramBotApiService.downloadFile("photo_160")).thenReturn(jpeg(160));
+        scheduled.get(0).run();
+
+        UserAvatarService.Avatar refreshed = service.getAvatar(USER_ID, 64).orElseThrow();
+        assertThat(refreshed.etag()).isNotEqualTo(first.etag());
+        assertThat(refreshed.fetchedAt()).isAfter(first.fetchedAt());
+    }
+
+    @Test
+    @DisplayName("Неудачное обновление устаревшего аватара не ставится заново на каждый запрос")
+    void staleAvatar_failedRefresh_isNotRescheduledPerRequest() throws Exception {
+        List<Runnable> scheduled = new ArrayList<>();
+        UserAvatarService service = service(scheduled::add);
+        CachedImageEntity entity = new CachedImageEntity();
+        entity.setContentType("image/jpeg");
+        entity.setCreatedAt(OffsetDateTime.now().minusDays(30));
+        when(imageStorageService.findUserAvatar(USER_ID, 64))
+                .thenReturn(Optional.of(new ImageStorageService.StoredImage(entity, jpeg(64))));
+        when(telegramBotApiService.getUserProfilePhotos(USER_ID)).thenReturn(null);
+
+        service.getAvatar(USER_ID, 64);
+        scheduled.get(0).run();
+        for (int i = 0; i < 3; i++) {
+            assertThat(service.getAvatar(USER_ID, 64)).isPresent();
+        }
+
+        assertThat(scheduled).hasSize(1);
+        verify(imageStorageService, times(1)).findUserAvatar(USER_ID, 64);
+        verify(telegramBotApiService, times(1)).getUserProfilePhotos(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Нет фото профиля - пусто, повторно Telegram не спрашивается")
+    void noProfilePhoto_isRemembered() {
+        UserAvatarService service = service(Runnable::run);
+        when(telegramBotApiService.getUserProfilePhotos(USER_ID)).thenReturn(Map.of("total_count", 0, "photos", List.of()));
+
+        assertThat(service.getAvatar(USER_ID, 128)).isEmpty();
+        assertThat(service.getAvatar(USER_ID, 128)).isEmpty();
+
+        verify(telegramBotApiService, times(1)).getUserProfilePhotos(USER_ID);
+        verify(imageStorageService, never()).storeUserAvatar(anyLong(), anyInt(), any(), anyString(), anyLong());
+    }
+
+    @Test
+    void selectFileId_picksSmallestSufficientVersion() {
+        assertThat(UserAvatarService.selectFileId(profilePhotos(), 128)).isEqualTo("photo_160");
+        assertThat(UserAvatarService.selectFileId(profilePhotos(), 200)).isEqualTo("photo_320");
+        assertThat(UserAvatarService.selectFileId(profilePhotos(), 1000)).isEqualTo("photo_640");
+        assertThat(UserAvatarService.selectFileId(Map.of("total_count", 0, "photos", List.of()), 128)).isNull();
+    }
+
+    @Test
+    void resolveSize_roundsUpToConfiguredSize() {
+        UserAvatarService service = service(Runnable::run);
+
+        assertThat(service.resolveSize(10)).isEqualTo(64);
+        assertThat(service.resolveSize(65)).isEqualTo(128);
+        assertThat(service.resolveSize(512)).isEqualTo(128);
+    }
+
+    private UserAvatarService service(Executor executor) {
+        return new UserAvatarService(telegramBotApiService, imageStorageService, executor,
+                List.of(128, 64), 7, 90, 2, 5000, 100, 60, 10);
+    }
+
+    private static Map<String, Object> profilePhotos() {
+        return Map.of("total_count", 1, "photos", List.of(List.of(
+                Map.of("file_id", "photo_160", "width", 160, "height", 160),
+                Map.of("file_id", "photo_320", "width", 320, "height", 320),
+                Map.of("file_id", "photo_640", "width", 640, "height", 640))));
+    }
+
+    private static byte[] jpeg(int size) throws Exception {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                image.setRGB(x, y, (x * 7 + y * 13 + size) & 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+}
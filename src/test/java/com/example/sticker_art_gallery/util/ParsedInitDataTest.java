@@ -0,0 +1,171 @@
+package com.example.sticker_art_gallery.util;
+
+import com.example.sticker_art_gallery.config.AppConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты однопроходного разбора initData и валидации по разобранным данным
+ */
+@Epic("Безопасность")
+@Feature("Валидация Telegram Web App initData")
+@DisplayName("Тесты разбора и валидации Telegram initData")
+class ParsedInitDataTest {
+
+    private static final String BOT_TOKEN = "123456789:ABCdefGHIjklMNOpqrsTUVwxyz";
+
+    private AppConfig appConfig;
+    private TelegramInitDataValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        appConfig = new AppConfig();
+        appConfig.getTelegram().setBotToken(BOT_TOKEN);
+        validator = new TelegramInitDataValidator(appConfig, new ObjectMapper());
+    }
+
+    @Test
+    @Story("Разбор initData")
+    @DisplayName("Значения URL-декодируются, '+' становится пробелом, пары без '=' отбрасываются")
+    @Severity(SeverityLevel.CRITICAL)
+    void parseDecodesValuesAndSkipsPairsWithoutEquals() {
+        ParsedInitData parsed = ParsedInitData.parse(
+                "user=%7B%22id%22%3A42%7D&start_param=ref+abc&broken&empty=&auth_date=1700000000&bad=%zz");
+
+        assertEquals("{\"id\":42}", parsed.user());
+        assertEquals("ref abc", parsed.startParam());
+        assertEquals("", parsed.get("empty"));
+        assertEquals("1700000000", parsed.authDate());
+        assertEquals("%zz", parsed.get("bad"), "при ошибке декодирования остаётся исходное значение");
+        assertNull(parsed.get("broken"));
+        assertEquals(5, parsed.size());
+    }
+
+    @Test
+    @Story("Разбор initData")
+    @DisplayName("При повторе ключа побеждает первое значение")
+    @Severity(SeverityLevel.CRITICAL)
+    void parseKeepsFirstValueForDuplicateKey() {
+        ParsedInitData parsed = ParsedInitData.parse("auth_date=1&user=first&user=second&auth_date=2");
+
+        assertEquals("first", parsed.user());
+        assertEquals("1", parsed.authDate());
+        assertEquals(2, parsed.size());
+    }
+
+    @Test
+    @Story("Разбор initData")
+    @DisplayName("dataCheckString для hash сортирует строки key=value, для signature - ключи")
+    @Severity(SeverityLevel.CRITICAL)
+    void dataCheckStringsKeepLegacyOrdering() {
+        ParsedInitData parsed = ParsedInitData.parse("a=1&a0=2&hash=h&signature=s&b=3");
+
+        // "a0=2" < "a=1", так как '0' < '='
+        assertEquals("a0=2\na=1\nb=3\nsignature=s", parsed.hashDataCheckString());
+        assertEquals("a=1\na0=2\nb=3", parsed.signatureDataCheckString());
+    }
+
+    @Test
+    @Story("Валидация HMAC подписи")
+    @DisplayName("validate возвращает разбор валидной initData с telegram_id и start_param")
+    @Severity(SeverityLevel.BLOCKER)
+    void validateReturnsParsedDataForValidHash() throws Exception {
+        String initData = TelegramInitDataGenerator.builder()
+                .botToken(BOT_TOKEN)
+                .userId(141614461L)
+                .firstName("Иван")
+                .username("ivan")
+                .additionalParam("start_param", "ref_ABC")
+                .build();
+
+        ParsedInitData parsed = validator.validate(initData);
+
+        assertNotNull(parsed);
+        assertSame(initData, parsed.raw());
+        assertEquals(141614461L, validator.extractTelegramId(parsed));
+        assertEquals("ref_ABC", parsed.startParam());
+        assertEquals("ref_ABC", validator.extractStartParam(initData));
+    }
+
+    @Test
+    @Story("Валидация HMAC подписи")
+    @DisplayName("Изменённые данные или hash не проходят валидацию")
+    @Severity(SeverityLevel.BLOCKER)
+    void validateRejectsTamperedData() throws Exception {
+        String initData = TelegramInitDataGenerator.builder()
+                .botToken(BOT_TOKEN)
+                .userId(141614461L)
+                .build();
+
+        assertNull(validator.validate(initData.replace("141614461", "141614462")));
+        assertNull(validator.validate(initData.replaceFirst("hash=.", "hash=Z")));
+        String hash = ParsedInitData.parse(initData).hash();
+        assertNull(validator.validate(initData.replace(hash, hash.toUpperCase())), "hash сравнивается в нижнем регистре");
+    }
+
+    @Test
+    @Story("Валидация HMAC подписи")
+    @DisplayName("Смена токена бота пересчитывает закэшированные секретные ключи")
+    @Severity(SeverityLevel.CRITICAL)
+    void validateRecomputesKeysWhenBotTokenChanges() throws Exception {
+        String initData = TelegramInitDataGenerator.builder()
+                .botToken(BOT_TOKEN)
+                .userId(141614461L)
+                .build();
+        assertNotNull(validator.validate(initData));
+
+        appConfig.getTelegram().setBotToken("987654321:OtherToken");
+
+        assertNull(validator.validate(initData));
+    }
+
+    @Test
+    @Story("Валидация HMAC подписи")
+    @DisplayName("initData только с signature проверяется по URL-safe Base64 без padding")
+    @Severity(SeverityLevel.CRITICAL)
+    void validateAcceptsSignatureWithoutHash() throws Exception {
+        String authDate = String.valueOf(Instant.now().getEpochSecond());
+        String user = "{\"id\":777}";
+        String dataCheckString = "auth_date=" + authDate + "\nuser=" + user;
+        String signature = signature(dataCheckString);
+        String initData = "user=%7B%22id%22%3A777%7D&auth_date=" + authDate + "&signature=" + signature;
+
+        ParsedInitData parsed = validator.validate(initData);
+
+        assertNotNull(parsed);
+        assertEquals(777L, validator.extractTelegramId(parsed));
+        assertNull(validator.validate(initData.replace("signature=" + signature, "signature=" + signature + "=")));
+    }
+
+    @Test
+    @Story("Валидация initData")
+    @DisplayName("Без auth_date или подписи initData невалидна")
+    @Severity(SeverityLevel.NORMAL)
+    void validateRejectsMissingRequiredFields() {
+        assertNull(validator.validate(null));
+        assertNull(validator.validate("  "));
+        assertNull(validator.validate("user=%7B%22id%22%3A1%7D&hash=abc"));
+        assertNull(validator.validate("user=%7B%22id%22%3A1%7D&auth_date=" + Instant.now().getEpochSecond()));
+        assertFalse(validator.validateInitData("auth_date=1&hash=abc"));
+    }
+
+    private static String signature(String dataCheckString) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(BOT_TOKEN.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] secretKey = mac.doFinal("WebAppData".getBytes(StandardCharsets.UTF_8));
+        mac.init(new SecretKeySpec(secretKey, "HmacSHA256"));
+        byte[] bytes = mac.doFinal(dataCheckString.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}